@@ -5,6 +5,7 @@ import org.molgenis.core.ui.data.config.HttpClientConfig;
 import org.molgenis.core.ui.freemarker.RepositoryTemplateLoader;
 import org.molgenis.data.DataService;
 import org.molgenis.data.elasticsearch.client.ElasticsearchConfig;
+import org.molgenis.data.lucene.LuceneConfig;
 import org.molgenis.data.postgresql.DatabaseConfig;
 import org.molgenis.web.converter.GsonConfig;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -24,7 +25,7 @@ import org.springframework.web.servlet.view.freemarker.FreeMarkerConfigurer;
 @EnableAsync
 @ComponentScan(basePackages = "org.molgenis")
 @Import({ WebAppSecurityConfig.class, DatabaseConfig.class, HttpClientConfig.class, ElasticsearchConfig.class,
-		GsonConfig.class })
+		LuceneConfig.class, GsonConfig.class })
 public class WebAppConfig extends MolgenisWebAppConfig
 {
 	@Autowired
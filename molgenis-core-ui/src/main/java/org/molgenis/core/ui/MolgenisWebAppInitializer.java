@@ -1,13 +1,13 @@
 package org.molgenis.core.ui;
 
 import org.molgenis.core.ui.browserdetection.BrowserDetectionFilter;
+import org.molgenis.core.ui.etag.MolgenisShallowEtagHeaderFilter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.security.web.session.HttpSessionEventPublisher;
 import org.springframework.web.context.ContextLoaderListener;
 import org.springframework.web.context.request.RequestContextListener;
 import org.springframework.web.context.support.AnnotationConfigWebApplicationContext;
-import org.springframework.web.filter.ShallowEtagHeaderFilter;
 import org.springframework.web.servlet.DispatcherServlet;
 
 import javax.servlet.*;
@@ -65,7 +65,7 @@ public class MolgenisWebAppInitializer
 				BrowserDetectionFilter.class);
 		browserDetectionFiler.addMappingForUrlPatterns(EnumSet.of(DispatcherType.REQUEST), false, "*");
 
-		Dynamic etagFilter = servletContext.addFilter("etagFilter", ShallowEtagHeaderFilter.class);
+		Dynamic etagFilter = servletContext.addFilter("etagFilter", MolgenisShallowEtagHeaderFilter.class);
 		etagFilter.addMappingForServletNames(EnumSet.of(DispatcherType.REQUEST), true, "dispatcher");
 
 		// enable use of request scoped beans in FrontController
@@ -0,0 +1,41 @@
+package org.molgenis.core.ui.admin.cache;
+
+import com.google.common.collect.ImmutableMap;
+import org.molgenis.data.cache.l2.L2Cache;
+import org.molgenis.data.cache.l3.L3Cache;
+import org.molgenis.data.cache.utils.EntityTypeCacheStats;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+import static java.util.Objects.requireNonNull;
+import static org.molgenis.core.ui.admin.cache.CacheStatisticsController.URI;
+
+/**
+ * Exposes the cumulative hit, miss and eviction counts per entity type of the L2 and L3 entity caches.
+ */
+@RestController
+@RequestMapping(URI)
+public class CacheStatisticsController
+{
+	public static final String URI = "/api/cache";
+
+	private final L2Cache l2Cache;
+	private final L3Cache l3Cache;
+
+	CacheStatisticsController(L2Cache l2Cache, L3Cache l3Cache)
+	{
+		this.l2Cache = requireNonNull(l2Cache);
+		this.l3Cache = requireNonNull(l3Cache);
+	}
+
+	@PreAuthorize("hasAnyRole('ROLE_SU')")
+	@GetMapping("/stats")
+	public Map<String, Map<String, EntityTypeCacheStats>> getStatistics()
+	{
+		return ImmutableMap.of("l2", l2Cache.getStatistics(), "l3", l3Cache.getStatistics());
+	}
+}
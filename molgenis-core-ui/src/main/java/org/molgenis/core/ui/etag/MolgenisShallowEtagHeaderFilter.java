@@ -0,0 +1,24 @@
+package org.molgenis.core.ui.etag;
+
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.InputStream;
+
+import static org.springframework.http.HttpHeaders.ETAG;
+
+/**
+ * {@link ShallowEtagHeaderFilter} that leaves responses alone for which the handler already set an ETag, e.g. based
+ * on the generation of the data, so that the ETag is not replaced by a hash of the response content.
+ */
+public class MolgenisShallowEtagHeaderFilter extends ShallowEtagHeaderFilter
+{
+	@Override
+	protected boolean isEligibleForEtag(HttpServletRequest request, HttpServletResponse response,
+			int responseStatusCode, InputStream inputStream)
+	{
+		return !response.containsHeader(ETAG) && super.isEligibleForEtag(request, response, responseStatusCode,
+				inputStream);
+	}
+}
@@ -0,0 +1,41 @@
+package org.molgenis.core.ui.admin.cache;
+
+import com.google.common.collect.ImmutableMap;
+import org.mockito.Mock;
+import org.molgenis.data.cache.l2.L2Cache;
+import org.molgenis.data.cache.l3.L3Cache;
+import org.molgenis.data.cache.utils.EntityTypeCacheStats;
+import org.molgenis.test.AbstractMockitoTest;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.singletonMap;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+
+public class CacheStatisticsControllerTest extends AbstractMockitoTest
+{
+	@Mock
+	private L2Cache l2Cache;
+	@Mock
+	private L3Cache l3Cache;
+
+	private CacheStatisticsController cacheStatisticsController;
+
+	@BeforeMethod
+	public void setUpBeforeMethod()
+	{
+		cacheStatisticsController = new CacheStatisticsController(l2Cache, l3Cache);
+	}
+
+	@Test
+	public void testGetStatistics()
+	{
+		EntityTypeCacheStats stats = EntityTypeCacheStats.create(3, 2, 1);
+		when(l2Cache.getStatistics()).thenReturn(singletonMap("entityType", stats));
+		when(l3Cache.getStatistics()).thenReturn(emptyMap());
+		assertEquals(cacheStatisticsController.getStatistics(),
+				ImmutableMap.of("l2", singletonMap("entityType", stats), "l3", emptyMap()));
+	}
+}
@@ -0,0 +1,54 @@
+package org.molgenis.core.ui.etag;
+
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.springframework.http.HttpHeaders.ETAG;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+
+public class MolgenisShallowEtagHeaderFilterTest
+{
+	private MolgenisShallowEtagHeaderFilter molgenisShallowEtagHeaderFilter;
+
+	@BeforeMethod
+	public void setUpBeforeMethod()
+	{
+		molgenisShallowEtagHeaderFilter = new MolgenisShallowEtagHeaderFilter();
+	}
+
+	@Test
+	public void testDoFilter() throws IOException, ServletException
+	{
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		FilterChain filterChain = (request, filterResponse) -> filterResponse.getOutputStream()
+																			  .write("content".getBytes(UTF_8));
+		molgenisShallowEtagHeaderFilter.doFilter(new MockHttpServletRequest("GET", "/api/v2/it_emx_datatypes_TypeTest"),
+				response, filterChain);
+		assertNotNull(response.getHeader(ETAG));
+		assertEquals(response.getContentAsString(), "content");
+	}
+
+	@Test
+	public void testDoFilterETagSetByHandler() throws IOException, ServletException
+	{
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		FilterChain filterChain = (request, filterResponse) ->
+		{
+			((HttpServletResponse) filterResponse).setHeader(ETAG, "W/\"etag\"");
+			filterResponse.getOutputStream().write("content".getBytes(UTF_8));
+		};
+		molgenisShallowEtagHeaderFilter.doFilter(new MockHttpServletRequest("GET", "/api/v2/it_emx_datatypes_TypeTest"),
+				response, filterChain);
+		assertEquals(response.getHeader(ETAG), "W/\"etag\"");
+		assertEquals(response.getContentAsString(), "content");
+	}
+}
@@ -6,7 +6,10 @@ import com.google.common.cache.Cache;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import org.molgenis.data.Entity;
 import org.molgenis.data.EntityKey;
+import org.molgenis.data.cache.utils.CacheSettings;
 import org.molgenis.data.cache.utils.CombinedEntityCache;
+import org.molgenis.data.cache.utils.DehydratedEntity;
+import org.molgenis.data.cache.utils.DehydratedEntityWeigher;
 import org.molgenis.data.cache.utils.EntityHydration;
 import org.molgenis.data.meta.model.EntityType;
 import org.molgenis.data.transaction.DefaultMolgenisTransactionListener;
@@ -14,7 +17,6 @@ import org.molgenis.data.transaction.TransactionManager;
 import org.slf4j.Logger;
 import org.springframework.stereotype.Component;
 
-import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Stream;
 
@@ -29,14 +31,16 @@ import static org.slf4j.LoggerFactory.getLogger;
 public class L1Cache extends DefaultMolgenisTransactionListener
 {
 	private static final Logger LOG = getLogger(L1Cache.class);
-	private static final int MAX_CACHE_SIZE = 1000;
 	private final ThreadLocal<CombinedEntityCache> caches;
 	private final EntityHydration entityHydration;
+	private final CacheSettings cacheSettings;
 
-	public L1Cache(TransactionManager transactionManager, EntityHydration entityHydration)
+	public L1Cache(TransactionManager transactionManager, EntityHydration entityHydration,
+			CacheSettings cacheSettings)
 	{
 		caches = new ThreadLocal<>();
 		this.entityHydration = requireNonNull(entityHydration);
+		this.cacheSettings = requireNonNull(cacheSettings);
 		requireNonNull(transactionManager).addTransactionListener(this);
 	}
 
@@ -49,8 +53,11 @@ public class L1Cache extends DefaultMolgenisTransactionListener
 
 	private CombinedEntityCache createCache()
 	{
-		Cache<EntityKey, Optional<Map<String, Object>>> cache = CaffeinatedGuava.build(
-				Caffeine.newBuilder().maximumSize(MAX_CACHE_SIZE).recordStats());
+		Cache<EntityKey, Optional<DehydratedEntity>> cache = CaffeinatedGuava.build(
+				Caffeine.newBuilder()
+						.maximumWeight(cacheSettings.getL1MaxWeight())
+						.weigher(new DehydratedEntityWeigher())
+						.recordStats());
 		return new CombinedEntityCache(entityHydration, cache);
 	}
 
@@ -0,0 +1,32 @@
+package org.molgenis.data.cache.l2;
+
+import org.molgenis.data.transaction.EntityTypeGenerations;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Disables the {@link EntityTypeGenerations} if the {@link L2CacheInvalidationBus} distributes invalidations to other
+ * nodes. Other nodes that share the database commit transactions that don't increment the generations of this node,
+ * and the changes to access control lists on other nodes are not distributed at all, so generations of this node can
+ * no longer tell whether data, metadata or permissions changed.
+ */
+@Component
+public class EntityTypeGenerationsDisabler
+{
+	private static final Logger LOG = LoggerFactory.getLogger(EntityTypeGenerationsDisabler.class);
+
+	public EntityTypeGenerationsDisabler(L2CacheInvalidationBus invalidationBus,
+			EntityTypeGenerations entityTypeGenerations)
+	{
+		requireNonNull(entityTypeGenerations);
+		if (!(requireNonNull(invalidationBus) instanceof LoopbackL2CacheInvalidationBus))
+		{
+			LOG.info("Disabling entity type generations, invalidations are distributed by [{}]",
+					invalidationBus.getClass().getSimpleName());
+			entityTypeGenerations.disable();
+		}
+	}
+}
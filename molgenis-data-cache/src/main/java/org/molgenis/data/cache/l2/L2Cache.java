@@ -1,14 +1,14 @@
 package org.molgenis.data.cache.l2;
 
-import com.github.benmanes.caffeine.cache.Caffeine;
-import com.github.benmanes.caffeine.guava.CaffeinatedGuava;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
 import org.molgenis.data.Entity;
 import org.molgenis.data.EntityKey;
-import org.molgenis.data.MolgenisDataException;
 import org.molgenis.data.Repository;
+import org.molgenis.data.cache.utils.CacheSettings;
+import org.molgenis.data.cache.utils.DehydratedEntity;
+import org.molgenis.data.cache.utils.DehydratedEntityWeigher;
 import org.molgenis.data.cache.utils.EntityHydration;
+import org.molgenis.data.cache.utils.EntityTypeCacheStats;
+import org.molgenis.data.cache.utils.PartitionedCache;
 import org.molgenis.data.meta.MetaDataService;
 import org.molgenis.data.meta.model.EntityType;
 import org.molgenis.data.transaction.DefaultMolgenisTransactionListener;
@@ -16,64 +16,98 @@ import org.molgenis.data.transaction.TransactionInformation;
 import org.molgenis.data.transaction.TransactionManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
-import javax.annotation.Nonnull;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.ExecutionException;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.UUID;
 
-import static com.google.common.collect.Maps.newConcurrentMap;
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Maps.newHashMap;
 import static java.util.Objects.requireNonNull;
 import static java.util.Optional.empty;
-import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.stream.Collectors.toList;
 import static java.util.stream.Collectors.toMap;
-import static java.util.stream.StreamSupport.stream;
 
 /**
  * In-memory cache of entities read from cacheable repositories.
+ * <p>
+ * Entities of all entity types share a memory budget, see {@link CacheSettings}. Entity types with a budget of their
+ * own and metadata entity types get a dedicated cache.
+ * <p>
+ * Committed changes are published on the {@link L2CacheInvalidationBus} so that the L2 caches of other nodes that share
+ * the same database evict the entities that became stale.
  */
 @Service
 public class L2Cache extends DefaultMolgenisTransactionListener
 {
 	private static final Logger LOG = LoggerFactory.getLogger(L2Cache.class);
-	private static final int MAX_CACHE_SIZE_PER_ENTITY = 1000;
+	private static final long EXPIRE_AFTER_ACCESS_MINUTES = 10;
 	/**
-	 * maps entity id to the loading cache with Object key and Optional dehydrated entity value
+	 * caches Optional dehydrated entity values by entity key
 	 */
-	private final ConcurrentMap<String, LoadingCache<Object, Optional<Map<String, Object>>>> caches;
+	private final PartitionedCache<EntityKey, Optional<DehydratedEntity>> cache;
 	private final EntityHydration entityHydration;
 	private final TransactionInformation transactionInformation;
+	private final L2CacheInvalidationBus invalidationBus;
+	private final String nodeId;
 
 	public L2Cache(TransactionManager transactionManager, EntityHydration entityHydration,
-			TransactionInformation transactionInformation)
+			TransactionInformation transactionInformation, L2CacheInvalidationBus invalidationBus,
+			CacheSettings cacheSettings)
 	{
 		this.entityHydration = requireNonNull(entityHydration);
 		this.transactionInformation = requireNonNull(transactionInformation);
-		caches = newConcurrentMap();
+		this.invalidationBus = requireNonNull(invalidationBus);
+		this.nodeId = UUID.randomUUID().toString();
+		requireNonNull(cacheSettings);
+		cache = new PartitionedCache<>(EntityKey::getEntityTypeId, new DehydratedEntityWeigher(),
+				cacheSettings.getL2MaxWeight(), entityType -> getDedicatedMaxWeight(entityType, cacheSettings),
+				EXPIRE_AFTER_ACCESS_MINUTES);
 		requireNonNull(transactionManager).addTransactionListener(this);
+		invalidationBus.subscribe(this::onInvalidation);
 	}
 
 	@Override
 	public void afterCommitTransaction(String transactionId)
 	{
-		//TODO: trace logging
-		transactionInformation.getEntirelyDirtyRepositories().forEach(caches::remove);
-		transactionInformation.getDirtyEntities().forEach(this::evict);
+		L2CacheInvalidation invalidation = L2CacheInvalidation.create(nodeId,
+				transactionInformation.getEntirelyDirtyRepositories(), transactionInformation.getDirtyEntities());
+		if (!invalidation.isEmpty())
+		{
+			evict(invalidation);
+			invalidationBus.publish(invalidation);
+		}
+	}
+
+	/**
+	 * Evicts entities that were dirtied on another node.
+	 *
+	 * @param invalidation the {@link L2CacheInvalidation} received from the {@link L2CacheInvalidationBus}
+	 */
+	void onInvalidation(L2CacheInvalidation invalidation)
+	{
+		if (!invalidation.getNodeId().equals(nodeId))
+		{
+			LOG.trace("Evicting L2 cache entries dirtied on node [{}]", invalidation.getNodeId());
+			evict(invalidation);
+		}
 	}
 
-	private void evict(EntityKey entityKey)
+	private static Optional<Long> getDedicatedMaxWeight(EntityType entityType, CacheSettings cacheSettings)
 	{
-		LoadingCache<Object, Optional<Map<String, Object>>> cache = caches.get(entityKey.getEntityTypeId());
-		if (cache != null)
+		if (MetaDataService.isMetaEntityType(entityType))
 		{
-			cache.invalidate(entityKey.getId());
+			return Optional.of(PartitionedCache.UNBOUNDED);
 		}
+		return cacheSettings.getL2MaxWeight(entityType.getId());
+	}
+
+	private void evict(L2CacheInvalidation invalidation)
+	{
+		cache.invalidateAll(invalidation.getEntirelyDirtyRepositories());
+		invalidation.getDirtyEntities().forEach(cache::invalidate);
 	}
 
 	/**
@@ -87,137 +121,91 @@ public class L2Cache extends DefaultMolgenisTransactionListener
 	 */
 	public Entity get(Repository<Entity> repository, Object id)
 	{
-		LoadingCache<Object, Optional<Map<String, Object>>> cache = getEntityCache(repository);
 		EntityType entityType = repository.getEntityType();
-		return cache.getUnchecked(id).map(e -> entityHydration.hydrate(e, entityType)).orElse(null);
+		return cache.get(entityType, EntityKey.create(entityType, id), () -> load(repository, id))
+					.map(e -> entityHydration.hydrate(e, entityType))
+					.orElse(null);
 	}
 
 	/**
-	 * Retrieves a list of entities from the cache. If the cache doesn't yet exist, will create the cache.
+	 * Retrieves a list of entities from the cache. Entities that are not present in the cache are loaded from the
+	 * underlying repository in a single batch.
 	 *
-	 * @param repository the underlying repository, used to create the cache loader or to retrieve the existing cache
+	 * @param repository the underlying repository, used to load the entities that are not present in the cache
 	 * @param ids        {@link Iterable} of the ids of the entities to retrieve
 	 * @return List containing the retrieved entities, missing values are excluded
-	 * @throws RuntimeException if the cache failed to load the entities
+	 * @throws RuntimeException if the repository failed to load the entities
 	 */
 	public List<Entity> getBatch(Repository<Entity> repository, Iterable<Object> ids)
 	{
-		try
-		{
-			return getEntityCache(repository).getAll(ids)
-											 .values()
-											 .stream()
-											 .filter(Optional::isPresent)
-											 .map(Optional::get)
-											 .map(e -> entityHydration.hydrate(e, repository.getEntityType()))
-											 .collect(Collectors.toList());
-		}
-		catch (ExecutionException exception)
+		EntityType entityType = repository.getEntityType();
+		List<EntityKey> entityKeys = newArrayList();
+		ids.forEach(id -> entityKeys.add(EntityKey.create(entityType, id)));
+
+		Map<EntityKey, Optional<DehydratedEntity>> dehydratedEntities = newHashMap(
+				cache.getAllPresent(entityType, entityKeys));
+		List<Object> missingIds = entityKeys.stream()
+											.filter(entityKey -> !dehydratedEntities.containsKey(entityKey))
+											.map(EntityKey::getId)
+											.collect(toList());
+		if (!missingIds.isEmpty())
 		{
-			// rethrow unchecked
-			if (exception.getCause() != null && exception.getCause() instanceof RuntimeException)
-			{
-				throw (RuntimeException) exception.getCause();
-			}
-			throw new MolgenisDataException(exception);
+			Map<EntityKey, Optional<DehydratedEntity>> loadedEntities = loadAll(repository, missingIds);
+			cache.putAll(entityType, loadedEntities);
+			dehydratedEntities.putAll(loadedEntities);
 		}
+
+		return entityKeys.stream()
+						 .map(dehydratedEntities::get)
+						 .filter(Optional::isPresent)
+						 .map(Optional::get)
+						 .map(e -> entityHydration.hydrate(e, entityType))
+						 .collect(toList());
 	}
 
 	/**
-	 * Logs cumulative cache statistics for all known caches.
+	 * @return map of entity type id to the cumulative cache statistics of the entity type
 	 */
-	@Scheduled(fixedRate = 60000)
-	public void logStatistics()
+	public Map<String, EntityTypeCacheStats> getStatistics()
 	{
-		//TODO: do we want to log diff with last log instead?
-		if (LOG.isDebugEnabled())
-		{
-			LOG.debug("Cache stats:");
-			for (Map.Entry<String, LoadingCache<Object, Optional<Map<String, Object>>>> cacheEntry : caches.entrySet())
-			{
-				LOG.debug("{}:{}", cacheEntry.getKey(), cacheEntry.getValue().stats());
-			}
-		}
+		return cache.getStatistics();
 	}
 
 	/**
-	 * Gets the existing entity cache for a {@link Repository} or creates a new one if no cache exists yet.
+	 * Loads a single entity from the repository.
 	 *
-	 * @param repository the Repository used to create a new cache if none found, otherwise only the id of the
-	 *                   repository is used to look up the existing cache
-	 * @return the LoadingCache for the repository
+	 * @param repository the Repository to load the entity from
+	 * @param id         ID value of the entity to retrieve
+	 * @return dehydrated entity or empty if the entity was not present in the repository
 	 */
-	private LoadingCache<Object, Optional<Map<String, Object>>> getEntityCache(Repository<Entity> repository)
+	private Optional<DehydratedEntity> load(Repository<Entity> repository, Object id)
 	{
-		String id = repository.getEntityType().getId();
-		if (!caches.containsKey(id))
-		{
-			caches.putIfAbsent(id, createEntityCache(repository));
-		}
-		return caches.get(id);
+		return Optional.ofNullable(repository.findOneById(id)).map(entityHydration::dehydrate);
 	}
 
 	/**
-	 * Creates a new Entity cache
+	 * Loads multiple entities from the repository.
 	 *
-	 * @param repository the {@link Repository} to load the entities from
-	 * @return newly created LoadingCache
+	 * @param repository the Repository to load the entities from
+	 * @param ids        ID values of the entities to retrieve
+	 * @return Map mapping entity key to loaded entity, or to empty optional if the entity was not present in the
+	 * repository
 	 */
-	private LoadingCache<Object, Optional<Map<String, Object>>> createEntityCache(Repository<Entity> repository)
+	private Map<EntityKey, Optional<DehydratedEntity>> loadAll(Repository<Entity> repository, List<Object> ids)
 	{
-		Caffeine<Object, Object> cacheBuilder = Caffeine.newBuilder().recordStats().expireAfterAccess(10, MINUTES);
-		if (!MetaDataService.isMetaEntityType(repository.getEntityType()))
+		Map<EntityKey, Optional<DehydratedEntity>> result = repository.findAll(ids.stream())
+																	  .collect(toMap(EntityKey::create,
+																			  this::dehydrateEntity));
+		for (Object id : ids)
 		{
-			cacheBuilder.maximumSize(MAX_CACHE_SIZE_PER_ENTITY);
+			// cache the absence of these entities in the backend as empty values
+			result.putIfAbsent(EntityKey.create(repository.getEntityType(), id), empty());
 		}
-		return CaffeinatedGuava.build(cacheBuilder, createCacheLoader(repository));
+		return result;
 	}
 
-	/**
-	 * Creates a CacheLoader that loads entities from the repository and dehydrates them.
-	 *
-	 * @param repository the Repository to load the entities from
-	 * @return the {@link CacheLoader}
-	 */
-	private CacheLoader<Object, Optional<Map<String, Object>>> createCacheLoader(final Repository<Entity> repository)
+	private Optional<DehydratedEntity> dehydrateEntity(Entity entity)
 	{
-		return new CacheLoader<Object, Optional<Map<String, Object>>>()
-		{
-			/**
-			 * Loads a single entity from the repository.
-			 * @param id ID value of the entity to retrieve
-			 * @return dehydrated entity or empty if the entity was not present in the repository
-			 */
-			@Override
-			public Optional<Map<String, Object>> load(@Nonnull Object id)
-			{
-				return Optional.ofNullable(repository.findOneById(id)).map(entityHydration::dehydrate);
-			}
-
-			/**
-			 * Loads multiple entities from the repository.
-			 * @param ids Iterable of String representations of the ID values
-			 * @return Map mapping id to loaded entity, or to empty optional if the entity was not present in the repository
-			 */
-			@Override
-			public Map<Object, Optional<Map<String, Object>>> loadAll(Iterable<?> ids)
-			{
-				Stream<Object> typedIds = stream(ids.spliterator(), false).map(id -> id);
-				Map<Object, Optional<Map<String, Object>>> result = repository.findAll(typedIds)
-																			  .collect(toMap(Entity::getIdValue,
-																					  this::dehydrateEntity));
-				for (Object key : ids)
-				{
-					// cache the absence of these entities in the backend as empty values
-					result.putIfAbsent(key, empty());
-				}
-				return result;
-			}
-
-			private Optional<Map<String, Object>> dehydrateEntity(Entity entity)
-			{
-				return Optional.of(entityHydration.dehydrate(entity));
-			}
-		};
+		return Optional.of(entityHydration.dehydrate(entity));
 	}
 }
@@ -0,0 +1,42 @@
+package org.molgenis.data.cache.l2;
+
+import com.google.auto.value.AutoValue;
+import com.google.common.collect.ImmutableSet;
+import org.molgenis.data.EntityKey;
+
+import java.util.Set;
+
+/**
+ * Describes which {@link L2Cache} entries were dirtied by a committed transaction on a MOLGENIS node.
+ */
+@AutoValue
+@SuppressWarnings("squid:S1610") // Abstract classes without fields should be converted to interfaces
+public abstract class L2CacheInvalidation
+{
+	/**
+	 * @return id of the node that committed the transaction
+	 */
+	public abstract String getNodeId();
+
+	/**
+	 * @return ids of entity types whose cached entities are all invalid
+	 */
+	public abstract ImmutableSet<String> getEntirelyDirtyRepositories();
+
+	/**
+	 * @return keys of the individual cached entities that are invalid
+	 */
+	public abstract ImmutableSet<EntityKey> getDirtyEntities();
+
+	public boolean isEmpty()
+	{
+		return getEntirelyDirtyRepositories().isEmpty() && getDirtyEntities().isEmpty();
+	}
+
+	public static L2CacheInvalidation create(String nodeId, Set<String> entirelyDirtyRepositories,
+			Set<EntityKey> dirtyEntities)
+	{
+		return new AutoValue_L2CacheInvalidation(nodeId, ImmutableSet.copyOf(entirelyDirtyRepositories),
+				ImmutableSet.copyOf(dirtyEntities));
+	}
+}
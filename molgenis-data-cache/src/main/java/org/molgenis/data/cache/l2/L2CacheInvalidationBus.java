@@ -0,0 +1,26 @@
+package org.molgenis.data.cache.l2;
+
+import java.util.function.Consumer;
+
+/**
+ * Distributes {@link L2CacheInvalidation}s to the {@link L2Cache}s of all MOLGENIS nodes that share a database.
+ * <p>
+ * Implementations must deliver every published invalidation to all subscribers on all nodes, including the publishing
+ * node. Subscribers ignore invalidations that originate from their own node.
+ */
+public interface L2CacheInvalidationBus
+{
+	/**
+	 * Publishes an invalidation to all subscribers.
+	 *
+	 * @param invalidation the invalidation to publish
+	 */
+	void publish(L2CacheInvalidation invalidation);
+
+	/**
+	 * Registers a subscriber that gets notified of all published invalidations.
+	 *
+	 * @param subscriber the subscriber to register
+	 */
+	void subscribe(Consumer<L2CacheInvalidation> subscriber);
+}
@@ -0,0 +1,32 @@
+package org.molgenis.data.cache.l2;
+
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * {@link L2CacheInvalidationBus} that delivers invalidations to subscribers within the same JVM. Suitable for a single
+ * node deployment and for tests that simulate multiple nodes by sharing one bus between several {@link L2Cache}s.
+ */
+@Component
+public class LoopbackL2CacheInvalidationBus implements L2CacheInvalidationBus
+{
+	private final List<Consumer<L2CacheInvalidation>> subscribers = new CopyOnWriteArrayList<>();
+
+	@Override
+	public void publish(L2CacheInvalidation invalidation)
+	{
+		requireNonNull(invalidation);
+		subscribers.forEach(subscriber -> subscriber.accept(invalidation));
+	}
+
+	@Override
+	public void subscribe(Consumer<L2CacheInvalidation> subscriber)
+	{
+		subscribers.add(requireNonNull(subscriber));
+	}
+}
@@ -0,0 +1,71 @@
+package org.molgenis.data.cache.l3;
+
+import com.google.auto.value.AutoValue;
+import com.google.common.collect.ImmutableSet;
+
+import javax.annotation.Nullable;
+import java.util.Set;
+
+/**
+ * Cached identifiers of the entities that match a query.
+ * <p>
+ * If the query rules can be evaluated in memory, a commit that dirties entities that are not part of the result does
+ * not evict the result. Instead the dirty identifiers are kept as unchecked identifiers, and the entities are checked
+ * against the query rules the next time the result is requested.
+ */
+@AutoValue
+@SuppressWarnings("squid:S1610") // Abstract classes without fields should be converted to interfaces
+abstract class CachedQueryResult
+{
+	private static final int UNCHECKED_ID_SIZE = 32;
+
+	abstract CompactIdList getIds();
+
+	/**
+	 * @return whether the query rules can be evaluated in memory
+	 */
+	abstract boolean isEvaluable();
+
+	/**
+	 * @return identifiers of entities, not part of the result, that have been dirtied since the result was checked
+	 */
+	abstract ImmutableSet<Object> getUncheckedIds();
+
+	static CachedQueryResult create(CompactIdList ids, boolean evaluable)
+	{
+		return new AutoValue_CachedQueryResult(ids, evaluable, ImmutableSet.of());
+	}
+
+	/**
+	 * Updates this result after a commit that dirtied entities.
+	 *
+	 * @param dirtyIds identifiers of the dirty entities
+	 * @return the updated result, or null if the result should be evicted
+	 */
+	@Nullable
+	CachedQueryResult withDirtyIds(Set<Object> dirtyIds)
+	{
+		if (!isEvaluable() || getIds().stream().anyMatch(dirtyIds::contains))
+		{
+			return null;
+		}
+		ImmutableSet<Object> uncheckedIds = ImmutableSet.builder()
+														.addAll(getUncheckedIds())
+														.addAll(dirtyIds)
+														.build();
+		return new AutoValue_CachedQueryResult(getIds(), true, uncheckedIds);
+	}
+
+	CachedQueryResult withoutUncheckedIds()
+	{
+		return create(getIds(), isEvaluable());
+	}
+
+	/**
+	 * @return estimated size of the result in bytes
+	 */
+	int estimateSize()
+	{
+		return getIds().estimateSize() + getUncheckedIds().size() * UNCHECKED_ID_SIZE;
+	}
+}
@@ -0,0 +1,124 @@
+package org.molgenis.data.cache.l3;
+
+import org.molgenis.data.cache.utils.SizeEstimator;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Immutable list of entity identifiers. Integer and long identifiers are stored in primitive arrays, other identifiers
+ * in an object array.
+ */
+abstract class CompactIdList extends AbstractList<Object> implements RandomAccess
+{
+	private static final int ARRAY_HEADER_SIZE = 16;
+	private static final int LIST_SIZE = 16;
+
+	static CompactIdList create(List<Object> ids)
+	{
+		if (ids.stream().allMatch(Integer.class::isInstance))
+		{
+			return new IntIdList(ids.stream().mapToInt(Integer.class::cast).toArray());
+		}
+		if (ids.stream().allMatch(Long.class::isInstance))
+		{
+			return new LongIdList(ids.stream().mapToLong(Long.class::cast).toArray());
+		}
+		return new ObjectIdList(ids.toArray());
+	}
+
+	/**
+	 * @return estimated size of the list in bytes
+	 */
+	abstract int estimateSize();
+
+	private static int align(int size)
+	{
+		return (size + 7) & ~7;
+	}
+
+	private static class IntIdList extends CompactIdList
+	{
+		private final int[] ids;
+
+		IntIdList(int[] ids)
+		{
+			this.ids = ids;
+		}
+
+		@Override
+		public Object get(int index)
+		{
+			return ids[index];
+		}
+
+		@Override
+		public int size()
+		{
+			return ids.length;
+		}
+
+		@Override
+		int estimateSize()
+		{
+			return LIST_SIZE + align(ARRAY_HEADER_SIZE + ids.length * Integer.BYTES);
+		}
+	}
+
+	private static class LongIdList extends CompactIdList
+	{
+		private final long[] ids;
+
+		LongIdList(long[] ids)
+		{
+			this.ids = ids;
+		}
+
+		@Override
+		public Object get(int index)
+		{
+			return ids[index];
+		}
+
+		@Override
+		public int size()
+		{
+			return ids.length;
+		}
+
+		@Override
+		int estimateSize()
+		{
+			return LIST_SIZE + align(ARRAY_HEADER_SIZE + ids.length * Long.BYTES);
+		}
+	}
+
+	private static class ObjectIdList extends CompactIdList
+	{
+		private final Object[] ids;
+
+		ObjectIdList(Object[] ids)
+		{
+			this.ids = ids;
+		}
+
+		@Override
+		public Object get(int index)
+		{
+			return ids[index];
+		}
+
+		@Override
+		public int size()
+		{
+			return ids.length;
+		}
+
+		@Override
+		int estimateSize()
+		{
+			return LIST_SIZE + SizeEstimator.estimateSize(ids);
+		}
+	}
+}
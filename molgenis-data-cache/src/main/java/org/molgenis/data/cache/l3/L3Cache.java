@@ -1,128 +1,141 @@
 package org.molgenis.data.cache.l3;
 
-import com.github.benmanes.caffeine.cache.Caffeine;
-import com.github.benmanes.caffeine.guava.CaffeinatedGuava;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
 import org.molgenis.data.Entity;
+import org.molgenis.data.EntityKey;
 import org.molgenis.data.Fetch;
 import org.molgenis.data.Query;
 import org.molgenis.data.Repository;
+import org.molgenis.data.cache.utils.CacheSettings;
+import org.molgenis.data.cache.utils.EntityTypeCacheStats;
+import org.molgenis.data.cache.utils.PartitionedCache;
+import org.molgenis.data.meta.model.EntityType;
 import org.molgenis.data.support.QueryImpl;
 import org.molgenis.data.transaction.DefaultMolgenisTransactionListener;
 import org.molgenis.data.transaction.TransactionInformation;
 import org.molgenis.data.transaction.TransactionManager;
 import org.slf4j.Logger;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
-import javax.annotation.Nonnull;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentMap;
+import java.util.Set;
 
-import static com.google.common.collect.Maps.newConcurrentMap;
 import static java.util.Objects.requireNonNull;
-import static java.util.concurrent.TimeUnit.MINUTES;
-import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.*;
 import static org.slf4j.LoggerFactory.getLogger;
 
 /**
  * In-memory Query cache containing Queries and resulting ids from cacheable repositories
+ * <p>
+ * After a commit, results of entirely dirty repositories are evicted. Results of repositories in which only specific
+ * entities were dirtied are only evicted if they contain a dirty entity or if their query rules cannot be evaluated in
+ * memory. The other dirty entities are checked against the query rules the next time the result is requested.
  */
 @Service
 public class L3Cache extends DefaultMolgenisTransactionListener
 {
 	private static final Logger LOG = getLogger(L3Cache.class);
-	private static final int MAX_CACHE_SIZE_PER_QUERY = 1000;
+	private static final long EXPIRE_AFTER_ACCESS_MINUTES = 10;
+	private static final int QUERY_SIZE = 512;
 
 	/**
-	 * maps entity name to the loading cache with Query key and List of Identifiers
+	 * caches Lists of Identifiers by entity type and Query
 	 */
-	private final ConcurrentMap<String, LoadingCache<Query<Entity>, List<Object>>> caches = newConcurrentMap();
+	private final PartitionedCache<QueryCacheKey, CachedQueryResult> cache;
 	private final TransactionInformation transactionInformation;
 
-	public L3Cache(TransactionManager transactionManager, TransactionInformation transactionInformation)
+	public L3Cache(TransactionManager transactionManager, TransactionInformation transactionInformation,
+			CacheSettings cacheSettings)
 	{
 		this.transactionInformation = requireNonNull(transactionInformation);
+		requireNonNull(cacheSettings);
+		cache = new PartitionedCache<>(QueryCacheKey::getEntityTypeId,
+				(queryCacheKey, result) -> QUERY_SIZE + result.estimateSize(), cacheSettings.getL3MaxWeight(),
+				entityType -> cacheSettings.getL3MaxWeight(entityType.getId()), EXPIRE_AFTER_ACCESS_MINUTES);
 		requireNonNull(transactionManager).addTransactionListener(this);
 	}
 
 	@Override
 	public void afterCommitTransaction(String transactionId)
 	{
-		transactionInformation.getDirtyRepositories().forEach(caches::remove);
+		Set<String> entirelyDirtyRepositories = transactionInformation.getEntirelyDirtyRepositories();
+		cache.invalidateAll(entirelyDirtyRepositories);
+
+		Map<String, Set<Object>> dirtyIdsByEntityType = transactionInformation.getDirtyEntities()
+																			  .stream()
+																			  .filter(entityKey -> !entirelyDirtyRepositories
+																					  .contains(entityKey.getEntityTypeId()))
+																			  .collect(groupingBy(EntityKey::getEntityTypeId,
+																					  mapping(EntityKey::getId, toSet())));
+		if (!dirtyIdsByEntityType.isEmpty())
+		{
+			cache.updateAll(dirtyIdsByEntityType.keySet(),
+					(queryCacheKey, result) -> result.withDirtyIds(
+							dirtyIdsByEntityType.get(queryCacheKey.getEntityTypeId())));
+		}
 	}
 
 	public List<Object> get(Repository<Entity> repository, Query<Entity> query)
 	{
 		// Set fetch to null because we are only caching identifiers
-		LoadingCache<Query<Entity>, List<Object>> cache = getQueryCache(repository);
 		Query<Entity> fetchlessQuery = new QueryImpl<>(query);
 		fetchlessQuery.setFetch(null);
-		return cache.getUnchecked(fetchlessQuery);
-	}
 
-	private LoadingCache<Query<Entity>, List<Object>> getQueryCache(Repository<Entity> repository)
-	{
-		String id = repository.getEntityType().getId();
-		if (!caches.containsKey(id))
+		EntityType entityType = repository.getEntityType();
+		QueryCacheKey queryCacheKey = QueryCacheKey.create(entityType.getId(), fetchlessQuery);
+		CachedQueryResult result = cache.get(entityType, queryCacheKey, () -> load(repository, fetchlessQuery));
+		if (!result.getUncheckedIds().isEmpty())
 		{
-			caches.putIfAbsent(id, createQueryCache(repository));
+			result = revalidate(repository, queryCacheKey, result);
 		}
-		return caches.get(id);
+		return result.getIds();
 	}
 
-	private LoadingCache<Query<Entity>, List<Object>> createQueryCache(Repository<Entity> repository)
+	/**
+	 * @return map of entity type id to the cumulative cache statistics of the entity type
+	 */
+	public Map<String, EntityTypeCacheStats> getStatistics()
 	{
-		LOG.trace("Creating Query cache for repository {}", repository.getName());
-		return CaffeinatedGuava.build(Caffeine.newBuilder()
-											  .recordStats()
-											  .maximumSize(MAX_CACHE_SIZE_PER_QUERY)
-											  .expireAfterAccess(10, MINUTES), createCacheLoader(repository));
+		return cache.getStatistics();
 	}
 
 	/**
-	 * Create a cacheloader that loads entity ids from the repository and stores them together with their query
-	 *
-	 * @return the {@link CacheLoader}
+	 * Checks the entities that were dirtied since the result was cached against the query rules. Reloads the result
+	 * if one of them may match the query.
 	 */
-	private CacheLoader<Query<Entity>, List<Object>> createCacheLoader(final Repository<Entity> repository)
+	private CachedQueryResult revalidate(Repository<Entity> repository, QueryCacheKey queryCacheKey,
+			CachedQueryResult result)
 	{
-		String repositoryName = repository.getName();
-		Fetch idAttributeFetch = new Fetch().field(repository.getEntityType().getIdAttribute().getName());
-		return new CacheLoader<Query<Entity>, List<Object>>()
+		Query<Entity> query = queryCacheKey.getQuery();
+		boolean mayMatch = repository.findAll(result.getUncheckedIds().stream())
+									 .anyMatch(entity -> QueryRuleEvaluator.mayMatch(query.getRules(), entity));
+		EntityType entityType = repository.getEntityType();
+		if (mayMatch)
 		{
-			/**
-			 * Loads {@link Entity} identifiers for a {@link Query}
-			 * @param query the cache key to load
-			 * @return {@link List} of identifier {@link Object}s
-			 */
-			@Override
-			public List<Object> load(@Nonnull Query<Entity> query)
-			{
-				LOG.trace("Loading identifiers from repository {} for query {}", repositoryName, query);
-				return repository.findAll(new QueryImpl<>(query).fetch(idAttributeFetch))
-								 .map(Entity::getIdValue)
-								 .collect(toList());
-			}
-		};
+			LOG.trace("Dirty entities may match query {}, reloading identifiers", query);
+			cache.invalidate(queryCacheKey);
+			return cache.get(entityType, queryCacheKey, () -> load(repository, query));
+		}
+		CachedQueryResult revalidatedResult = result.withoutUncheckedIds();
+		cache.replace(entityType, queryCacheKey, result, revalidatedResult);
+		return revalidatedResult;
 	}
 
 	/**
-	 * Logs cumulative cache statistics for all known caches.
+	 * Loads {@link Entity} identifiers for a {@link Query}
+	 *
+	 * @param repository the {@link Repository} to load the identifiers from
+	 * @param query      the {@link Query} without fetch
+	 * @return {@link CachedQueryResult} containing the identifiers
 	 */
-	@Scheduled(fixedRate = 60000)
-	public void logStatistics()
+	private CachedQueryResult load(Repository<Entity> repository, Query<Entity> query)
 	{
-		//TODO: do we want to log diff with last log instead?
-		if (LOG.isDebugEnabled())
-		{
-			LOG.debug("Cache stats:");
-			for (Map.Entry<String, LoadingCache<Query<Entity>, List<Object>>> cacheEntry : caches.entrySet())
-			{
-				LOG.debug("{}:{}", cacheEntry.getKey(), cacheEntry.getValue().stats());
-			}
-		}
+		LOG.trace("Loading identifiers from repository {} for query {}", repository.getName(), query);
+		EntityType entityType = repository.getEntityType();
+		Fetch idAttributeFetch = new Fetch().field(entityType.getIdAttribute().getName());
+		List<Object> ids = repository.findAll(new QueryImpl<>(query).fetch(idAttributeFetch))
+									 .map(Entity::getIdValue)
+									 .collect(toList());
+		return CachedQueryResult.create(CompactIdList.create(ids), QueryRuleEvaluator.isEvaluable(query, entityType));
 	}
 }
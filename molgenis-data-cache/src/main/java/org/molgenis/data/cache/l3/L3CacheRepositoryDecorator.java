@@ -10,6 +10,8 @@ import java.util.stream.Stream;
 
 import static com.google.common.collect.Lists.newArrayList;
 import static java.util.Objects.requireNonNull;
+import static org.molgenis.data.QueryRule.Operator.PERMITTED;
+import static org.molgenis.data.QueryUtils.containsOperator;
 import static org.molgenis.data.RepositoryCapability.CACHEABLE;
 import static org.slf4j.LoggerFactory.getLogger;
 
@@ -17,6 +19,9 @@ import static org.slf4j.LoggerFactory.getLogger;
  * Retrieves identifiers from the {@link L3Cache} based on a {@link Query}
  * if {@link RepositoryCapability#CACHEABLE}.
  * <p>
+ * Queries with a {@link QueryRule.Operator#PERMITTED} rule are not cached, because changes to entity permissions do
+ * not evict cached query results.
+ * <p>
  * Delegates to the underlying {@link Repository}
  */
 public class L3CacheRepositoryDecorator extends AbstractRepositoryDecorator<Entity>
@@ -54,7 +59,8 @@ public class L3CacheRepositoryDecorator extends AbstractRepositoryDecorator<Enti
 		{
 			// FIXME page size for metadata is always 0, and batching is done by the postgres repository
 			// FIXME Only superusers are able to use the L3 cache for metadata
-			if (cacheable && query.getPageSize() > 0 && query.getPageSize() <= MAX_PAGE_SIZE)
+			if (cacheable && query.getPageSize() > 0 && query.getPageSize() <= MAX_PAGE_SIZE && !containsOperator(
+					query, PERMITTED))
 			{
 				List<Object> ids = l3Cache.get(delegate(), query);
 				return delegate().findAll(ids.stream(), query.getFetch());
@@ -77,7 +83,8 @@ public class L3CacheRepositoryDecorator extends AbstractRepositoryDecorator<Enti
 	@Override
 	public Entity findOne(Query<Entity> query)
 	{
-		if (transactionInformation.isRepositoryCompletelyClean(getEntityType()) && cacheable)
+		if (transactionInformation.isRepositoryCompletelyClean(getEntityType()) && cacheable && !containsOperator(query,
+				PERMITTED))
 		{
 			// pageSize is irrelevant for findOne, would be a waste to cache them in different entries
 			// sort may affect which of the results is the first result, so cannot ignore that.
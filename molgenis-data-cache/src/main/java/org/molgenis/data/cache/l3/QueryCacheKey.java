@@ -0,0 +1,22 @@
+package org.molgenis.data.cache.l3;
+
+import com.google.auto.value.AutoValue;
+import org.molgenis.data.Entity;
+import org.molgenis.data.Query;
+
+/**
+ * Key of a cached {@link Query} of an entity type.
+ */
+@AutoValue
+@SuppressWarnings("squid:S1610") // Abstract classes without fields should be converted to interfaces
+abstract class QueryCacheKey
+{
+	abstract String getEntityTypeId();
+
+	abstract Query<Entity> getQuery();
+
+	static QueryCacheKey create(String entityTypeId, Query<Entity> query)
+	{
+		return new AutoValue_QueryCacheKey(entityTypeId, query);
+	}
+}
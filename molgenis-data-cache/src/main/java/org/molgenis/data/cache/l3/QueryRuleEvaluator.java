@@ -0,0 +1,217 @@
+package org.molgenis.data.cache.l3;
+
+import com.google.common.collect.Iterables;
+import org.molgenis.data.Entity;
+import org.molgenis.data.Query;
+import org.molgenis.data.QueryRule;
+import org.molgenis.data.QueryRule.Operator;
+import org.molgenis.data.meta.model.Attribute;
+import org.molgenis.data.meta.model.EntityType;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.IntPredicate;
+
+import static org.molgenis.data.QueryRule.Operator.*;
+import static org.molgenis.data.meta.AttributeType.COMPOUND;
+import static org.molgenis.data.support.EntityTypeUtils.isMultipleReferenceType;
+
+/**
+ * Evaluates query rules in memory. Only supports the subset of query rules whose outcome does not depend on the
+ * backend, e.g. no text search, and no filtering on multi-valued or computed attributes.
+ */
+class QueryRuleEvaluator
+{
+	private static final Set<Operator> PREDICATE_OPERATORS = EnumSet.of(EQUALS, IN, LESS, LESS_EQUAL, GREATER,
+			GREATER_EQUAL, RANGE);
+
+	private QueryRuleEvaluator()
+	{
+	}
+
+	/**
+	 * Returns whether the rules of the query can be evaluated in memory for entities of the given type, and whether
+	 * the result of the query can only change if an entity that matches the query is modified.
+	 *
+	 * @param query      query
+	 * @param entityType entity type of the query
+	 * @return <tt>true</tt> if the query can be evaluated using {@link #mayMatch(List, Entity)}
+	 */
+	static boolean isEvaluable(Query<Entity> query, EntityType entityType)
+	{
+		// entities that no longer match could move entities into the requested page
+		return query.getOffset() == 0 && isEvaluable(query.getRules(), entityType);
+	}
+
+	private static boolean isEvaluable(List<QueryRule> rules, EntityType entityType)
+	{
+		for (QueryRule rule : rules)
+		{
+			Operator operator = rule.getOperator();
+			if (operator == NESTED)
+			{
+				if (!isEvaluable(rule.getNestedRules(), entityType))
+				{
+					return false;
+				}
+			}
+			else if (PREDICATE_OPERATORS.contains(operator))
+			{
+				if (!isEvaluable(rule, entityType))
+				{
+					return false;
+				}
+			}
+			else if (operator != AND && operator != OR)
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean isEvaluable(QueryRule rule, EntityType entityType)
+	{
+		if (rule.getField() == null)
+		{
+			return false;
+		}
+		Attribute attr = entityType.getAttribute(rule.getField());
+		return attr != null && attr.getDataType() != COMPOUND && !isMultipleReferenceType(attr)
+				&& !attr.hasExpression() && (rule.getOperator() != IN && rule.getOperator() != RANGE
+				|| rule.getValue() instanceof Iterable<?>);
+	}
+
+	/**
+	 * Returns whether an entity may match query rules. Rules are combined with SQL precedence: AND binds stronger than
+	 * OR, and adjacent rules without operator are combined with AND. Returns <tt>true</tt> if the outcome cannot be
+	 * determined, e.g. because the entity and query values are of a different type.
+	 *
+	 * @param rules  query rules for which {@link #isEvaluable(Query, EntityType)} holds
+	 * @param entity entity
+	 * @return <tt>false</tt> if the entity certainly does not match the rules
+	 */
+	static boolean mayMatch(List<QueryRule> rules, Entity entity)
+	{
+		if (rules.isEmpty())
+		{
+			return true;
+		}
+		for (List<QueryRule> conjunction : splitOnOr(rules))
+		{
+			if (conjunction.stream().allMatch(rule -> rule.getOperator() == AND || mayMatch(rule, entity)))
+			{
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static List<List<QueryRule>> splitOnOr(List<QueryRule> rules)
+	{
+		List<List<QueryRule>> conjunctions = new ArrayList<>();
+		List<QueryRule> conjunction = new ArrayList<>();
+		for (QueryRule rule : rules)
+		{
+			if (rule.getOperator() == OR)
+			{
+				conjunctions.add(conjunction);
+				conjunction = new ArrayList<>();
+			}
+			else
+			{
+				conjunction.add(rule);
+			}
+		}
+		conjunctions.add(conjunction);
+		return conjunctions;
+	}
+
+	private static boolean mayMatch(QueryRule rule, Entity entity)
+	{
+		if (rule.getOperator() == NESTED)
+		{
+			return mayMatch(rule.getNestedRules(), entity);
+		}
+
+		Object value = toQueryValue(entity.get(rule.getField()));
+		Object queryValue = rule.getValue();
+		switch (rule.getOperator())
+		{
+			case EQUALS:
+				return queryValue == null ? value == null : mayEqual(value, toQueryValue(queryValue));
+			case IN:
+				for (Object inValue : (Iterable<?>) queryValue)
+				{
+					if (inValue != null && mayEqual(value, toQueryValue(inValue)))
+					{
+						return true;
+					}
+				}
+				return false;
+			case LESS:
+				return mayCompare(value, queryValue, comparison -> comparison < 0);
+			case LESS_EQUAL:
+				return mayCompare(value, queryValue, comparison -> comparison <= 0);
+			case GREATER:
+				return mayCompare(value, queryValue, comparison -> comparison > 0);
+			case GREATER_EQUAL:
+				return mayCompare(value, queryValue, comparison -> comparison >= 0);
+			case RANGE:
+				Iterable<?> range = (Iterable<?>) queryValue;
+				if (Iterables.size(range) != 2)
+				{
+					return true;
+				}
+				return mayCompare(value, Iterables.get(range, 0), comparison -> comparison >= 0) && mayCompare(
+						value, Iterables.get(range, 1), comparison -> comparison <= 0);
+			default:
+				return true;
+		}
+	}
+
+	private static boolean mayEqual(Object value, Object queryValue)
+	{
+		if (value == null)
+		{
+			return false;
+		}
+		return value.getClass() != queryValue.getClass() || Objects.equals(value, queryValue);
+	}
+
+	/**
+	 * Only compares numbers, dates and date times, other values such as strings are ordered by the database collation
+	 * which can differ from their natural ordering in Java.
+	 */
+	@SuppressWarnings("unchecked")
+	private static boolean mayCompare(Object value, Object queryValue, IntPredicate predicate)
+	{
+		if (value == null)
+		{
+			// comparisons with null are never true in SQL
+			return false;
+		}
+		queryValue = toQueryValue(queryValue);
+		if (queryValue == null || value.getClass() != queryValue.getClass() || !isComparable(value))
+		{
+			return true;
+		}
+		return predicate.test(((Comparable<Object>) value).compareTo(queryValue));
+	}
+
+	private static boolean isComparable(Object value)
+	{
+		return (value instanceof Number && value instanceof Comparable) || value instanceof LocalDate
+				|| value instanceof Instant;
+	}
+
+	private static Object toQueryValue(Object value)
+	{
+		return value instanceof Entity ? ((Entity) value).getIdValue() : value;
+	}
+}
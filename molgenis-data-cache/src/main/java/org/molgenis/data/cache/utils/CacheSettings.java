@@ -0,0 +1,91 @@
+package org.molgenis.data.cache.utils;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Memory budgets of the entity caches. Budgets are configured in megabytes:
+ * <ul>
+ * <li>cache.l1.max-size-mb: budget of the L1 cache of a single transaction</li>
+ * <li>cache.l2.max-size-mb: budget of the L2 cache shared by all entity types</li>
+ * <li>cache.l3.max-size-mb: budget of the L3 cache shared by all entity types</li>
+ * <li>cache.l2.max-size-mb.&lt;entityTypeId&gt;: dedicated L2 cache budget of an entity type</li>
+ * <li>cache.l3.max-size-mb.&lt;entityTypeId&gt;: dedicated L3 cache budget of an entity type</li>
+ * </ul>
+ */
+@Component
+public class CacheSettings
+{
+	private static final long MEGABYTE = 1024L * 1024L;
+	private static final String L2_MAX_SIZE_PREFIX = "cache.l2.max-size-mb.";
+	private static final String L3_MAX_SIZE_PREFIX = "cache.l3.max-size-mb.";
+
+	private final long l1MaxWeight;
+	private final long l2MaxWeight;
+	private final long l3MaxWeight;
+	private final Environment environment;
+
+	public CacheSettings(@Value("${cache.l1.max-size-mb:8}") long l1MaxSizeMb,
+			@Value("${cache.l2.max-size-mb:128}") long l2MaxSizeMb,
+			@Value("${cache.l3.max-size-mb:32}") long l3MaxSizeMb, Environment environment)
+	{
+		this.l1MaxWeight = l1MaxSizeMb * MEGABYTE;
+		this.l2MaxWeight = l2MaxSizeMb * MEGABYTE;
+		this.l3MaxWeight = l3MaxSizeMb * MEGABYTE;
+		this.environment = requireNonNull(environment);
+	}
+
+	/**
+	 * @return maximum weight in bytes of the L1 cache of a single transaction
+	 */
+	public long getL1MaxWeight()
+	{
+		return l1MaxWeight;
+	}
+
+	/**
+	 * @return maximum weight in bytes of the L2 cache shared by all entity types
+	 */
+	public long getL2MaxWeight()
+	{
+		return l2MaxWeight;
+	}
+
+	/**
+	 * @return maximum weight in bytes of the L3 cache shared by all entity types
+	 */
+	public long getL3MaxWeight()
+	{
+		return l3MaxWeight;
+	}
+
+	/**
+	 * @param entityTypeId entity type id
+	 * @return maximum weight in bytes of the dedicated L2 cache of the entity type or empty if the entity type uses the
+	 * shared L2 cache
+	 */
+	public Optional<Long> getL2MaxWeight(String entityTypeId)
+	{
+		return getMaxWeight(L2_MAX_SIZE_PREFIX + entityTypeId);
+	}
+
+	/**
+	 * @param entityTypeId entity type id
+	 * @return maximum weight in bytes of the dedicated L3 cache of the entity type or empty if the entity type uses the
+	 * shared L3 cache
+	 */
+	public Optional<Long> getL3MaxWeight(String entityTypeId)
+	{
+		return getMaxWeight(L3_MAX_SIZE_PREFIX + entityTypeId);
+	}
+
+	private Optional<Long> getMaxWeight(String key)
+	{
+		return Optional.ofNullable(environment.getProperty(key, Long.class)).map(maxSizeMb -> maxSizeMb * MEGABYTE);
+	}
+}
@@ -0,0 +1,98 @@
+package org.molgenis.data.cache.utils;
+
+import java.util.Arrays;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Compact representation of a cached {@link org.molgenis.data.Entity}. Stores the attribute values in an array that
+ * is ordered according to a {@link DehydratedEntitySchema} shared by all dehydrated entities of the same entity type.
+ * References to other entities are stored as ids.
+ */
+public final class DehydratedEntity
+{
+	private final DehydratedEntitySchema schema;
+	private final Object[] values;
+
+	public DehydratedEntity(DehydratedEntitySchema schema, Object[] values)
+	{
+		this.schema = requireNonNull(schema);
+		this.values = requireNonNull(values);
+		if (values.length != schema.getAttributeCount())
+		{
+			throw new IllegalArgumentException(
+					String.format("Expected [%d] values for [%s] but got [%d]", schema.getAttributeCount(),
+							schema.getEntityTypeId(), values.length));
+		}
+	}
+
+	public DehydratedEntitySchema getSchema()
+	{
+		return schema;
+	}
+
+	/**
+	 * @return estimated heap size of this dehydrated entity in bytes, excluding the shared schema
+	 */
+	public int estimateSize()
+	{
+		return SizeEstimator.OBJECT_HEADER_SIZE + 2 * SizeEstimator.REFERENCE_SIZE + SizeEstimator.estimateSize(values);
+	}
+
+	/**
+	 * @param attributeName attribute name
+	 * @return the dehydrated value of the attribute or null if the attribute is not part of the schema
+	 */
+	public Object get(String attributeName)
+	{
+		int index = schema.indexOf(attributeName);
+		return index != -1 ? values[index] : null;
+	}
+
+	/**
+	 * Returns the dehydrated value of the attribute that is expected at the given index. Falls back to a lookup by name
+	 * if the schema has a different attribute at that index, e.g. because the entity type changed since dehydration.
+	 *
+	 * @param index         expected index of the attribute value
+	 * @param attributeName attribute name
+	 * @return the dehydrated value of the attribute or null if the attribute is not part of the schema
+	 */
+	Object get(int index, String attributeName)
+	{
+		if (index < values.length && schema.getAttributeName(index).equals(attributeName))
+		{
+			return values[index];
+		}
+		return get(attributeName);
+	}
+
+	@Override
+	public String toString()
+	{
+		StringBuilder builder = new StringBuilder(schema.getEntityTypeId()).append('{');
+		for (int i = 0; i < values.length; i++)
+		{
+			if (i > 0)
+			{
+				builder.append(", ");
+			}
+			builder.append(schema.getAttributeName(i)).append('=').append(values[i]);
+		}
+		return builder.append('}').toString();
+	}
+
+	@Override
+	public boolean equals(Object o)
+	{
+		if (this == o) return true;
+		if (o == null || getClass() != o.getClass()) return false;
+		DehydratedEntity that = (DehydratedEntity) o;
+		return schema.equals(that.schema) && Arrays.equals(values, that.values);
+	}
+
+	@Override
+	public int hashCode()
+	{
+		return 31 * schema.hashCode() + Arrays.hashCode(values);
+	}
+}
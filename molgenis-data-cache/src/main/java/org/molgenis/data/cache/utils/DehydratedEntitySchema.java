@@ -0,0 +1,113 @@
+package org.molgenis.data.cache.utils;
+
+import com.google.common.collect.ImmutableMap;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Attribute layout of the {@link DehydratedEntity}s of an entity type. Maps attribute names to the positions of their
+ * values in the dehydrated value array. A single schema is shared by all dehydrated entities of the same entity type.
+ */
+public final class DehydratedEntitySchema
+{
+	private final String entityTypeId;
+	private final String[] attributeNames;
+	private final Map<String, Integer> attributeIndices;
+
+	private DehydratedEntitySchema(String entityTypeId, String[] attributeNames)
+	{
+		this.entityTypeId = requireNonNull(entityTypeId);
+		this.attributeNames = requireNonNull(attributeNames);
+
+		ImmutableMap.Builder<String, Integer> builder = ImmutableMap.builder();
+		for (int i = 0; i < attributeNames.length; i++)
+		{
+			builder.put(attributeNames[i], i);
+		}
+		this.attributeIndices = builder.build();
+	}
+
+	/**
+	 * Creates a schema for an entity type.
+	 *
+	 * @param entityTypeId   entity type id
+	 * @param attributeNames names of the dehydrated attributes in value array order
+	 * @return the schema
+	 */
+	public static DehydratedEntitySchema create(String entityTypeId, List<String> attributeNames)
+	{
+		return new DehydratedEntitySchema(entityTypeId, attributeNames.toArray(new String[0]));
+	}
+
+	public String getEntityTypeId()
+	{
+		return entityTypeId;
+	}
+
+	public int getAttributeCount()
+	{
+		return attributeNames.length;
+	}
+
+	public String getAttributeName(int index)
+	{
+		return attributeNames[index];
+	}
+
+	/**
+	 * @param attributeName attribute name
+	 * @return index of the attribute value in the dehydrated value array or -1 if the attribute is not part of this
+	 * schema
+	 */
+	public int indexOf(String attributeName)
+	{
+		Integer index = attributeIndices.get(attributeName);
+		return index != null ? index : -1;
+	}
+
+	/**
+	 * @param attributeNames names of the dehydrated attributes in value array order
+	 * @return whether this schema has exactly the given attribute layout
+	 */
+	boolean hasLayout(List<String> attributeNames)
+	{
+		if (attributeNames.size() != this.attributeNames.length)
+		{
+			return false;
+		}
+		for (int i = 0; i < this.attributeNames.length; i++)
+		{
+			if (!this.attributeNames[i].equals(attributeNames.get(i)))
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public boolean equals(Object o)
+	{
+		if (this == o) return true;
+		if (o == null || getClass() != o.getClass()) return false;
+		DehydratedEntitySchema that = (DehydratedEntitySchema) o;
+		return entityTypeId.equals(that.entityTypeId) && Arrays.equals(attributeNames, that.attributeNames);
+	}
+
+	@Override
+	public int hashCode()
+	{
+		return 31 * entityTypeId.hashCode() + Arrays.hashCode(attributeNames);
+	}
+
+	@Override
+	public String toString()
+	{
+		return "DehydratedEntitySchema{" + "entityTypeId='" + entityTypeId + '\'' + ", attributeCount="
+				+ attributeNames.length + '}';
+	}
+}
@@ -0,0 +1,22 @@
+package org.molgenis.data.cache.utils;
+
+import com.github.benmanes.caffeine.cache.Weigher;
+import org.molgenis.data.EntityKey;
+
+import javax.annotation.Nonnull;
+import java.util.Optional;
+
+/**
+ * Weighs cached {@link DehydratedEntity}s by their estimated heap size.
+ */
+public class DehydratedEntityWeigher implements Weigher<EntityKey, Optional<DehydratedEntity>>
+{
+	private static final int ENTRY_SIZE = 64;
+
+	@Override
+	public int weigh(@Nonnull EntityKey entityKey, @Nonnull Optional<DehydratedEntity> dehydratedEntity)
+	{
+		return ENTRY_SIZE + SizeEstimator.estimateSize(entityKey.getId()) + dehydratedEntity.map(
+				DehydratedEntity::estimateSize).orElse(0);
+	}
+}
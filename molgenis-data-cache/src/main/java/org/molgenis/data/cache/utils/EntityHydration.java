@@ -13,11 +13,13 @@ import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
 
 import static com.google.common.collect.Lists.newArrayList;
-import static com.google.common.collect.Maps.newHashMap;
+import static com.google.common.collect.Maps.newConcurrentMap;
 import static java.util.Objects.requireNonNull;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.StreamSupport.stream;
 import static org.molgenis.data.EntityManager.CreationMode.NO_POPULATE;
 import static org.molgenis.data.support.EntityTypeUtils.isMultipleReferenceType;
 import static org.molgenis.data.support.EntityTypeUtils.isSingleReferenceType;
@@ -30,10 +32,15 @@ public class EntityHydration
 {
 	private static final Logger LOG = LoggerFactory.getLogger(EntityHydration.class);
 	private final EntityManager entityManager;
+	/**
+	 * maps entity type id to the schema shared by the dehydrated entities of that entity type
+	 */
+	private final ConcurrentMap<String, DehydratedEntitySchema> schemas;
 
 	public EntityHydration(EntityManager entityManager)
 	{
 		this.entityManager = requireNonNull(entityManager);
+		this.schemas = newConcurrentMap();
 	}
 
 	/**
@@ -41,16 +48,17 @@ public class EntityHydration
 	 * if there are attributes present with an expression
 	 *
 	 * @param entityType       metadata of the entity to rehydrate
-	 * @param dehydratedEntity map with key value pairs representing this entity
+	 * @param dehydratedEntity {@link DehydratedEntity} representing this entity
 	 * @return hydrated entity
 	 */
 	@SuppressWarnings("unchecked")
-	public Entity hydrate(Map<String, Object> dehydratedEntity, EntityType entityType)
+	public Entity hydrate(DehydratedEntity dehydratedEntity, EntityType entityType)
 	{
 		LOG.trace("Hydrating entity: {} for entity {}", dehydratedEntity, entityType.getId());
 
 		Entity hydratedEntity = entityManager.create(entityType, NO_POPULATE);
 
+		int index = 0;
 		for (Attribute attribute : entityType.getAtomicAttributes())
 		{
 			// Only hydrate the attribute if it is NOT computed.
@@ -58,7 +66,7 @@ public class EntityHydration
 			if (attribute.getExpression() == null)
 			{
 				String name = attribute.getName();
-				Object value = dehydratedEntity.get(name);
+				Object value = dehydratedEntity.get(index++, name);
 				if (value != null)
 				{
 					if (isMultipleReferenceType(attribute))
@@ -79,31 +87,46 @@ public class EntityHydration
 	}
 
 	/**
-	 * Creates a Map containing the values required to rebuild this entity.
+	 * Creates a {@link DehydratedEntity} containing the values required to rebuild this entity.
 	 * For references to other entities only stores the ids.
 	 *
 	 * @param entity the {@link Entity} to dehydrate
-	 * @return Map representation of the entity
+	 * @return compact representation of the entity
 	 */
-	public Map<String, Object> dehydrate(Entity entity)
+	public DehydratedEntity dehydrate(Entity entity)
 	{
 		LOG.trace("Dehydrating entity {}", entity);
-		Map<String, Object> dehydratedEntity = newHashMap();
 		EntityType entityType = entity.getEntityType();
 
-		entityType.getAtomicAttributes().forEach(attribute ->
-		{
-			// Only dehydrate if the attribute is NOT computed
-			if (!attribute.hasExpression())
-			{
-				String name = attribute.getName();
-				AttributeType type = attribute.getDataType();
+		// Only dehydrate if the attribute is NOT computed
+		List<Attribute> attributes = stream(entityType.getAtomicAttributes().spliterator(), false).filter(
+				attribute -> !attribute.hasExpression()).collect(toList());
+		DehydratedEntitySchema schema = getSchema(entityType.getId(), attributes);
 
-				dehydratedEntity.put(name, getValueBasedOnType(entity, name, type));
-			}
-		});
+		Object[] values = new Object[attributes.size()];
+		for (int i = 0; i < values.length; i++)
+		{
+			Attribute attribute = attributes.get(i);
+			values[i] = getValueBasedOnType(entity, attribute.getName(), attribute.getDataType());
+		}
+		return new DehydratedEntity(schema, values);
+	}
 
-		return dehydratedEntity;
+	/**
+	 * Returns the schema for the given attribute layout, reusing the existing schema of the entity type if its layout
+	 * did not change.
+	 */
+	private DehydratedEntitySchema getSchema(String entityTypeId, List<Attribute> attributes)
+	{
+		List<String> attributeNames = attributes.stream().map(Attribute::getName).collect(toList());
+		DehydratedEntitySchema schema = schemas.get(entityTypeId);
+		if (schema == null || !schema.hasLayout(attributeNames))
+		{
+			LOG.trace("Creating dehydrated entity schema for entity {}", entityTypeId);
+			schema = DehydratedEntitySchema.create(entityTypeId, attributeNames);
+			schemas.put(entityTypeId, schema);
+		}
+		return schema;
 	}
 
 	private static Object getValueBasedOnType(Entity entity, String name, AttributeType type)
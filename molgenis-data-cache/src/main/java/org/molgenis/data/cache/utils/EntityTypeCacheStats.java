@@ -0,0 +1,22 @@
+package org.molgenis.data.cache.utils;
+
+import com.google.auto.value.AutoValue;
+
+/**
+ * Cumulative cache statistics of an entity type.
+ */
+@AutoValue
+@SuppressWarnings("squid:S1610") // Abstract classes without fields should be converted to interfaces
+public abstract class EntityTypeCacheStats
+{
+	public abstract long getHitCount();
+
+	public abstract long getMissCount();
+
+	public abstract long getEvictionCount();
+
+	public static EntityTypeCacheStats create(long hitCount, long missCount, long evictionCount)
+	{
+		return new AutoValue_EntityTypeCacheStats(hitCount, missCount, evictionCount);
+	}
+}
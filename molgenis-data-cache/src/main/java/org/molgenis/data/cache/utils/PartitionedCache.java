@@ -0,0 +1,267 @@
+package org.molgenis.data.cache.utils;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.Weigher;
+import com.github.benmanes.caffeine.guava.CaffeinatedGuava;
+import com.google.common.cache.Cache;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import org.molgenis.data.meta.model.EntityType;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import static com.google.common.collect.Maps.newConcurrentMap;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toMap;
+import static java.util.stream.Collectors.toSet;
+
+/**
+ * Cache of values that belong to entity types. The values of all entity types share a single cache with a global
+ * memory budget, except for entity types with a budget of their own, which get a dedicated cache.
+ * <p>
+ * Records hit, miss and eviction counts per entity type.
+ *
+ * @param <K> key type
+ * @param <V> value type
+ */
+public class PartitionedCache<K, V>
+{
+	/**
+	 * maximum weight of a dedicated cache that is not bounded
+	 */
+	public static final long UNBOUNDED = Long.MAX_VALUE;
+
+	private final Function<? super K, String> entityTypeIdFunction;
+	private final Weigher<? super K, ? super V> weigher;
+	private final Function<EntityType, Optional<Long>> dedicatedMaxWeightFunction;
+	private final long expireAfterAccessMinutes;
+
+	private final Cache<K, V> sharedCache;
+	/**
+	 * maps entity type id to the shared cache or to the dedicated cache of the entity type
+	 */
+	private final ConcurrentMap<String, Cache<K, V>> caches;
+	/**
+	 * maps entity type id to the hit, miss and eviction counters of the entity type
+	 */
+	private final ConcurrentMap<String, Counters> counters;
+
+	/**
+	 * @param entityTypeIdFunction       determines the entity type id of a cache key
+	 * @param weigher                    weighs cache entries
+	 * @param maxWeight                  maximum weight of the shared cache
+	 * @param dedicatedMaxWeightFunction determines the maximum weight of the dedicated cache of an entity type, or
+	 *                                   empty if the entity type uses the shared cache
+	 * @param expireAfterAccessMinutes   minutes after which entries expire if they are not accessed
+	 */
+	public PartitionedCache(Function<? super K, String> entityTypeIdFunction, Weigher<? super K, ? super V> weigher,
+			long maxWeight, Function<EntityType, Optional<Long>> dedicatedMaxWeightFunction,
+			long expireAfterAccessMinutes)
+	{
+		this.entityTypeIdFunction = requireNonNull(entityTypeIdFunction);
+		this.weigher = requireNonNull(weigher);
+		this.dedicatedMaxWeightFunction = requireNonNull(dedicatedMaxWeightFunction);
+		this.expireAfterAccessMinutes = expireAfterAccessMinutes;
+		this.sharedCache = createCache(maxWeight);
+		this.caches = newConcurrentMap();
+		this.counters = newConcurrentMap();
+	}
+
+	/**
+	 * Retrieves a value from the cache, or loads it if it is not present.
+	 *
+	 * @param entityType entity type the value belongs to
+	 * @param key        cache key
+	 * @param loader     loads the value if it is not present
+	 * @return the cached or loaded value
+	 * @throws UncheckedExecutionException if the loader throws an exception
+	 */
+	public V get(EntityType entityType, K key, Callable<? extends V> loader)
+	{
+		Cache<K, V> cache = getCache(entityType);
+		V value = cache.getIfPresent(key);
+		if (value != null)
+		{
+			getCounters(entityType.getId()).hits.increment();
+			return value;
+		}
+
+		getCounters(entityType.getId()).misses.increment();
+		try
+		{
+			return cache.get(key, loader);
+		}
+		catch (ExecutionException e)
+		{
+			throw new UncheckedExecutionException(e.getCause());
+		}
+	}
+
+	/**
+	 * Retrieves the values that are present in the cache.
+	 *
+	 * @param entityType entity type the values belong to
+	 * @param keys       cache keys
+	 * @return map of the keys that are present in the cache to their values
+	 */
+	public Map<K, V> getAllPresent(EntityType entityType, Collection<K> keys)
+	{
+		Map<K, V> result = getCache(entityType).getAllPresent(keys);
+		Counters entityTypeCounters = getCounters(entityType.getId());
+		entityTypeCounters.hits.add(result.size());
+		entityTypeCounters.misses.add((long) keys.size() - result.size());
+		return result;
+	}
+
+	/**
+	 * Stores values in the cache.
+	 *
+	 * @param entityType entity type the values belong to
+	 * @param values     map of keys to values
+	 */
+	public void putAll(EntityType entityType, Map<K, V> values)
+	{
+		getCache(entityType).putAll(values);
+	}
+
+	/**
+	 * Removes a value from the cache.
+	 *
+	 * @param key cache key
+	 */
+	public void invalidate(K key)
+	{
+		Cache<K, V> cache = caches.get(entityTypeIdFunction.apply(key));
+		if (cache != null)
+		{
+			cache.invalidate(key);
+		}
+	}
+
+	/**
+	 * Removes all values of the given entity types from the cache.
+	 *
+	 * @param entityTypeIds entity type ids
+	 */
+	public void invalidateAll(Collection<String> entityTypeIds)
+	{
+		boolean invalidateShared = false;
+		for (String entityTypeId : entityTypeIds)
+		{
+			Cache<K, V> cache = caches.get(entityTypeId);
+			if (cache == sharedCache)
+			{
+				invalidateShared = true;
+			}
+			else if (cache != null)
+			{
+				cache.invalidateAll();
+			}
+		}
+		if (invalidateShared)
+		{
+			sharedCache.asMap().keySet().removeIf(key -> entityTypeIds.contains(entityTypeIdFunction.apply(key)));
+		}
+	}
+
+	/**
+	 * Replaces a value in the cache if it is still mapped to the expected value.
+	 *
+	 * @param entityType entity type the value belongs to
+	 * @param key        cache key
+	 * @param oldValue   value expected to be in the cache
+	 * @param newValue   value to store
+	 * @return <tt>true</tt> if the value was replaced
+	 */
+	public boolean replace(EntityType entityType, K key, V oldValue, V newValue)
+	{
+		return getCache(entityType).asMap().replace(key, oldValue, newValue);
+	}
+
+	/**
+	 * Recomputes the cached values of the given entity types.
+	 *
+	 * @param entityTypeIds  entity type ids
+	 * @param updateFunction computes the new value of a cache entry, or null to remove the entry
+	 */
+	public void updateAll(Collection<String> entityTypeIds,
+			BiFunction<? super K, ? super V, ? extends V> updateFunction)
+	{
+		Set<Cache<K, V>> entityTypeCaches = entityTypeIds.stream()
+														 .map(caches::get)
+														 .filter(Objects::nonNull)
+														 .collect(toSet());
+		for (Cache<K, V> cache : entityTypeCaches)
+		{
+			ConcurrentMap<K, V> map = cache.asMap();
+			map.keySet()
+			   .stream()
+			   .filter(key -> entityTypeIds.contains(entityTypeIdFunction.apply(key)))
+			   .collect(toList())
+			   .forEach(key -> map.computeIfPresent(key, updateFunction));
+		}
+	}
+
+	/**
+	 * @return map of entity type id to the cumulative statistics of the entity type
+	 */
+	public Map<String, EntityTypeCacheStats> getStatistics()
+	{
+		return counters.entrySet().stream().collect(toMap(Map.Entry::getKey, entry -> entry.getValue().toStats()));
+	}
+
+	private Cache<K, V> getCache(EntityType entityType)
+	{
+		return caches.computeIfAbsent(entityType.getId(),
+				entityTypeId -> dedicatedMaxWeightFunction.apply(entityType).map(this::createCache).orElse(sharedCache));
+	}
+
+	private Cache<K, V> createCache(long maxWeight)
+	{
+		Caffeine<K, V> cacheBuilder = Caffeine.newBuilder()
+											  .expireAfterAccess(expireAfterAccessMinutes, MINUTES)
+											  .removalListener(this::onRemoval);
+		if (maxWeight != UNBOUNDED)
+		{
+			cacheBuilder.maximumWeight(maxWeight).weigher(weigher);
+		}
+		return CaffeinatedGuava.build(cacheBuilder);
+	}
+
+	private void onRemoval(K key, V value, RemovalCause cause)
+	{
+		if (key != null && cause.wasEvicted())
+		{
+			getCounters(entityTypeIdFunction.apply(key)).evictions.increment();
+		}
+	}
+
+	private Counters getCounters(String entityTypeId)
+	{
+		return counters.computeIfAbsent(entityTypeId, id -> new Counters());
+	}
+
+	private static class Counters
+	{
+		private final LongAdder hits = new LongAdder();
+		private final LongAdder misses = new LongAdder();
+		private final LongAdder evictions = new LongAdder();
+
+		EntityTypeCacheStats toStats()
+		{
+			return EntityTypeCacheStats.create(hits.sum(), misses.sum(), evictions.sum());
+		}
+	}
+}
@@ -0,0 +1,93 @@
+package org.molgenis.data.cache.utils;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Collection;
+
+/**
+ * Estimates the retained heap size of cached values on a 64-bit JVM with compressed object pointers. The estimates are
+ * used to weigh cache entries and are not meant to be exact.
+ */
+public class SizeEstimator
+{
+	static final int OBJECT_HEADER_SIZE = 12;
+	static final int REFERENCE_SIZE = 4;
+	private static final int ARRAY_HEADER_SIZE = 16;
+	private static final int STRING_SIZE = 24;
+	private static final int BOXED_SIZE = 16;
+	private static final int BOXED_WIDE_SIZE = 24;
+	private static final int LOCAL_DATE_SIZE = 24;
+	private static final int INSTANT_SIZE = 24;
+	private static final int COLLECTION_SIZE = 40;
+
+	private SizeEstimator()
+	{
+	}
+
+	/**
+	 * @param value cached value
+	 * @return estimated size of the value in bytes
+	 */
+	public static int estimateSize(Object value)
+	{
+		if (value == null || value instanceof Boolean)
+		{
+			return 0;
+		}
+		if (value instanceof String)
+		{
+			return STRING_SIZE + estimateArraySize(((String) value).length() * 2);
+		}
+		if (value instanceof Integer || value instanceof Short || value instanceof Byte)
+		{
+			return BOXED_SIZE;
+		}
+		if (value instanceof Long || value instanceof Double)
+		{
+			return BOXED_WIDE_SIZE;
+		}
+		if (value instanceof LocalDate)
+		{
+			return LOCAL_DATE_SIZE;
+		}
+		if (value instanceof Instant)
+		{
+			return INSTANT_SIZE;
+		}
+		if (value instanceof Collection<?>)
+		{
+			Collection<?> collection = (Collection<?>) value;
+			int size = COLLECTION_SIZE + estimateArraySize(collection.size() * REFERENCE_SIZE);
+			for (Object element : collection)
+			{
+				size += estimateSize(element);
+			}
+			return size;
+		}
+		return BOXED_WIDE_SIZE;
+	}
+
+	/**
+	 * @param values array
+	 * @return estimated size of the array and its elements in bytes
+	 */
+	public static int estimateSize(Object[] values)
+	{
+		int size = estimateArraySize(values.length * REFERENCE_SIZE);
+		for (Object value : values)
+		{
+			size += estimateSize(value);
+		}
+		return size;
+	}
+
+	private static int estimateArraySize(int contentSize)
+	{
+		return align(ARRAY_HEADER_SIZE + contentSize);
+	}
+
+	private static int align(int size)
+	{
+		return (size + 7) & ~7;
+	}
+}
@@ -6,6 +6,7 @@ import org.molgenis.data.AbstractMolgenisSpringTest;
 import org.molgenis.data.Entity;
 import org.molgenis.data.EntityKey;
 import org.molgenis.data.EntityManager;
+import org.molgenis.data.cache.utils.CacheSettings;
 import org.molgenis.data.cache.utils.EntityHydration;
 import org.molgenis.data.meta.model.AttributeFactory;
 import org.molgenis.data.meta.model.EntityType;
@@ -17,6 +18,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
+import org.springframework.core.env.Environment;
 import org.springframework.test.context.ContextConfiguration;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.BeforeMethod;
@@ -82,7 +84,8 @@ public class L1CacheTest extends AbstractMolgenisSpringTest
 	@BeforeMethod
 	public void beforeMethod()
 	{
-		l1Cache = new L1Cache(transactionManager, entityHydration);
+		l1Cache = new L1Cache(transactionManager, entityHydration,
+				new CacheSettings(8, 128, 32, Mockito.mock(Environment.class)));
 	}
 
 	@Test
@@ -0,0 +1,37 @@
+package org.molgenis.data.cache.l2;
+
+import org.mockito.Mock;
+import org.molgenis.data.transaction.EntityTypeGenerations;
+import org.molgenis.test.AbstractMockitoTest;
+import org.testng.annotations.Test;
+
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+
+public class EntityTypeGenerationsDisablerTest extends AbstractMockitoTest
+{
+	@Mock
+	private L2CacheInvalidationBus invalidationBus;
+	@Mock
+	private EntityTypeGenerations entityTypeGenerations;
+
+	@Test(expectedExceptions = NullPointerException.class)
+	public void testEntityTypeGenerationsDisabler()
+	{
+		new EntityTypeGenerationsDisabler(invalidationBus, null);
+	}
+
+	@Test
+	public void testEntityTypeGenerationsDisablerLoopback()
+	{
+		new EntityTypeGenerationsDisabler(new LoopbackL2CacheInvalidationBus(), entityTypeGenerations);
+		verifyZeroInteractions(entityTypeGenerations);
+	}
+
+	@Test
+	public void testEntityTypeGenerationsDisablerDistributed()
+	{
+		new EntityTypeGenerationsDisabler(invalidationBus, entityTypeGenerations);
+		verify(entityTypeGenerations).disable();
+	}
+}
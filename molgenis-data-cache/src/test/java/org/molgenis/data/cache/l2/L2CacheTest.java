@@ -6,6 +6,7 @@ import org.mockito.Captor;
 import org.mockito.Mock;
 import org.mockito.quality.Strictness;
 import org.molgenis.data.*;
+import org.molgenis.data.cache.utils.CacheSettings;
 import org.molgenis.data.cache.utils.EntityHydration;
 import org.molgenis.data.meta.model.EntityType;
 import org.molgenis.data.support.DynamicEntity;
@@ -17,6 +18,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
+import org.springframework.core.env.Environment;
 import org.springframework.test.context.ContextConfiguration;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.BeforeMethod;
@@ -42,6 +44,8 @@ import static org.testng.Assert.assertTrue;
 public class L2CacheTest extends AbstractMolgenisSpringTest
 {
 	private L2Cache l2Cache;
+	private L2CacheInvalidationBus invalidationBus;
+	private CacheSettings cacheSettings;
 
 	@Autowired
 	private EntityHydration entityHydration;
@@ -58,6 +62,8 @@ public class L2CacheTest extends AbstractMolgenisSpringTest
 	private Repository<Entity> repository;
 	@Mock
 	private TransactionInformation transactionInformation;
+	@Mock
+	private Environment environment;
 	@Captor
 	private ArgumentCaptor<Stream<Object>> idStreamCaptor;
 
@@ -93,7 +99,10 @@ public class L2CacheTest extends AbstractMolgenisSpringTest
 		when(repository.getEntityType()).thenReturn(emd);
 		when(repository.getName()).thenReturn(emd.getId());
 
-		l2Cache = new L2Cache(transactionManager, entityHydration, transactionInformation);
+		invalidationBus = new LoopbackL2CacheInvalidationBus();
+		cacheSettings = new CacheSettings(8, 128, 32, environment);
+		l2Cache = new L2Cache(transactionManager, entityHydration, transactionInformation, invalidationBus,
+				cacheSettings);
 	}
 
 	@Test
@@ -166,6 +175,66 @@ public class L2CacheTest extends AbstractMolgenisSpringTest
 		verify(repository, times(2)).findOneById("3");
 	}
 
+	@Test
+	public void testAfterCommitTransactionEvictsDirtyEntityOnOtherNode()
+	{
+		TransactionInformation otherNodeTransactionInformation = mock(TransactionInformation.class);
+		L2Cache otherNodeL2Cache = new L2Cache(transactionManager, entityHydration, otherNodeTransactionInformation,
+				invalidationBus, cacheSettings);
+
+		Entity entity2 = testEntities.get(2);
+		Entity entity3 = testEntities.get(3);
+		when(repository.findOneById("2")).thenReturn(entity2);
+		when(repository.findOneById("3")).thenReturn(entity3);
+
+		// load the entities through the cache of this node
+		assertTrue(EntityUtils.equals(l2Cache.get(repository, "2"), entity2));
+		assertTrue(EntityUtils.equals(l2Cache.get(repository, "3"), entity3));
+
+		// Commit a transaction on the other node that has dirtied entity3, but not entity2
+		when(otherNodeTransactionInformation.getEntirelyDirtyRepositories()).thenReturn(emptySet());
+		when(otherNodeTransactionInformation.getDirtyEntities()).thenReturn(singleton(EntityKey.create(entity3)));
+		otherNodeL2Cache.afterCommitTransaction("transactionID");
+
+		// entity2 was still in the cache of this node, entity3 got loaded through the repository
+		assertTrue(EntityUtils.equals(l2Cache.get(repository, "2"), entity2));
+		assertTrue(EntityUtils.equals(l2Cache.get(repository, "3"), entity3));
+		verify(repository, times(1)).findOneById("2");
+		verify(repository, times(2)).findOneById("3");
+	}
+
+	@Test
+	public void testAfterCommitTransactionRemovesCacheForDirtyRepositoryOnOtherNode()
+	{
+		TransactionInformation otherNodeTransactionInformation = mock(TransactionInformation.class);
+		L2Cache otherNodeL2Cache = new L2Cache(transactionManager, entityHydration, otherNodeTransactionInformation,
+				invalidationBus, cacheSettings);
+
+		Entity entity2 = testEntities.get(2);
+		when(repository.findOneById("2")).thenReturn(entity2);
+		assertTrue(EntityUtils.equals(l2Cache.get(repository, "2"), entity2));
+
+		// Commit a transaction on the other node that has dirtied the repository
+		when(otherNodeTransactionInformation.getEntirelyDirtyRepositories()).thenReturn(singleton(emd.getId()));
+		when(otherNodeTransactionInformation.getDirtyEntities()).thenReturn(emptySet());
+		otherNodeL2Cache.afterCommitTransaction("transactionID");
+
+		assertTrue(EntityUtils.equals(l2Cache.get(repository, "2"), entity2));
+		verify(repository, times(2)).findOneById("2");
+	}
+
+	@Test
+	public void testAfterCommitTransactionDoesNotPublishCleanTransaction()
+	{
+		L2CacheInvalidationBus mockBus = mock(L2CacheInvalidationBus.class);
+		L2Cache cache = new L2Cache(transactionManager, entityHydration, transactionInformation, mockBus,
+				cacheSettings);
+		when(transactionInformation.getEntirelyDirtyRepositories()).thenReturn(emptySet());
+		when(transactionInformation.getDirtyEntities()).thenReturn(emptySet());
+		cache.afterCommitTransaction("transactionID");
+		verify(mockBus, never()).publish(any(L2CacheInvalidation.class));
+	}
+
 	@Test
 	public void testGetStringIdCachesLoadedData()
 	{
@@ -190,7 +259,7 @@ public class L2CacheTest extends AbstractMolgenisSpringTest
 	}
 
 	@SuppressWarnings("unchecked")
-	@Test(expectedExceptions = UncheckedExecutionException.class)
+	@Test(expectedExceptions = MolgenisDataException.class)
 	public void testGetBatchIdLoaderThrowsException()
 	{
 		when(repository.findAll(any(Stream.class))).thenThrow(
@@ -2,9 +2,11 @@ package org.molgenis.data.cache.l3;
 
 import com.google.common.collect.Sets;
 import com.google.common.util.concurrent.UncheckedExecutionException;
+import org.mockito.ArgumentMatchers;
 import org.mockito.Mock;
 import org.mockito.quality.Strictness;
 import org.molgenis.data.*;
+import org.molgenis.data.cache.utils.CacheSettings;
 import org.molgenis.data.meta.model.AttributeFactory;
 import org.molgenis.data.meta.model.EntityType;
 import org.molgenis.data.meta.model.EntityTypeFactory;
@@ -13,6 +15,7 @@ import org.molgenis.data.support.QueryImpl;
 import org.molgenis.data.transaction.TransactionInformation;
 import org.molgenis.data.transaction.TransactionManager;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
@@ -92,7 +95,8 @@ public class L3CacheTest extends AbstractMolgenisSpringTest
 		when(decoratedRepository.getName()).thenReturn(repositoryName);
 		when(decoratedRepository.getEntityType()).thenReturn(entityType);
 
-		l3Cache = new L3Cache(transactionManager, transactionInformation);
+		l3Cache = new L3Cache(transactionManager, transactionInformation,
+				new CacheSettings(8, 128, 32, mock(Environment.class)));
 	}
 
 	@Test
@@ -163,7 +167,7 @@ public class L3CacheTest extends AbstractMolgenisSpringTest
 		assertEquals(l3Cache.get(decoratedRepository, query), Arrays.asList(1, 2));
 		assertEquals(l3Cache.get(decoratedRepository, query), Arrays.asList(1, 2));
 
-		when(transactionInformation.getDirtyRepositories()).thenReturn(Collections.singleton(repositoryName));
+		when(transactionInformation.getEntirelyDirtyRepositories()).thenReturn(Collections.singleton(repositoryName));
 		l3Cache.afterCommitTransaction("ABCDE");
 
 		when(decoratedRepository.findAll(fetchLessQuery)).thenReturn(Stream.of(entity3, entity2));
@@ -188,7 +192,7 @@ public class L3CacheTest extends AbstractMolgenisSpringTest
 		assertEquals(l3Cache.get(decoratedRepository, query), Arrays.asList(1, 2));
 		assertEquals(l3Cache.get(decoratedRepository, query), Arrays.asList(1, 2));
 
-		when(transactionInformation.getDirtyRepositories()).thenReturn(Collections.singleton("blah"));
+		when(transactionInformation.getEntirelyDirtyRepositories()).thenReturn(Collections.singleton("blah"));
 		l3Cache.afterCommitTransaction("ABCDE");
 
 		assertEquals(l3Cache.get(decoratedRepository, query), Arrays.asList(1, 2));
@@ -199,4 +203,70 @@ public class L3CacheTest extends AbstractMolgenisSpringTest
 		verify(decoratedRepository, atLeast(0)).getEntityType();
 		verifyNoMoreInteractions(decoratedRepository);
 	}
+
+	@Test
+	public void testAfterCommitTransactionDirtyEntityInResult()
+	{
+		Fetch idAttributeFetch = new Fetch().field(entityType.getIdAttribute().getName());
+		Query<Entity> fetchLessQuery = new QueryImpl<>().eq(COUNTRY, "NL").fetch(idAttributeFetch);
+
+		when(decoratedRepository.findAll(fetchLessQuery)).thenReturn(Stream.of(entity1, entity2));
+
+		Query<Entity> query = new QueryImpl<>().eq(COUNTRY, "NL");
+		assertEquals(l3Cache.get(decoratedRepository, query), Arrays.asList(1, 2));
+
+		when(transactionInformation.getDirtyEntities()).thenReturn(
+				Collections.singleton(EntityKey.create(entityType, 2)));
+		l3Cache.afterCommitTransaction("ABCDE");
+
+		when(decoratedRepository.findAll(fetchLessQuery)).thenReturn(Stream.of(entity1));
+		assertEquals(l3Cache.get(decoratedRepository, query), Collections.singletonList(1));
+
+		verify(decoratedRepository, times(2)).findAll(fetchLessQuery);
+	}
+
+	@Test
+	public void testAfterCommitTransactionDirtyEntityNotMatchingQuery()
+	{
+		Fetch idAttributeFetch = new Fetch().field(entityType.getIdAttribute().getName());
+		Query<Entity> fetchLessQuery = new QueryImpl<>().eq(COUNTRY, "NL").fetch(idAttributeFetch);
+
+		when(decoratedRepository.findAll(fetchLessQuery)).thenReturn(Stream.of(entity1, entity2));
+
+		Query<Entity> query = new QueryImpl<>().eq(COUNTRY, "NL");
+		assertEquals(l3Cache.get(decoratedRepository, query), Arrays.asList(1, 2));
+
+		when(transactionInformation.getDirtyEntities()).thenReturn(
+				Collections.singleton(EntityKey.create(entityType, 3)));
+		l3Cache.afterCommitTransaction("ABCDE");
+
+		when(decoratedRepository.findAll(ArgumentMatchers.<Stream<Object>>any())).thenReturn(Stream.of(entity3));
+		assertEquals(l3Cache.get(decoratedRepository, query), Arrays.asList(1, 2));
+		assertEquals(l3Cache.get(decoratedRepository, query), Arrays.asList(1, 2));
+
+		verify(decoratedRepository, times(1)).findAll(fetchLessQuery);
+		verify(decoratedRepository, times(1)).findAll(ArgumentMatchers.<Stream<Object>>any());
+	}
+
+	@Test
+	public void testAfterCommitTransactionDirtyEntityMatchingQuery()
+	{
+		Fetch idAttributeFetch = new Fetch().field(entityType.getIdAttribute().getName());
+		Query<Entity> fetchLessQuery = new QueryImpl<>().eq(COUNTRY, "GB").fetch(idAttributeFetch);
+
+		when(decoratedRepository.findAll(fetchLessQuery)).thenReturn(Stream.empty());
+
+		Query<Entity> query = new QueryImpl<>().eq(COUNTRY, "GB");
+		assertEquals(l3Cache.get(decoratedRepository, query), Collections.emptyList());
+
+		when(transactionInformation.getDirtyEntities()).thenReturn(
+				Collections.singleton(EntityKey.create(entityType, 3)));
+		l3Cache.afterCommitTransaction("ABCDE");
+
+		when(decoratedRepository.findAll(ArgumentMatchers.<Stream<Object>>any())).thenReturn(Stream.of(entity3));
+		when(decoratedRepository.findAll(fetchLessQuery)).thenReturn(Stream.of(entity3));
+		assertEquals(l3Cache.get(decoratedRepository, query), Collections.singletonList(3));
+
+		verify(decoratedRepository, times(2)).findAll(fetchLessQuery);
+	}
 }
@@ -0,0 +1,152 @@
+package org.molgenis.data.cache.l3;
+
+import org.mockito.Mock;
+import org.molgenis.data.Entity;
+import org.molgenis.data.Query;
+import org.molgenis.data.meta.model.Attribute;
+import org.molgenis.data.meta.model.EntityType;
+import org.molgenis.data.support.QueryImpl;
+import org.molgenis.test.AbstractMockitoTest;
+import org.testng.annotations.Test;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.molgenis.data.meta.AttributeType.INT;
+import static org.molgenis.data.meta.AttributeType.MREF;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class QueryRuleEvaluatorTest extends AbstractMockitoTest
+{
+	@Mock
+	private EntityType entityType;
+
+	@Mock
+	private Attribute attribute;
+
+	@Mock
+	private Entity entity;
+
+	@Test
+	public void testIsEvaluable()
+	{
+		when(entityType.getAttribute("age")).thenReturn(attribute);
+		when(attribute.getDataType()).thenReturn(INT);
+		Query<Entity> query = new QueryImpl<>().eq("age", 1).or().nest().gt("age", 10).and().lt("age", 20).unnest();
+		assertTrue(QueryRuleEvaluator.isEvaluable(query, entityType));
+	}
+
+	@Test
+	public void testIsEvaluableOffset()
+	{
+		Query<Entity> query = new QueryImpl<>().offset(10);
+		assertFalse(QueryRuleEvaluator.isEvaluable(query, entityType));
+	}
+
+	@Test
+	public void testIsEvaluableUnsupportedOperator()
+	{
+		Query<Entity> query = new QueryImpl<>().search("term");
+		assertFalse(QueryRuleEvaluator.isEvaluable(query, entityType));
+	}
+
+	@Test
+	public void testIsEvaluableMultipleReference()
+	{
+		when(entityType.getAttribute("children")).thenReturn(attribute);
+		when(attribute.getDataType()).thenReturn(MREF);
+		Query<Entity> query = new QueryImpl<>().eq("children", "child0");
+		assertFalse(QueryRuleEvaluator.isEvaluable(query, entityType));
+	}
+
+	@Test
+	public void testIsEvaluableComputed()
+	{
+		when(entityType.getAttribute("age")).thenReturn(attribute);
+		when(attribute.getDataType()).thenReturn(INT);
+		when(attribute.hasExpression()).thenReturn(true);
+		Query<Entity> query = new QueryImpl<>().eq("age", 1);
+		assertFalse(QueryRuleEvaluator.isEvaluable(query, entityType));
+	}
+
+	@Test
+	public void testMayMatchEquals()
+	{
+		when(entity.get("age")).thenReturn(1);
+		assertTrue(QueryRuleEvaluator.mayMatch(new QueryImpl<>().eq("age", 1).getRules(), entity));
+		assertFalse(QueryRuleEvaluator.mayMatch(new QueryImpl<>().eq("age", 2).getRules(), entity));
+	}
+
+	@Test
+	public void testMayMatchEqualsNull()
+	{
+		assertTrue(QueryRuleEvaluator.mayMatch(new QueryImpl<>().eq("age", null).getRules(), entity));
+	}
+
+	@Test
+	public void testMayMatchEqualsReference()
+	{
+		Entity refEntity = when(mock(Entity.class).getIdValue()).thenReturn("id0").getMock();
+		when(entity.get("ref")).thenReturn(refEntity);
+		assertTrue(QueryRuleEvaluator.mayMatch(new QueryImpl<>().eq("ref", "id0").getRules(), entity));
+	}
+
+	@Test
+	public void testMayMatchDifferentType()
+	{
+		when(entity.get("age")).thenReturn(1);
+		assertTrue(QueryRuleEvaluator.mayMatch(new QueryImpl<>().eq("age", "2").getRules(), entity));
+	}
+
+	@Test
+	public void testMayMatchIn()
+	{
+		when(entity.get("age")).thenReturn(1);
+		assertTrue(QueryRuleEvaluator.mayMatch(new QueryImpl<>().in("age", Arrays.asList(0, 1)).getRules(), entity));
+		assertFalse(QueryRuleEvaluator.mayMatch(new QueryImpl<>().in("age", Arrays.asList(2, 3)).getRules(), entity));
+	}
+
+	@Test
+	public void testMayMatchRange()
+	{
+		when(entity.get("age")).thenReturn(5);
+		assertTrue(QueryRuleEvaluator.mayMatch(new QueryImpl<>().rng("age", 5, 10).getRules(), entity));
+		assertFalse(QueryRuleEvaluator.mayMatch(new QueryImpl<>().rng("age", 6, 10).getRules(), entity));
+	}
+
+	@Test
+	public void testMayMatchCompareString()
+	{
+		// a database collation can order 'émile' < 'zoe' < 'Zoë', unlike String.compareTo
+		when(entity.get("name")).thenReturn("zoe");
+		assertTrue(QueryRuleEvaluator.mayMatch(new QueryImpl<>().lt("name", "Zoë").getRules(), entity));
+		assertTrue(QueryRuleEvaluator.mayMatch(new QueryImpl<>().gt("name", "émile").getRules(), entity));
+		assertTrue(QueryRuleEvaluator.mayMatch(new QueryImpl<>().rng("name", "Émile", "Zoë").getRules(), entity));
+	}
+
+	@Test
+	public void testMayMatchCompareDate()
+	{
+		when(entity.get("date")).thenReturn(LocalDate.parse("2017-01-02"));
+		assertTrue(QueryRuleEvaluator.mayMatch(
+				new QueryImpl<>().ge("date", LocalDate.parse("2017-01-02")).getRules(), entity));
+		assertFalse(QueryRuleEvaluator.mayMatch(
+				new QueryImpl<>().gt("date", LocalDate.parse("2017-01-02")).getRules(), entity));
+	}
+
+	@Test
+	public void testMayMatchAndOr()
+	{
+		when(entity.get("age")).thenReturn(5);
+		doReturn("john").when(entity).get("name");
+		Query<Entity> query = new QueryImpl<>().eq("age", 5).and().eq("name", "jane").or().ge("age", 5);
+		assertTrue(QueryRuleEvaluator.mayMatch(query.getRules(), entity));
+		Query<Entity> otherQuery = new QueryImpl<>().eq("age", 5).and().nest().eq("name", "jane").or().lt("age", 5)
+																	 .unnest();
+		assertFalse(QueryRuleEvaluator.mayMatch(otherQuery.getRules(), entity));
+	}
+}
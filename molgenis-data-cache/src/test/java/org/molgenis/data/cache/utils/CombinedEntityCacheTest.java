@@ -9,9 +9,9 @@ import org.molgenis.test.AbstractMockitoTest;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
-import java.util.Map;
 import java.util.Optional;
 
+import static java.util.Collections.singletonList;
 import static java.util.Optional.empty;
 import static org.mockito.Mockito.when;
 import static org.testng.Assert.assertEquals;
@@ -23,19 +23,20 @@ public class CombinedEntityCacheTest extends AbstractMockitoTest
 	@Mock
 	private EntityHydration entityHydration;
 	@Mock
-	private Cache<EntityKey, Optional<Map<String, Object>>> cache;
+	private Cache<EntityKey, Optional<DehydratedEntity>> cache;
 	@Mock
 	EntityType entityType;
 	@Mock
 	Entity entity;
-	@Mock
-	Map<String, Object> dehydratedEntity;
+	private DehydratedEntity dehydratedEntity;
 
 	@BeforeMethod
 	public void beforeMethod()
 	{
 		when(entityType.getId()).thenReturn("TestEntity");
 		entityCache = new CombinedEntityCache(entityHydration, cache);
+		dehydratedEntity = new DehydratedEntity(DehydratedEntitySchema.create("TestEntity", singletonList("id")),
+				new Object[] { 123 });
 	}
 
 	@Test
@@ -18,6 +18,7 @@ import org.testng.annotations.Test;
 import java.text.ParseException;
 import java.time.Instant;
 import java.time.LocalDate;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
@@ -32,6 +33,7 @@ import static org.molgenis.data.EntityTestHarness.*;
 import static org.molgenis.data.meta.AttributeType.ONE_TO_MANY;
 import static org.molgenis.data.meta.AttributeType.XREF;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
 import static org.testng.Assert.assertTrue;
 
 @ContextConfiguration(classes = { TestHarnessConfig.class })
@@ -107,7 +109,7 @@ public class EntityHydrationTest extends AbstractMolgenisSpringTest
 	@Test
 	public void hydrateTest()
 	{
-		Entity actualHydratedEntity = entityHydration.hydrate(dehydratedEntity, entityType);
+		Entity actualHydratedEntity = entityHydration.hydrate(toDehydratedEntity(dehydratedEntity), entityType);
 		assertTrue(EntityUtils.equals(actualHydratedEntity, hydratedEntity));
 		// check that it has retrieved references of type TypeTestRef
 		assertTrue(entityTypeArgumentCaptor.getAllValues()
@@ -115,11 +117,34 @@ public class EntityHydrationTest extends AbstractMolgenisSpringTest
 										   .allMatch(emd -> emd.getId().equals("TypeTestRefDynamic")));
 	}
 
+	@Test
+	public void hydrateDifferentAttributeOrder()
+	{
+		List<String> attributeNames = newArrayList(dehydratedEntity.keySet());
+		Collections.reverse(attributeNames);
+		DehydratedEntitySchema schema = DehydratedEntitySchema.create(entityType.getId(), attributeNames);
+		DehydratedEntity reversedDehydratedEntity = new DehydratedEntity(schema,
+				attributeNames.stream().map(dehydratedEntity::get).toArray());
+
+		Entity actualHydratedEntity = entityHydration.hydrate(reversedDehydratedEntity, entityType);
+		assertTrue(EntityUtils.equals(actualHydratedEntity, hydratedEntity));
+	}
+
 	@Test
 	public void dehydrateTest()
 	{
-		Map<String, Object> actualDehydratedEntity = entityHydration.dehydrate(hydratedEntity);
-		assertEquals(actualDehydratedEntity, dehydratedEntity);
+		DehydratedEntity actualDehydratedEntity = entityHydration.dehydrate(hydratedEntity);
+		assertEquals(actualDehydratedEntity.getSchema().getAttributeCount(), dehydratedEntity.size());
+		dehydratedEntity.forEach(
+				(attributeName, value) -> assertEquals(actualDehydratedEntity.get(attributeName), value, attributeName));
+	}
+
+	@Test
+	public void dehydrateSharesSchema()
+	{
+		DehydratedEntity dehydratedEntity = entityHydration.dehydrate(hydratedEntity);
+		DehydratedEntity otherDehydratedEntity = entityHydration.dehydrate(hydratedEntity);
+		assertSame(dehydratedEntity.getSchema(), otherDehydratedEntity.getSchema());
 	}
 
 	@Test
@@ -135,13 +160,14 @@ public class EntityHydrationTest extends AbstractMolgenisSpringTest
 		when(oneToManyEntity1.getIdValue()).thenReturn(oneToManyEntity1IdValue);
 		when(entity.getEntities(attrName)).thenReturn(newArrayList(oneToManyEntity0, oneToManyEntity1));
 		EntityType entityType = mock(EntityType.class);
+		when(entityType.getId()).thenReturn("entityTypeId");
 		Attribute oneToManyAttr = mock(Attribute.class);
 		when(oneToManyAttr.getName()).thenReturn(attrName);
 		when(oneToManyAttr.getDataType()).thenReturn(ONE_TO_MANY);
 		when(entityType.getAtomicAttributes()).thenReturn(singleton(oneToManyAttr));
 		when(entity.getEntityType()).thenReturn(entityType);
-		assertEquals(entityHydration.dehydrate(entity),
-				singletonMap(attrName, newArrayList(oneToManyEntity0IdValue, oneToManyEntity1IdValue)));
+		assertEquals(entityHydration.dehydrate(entity).get(attrName),
+				newArrayList(oneToManyEntity0IdValue, oneToManyEntity1IdValue));
 	}
 
 	@Test
@@ -154,11 +180,19 @@ public class EntityHydrationTest extends AbstractMolgenisSpringTest
 		when(manyToOneEntity.getIdValue()).thenReturn(manyToOneEntityIdValue);
 		when(entity.getEntity(attrName)).thenReturn(manyToOneEntity);
 		EntityType entityType = mock(EntityType.class);
+		when(entityType.getId()).thenReturn("entityTypeId");
 		Attribute xrefAttr = mock(Attribute.class);
 		when(xrefAttr.getName()).thenReturn(attrName);
 		when(xrefAttr.getDataType()).thenReturn(XREF);
 		when(entityType.getAtomicAttributes()).thenReturn(singleton(xrefAttr));
 		when(entity.getEntityType()).thenReturn(entityType);
-		assertEquals(entityHydration.dehydrate(entity), singletonMap(attrName, manyToOneEntityIdValue));
+		assertEquals(entityHydration.dehydrate(entity).get(attrName), manyToOneEntityIdValue);
+	}
+
+	private DehydratedEntity toDehydratedEntity(Map<String, Object> dehydratedEntityMap)
+	{
+		List<String> attributeNames = newArrayList(dehydratedEntityMap.keySet());
+		DehydratedEntitySchema schema = DehydratedEntitySchema.create(entityType.getId(), attributeNames);
+		return new DehydratedEntity(schema, attributeNames.stream().map(dehydratedEntityMap::get).toArray());
 	}
 }
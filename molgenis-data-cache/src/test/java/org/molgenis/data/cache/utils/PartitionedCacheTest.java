@@ -0,0 +1,116 @@
+package org.molgenis.data.cache.utils;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import org.mockito.Mock;
+import org.molgenis.data.MolgenisDataException;
+import org.molgenis.data.meta.model.EntityType;
+import org.molgenis.test.AbstractMockitoTest;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.Map;
+import java.util.Optional;
+
+import static com.google.common.collect.ImmutableList.of;
+import static java.util.Collections.singleton;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+public class PartitionedCacheTest extends AbstractMockitoTest
+{
+	@Mock
+	private EntityType entityType;
+	@Mock
+	private EntityType otherEntityType;
+	@Mock
+	private EntityType dedicatedEntityType;
+
+	private PartitionedCache<String, String> partitionedCache;
+
+	@BeforeMethod
+	public void setUpBeforeMethod()
+	{
+		when(entityType.getId()).thenReturn("entityType");
+		partitionedCache = new PartitionedCache<>(key -> key.split("/")[0], (key, value) -> value.length(), 1000,
+				type -> type.getId().equals("dedicatedEntityType") ? Optional.of(2000L) : Optional.empty(), 10);
+	}
+
+	@Test
+	public void testGetRecordsHitsAndMisses()
+	{
+		assertEquals(partitionedCache.get(entityType, "entityType/1", () -> "value"), "value");
+		assertEquals(partitionedCache.get(entityType, "entityType/1", () -> "other value"), "value");
+		assertEquals(partitionedCache.getStatistics(),
+				ImmutableMap.of("entityType", EntityTypeCacheStats.create(1, 1, 0)));
+	}
+
+	@Test(expectedExceptions = UncheckedExecutionException.class)
+	public void testGetLoaderThrowsException()
+	{
+		partitionedCache.get(entityType, "entityType/1", () ->
+		{
+			throw new MolgenisDataException("error");
+		});
+	}
+
+	@Test
+	public void testGetAllPresent()
+	{
+		partitionedCache.putAll(entityType, ImmutableMap.of("entityType/1", "value1"));
+		Map<String, String> result = partitionedCache.getAllPresent(entityType, of("entityType/1", "entityType/2"));
+		assertEquals(result, ImmutableMap.of("entityType/1", "value1"));
+		assertEquals(partitionedCache.getStatistics(),
+				ImmutableMap.of("entityType", EntityTypeCacheStats.create(1, 1, 0)));
+	}
+
+	@Test
+	public void testInvalidate()
+	{
+		partitionedCache.putAll(entityType, ImmutableMap.of("entityType/1", "value1", "entityType/2", "value2"));
+		partitionedCache.invalidate("entityType/1");
+		assertEquals(partitionedCache.getAllPresent(entityType, of("entityType/1", "entityType/2")),
+				ImmutableMap.of("entityType/2", "value2"));
+	}
+
+	@Test
+	public void testInvalidateAllSharedCache()
+	{
+		when(otherEntityType.getId()).thenReturn("otherEntityType");
+		partitionedCache.putAll(entityType, ImmutableMap.of("entityType/1", "value1"));
+		partitionedCache.putAll(otherEntityType, ImmutableMap.of("otherEntityType/1", "value1"));
+
+		partitionedCache.invalidateAll(singleton("entityType"));
+
+		assertEquals(partitionedCache.getAllPresent(entityType, of("entityType/1")), ImmutableMap.of());
+		assertEquals(partitionedCache.getAllPresent(otherEntityType, of("otherEntityType/1")),
+				ImmutableMap.of("otherEntityType/1", "value1"));
+	}
+
+	@Test
+	public void testInvalidateAllDedicatedCache()
+	{
+		when(dedicatedEntityType.getId()).thenReturn("dedicatedEntityType");
+		partitionedCache.putAll(entityType, ImmutableMap.of("entityType/1", "value1"));
+		partitionedCache.putAll(dedicatedEntityType, ImmutableMap.of("dedicatedEntityType/1", "value1"));
+
+		partitionedCache.invalidateAll(singleton("dedicatedEntityType"));
+
+		assertEquals(partitionedCache.getAllPresent(entityType, of("entityType/1")),
+				ImmutableMap.of("entityType/1", "value1"));
+		assertEquals(partitionedCache.getAllPresent(dedicatedEntityType, of("dedicatedEntityType/1")),
+				ImmutableMap.of());
+	}
+
+	@Test
+	public void testInvalidateUnknownEntityType()
+	{
+		partitionedCache.putAll(entityType, ImmutableMap.of("entityType/1", "value1"));
+		partitionedCache.invalidate("unknownEntityType/1");
+		partitionedCache.invalidateAll(singleton("unknownEntityType"));
+		assertEquals(partitionedCache.getAllPresent(entityType, of("entityType/1")),
+				ImmutableMap.of("entityType/1", "value1"));
+		assertNull(partitionedCache.getStatistics().get("unknownEntityType"));
+	}
+}
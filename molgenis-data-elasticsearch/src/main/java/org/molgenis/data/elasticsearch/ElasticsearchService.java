@@ -17,24 +17,39 @@ import org.molgenis.data.elasticsearch.client.model.SearchHit;
 import org.molgenis.data.elasticsearch.client.model.SearchHits;
 import org.molgenis.data.elasticsearch.generator.ContentGenerators;
 import org.molgenis.data.elasticsearch.generator.model.*;
+import org.molgenis.data.index.ConditionalOnSearchBackend;
 import org.molgenis.data.index.IndexService;
 import org.molgenis.data.index.SearchService;
 import org.molgenis.data.meta.AttributeType;
 import org.molgenis.data.meta.IllegalAttributeTypeException;
 import org.molgenis.data.meta.model.EntityType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutor;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Stream;
 
+import static com.google.common.collect.Lists.newArrayList;
+import static java.lang.Math.min;
+import static java.util.Collections.singleton;
 import static java.util.Objects.requireNonNull;
+import static org.molgenis.data.elasticsearch.FieldConstants.FIELD_SCORE;
+import static org.molgenis.data.elasticsearch.FieldConstants.FIELD_UID;
+import static org.molgenis.data.index.ConditionalOnSearchBackend.ELASTICSEARCH;
 import static org.molgenis.data.support.EntityTypeUtils.createFetchForReindexing;
 
 /**
  * Elasticsearch search service that executes all requests using the elasticsearch client facade.
  */
 @Component
+@ConditionalOnSearchBackend(ELASTICSEARCH)
 public class ElasticsearchService implements SearchService, IndexService
 {
 	private static final int BATCH_SIZE = 1000;
@@ -43,18 +58,40 @@ public class ElasticsearchService implements SearchService, IndexService
 	private final ClientFacade clientFacade;
 	private final ContentGenerators contentGenerators;
 	private final DataService dataService;
-
-	public ElasticsearchService(ClientFacade clientFacade, ContentGenerators contentGenerators, DataService dataService)
+	private final SearchResultCache searchResultCache;
+	private final int maxPendingBatches;
+	// creates documents while rebuilding indexes
+	private final ExecutorService documentExecutorService;
+	// feeds the documents to the bulk processor while rebuilding indexes
+	private final ExecutorService indexerExecutorService = Executors.newCachedThreadPool();
+	// entity types with written documents that only become visible to searches on the next refresh
+	private final Set<String> unrefreshedEntityTypeIds = ConcurrentHashMap.newKeySet();
+
+	/**
+	 * @param nrDocumentThreads number of threads that create documents while rebuilding indexes
+	 */
+	ElasticsearchService(ClientFacade clientFacade, ContentGenerators contentGenerators, DataService dataService,
+			SearchResultCache searchResultCache,
+			@Value("${elasticsearch.index.document-threads:4}") int nrDocumentThreads)
 	{
 		this.clientFacade = requireNonNull(clientFacade);
 		this.contentGenerators = requireNonNull(contentGenerators);
 		this.dataService = requireNonNull(dataService);
+		this.searchResultCache = requireNonNull(searchResultCache);
+		this.maxPendingBatches = 2 * nrDocumentThreads;
+		this.documentExecutorService = Executors.newFixedThreadPool(nrDocumentThreads);
 	}
 
 	@Override
 	public void createIndex(EntityType entityType)
 	{
 		Index index = contentGenerators.createIndex(entityType);
+		createIndex(index, entityType);
+		invalidateResults(entityType);
+	}
+
+	private void createIndex(Index index, EntityType entityType)
+	{
 		IndexSettings indexSettings = IndexSettings.create();
 		Mapping mapping = contentGenerators.createMapping(entityType);
 		clientFacade.createIndex(index, indexSettings, Stream.of(mapping));
@@ -72,42 +109,92 @@ public class ElasticsearchService implements SearchService, IndexService
 	{
 		Index index = contentGenerators.createIndex(entityType);
 		clientFacade.deleteIndex(index);
+		invalidateResults(entityType);
 	}
 
+	/**
+	 * Rebuilds the index of a repository in a new versioned index while the current index keeps serving requests. The
+	 * index alias is swapped to the new index once all entities are indexed.
+	 * <p>
+	 * Reading the entities, creating the documents and indexing the documents overlap: the current thread reads batches
+	 * of entities while other threads create and index the documents of previous batches.
+	 */
 	@Override
-	public void rebuildIndex(Repository<? extends Entity> repository)
+	public long rebuildIndex(Repository<? extends Entity> repository)
 	{
 		EntityType entityType = repository.getEntityType();
 
-		if (hasIndex(entityType))
+		Index index = contentGenerators.createVersionedIndex(entityType);
+		createIndex(index, entityType);
+		// creating documents might resolve references, which requires the security context of the current thread
+		IndexingPipeline indexingPipeline = new IndexingPipeline(clientFacade,
+				entity -> toDocumentAction(index, entity),
+				new DelegatingSecurityContextExecutor(documentExecutorService), indexerExecutorService,
+				maxPendingBatches);
+		try
 		{
-			deleteIndex(entityType);
+			repository.forEachBatched(createFetchForReindexing(entityType), indexingPipeline::add, BATCH_SIZE);
+			long count = indexingPipeline.finish();
+			clientFacade.refreshIndex(index);
+			clientFacade.swapIndexAlias(index);
+			invalidateResults(entityType);
+			return count;
+		}
+		catch (RuntimeException e)
+		{
+			indexingPipeline.abort();
+			clientFacade.deleteIndex(index);
+			throw e;
 		}
-
-		createIndex(entityType);
-		repository.forEachBatched(createFetchForReindexing(entityType),
-				entities -> index(entityType, entities.stream()), BATCH_SIZE);
 	}
 
+	/**
+	 * Refreshes all indexes and invalidates the cached results of the entity types that were written since the previous
+	 * refresh.
+	 */
 	@Override
 	public void refreshIndex()
 	{
+		List<String> entityTypeIds = new ArrayList<>(unrefreshedEntityTypeIds);
+		unrefreshedEntityTypeIds.removeAll(entityTypeIds);
 		clientFacade.refreshIndexes();
+		searchResultCache.invalidate(entityTypeIds);
+	}
+
+	private void invalidateResults(EntityType entityType)
+	{
+		searchResultCache.invalidate(singleton(entityType.getId()));
+	}
+
+	/**
+	 * Invalidates the cached results of an entity type after its documents were written, and again after the next
+	 * refresh that makes the documents visible to searches.
+	 */
+	private void invalidateResultsUntilRefresh(EntityType entityType)
+	{
+		unrefreshedEntityTypeIds.add(entityType.getId());
+		invalidateResults(entityType);
 	}
 
 	@Override
 	public long count(EntityType entityType)
 	{
-		Index index = contentGenerators.createIndex(entityType);
-		return clientFacade.getCount(index);
+		return searchResultCache.getCount(entityType, null, () ->
+		{
+			Index index = contentGenerators.createIndex(entityType);
+			return clientFacade.getCount(index);
+		});
 	}
 
 	@Override
 	public long count(EntityType entityType, Query<Entity> q)
 	{
-		Index index = contentGenerators.createIndex(entityType);
-		QueryBuilder queryBuilder = contentGenerators.createQuery(q, entityType);
-		return clientFacade.getCount(queryBuilder, index);
+		return searchResultCache.getCount(entityType, q, () ->
+		{
+			Index index = contentGenerators.createIndex(entityType);
+			QueryBuilder queryBuilder = contentGenerators.createQuery(q, entityType);
+			return clientFacade.getCount(queryBuilder, index);
+		});
 	}
 
 	@Override
@@ -118,36 +205,61 @@ public class ElasticsearchService implements SearchService, IndexService
 		return search(entityType, q, from, q.getPageSize());
 	}
 
+	/**
+	 * Searches entity ids. Results within the result window of from-size paging are retrieved with a single request,
+	 * other results are retrieved lazily page by page while the stream is consumed.
+	 *
+	 * @param pageSize maximum number of entity ids, 0 for all entity ids
+	 */
 	private Stream<Object> search(EntityType entityType, Query<Entity> q, int offset, int pageSize)
 	{
 		QueryBuilder query = contentGenerators.createQuery(q, entityType);
 		Sort sort = q.getSort() != null ? contentGenerators.createSorts(q.getSort(), entityType) : null;
 		Index index = contentGenerators.createIndex(entityType);
-		Stream<SearchHit> searchHits = Stream.empty();
 
-		boolean done = false;
-		int currentOffset;
-		int i = 0;
-		while (!done)
+		Stream<SearchHit> searchHits;
+		if (pageSize != 0 && offset + pageSize <= MAX_BATCH_SIZE)
 		{
-			int batchSize = pageSize < MAX_BATCH_SIZE && pageSize != 0 ? pageSize : MAX_BATCH_SIZE;
-			currentOffset = offset + (i * MAX_BATCH_SIZE);
-
-			SearchHits currentSearchHits = clientFacade.search(query, currentOffset, batchSize, sort, index);
-			searchHits = Streams.concat(searchHits, currentSearchHits.getHits().stream());
-
-			if (currentSearchHits.getHits().size() < MAX_BATCH_SIZE)
+			searchHits = clientFacade.search(query, offset, pageSize, sort, index).getHits().stream();
+		}
+		else
+		{
+			int batchSize = pageSize != 0 ? min(pageSize, MAX_BATCH_SIZE) : MAX_BATCH_SIZE;
+			// offsets beyond the result window are skipped while iterating
+			int from = offset + batchSize <= MAX_BATCH_SIZE ? offset : 0;
+			searchHits = Streams.stream(
+					new SearchHitIterator(clientFacade, query, createUniqueSort(sort), index, from, batchSize));
+			if (from != offset)
 			{
-				done = true;
+				searchHits = searchHits.skip(offset);
+			}
+			if (pageSize != 0)
+			{
+				searchHits = searchHits.limit(pageSize);
 			}
-
-			if (pageSize != 0) pageSize -= MAX_BATCH_SIZE;
-			i++;
 		}
-
 		return toEntityIds(entityType, searchHits.map(SearchHit::getId));
 	}
 
+	/**
+	 * Returns a sort that orders hits in the same way as the given sort, or by score if no sort is given, with the
+	 * document uid as tie-breaker.
+	 */
+	private static Sort createUniqueSort(Sort sort)
+	{
+		List<SortOrder> sortOrders = newArrayList();
+		if (sort != null)
+		{
+			sortOrders.addAll(sort.getOrders());
+		}
+		else
+		{
+			sortOrders.add(SortOrder.create(FIELD_SCORE, SortDirection.DESC));
+		}
+		sortOrders.add(SortOrder.create(FIELD_UID, SortDirection.ASC));
+		return Sort.create(sortOrders);
+	}
+
 	private static Stream<Object> toEntityIds(EntityType entityType, Stream<String> documentIdStream)
 	{
 		return documentIdStream.map(documentId -> ElasticsearchService.toEntityId(entityType, documentId));
@@ -179,6 +291,12 @@ public class ElasticsearchService implements SearchService, IndexService
 
 	@Override
 	public AggregateResult aggregate(final EntityType entityType, AggregateQuery aggregateQuery)
+	{
+		return searchResultCache.getAggregateResult(entityType, aggregateQuery,
+				() -> executeAggregate(entityType, aggregateQuery));
+	}
+
+	private AggregateResult executeAggregate(EntityType entityType, AggregateQuery aggregateQuery)
 	{
 		List<AggregationBuilder> aggregationList = contentGenerators.createAggregations(aggregateQuery.getAttributeX(),
 				aggregateQuery.getAttributeY(), aggregateQuery.getAttributeDistinct());
@@ -203,12 +321,20 @@ public class ElasticsearchService implements SearchService, IndexService
 		Index index = contentGenerators.createIndex(entityType);
 		Document document = contentGenerators.createDocument(entity);
 		clientFacade.index(index, document);
+		invalidateResultsUntilRefresh(entityType);
 	}
 
 	@Override
 	public long index(EntityType entityType, Stream<? extends Entity> entities)
 	{
 		Index index = contentGenerators.createIndex(entityType);
+		long count = index(index, entities);
+		invalidateResultsUntilRefresh(entityType);
+		return count;
+	}
+
+	private long index(Index index, Stream<? extends Entity> entities)
+	{
 		Stream<DocumentAction> documentActionStream = entities.map(entity -> this.toDocumentAction(index, entity));
 
 		AtomicLong count = new AtomicLong(0L);
@@ -238,12 +364,18 @@ public class ElasticsearchService implements SearchService, IndexService
 		Index index = contentGenerators.createIndex(entityType);
 		Document document = contentGenerators.createDocument(entityId);
 		clientFacade.deleteById(index, document);
+		invalidateResultsUntilRefresh(entityType);
 	}
 
 	@Override
 	public void deleteAll(EntityType entityType, Stream<Object> entityIds)
 	{
-		entityIds.forEach(entityId -> deleteById(entityType, entityId));
+		Index index = contentGenerators.createIndex(entityType);
+		Stream<DocumentAction> documentActionStream = entityIds.map(
+				entityId -> DocumentAction.create(index, contentGenerators.createDocument(entityId),
+						DocumentAction.Operation.DELETE));
+		clientFacade.processDocumentActions(documentActionStream);
+		invalidateResultsUntilRefresh(entityType);
 	}
 
 	@Override
@@ -8,4 +8,6 @@ public interface FieldConstants
 	String AGGREGATION_MISSING_POSTFIX = "_missing";
 	String AGGREGATION_DISTINCT_POSTFIX = "_distinct";
 	String AGGREGATION_TERMS_POSTFIX = "_terms";
+	String FIELD_SCORE = "_score";
+	String FIELD_UID = "_uid";
 }
@@ -0,0 +1,183 @@
+package org.molgenis.data.elasticsearch;
+
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.Streams;
+import org.molgenis.data.Entity;
+import org.molgenis.data.elasticsearch.client.ClientFacade;
+import org.molgenis.data.elasticsearch.generator.model.DocumentAction;
+import org.molgenis.data.index.exception.IndexException;
+
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Indexes batches of entities in a pipeline: the thread that adds batches reads the entities, worker threads create the
+ * documents and a single indexer thread feeds the documents to the bulk processor in the order in which the batches
+ * were added. The number of batches in the pipeline is bounded so that adding a batch blocks when document creation
+ * or indexing falls behind.
+ */
+class IndexingPipeline
+{
+	private static final long POLL_INTERVAL_MILLIS = 100L;
+
+	/**
+	 * Marks the end of the batches
+	 */
+	private static final CompletableFuture<List<DocumentAction>> END = CompletableFuture.completedFuture(null);
+
+	private final Function<Entity, DocumentAction> documentActionCreator;
+	private final Executor workerExecutor;
+	private final BlockingQueue<CompletableFuture<List<DocumentAction>>> batches;
+	private final CompletableFuture<Void> indexing;
+	private final AtomicLong count = new AtomicLong();
+	private volatile boolean aborted;
+
+	/**
+	 * @param clientFacade          client facade to process the document actions
+	 * @param documentActionCreator creates document actions for entities, called by the worker threads
+	 * @param workerExecutor        executor of the document creation
+	 * @param indexerExecutor       executor of the indexer
+	 * @param maxPendingBatches     maximum number of batches that are created or waiting to be indexed
+	 */
+	IndexingPipeline(ClientFacade clientFacade, Function<Entity, DocumentAction> documentActionCreator,
+			Executor workerExecutor, Executor indexerExecutor, int maxPendingBatches)
+	{
+		requireNonNull(clientFacade);
+		this.documentActionCreator = requireNonNull(documentActionCreator);
+		this.workerExecutor = requireNonNull(workerExecutor);
+		this.batches = new ArrayBlockingQueue<>(maxPendingBatches);
+		this.indexing = CompletableFuture.runAsync(
+				() -> clientFacade.processDocumentActions(Streams.stream(new DocumentActionIterator())),
+				indexerExecutor);
+	}
+
+	/**
+	 * Adds a batch of entities to the pipeline, blocks while the pipeline is full.
+	 *
+	 * @throws IndexException if indexing failed
+	 */
+	void add(List<? extends Entity> entities)
+	{
+		CompletableFuture<List<DocumentAction>> batch = CompletableFuture.supplyAsync(
+				() -> entities.stream().map(documentActionCreator).collect(toList()), workerExecutor);
+		put(batch);
+	}
+
+	/**
+	 * Waits until all batches are indexed.
+	 *
+	 * @return number of indexed entities
+	 * @throws IndexException if indexing failed
+	 */
+	long finish()
+	{
+		put(END);
+		join(indexing);
+		return count.get();
+	}
+
+	/**
+	 * Stops indexing and waits for the indexer to stop, batches that were not yet indexed are discarded.
+	 */
+	void abort()
+	{
+		aborted = true;
+		batches.clear();
+		try
+		{
+			indexing.join();
+		}
+		catch (CompletionException e)
+		{
+			// indexing is aborted, so the failure is irrelevant
+		}
+	}
+
+	private void put(CompletableFuture<List<DocumentAction>> batch)
+	{
+		try
+		{
+			while (!batches.offer(batch, POLL_INTERVAL_MILLIS, MILLISECONDS))
+			{
+				if (indexing.isDone())
+				{
+					// the indexer stopped before the end of the batches
+					join(indexing);
+					throw new IndexException("Indexing stopped before all batches were indexed");
+				}
+			}
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw new IndexException("Interrupted while indexing");
+		}
+	}
+
+	private static <T> T join(CompletableFuture<T> future)
+	{
+		try
+		{
+			return future.join();
+		}
+		catch (CompletionException e)
+		{
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException)
+			{
+				throw (RuntimeException) cause;
+			}
+			throw new IndexException(cause.getMessage(), cause);
+		}
+	}
+
+	/**
+	 * Iterates over the document actions of the batches in the order in which they were added.
+	 */
+	private class DocumentActionIterator extends AbstractIterator<DocumentAction>
+	{
+		private List<DocumentAction> documentActions;
+		private int index;
+
+		@Override
+		protected DocumentAction computeNext()
+		{
+			while (documentActions == null || index == documentActions.size())
+			{
+				CompletableFuture<List<DocumentAction>> batch = takeBatch();
+				if (batch == null || batch == END)
+				{
+					return endOfData();
+				}
+				documentActions = join(batch);
+				index = 0;
+			}
+			count.incrementAndGet();
+			return documentActions.get(index++);
+		}
+
+		private CompletableFuture<List<DocumentAction>> takeBatch()
+		{
+			try
+			{
+				CompletableFuture<List<DocumentAction>> batch = null;
+				while (batch == null && !aborted)
+				{
+					batch = batches.poll(POLL_INTERVAL_MILLIS, MILLISECONDS);
+				}
+				return batch;
+			}
+			catch (InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+				throw new IndexException("Interrupted while indexing");
+			}
+		}
+	}
+}
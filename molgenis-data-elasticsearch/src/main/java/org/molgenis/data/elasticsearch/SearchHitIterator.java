@@ -0,0 +1,78 @@
+package org.molgenis.data.elasticsearch;
+
+import com.google.common.collect.AbstractIterator;
+import org.elasticsearch.index.query.QueryBuilder;
+import org.molgenis.data.elasticsearch.client.ClientFacade;
+import org.molgenis.data.elasticsearch.client.model.SearchHit;
+import org.molgenis.data.elasticsearch.generator.model.Index;
+import org.molgenis.data.elasticsearch.generator.model.Sort;
+
+import java.util.Iterator;
+import java.util.List;
+
+import static java.util.Collections.emptyIterator;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Iterates over search hits page by page. A page is only retrieved when the iteration reaches it. Pages after the
+ * first page are retrieved with search_after, so that iterating is not restricted by the result window of from-size
+ * paging and deep pages don't require Elasticsearch to collect all preceding hits.
+ */
+class SearchHitIterator extends AbstractIterator<SearchHit>
+{
+	private final ClientFacade clientFacade;
+	private final QueryBuilder query;
+	private final Sort sort;
+	private final Index index;
+	private final int from;
+	private final int pageSize;
+
+	private Iterator<SearchHit> page = emptyIterator();
+	private SearchHit lastHit;
+	private boolean lastPage;
+
+	/**
+	 * @param sort     sort that is unique for each document
+	 * @param from     offset of the first page
+	 * @param pageSize number of hits per page
+	 */
+	SearchHitIterator(ClientFacade clientFacade, QueryBuilder query, Sort sort, Index index, int from, int pageSize)
+	{
+		this.clientFacade = requireNonNull(clientFacade);
+		this.query = query;
+		this.sort = requireNonNull(sort);
+		this.index = requireNonNull(index);
+		this.from = from;
+		this.pageSize = pageSize;
+	}
+
+	@Override
+	protected SearchHit computeNext()
+	{
+		if (!page.hasNext())
+		{
+			if (lastPage)
+			{
+				return endOfData();
+			}
+			List<SearchHit> hits = nextPage();
+			lastPage = hits.size() < pageSize;
+			page = hits.iterator();
+			if (!page.hasNext())
+			{
+				return endOfData();
+			}
+		}
+		lastHit = page.next();
+		return lastHit;
+	}
+
+	private List<SearchHit> nextPage()
+	{
+		if (lastHit == null)
+		{
+			return clientFacade.search(query, from, pageSize, sort, index).getHits();
+		}
+		return clientFacade.searchAfter(query, lastHit.getSortValues(), pageSize, sort, index).getHits();
+	}
+}
@@ -0,0 +1,177 @@
+package org.molgenis.data.elasticsearch;
+
+import com.google.auto.value.AutoValue;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.molgenis.data.Entity;
+import org.molgenis.data.Query;
+import org.molgenis.data.QueryRule;
+import org.molgenis.data.aggregation.AggregateQuery;
+import org.molgenis.data.aggregation.AggregateResult;
+import org.molgenis.data.index.IndexGenerations;
+import org.molgenis.data.meta.model.Attribute;
+import org.molgenis.data.meta.model.EntityType;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import static java.util.Collections.emptyList;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Caches count and aggregate results per entity type and query rules. Cached results are versioned by the index
+ * generation of the entity type, so that results are no longer served once the index of the entity type changed.
+ * Results also expire after a while.
+ */
+@Component
+class SearchResultCache
+{
+	private static final int MAX_RESULTS = 1000;
+	private static final int EXPIRE_AFTER_WRITE_MINUTES = 10;
+
+	enum ResultType
+	{
+		COUNT, AGGREGATE
+	}
+
+	private final IndexGenerations indexGenerations;
+	private final Cache<ResultKey, Object> results;
+
+	SearchResultCache(IndexGenerations indexGenerations)
+	{
+		this.indexGenerations = requireNonNull(indexGenerations);
+		this.results = CacheBuilder.newBuilder()
+								   .maximumSize(MAX_RESULTS)
+								   .expireAfterWrite(EXPIRE_AFTER_WRITE_MINUTES, MINUTES)
+								   .build();
+	}
+
+	/**
+	 * @param query query or <code>null</code> to count all entities
+	 */
+	long getCount(EntityType entityType, @Nullable Query<Entity> query, LongSupplier countSupplier)
+	{
+		ResultKey key = ResultKey.create(ResultType.COUNT, entityType.getId(), getGeneration(entityType),
+				copyRules(query), null, null, null);
+		return (Long) getResult(key, countSupplier::getAsLong);
+	}
+
+	AggregateResult getAggregateResult(EntityType entityType, AggregateQuery aggregateQuery,
+			Supplier<AggregateResult> aggregateResultSupplier)
+	{
+		ResultKey key = ResultKey.create(ResultType.AGGREGATE, entityType.getId(), getGeneration(entityType),
+				copyRules(aggregateQuery.getQuery()), getName(aggregateQuery.getAttributeX()),
+				getName(aggregateQuery.getAttributeY()), getName(aggregateQuery.getAttributeDistinct()));
+		return (AggregateResult) getResult(key, aggregateResultSupplier::get);
+	}
+
+	/**
+	 * Invalidates the cached results of entity types, must be called after their indexes changed.
+	 */
+	void invalidate(Collection<String> entityTypeIds)
+	{
+		indexGenerations.incrementGenerations(entityTypeIds);
+	}
+
+	private Object getResult(ResultKey key, Supplier<Object> resultSupplier)
+	{
+		Object result = results.getIfPresent(key);
+		if (result == null)
+		{
+			result = resultSupplier.get();
+			results.put(key, result);
+		}
+		return result;
+	}
+
+	/**
+	 * The generation is determined before the result is computed, so that a result computed while the index changes
+	 * is cached with the old generation.
+	 */
+	private long getGeneration(EntityType entityType)
+	{
+		return indexGenerations.getGeneration(entityType.getId());
+	}
+
+	/**
+	 * Counts and aggregates only depend on the rules of a query, so paging and sorting are not part of the key. Query
+	 * rules are mutable and their copy constructor is shallow, so the rules, their nested rules and their values are
+	 * copied here to prevent cache keys from changing after they are cached.
+	 */
+	private static List<QueryRule> copyRules(@Nullable Query<Entity> query)
+	{
+		return query != null ? copy(query.getRules()) : emptyList();
+	}
+
+	private static List<QueryRule> copy(List<QueryRule> rules)
+	{
+		return rules.stream().map(SearchResultCache::copy).collect(toList());
+	}
+
+	private static QueryRule copy(QueryRule rule)
+	{
+		List<QueryRule> nestedRules = rule.getNestedRules();
+		QueryRule copy = !nestedRules.isEmpty() ? new QueryRule(copy(nestedRules)) : new QueryRule();
+		copy.setOperator(rule.getOperator());
+		copy.setField(rule.getField());
+		copy.setValue(copyValue(rule.getValue()));
+		return copy;
+	}
+
+	private static Object copyValue(@Nullable Object value)
+	{
+		if (value instanceof List<?>)
+		{
+			return new ArrayList<>((List<?>) value);
+		}
+		else if (value instanceof Set<?>)
+		{
+			return new LinkedHashSet<>((Set<?>) value);
+		}
+		return value;
+	}
+
+	private static String getName(@Nullable Attribute attribute)
+	{
+		return attribute != null ? attribute.getName() : null;
+	}
+
+	@AutoValue
+	@SuppressWarnings("squid:S1610") // Abstract classes without fields should be converted to interfaces
+	abstract static class ResultKey
+	{
+		abstract ResultType getResultType();
+
+		abstract String getEntityTypeId();
+
+		abstract long getGeneration();
+
+		abstract List<QueryRule> getQueryRules();
+
+		@Nullable
+		abstract String getAttributeXName();
+
+		@Nullable
+		abstract String getAttributeYName();
+
+		@Nullable
+		abstract String getAttributeDistinctName();
+
+		static ResultKey create(ResultType resultType, String entityTypeId, long generation,
+				List<QueryRule> queryRules, @Nullable String attributeXName, @Nullable String attributeYName,
+				@Nullable String attributeDistinctName)
+		{
+			return new AutoValue_SearchResultCache_ResultKey(resultType, entityTypeId, generation, queryRules,
+					attributeXName, attributeYName, attributeDistinctName);
+		}
+	}
+}
@@ -1,44 +1,68 @@
 package org.molgenis.data.elasticsearch.client;
 
+import org.elasticsearch.action.bulk.BackoffPolicy;
 import org.elasticsearch.action.bulk.BulkProcessor;
-import org.elasticsearch.action.bulk.BulkRequest;
-import org.elasticsearch.action.bulk.BulkResponse;
 import org.elasticsearch.client.Client;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import org.elasticsearch.common.unit.ByteSizeUnit;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.common.unit.TimeValue;
+
+import static java.util.Objects.requireNonNull;
 
 /**
- * Creates Elasticsearch bulk processors that log bulk updates.
+ * Creates Elasticsearch bulk processors. Bulk requests that are rejected because the Elasticsearch bulk queue is full
+ * are retried with exponential backoff, this includes the rejected items of bulk requests.
  */
 class BulkProcessorFactory
 {
-	private static final Logger LOG = LoggerFactory.getLogger(BulkProcessorFactory.class);
+	private final int bulkActions;
+	private final int bulkSizeMb;
+	private final int concurrentRequests;
+	private final long flushIntervalMillis;
+	private final long backoffInitialDelayMillis;
+	private final int backoffMaxRetries;
 
-	BulkProcessor create(Client client)
+	/**
+	 * Creates a factory for bulk processors with the Elasticsearch defaults.
+	 */
+	BulkProcessorFactory()
 	{
-		return BulkProcessor.builder(client, new BulkProcessor.Listener()
-		{
-			@Override
-			public void beforeBulk(long executionId, BulkRequest request)
-			{
-				LOG.trace("Going to execute new bulk composed of {} actions", request.numberOfActions());
-			}
+		this(1000, 5, 1, 0, 50, 8);
+	}
 
-			@Override
-			public void afterBulk(long executionId, BulkRequest request, BulkResponse response)
-			{
-				if (response.hasFailures())
-				{
-					LOG.error("Error executing bulk: {}", response.buildFailureMessage());
-				}
-				LOG.trace("Executed bulk composed of {} actions", request.numberOfActions());
-			}
+	/**
+	 * @param bulkActions               maximum number of actions per bulk request
+	 * @param bulkSizeMb                maximum size of a bulk request in megabytes
+	 * @param concurrentRequests        number of bulk requests that are executed while new actions are accumulated
+	 * @param flushIntervalMillis       interval at which bulk requests are executed regardless of their size, zero to
+	 *                                  disable
+	 * @param backoffInitialDelayMillis delay before the first retry of a rejected bulk request
+	 * @param backoffMaxRetries         maximum number of retries of a rejected bulk request
+	 */
+	BulkProcessorFactory(int bulkActions, int bulkSizeMb, int concurrentRequests, long flushIntervalMillis,
+			long backoffInitialDelayMillis, int backoffMaxRetries)
+	{
+		this.bulkActions = bulkActions;
+		this.bulkSizeMb = bulkSizeMb;
+		this.concurrentRequests = concurrentRequests;
+		this.flushIntervalMillis = flushIntervalMillis;
+		this.backoffInitialDelayMillis = backoffInitialDelayMillis;
+		this.backoffMaxRetries = backoffMaxRetries;
+	}
 
-			@Override
-			public void afterBulk(long executionId, BulkRequest request, Throwable failure)
-			{
-				LOG.warn("Error executing bulk", failure);
-			}
-		}).build();
+	BulkProcessor create(Client client, BulkProcessorListener listener)
+	{
+		BulkProcessor.Builder builder = BulkProcessor.builder(requireNonNull(client), requireNonNull(listener))
+													 .setBulkActions(bulkActions)
+													 .setBulkSize(new ByteSizeValue(bulkSizeMb, ByteSizeUnit.MB))
+													 .setConcurrentRequests(concurrentRequests)
+													 .setBackoffPolicy(BackoffPolicy.exponentialBackoff(
+															 TimeValue.timeValueMillis(backoffInitialDelayMillis),
+															 backoffMaxRetries));
+		if (flushIntervalMillis > 0)
+		{
+			builder.setFlushInterval(TimeValue.timeValueMillis(flushIntervalMillis));
+		}
+		return builder.build();
 	}
 }
@@ -0,0 +1,108 @@
+package org.molgenis.data.elasticsearch.client;
+
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkProcessor;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Listens to the bulk requests of a bulk processor. Logs the latency and throughput of each bulk request and keeps
+ * track of the number of processed and failed actions.
+ */
+class BulkProcessorListener implements BulkProcessor.Listener
+{
+	private static final Logger LOG = LoggerFactory.getLogger(BulkProcessorListener.class);
+
+	private final Map<Long, Long> startTimes = new ConcurrentHashMap<>();
+	private final AtomicLong nrActions = new AtomicLong();
+	private final AtomicLong nrFailedActions = new AtomicLong();
+	private final AtomicLong totalLatencyNanos = new AtomicLong();
+	private final AtomicReference<String> firstFailureMessage = new AtomicReference<>();
+
+	@Override
+	public void beforeBulk(long executionId, BulkRequest request)
+	{
+		LOG.trace("Going to execute new bulk composed of {} actions", request.numberOfActions());
+		startTimes.put(executionId, System.nanoTime());
+	}
+
+	@Override
+	public void afterBulk(long executionId, BulkRequest request, BulkResponse response)
+	{
+		long latencyNanos = registerLatency(executionId);
+		int nrRequestActions = request.numberOfActions();
+		nrActions.addAndGet(nrRequestActions);
+		if (response.hasFailures())
+		{
+			LOG.error("Error executing bulk: {}", response.buildFailureMessage());
+			for (BulkItemResponse itemResponse : response.getItems())
+			{
+				if (itemResponse.isFailed())
+				{
+					registerFailure(1, itemResponse.getFailureMessage());
+				}
+			}
+		}
+		if (LOG.isDebugEnabled())
+		{
+			long latencyMillis = Math.max(NANOSECONDS.toMillis(latencyNanos), 1L);
+			LOG.debug("Executed bulk composed of {} actions ({} bytes) in {}ms ({} actions/s)", nrRequestActions,
+					request.estimatedSizeInBytes(), latencyMillis, nrRequestActions * 1000L / latencyMillis);
+		}
+	}
+
+	@Override
+	public void afterBulk(long executionId, BulkRequest request, Throwable failure)
+	{
+		registerLatency(executionId);
+		LOG.warn("Error executing bulk", failure);
+		nrActions.addAndGet(request.numberOfActions());
+		registerFailure(request.numberOfActions(), failure.getMessage());
+	}
+
+	long getNrActions()
+	{
+		return nrActions.get();
+	}
+
+	long getNrFailedActions()
+	{
+		return nrFailedActions.get();
+	}
+
+	/**
+	 * Returns the message of the first failure or <code>null</code> if no actions failed.
+	 */
+	String getFirstFailureMessage()
+	{
+		return firstFailureMessage.get();
+	}
+
+	long getTotalLatencyMillis()
+	{
+		return NANOSECONDS.toMillis(totalLatencyNanos.get());
+	}
+
+	private long registerLatency(long executionId)
+	{
+		Long startTime = startTimes.remove(executionId);
+		long latencyNanos = startTime != null ? System.nanoTime() - startTime : 0L;
+		totalLatencyNanos.addAndGet(latencyNanos);
+		return latencyNanos;
+	}
+
+	private void registerFailure(int nrActionsFailed, String message)
+	{
+		nrFailedActions.addAndGet(nrActionsFailed);
+		firstFailureMessage.compareAndSet(null, message);
+	}
+}
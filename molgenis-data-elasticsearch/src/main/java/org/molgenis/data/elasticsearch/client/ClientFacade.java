@@ -6,6 +6,10 @@ import org.elasticsearch.ResourceAlreadyExistsException;
 import org.elasticsearch.ResourceNotFoundException;
 import org.elasticsearch.action.DocWriteRequest;
 import org.elasticsearch.action.ShardOperationFailedException;
+import org.elasticsearch.action.admin.indices.alias.IndicesAliasesRequestBuilder;
+import org.elasticsearch.action.admin.indices.alias.IndicesAliasesResponse;
+import org.elasticsearch.action.admin.indices.alias.get.GetAliasesRequestBuilder;
+import org.elasticsearch.action.admin.indices.alias.get.GetAliasesResponse;
 import org.elasticsearch.action.admin.indices.create.CreateIndexRequestBuilder;
 import org.elasticsearch.action.admin.indices.create.CreateIndexResponse;
 import org.elasticsearch.action.admin.indices.delete.DeleteIndexRequestBuilder;
@@ -46,6 +50,7 @@ import org.slf4j.LoggerFactory;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -54,6 +59,7 @@ import java.util.concurrent.TimeUnit;
 import java.util.stream.Stream;
 
 import static java.lang.String.format;
+import static java.util.Arrays.asList;
 import static java.util.Arrays.stream;
 import static java.util.Collections.singletonList;
 import static java.util.Objects.requireNonNull;
@@ -79,12 +85,17 @@ public class ClientFacade implements Closeable
 	private final BulkProcessorFactory bulkProcessorFactory;
 
 	public ClientFacade(Client client)
+	{
+		this(client, new BulkProcessorFactory());
+	}
+
+	ClientFacade(Client client, BulkProcessorFactory bulkProcessorFactory)
 	{
 		this.client = requireNonNull(client);
 		this.settingsBuilder = new SettingsContentBuilder();
 		this.mappingSourceBuilder = new MappingContentBuilder();
 		this.sortContentBuilder = new SortContentBuilder();
-		this.bulkProcessorFactory = new BulkProcessorFactory();
+		this.bulkProcessorFactory = requireNonNull(bulkProcessorFactory);
 	}
 
 	public void createIndex(Index index, IndexSettings indexSettings, Stream<Mapping> mappingStream)
@@ -179,9 +190,106 @@ public class ClientFacade implements Closeable
 		return exists;
 	}
 
+	/**
+	 * Deletes an index, if the index is addressed by an alias the physical indexes behind the alias are deleted.
+	 */
 	public void deleteIndex(Index index)
 	{
-		deleteIndexes(singletonList(index));
+		List<Index> aliasedIndexes = getAliasedIndexes(index);
+		deleteIndexes(aliasedIndexes.isEmpty() ? singletonList(index) : aliasedIndexes);
+	}
+
+	/**
+	 * Atomically points the alias of a versioned index to the index and deletes the indexes that the alias pointed to
+	 * before. An index with the name of the alias, created before the alias existed, is deleted as well.
+	 *
+	 * @param index versioned index
+	 */
+	public void swapIndexAlias(Index index)
+	{
+		if (LOG.isTraceEnabled())
+		{
+			LOG.trace("Swapping alias '{}' to index '{}' ...", index.getAlias(), index.getName());
+		}
+
+		Index aliasIndex = Index.create(index.getAlias());
+		List<Index> aliasedIndexes = getAliasedIndexes(aliasIndex);
+		IndicesAliasesRequestBuilder indicesAliasesRequest = client.admin()
+																   .indices()
+																   .prepareAliases()
+																   .addAlias(index.getName(), index.getAlias());
+		if (!aliasedIndexes.isEmpty())
+		{
+			aliasedIndexes.forEach(aliasedIndex -> indicesAliasesRequest.removeIndex(aliasedIndex.getName()));
+		}
+		else if (indexesExist(aliasIndex))
+		{
+			indicesAliasesRequest.removeIndex(aliasIndex.getName());
+		}
+
+		IndicesAliasesResponse indicesAliasesResponse;
+		try
+		{
+			indicesAliasesResponse = indicesAliasesRequest.get();
+		}
+		catch (ElasticsearchException e)
+		{
+			LOG.error("", e);
+			throw new IndexException(
+					format("Error swapping alias '%s' to index '%s'.", index.getAlias(), index.getName()));
+		}
+
+		if (!indicesAliasesResponse.isAcknowledged())
+		{
+			throw new IndexException(
+					format("Error swapping alias '%s' to index '%s'.", index.getAlias(), index.getName()));
+		}
+		if (LOG.isDebugEnabled())
+		{
+			LOG.debug("Swapped alias '{}' to index '{}'.", index.getAlias(), index.getName());
+		}
+	}
+
+	/**
+	 * Returns the physical indexes that an alias points to.
+	 *
+	 * @param alias index addressed by name
+	 * @return physical indexes or an empty list if the name isn't an alias
+	 */
+	private List<Index> getAliasedIndexes(Index alias)
+	{
+		if (LOG.isTraceEnabled())
+		{
+			LOG.trace("Retrieving indexes for alias '{}' ...", alias.getName());
+		}
+
+		GetAliasesRequestBuilder getAliasesRequest = client.admin().indices().prepareGetAliases(alias.getName());
+
+		GetAliasesResponse getAliasesResponse;
+		try
+		{
+			getAliasesResponse = getAliasesRequest.get();
+		}
+		catch (ElasticsearchException e)
+		{
+			LOG.error("", e);
+			throw new IndexException(format("Error retrieving indexes for alias '%s'.", alias.getName()));
+		}
+
+		List<Index> indexes = new ArrayList<>();
+		getAliasesResponse.getAliases().forEach(aliasesCursor ->
+		{
+			if (!aliasesCursor.value.isEmpty())
+			{
+				indexes.add(Index.create(aliasesCursor.key, alias.getName()));
+			}
+		});
+
+		if (LOG.isDebugEnabled())
+		{
+			LOG.debug("Retrieved indexes '{}' for alias '{}'.", toString(indexes), alias.getName());
+		}
+		return indexes;
 	}
 
 	private void deleteIndexes(List<Index> indexes)
@@ -225,6 +333,11 @@ public class ClientFacade implements Closeable
 		refreshIndexes(singletonList(Index.create("_all")));
 	}
 
+	public void refreshIndex(Index index)
+	{
+		refreshIndexes(singletonList(index));
+	}
+
 	private void refreshIndexes(List<Index> indexes)
 	{
 		if (LOG.isTraceEnabled())
@@ -349,7 +462,24 @@ public class ClientFacade implements Closeable
 		return search(query, from, size, sort, singletonList(index));
 	}
 
+	/**
+	 * Searches the hits that follow the hit with the given sort values.
+	 *
+	 * @param searchAfter sort values of the last hit of the previous page
+	 * @param sort        sort that is unique for each document, for example by ending with the document uid
+	 */
+	public SearchHits searchAfter(QueryBuilder query, List<Object> searchAfter, int size, Sort sort, Index index)
+	{
+		return search(query, searchAfter, 0, size, sort, singletonList(index));
+	}
+
 	private SearchHits search(QueryBuilder query, int from, int size, Sort sort, List<Index> indexes)
+	{
+		return search(query, null, from, size, sort, indexes);
+	}
+
+	private SearchHits search(QueryBuilder query, List<Object> searchAfter, int from, int size, Sort sort,
+			List<Index> indexes)
 	{
 		if (size > 10000)
 		{
@@ -373,6 +503,10 @@ public class ClientFacade implements Closeable
 		}
 
 		SearchRequestBuilder searchRequest = createSearchRequest(query, from, size, sort, null, indexes);
+		if (searchAfter != null)
+		{
+			searchRequest.searchAfter(searchAfter.toArray());
+		}
 
 		SearchResponse searchResponse;
 		try
@@ -455,7 +589,7 @@ public class ClientFacade implements Closeable
 	{
 		org.elasticsearch.search.SearchHits searchHits = searchResponse.getHits();
 		List<SearchHit> searchHitList = stream(searchHits.getHits()).map(
-				hit -> SearchHit.create(hit.getId(), hit.getIndex())).collect(toList());
+				hit -> SearchHit.create(hit.getId(), hit.getIndex(), asList(hit.getSortValues()))).collect(toList());
 		return SearchHits.create(searchHits.getTotalHits(), searchHitList);
 	}
 
@@ -569,7 +703,7 @@ public class ClientFacade implements Closeable
 		XContentBuilder source = document.getContent();
 		IndexRequestBuilder indexRequest = client.prepareIndex()
 												 .setIndex(indexName)
-												 .setType(indexName)
+												 .setType(index.getAlias())
 												 .setId(documentId)
 												 .setSource(source);
 
@@ -615,7 +749,7 @@ public class ClientFacade implements Closeable
 		String documentId = document.getId();
 		DeleteRequestBuilder deleteRequest = client.prepareDelete()
 												   .setIndex(indexName)
-												   .setType(indexName)
+												   .setType(index.getAlias())
 												   .setId(documentId);
 
 		DeleteResponse deleteResponse;
@@ -643,10 +777,16 @@ public class ClientFacade implements Closeable
 		}
 	}
 
+	/**
+	 * Processes document actions in bulk requests.
+	 *
+	 * @throws IndexException if one or more document actions failed
+	 */
 	public void processDocumentActions(Stream<DocumentAction> documentActions)
 	{
 		LOG.trace("Processing document actions ...");
-		BulkProcessor bulkProcessor = bulkProcessorFactory.create(client);
+		BulkProcessorListener bulkProcessorListener = new BulkProcessorListener();
+		BulkProcessor bulkProcessor = bulkProcessorFactory.create(client, bulkProcessorListener);
 		try
 		{
 			documentActions.forEachOrdered(documentAction ->
@@ -658,13 +798,23 @@ public class ClientFacade implements Closeable
 		finally
 		{
 			waitForCompletion(bulkProcessor);
-			LOG.debug("Processed document actions.");
+			LOG.debug("Processed {} document actions in {}ms of bulk requests.", bulkProcessorListener.getNrActions(),
+					bulkProcessorListener.getTotalLatencyMillis());
+		}
+
+		long nrFailedActions = bulkProcessorListener.getNrFailedActions();
+		if (nrFailedActions > 0)
+		{
+			throw new IndexException(
+					format("Error processing %d of %d document actions: %s", nrFailedActions,
+							bulkProcessorListener.getNrActions(), bulkProcessorListener.getFirstFailureMessage()));
 		}
 	}
 
 	private DocWriteRequest toDocWriteRequest(DocumentAction documentAction)
 	{
 		String indexName = documentAction.getIndex().getName();
+		String typeName = documentAction.getIndex().getAlias();
 		String documentId = documentAction.getDocument().getId();
 
 		DocWriteRequest docWriteRequest;
@@ -677,13 +827,13 @@ public class ClientFacade implements Closeable
 					throw new IndexException(format("Document action is missing document source '%s'", documentAction));
 				}
 				docWriteRequest = Requests.indexRequest(indexName)
-										  .type(indexName)
+										  .type(typeName)
 										  .id(documentId)
 										  .source(source)
 										  .opType(INDEX);
 				break;
 			case DELETE:
-				docWriteRequest = Requests.deleteRequest(indexName).type(indexName).id(documentId);
+				docWriteRequest = Requests.deleteRequest(indexName).type(typeName).id(documentId);
 				break;
 			default:
 				throw new UnexpectedEnumException(documentAction.getOperation());
@@ -1,5 +1,6 @@
 package org.molgenis.data.elasticsearch.client;
 
+import org.molgenis.data.index.ConditionalOnSearchBackend;
 import org.molgenis.data.index.IndexConfig;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -14,14 +15,17 @@ import java.util.List;
 
 import static java.lang.String.format;
 import static java.util.stream.Collectors.toList;
+import static org.molgenis.data.index.ConditionalOnSearchBackend.ELASTICSEARCH;
 
 /**
  * Spring config for Elasticsearch server. Use this in your own app by importing this in your spring config:
- * <code> @Import(ElasticsearchConfig.class)</code>
+ * <code> @Import(ElasticsearchConfig.class)</code>. Only active if Elasticsearch is the selected search backend, see
+ * {@link ConditionalOnSearchBackend}.
  *
  * @author erwin
  */
 @Configuration
+@ConditionalOnSearchBackend(ELASTICSEARCH)
 @EnableScheduling
 @Import({ IndexConfig.class, ConnectionRetryConfig.class })
 public class ElasticsearchConfig
@@ -32,6 +36,24 @@ public class ElasticsearchConfig
 	@Value("${elasticsearch.transport.addresses:127.0.0.1:9300}")
 	private List<String> transportAddresses;
 
+	@Value("${elasticsearch.bulk.actions:1000}")
+	private int bulkActions;
+
+	@Value("${elasticsearch.bulk.size-mb:5}")
+	private int bulkSizeMb;
+
+	@Value("${elasticsearch.bulk.concurrent-requests:1}")
+	private int bulkConcurrentRequests;
+
+	@Value("${elasticsearch.bulk.flush-interval-ms:0}")
+	private long bulkFlushIntervalMillis;
+
+	@Value("${elasticsearch.bulk.backoff.initial-delay-ms:50}")
+	private long bulkBackoffInitialDelayMillis;
+
+	@Value("${elasticsearch.bulk.backoff.max-retries:8}")
+	private int bulkBackoffMaxRetries;
+
 	final RetryTemplate retryTemplate;
 
 	@Autowired
@@ -43,7 +65,13 @@ public class ElasticsearchConfig
 	@Bean(destroyMethod = "close")
 	public ClientFacade elasticsearchClientFacade() throws InterruptedException
 	{
-		return new ClientFacade(clientFactory().createClient());
+		return new ClientFacade(clientFactory().createClient(), bulkProcessorFactory());
+	}
+
+	private BulkProcessorFactory bulkProcessorFactory()
+	{
+		return new BulkProcessorFactory(bulkActions, bulkSizeMb, bulkConcurrentRequests, bulkFlushIntervalMillis,
+				bulkBackoffInitialDelayMillis, bulkBackoffMaxRetries);
 	}
 
 	@Bean
@@ -5,6 +5,7 @@ import org.elasticsearch.common.xcontent.XContentFactory;
 import org.elasticsearch.common.xcontent.XContentType;
 import org.molgenis.data.elasticsearch.generator.model.FieldMapping;
 import org.molgenis.data.elasticsearch.generator.model.Mapping;
+import org.molgenis.data.meta.IndexHint;
 import org.molgenis.util.UnexpectedEnumException;
 
 import java.io.IOException;
@@ -73,31 +74,32 @@ class MappingContentBuilder
 	private void createFieldMapping(FieldMapping fieldMapping, XContentBuilder contentBuilder) throws IOException
 	{
 		contentBuilder.startObject(fieldMapping.getName());
+		IndexHint indexHint = fieldMapping.getIndexHint();
 		switch (fieldMapping.getType())
 		{
 			case BOOLEAN:
-				createFieldMapping("boolean", contentBuilder);
+				createFieldMapping("boolean", indexHint, contentBuilder);
 				break;
 			case DATE:
-				createFieldMappingDate("date", contentBuilder);
+				createFieldMappingDate("date", indexHint, contentBuilder);
 				break;
 			case DATE_TIME:
-				createFieldMappingDate("date_time_no_millis", contentBuilder);
+				createFieldMappingDate("date_time_no_millis", indexHint, contentBuilder);
 				break;
 			case DOUBLE:
-				createFieldMapping("double", contentBuilder);
+				createFieldMapping("double", indexHint, contentBuilder);
 				break;
 			case INTEGER:
-				createFieldMappingInteger(contentBuilder);
+				createFieldMappingInteger(indexHint, contentBuilder);
 				break;
 			case LONG:
-				createFieldMapping("long", contentBuilder);
+				createFieldMapping("long", indexHint, contentBuilder);
 				break;
 			case NESTED:
 				createFieldMappingNested(fieldMapping.getNestedFieldMappings(), contentBuilder);
 				break;
 			case TEXT:
-				createFieldMappingText(contentBuilder);
+				createFieldMappingText(indexHint, contentBuilder);
 				break;
 			default:
 				throw new UnexpectedEnumException(fieldMapping.getType());
@@ -105,29 +107,34 @@ class MappingContentBuilder
 		contentBuilder.endObject();
 	}
 
-	private void createFieldMapping(String type, XContentBuilder contentBuilder) throws IOException
+	private void createFieldMapping(String type, IndexHint indexHint, XContentBuilder contentBuilder)
+			throws IOException
 	{
 		contentBuilder.field("type", type);
+		createFieldMappingIndexHint(indexHint, contentBuilder);
 	}
 
-	private void createFieldMappingDate(String dateFormat, XContentBuilder contentBuilder) throws IOException
+	private void createFieldMappingDate(String dateFormat, IndexHint indexHint, XContentBuilder contentBuilder)
+			throws IOException
 	{
 		contentBuilder.field("type", "date").field("format", dateFormat);
+		createFieldMappingIndexHint(indexHint, contentBuilder);
 		// not-analyzed field for aggregation
 		// note: the norms settings defaults to false for not_analyzed fields
 		contentBuilder.startObject("fields")
 					  .startObject(FIELD_NOT_ANALYZED)
 					  .field("type", "keyword")
-					  .field("index", true)
+					  .field("index", indexHint.isFilterable())
 					  .endObject()
 					  .endObject();
 	}
 
-	private void createFieldMappingInteger(XContentBuilder contentBuilder) throws IOException
+	private void createFieldMappingInteger(IndexHint indexHint, XContentBuilder contentBuilder) throws IOException
 	{
 		contentBuilder.field("type", "integer");
 		// Fix sorting by using disk-based "fielddata" instead of in-memory "fielddata"
 		contentBuilder.field("doc_values", true);
+		createFieldMappingIndexHint(indexHint, contentBuilder);
 	}
 
 	private void createFieldMappingNested(List<FieldMapping> nestedFieldMappings, XContentBuilder contentBuilder)
@@ -137,18 +144,59 @@ class MappingContentBuilder
 		createFieldMappings(nestedFieldMappings, contentBuilder);
 	}
 
-	private void createFieldMappingText(XContentBuilder contentBuilder) throws IOException
+	private void createFieldMappingText(IndexHint indexHint, XContentBuilder contentBuilder) throws IOException
 	{
-		// enable/disable norms based on given value
 		contentBuilder.field("type", "text");
-		contentBuilder.field("norms", true);
+		if (indexHint.isFullTextSearchable())
+		{
+			// enable/disable norms based on given value
+			contentBuilder.field("norms", true);
+			if (indexHint == IndexHint.STORED)
+			{
+				contentBuilder.field("store", true);
+			}
+		}
+		else
+		{
+			// only the not-analyzed field is indexed, don't create terms and norms for full text search
+			contentBuilder.field("index", false);
+			contentBuilder.field("norms", false);
+			if (!indexHint.isFilterable())
+			{
+				contentBuilder.field("include_in_all", false);
+			}
+		}
 		// not-analyzed field for sorting and wildcard queries
 		// note: the norms settings defaults to false for not_analyzed fields
 		XContentBuilder fieldsObject = contentBuilder.startObject("fields")
 													 .startObject(FIELD_NOT_ANALYZED)
 													 .field("type", "keyword")
-													 .field("index", true)
+													 .field("index", indexHint.isFilterable())
 													 .endObject();
 		fieldsObject.endObject();
 	}
+
+	/**
+	 * Adds the mapping parameters of the index hint of a non-text field
+	 */
+	private void createFieldMappingIndexHint(IndexHint indexHint, XContentBuilder contentBuilder) throws IOException
+	{
+		switch (indexHint)
+		{
+			case INDEXED:
+			case KEYWORD:
+				break;
+			case DOC_VALUES:
+				// values are only available for sorting and aggregation, doc values are enabled by default
+				contentBuilder.field("index", false).field("include_in_all", false);
+				break;
+			case STORED:
+				contentBuilder.field("store", true);
+				break;
+			case NOT_INDEXED:
+				throw new IllegalArgumentException("Mapping of not indexed field");
+			default:
+				throw new UnexpectedEnumException(indexHint);
+		}
+	}
 }
@@ -11,6 +11,7 @@ import org.molgenis.util.UnexpectedEnumException;
 import java.util.List;
 
 import static java.util.stream.Collectors.toList;
+import static org.molgenis.data.elasticsearch.FieldConstants.FIELD_SCORE;
 
 /**
  * Creates Elasticsearch transport client content for sort.
@@ -26,6 +27,10 @@ class SortContentBuilder
 	{
 		String field = sortOrder.getField();
 		org.elasticsearch.search.sort.SortOrder order = toSortOrder(sortOrder.getDirection());
+		if (field.equals(FIELD_SCORE))
+		{
+			return SortBuilders.scoreSort().order(order);
+		}
 		return SortBuilders.fieldSort(field).order(order).sortMode(SortMode.MIN);
 	}
 
@@ -2,6 +2,10 @@ package org.molgenis.data.elasticsearch.client.model;
 
 import com.google.auto.value.AutoValue;
 
+import java.util.List;
+
+import static java.util.Collections.emptyList;
+
 @AutoValue
 @SuppressWarnings("squid:S1610") // Abstract classes without fields should be converted to interfaces
 public abstract class SearchHit
@@ -10,14 +14,24 @@ public abstract class SearchHit
 
 	public abstract String getIndex();
 
+	/**
+	 * Returns the values by which the hit was sorted, used to search for the hits after this hit.
+	 */
+	public abstract List<Object> getSortValues();
+
 	public static SearchHit create(String newId, String newIndex)
 	{
 		return builder().setId(newId).setIndex(newIndex).build();
 	}
 
+	public static SearchHit create(String newId, String newIndex, List<Object> newSortValues)
+	{
+		return builder().setId(newId).setIndex(newIndex).setSortValues(newSortValues).build();
+	}
+
 	public static Builder builder()
 	{
-		return new AutoValue_SearchHit.Builder();
+		return new AutoValue_SearchHit.Builder().setSortValues(emptyList());
 	}
 
 	@AutoValue.Builder
@@ -27,6 +41,8 @@ public abstract class SearchHit
 
 		public abstract Builder setIndex(String newIndex);
 
+		public abstract Builder setSortValues(List<Object> newSortValues);
+
 		public abstract SearchHit build();
 	}
 }
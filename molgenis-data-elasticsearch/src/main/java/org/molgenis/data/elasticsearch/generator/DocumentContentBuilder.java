@@ -8,6 +8,7 @@ import org.molgenis.data.Entity;
 import org.molgenis.data.elasticsearch.generator.model.Document;
 import org.molgenis.data.meta.AttributeType;
 import org.molgenis.data.meta.IllegalAttributeTypeException;
+import org.molgenis.data.meta.IndexHint;
 import org.molgenis.data.meta.model.Attribute;
 import org.molgenis.util.UnexpectedEnumException;
 import org.springframework.stereotype.Component;
@@ -18,9 +19,11 @@ import java.time.LocalDate;
 
 import static java.util.Objects.requireNonNull;
 import static org.elasticsearch.common.xcontent.XContentType.JSON;
+import static org.molgenis.data.support.AttributeUtils.getIndexHint;
 
 /**
- * Generates Elasticsearch document sources from entities.
+ * Generates Elasticsearch document sources from entities. Values of attributes with a {@link IndexHint#NOT_INDEXED}
+ * index hint are left out of the document sources.
  */
 @Component
 class DocumentContentBuilder
@@ -68,6 +71,10 @@ class DocumentContentBuilder
 	{
 		for (Attribute attr : entity.getEntityType().getAtomicAttributes())
 		{
+			if (getIndexHint(attr) == IndexHint.NOT_INDEXED)
+			{
+				continue;
+			}
 			generator.writeFieldName(documentIdGenerator.generateId(attr));
 			createRec(entity, attr, generator, depth, maxDepth);
 		}
@@ -12,6 +12,8 @@ import static java.util.Objects.requireNonNull;
 @Component
 class IndexGenerator
 {
+	private static final String VERSION_SEPARATOR = "_v";
+
 	private final DocumentIdGenerator documentIdGenerator;
 
 	IndexGenerator(DocumentIdGenerator documentIdGenerator)
@@ -24,4 +26,14 @@ class IndexGenerator
 		String indexName = documentIdGenerator.generateId(entityType);
 		return Index.create(indexName);
 	}
+
+	/**
+	 * Creates a new physical index for the given entity type that is addressed by the name of the entity type index
+	 * after its alias has been swapped.
+	 */
+	Index createVersionedIndex(EntityType entityType)
+	{
+		String alias = documentIdGenerator.generateId(entityType);
+		return Index.create(alias + VERSION_SEPARATOR + System.currentTimeMillis(), alias);
+	}
 }
@@ -5,6 +5,7 @@ import org.molgenis.data.elasticsearch.generator.model.Mapping;
 import org.molgenis.data.elasticsearch.generator.model.MappingType;
 import org.molgenis.data.meta.AttributeType;
 import org.molgenis.data.meta.IllegalAttributeTypeException;
+import org.molgenis.data.meta.IndexHint;
 import org.molgenis.data.meta.model.Attribute;
 import org.molgenis.data.meta.model.EntityType;
 import org.molgenis.util.UnexpectedEnumException;
@@ -16,9 +17,11 @@ import java.util.stream.Stream;
 import static java.util.Objects.requireNonNull;
 import static java.util.stream.Collectors.toList;
 import static java.util.stream.StreamSupport.stream;
+import static org.molgenis.data.support.AttributeUtils.getIndexHint;
 
 /**
- * Generates Elasticsearch mappings from entity types.
+ * Generates Elasticsearch mappings from entity types. Attributes with a {@link IndexHint#NOT_INDEXED} index hint are
+ * left out of the mapping.
  */
 @Component
 class MappingGenerator
@@ -41,7 +44,9 @@ class MappingGenerator
 	private List<FieldMapping> createFieldMappings(EntityType entityType, int depth, int maxDepth)
 	{
 		Stream<Attribute> attributeStream = stream(entityType.getAtomicAttributes().spliterator(), false);
-		return attributeStream.map(attribute -> createFieldMapping(attribute, depth, maxDepth)).collect(toList());
+		return attributeStream.filter(attribute -> getIndexHint(attribute) != IndexHint.NOT_INDEXED)
+							  .map(attribute -> createFieldMapping(attribute, depth, maxDepth))
+							  .collect(toList());
 	}
 
 	private FieldMapping createFieldMapping(Attribute attribute, int depth, int maxDepth)
@@ -51,7 +56,7 @@ class MappingGenerator
 		List<FieldMapping> nestedFieldMappings =
 				mappingType == MappingType.NESTED ? createFieldMappings(attribute.getRefEntity(), depth + 1,
 						maxDepth) : null;
-		return FieldMapping.create(fieldName, mappingType, nestedFieldMappings);
+		return FieldMapping.create(fieldName, mappingType, getIndexHint(attribute), nestedFieldMappings);
 	}
 
 	private MappingType toMappingType(Attribute attribute, int depth, int maxDepth)
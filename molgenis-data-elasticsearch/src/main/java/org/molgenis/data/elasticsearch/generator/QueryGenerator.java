@@ -156,6 +156,7 @@ public class QueryGenerator
 			case AND:
 			case OR:
 			case NOT:
+			case PERMITTED:
 				throw new MolgenisQueryException(format("Unexpected query operator [%s]", queryOperator.toString()));
 			default:
 				throw new UnexpectedEnumException(queryOperator);
@@ -597,6 +598,7 @@ public class QueryGenerator
 			case NESTED:
 			case NOT:
 			case OR:
+			case PERMITTED:
 			case RANGE:
 			case SEARCH:
 			case SHOULD:
@@ -1,6 +1,7 @@
 package org.molgenis.data.elasticsearch.generator.model;
 
 import com.google.auto.value.AutoValue;
+import org.molgenis.data.meta.IndexHint;
 
 import javax.annotation.Nullable;
 import java.util.List;
@@ -13,6 +14,8 @@ public abstract class FieldMapping
 
 	public abstract MappingType getType();
 
+	public abstract IndexHint getIndexHint();
+
 	@Nullable
 	public abstract List<FieldMapping> getNestedFieldMappings();
 
@@ -24,9 +27,19 @@ public abstract class FieldMapping
 						.build();
 	}
 
+	public static FieldMapping create(String newName, MappingType newType, IndexHint newIndexHint,
+			List<FieldMapping> newNestedFieldMappings)
+	{
+		return builder().setName(newName)
+						.setType(newType)
+						.setIndexHint(newIndexHint)
+						.setNestedFieldMappings(newNestedFieldMappings)
+						.build();
+	}
+
 	public static Builder builder()
 	{
-		return new AutoValue_FieldMapping.Builder();
+		return new AutoValue_FieldMapping.Builder().setIndexHint(IndexHint.INDEXED);
 	}
 
 	@AutoValue.Builder
@@ -36,6 +49,8 @@ public abstract class FieldMapping
 
 		public abstract Builder setType(MappingType newType);
 
+		public abstract Builder setIndexHint(IndexHint newIndexHint);
+
 		public abstract Builder setNestedFieldMappings(List<FieldMapping> newNestedFieldMappings);
 
 		public abstract FieldMapping build();
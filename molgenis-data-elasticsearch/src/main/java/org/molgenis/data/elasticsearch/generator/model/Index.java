@@ -8,8 +8,19 @@ public abstract class Index
 {
 	public abstract String getName();
 
+	/**
+	 * Returns the name by which the index is addressed, this is also the document type name. Equal to the index name
+	 * for unversioned indexes.
+	 */
+	public abstract String getAlias();
+
 	public static Index create(String name)
 	{
-		return new AutoValue_Index(name);
+		return new AutoValue_Index(name, name);
+	}
+
+	public static Index create(String name, String alias)
+	{
+		return new AutoValue_Index(name, alias);
 	}
 }
@@ -1,22 +1,48 @@
 package org.molgenis.data.elasticsearch;
 
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.quality.Strictness;
 import org.molgenis.data.DataService;
 import org.molgenis.data.Entity;
+import org.molgenis.data.MolgenisDataException;
+import org.molgenis.data.Repository;
 import org.molgenis.data.elasticsearch.client.ClientFacade;
 import org.molgenis.data.elasticsearch.client.model.SearchHit;
 import org.molgenis.data.elasticsearch.client.model.SearchHits;
 import org.molgenis.data.elasticsearch.generator.ContentGenerators;
+import org.molgenis.data.elasticsearch.generator.model.Document;
+import org.molgenis.data.elasticsearch.generator.model.DocumentAction;
+import org.molgenis.data.elasticsearch.generator.model.Index;
+import org.molgenis.data.elasticsearch.generator.model.Sort;
+import org.molgenis.data.elasticsearch.generator.model.SortOrder;
+import org.molgenis.data.index.IndexGenerations;
+import org.molgenis.data.meta.model.Attribute;
 import org.molgenis.data.meta.model.EntityType;
 import org.molgenis.data.support.QueryImpl;
 import org.molgenis.test.AbstractMockitoTest;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
 import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static java.util.stream.Collectors.toList;
 import static org.mockito.Mockito.*;
 import static org.molgenis.data.elasticsearch.ElasticsearchService.MAX_BATCH_SIZE;
+import static org.molgenis.data.elasticsearch.generator.model.DocumentAction.Operation.DELETE;
+import static org.molgenis.data.elasticsearch.generator.model.DocumentAction.Operation.INDEX;
+import static org.molgenis.data.elasticsearch.generator.model.SortDirection.ASC;
+import static org.molgenis.data.elasticsearch.generator.model.SortDirection.DESC;
+import static org.molgenis.data.meta.AttributeType.STRING;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.fail;
 
 public class ElasticsearchServiceTest extends AbstractMockitoTest
 {
@@ -34,6 +60,8 @@ public class ElasticsearchServiceTest extends AbstractMockitoTest
 	@Mock
 	private EntityType entityType;
 
+	private IndexGenerations indexGenerations;
+
 	public ElasticsearchServiceTest()
 	{
 		super(Strictness.WARN);
@@ -42,7 +70,10 @@ public class ElasticsearchServiceTest extends AbstractMockitoTest
 	@BeforeMethod
 	public void setUpBeforeMethod()
 	{
-		elasticsearchService = new ElasticsearchService(clientFacade, contentGenerators, dataService);
+		when(entityType.getId()).thenReturn("entityTypeId");
+		indexGenerations = new IndexGenerations();
+		elasticsearchService = new ElasticsearchService(clientFacade, contentGenerators, dataService,
+				new SearchResultCache(indexGenerations), 2);
 	}
 
 	@Test
@@ -52,22 +83,22 @@ public class ElasticsearchServiceTest extends AbstractMockitoTest
 		QueryImpl<Entity> query = mock(QueryImpl.class);
 		when(query.getPageSize()).thenReturn(0);
 		when(query.getOffset()).thenReturn(0);
+		mockEntityType();
 
-		SearchHits searchHitsBatch = mock(SearchHits.class);
-		when(searchHitsBatch.getHits()).thenReturn(asList(new SearchHit[10000]));
-
-		SearchHits finalSearchHitsBatch = mock(SearchHits.class);
-		when(finalSearchHitsBatch.getHits()).thenReturn(asList(new SearchHit[5000]));
+		List<SearchHit> firstBatch = createSearchHits(0, MAX_BATCH_SIZE);
+		List<SearchHit> finalBatch = createSearchHits(MAX_BATCH_SIZE, 5000);
+		Sort sort = Sort.create(asList(SortOrder.create("_score", DESC), SortOrder.create("_uid", ASC)));
+		when(clientFacade.search(any(), eq(0), eq(MAX_BATCH_SIZE), eq(sort), any())).thenReturn(
+				SearchHits.create(15000, firstBatch));
+		when(clientFacade.searchAfter(any(), eq(firstBatch.get(MAX_BATCH_SIZE - 1).getSortValues()),
+				eq(MAX_BATCH_SIZE), eq(sort), any())).thenReturn(SearchHits.create(15000, finalBatch));
 
-		when(clientFacade.search(any(), eq(0), eq(10000), any(), any())).thenReturn(searchHitsBatch);
-		when(clientFacade.search(any(), eq(10000), anyInt(), any(), any())).thenReturn(searchHitsBatch);
-		when(clientFacade.search(any(), eq(20000), anyInt(), any(), any())).thenReturn(finalSearchHitsBatch);
+		Stream<Object> ids = elasticsearchService.search(entityType, query);
+		verifyZeroInteractions(clientFacade);
 
-		elasticsearchService.search(entityType, query);
-
-		verify(clientFacade, times(1)).search(any(), eq(0), eq(MAX_BATCH_SIZE), any(), any());
-		verify(clientFacade, times(1)).search(any(), eq(10000), eq(MAX_BATCH_SIZE), any(), any());
-		verify(clientFacade, times(1)).search(any(), eq(20000), eq(MAX_BATCH_SIZE), any(), any());
+		assertEquals(ids.count(), 15000L);
+		verify(clientFacade).search(any(), eq(0), eq(MAX_BATCH_SIZE), eq(sort), any());
+		verify(clientFacade).searchAfter(any(), any(), eq(MAX_BATCH_SIZE), eq(sort), any());
 		verifyNoMoreInteractions(clientFacade);
 	}
 
@@ -97,20 +128,161 @@ public class ElasticsearchServiceTest extends AbstractMockitoTest
 		QueryImpl<Entity> query = mock(QueryImpl.class);
 		when(query.getPageSize()).thenReturn(10001);
 		when(query.getOffset()).thenReturn(5000);
+		mockEntityType();
 
-		SearchHits searchHitsBatch = mock(SearchHits.class);
-		when(searchHitsBatch.getHits()).thenReturn(asList(new SearchHit[10000]));
+		List<SearchHit> firstBatch = createSearchHits(0, MAX_BATCH_SIZE);
+		List<SearchHit> secondBatch = createSearchHits(MAX_BATCH_SIZE, MAX_BATCH_SIZE);
+		when(clientFacade.search(any(), eq(0), eq(MAX_BATCH_SIZE), any(), any())).thenReturn(
+				SearchHits.create(20000, firstBatch));
+		when(clientFacade.searchAfter(any(), eq(firstBatch.get(MAX_BATCH_SIZE - 1).getSortValues()),
+				eq(MAX_BATCH_SIZE), any(), any())).thenReturn(SearchHits.create(20000, secondBatch));
 
-		SearchHits finalSearchHitsBatch = mock(SearchHits.class);
-		when(finalSearchHitsBatch.getHits()).thenReturn(asList(new SearchHit[1]));
+		List<Object> ids = elasticsearchService.search(entityType, query).collect(toList());
 
-		when(clientFacade.search(any(), eq(5000), eq(MAX_BATCH_SIZE), any(), any())).thenReturn(searchHitsBatch);
-		when(clientFacade.search(any(), eq(15000), eq(1), any(), any())).thenReturn(finalSearchHitsBatch);
+		assertEquals(ids.size(), 10001);
+		assertEquals(ids.get(0), "5000");
+		assertEquals(ids.get(10000), "15000");
+		verify(clientFacade).search(any(), eq(0), eq(MAX_BATCH_SIZE), any(), any());
+		verify(clientFacade).searchAfter(any(), any(), eq(MAX_BATCH_SIZE), any(), any());
+		verifyNoMoreInteractions(clientFacade);
+	}
 
-		elasticsearchService.search(entityType, query);
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testBatchingSearchStopsAtPageSize()
+	{
+		QueryImpl<Entity> query = mock(QueryImpl.class);
+		when(query.getPageSize()).thenReturn(MAX_BATCH_SIZE);
+		when(query.getOffset()).thenReturn(10);
+		mockEntityType();
+
+		List<SearchHit> firstBatch = createSearchHits(0, MAX_BATCH_SIZE);
+		when(clientFacade.search(any(), eq(0), eq(MAX_BATCH_SIZE), any(), any())).thenReturn(
+				SearchHits.create(20000, firstBatch));
+		when(clientFacade.searchAfter(any(), any(), eq(MAX_BATCH_SIZE), any(), any())).thenReturn(
+				SearchHits.create(20000, createSearchHits(MAX_BATCH_SIZE, 10)));
+
+		assertEquals(elasticsearchService.search(entityType, query).count(), (long) MAX_BATCH_SIZE);
+	}
+
+	private void mockEntityType()
+	{
+		Attribute idAttribute = when(mock(Attribute.class).getDataType()).thenReturn(STRING).getMock();
+		when(entityType.getIdAttribute()).thenReturn(idAttribute);
+		when(contentGenerators.createIndex(entityType)).thenReturn(Index.create("index"));
+	}
+
+	private static List<SearchHit> createSearchHits(int first, int count)
+	{
+		return IntStream.range(first, first + count)
+						.mapToObj(i -> SearchHit.create(String.valueOf(i), "index",
+								singletonList("index#" + i)))
+						.collect(toList());
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testDeleteAll()
+	{
+		Index index = Index.create("index");
+		Document document1 = Document.create("id1", null);
+		Document document2 = Document.create("id2", null);
+		when(contentGenerators.createIndex(entityType)).thenReturn(index);
+		when(contentGenerators.createDocument("id1")).thenReturn(document1);
+		when(contentGenerators.createDocument("id2")).thenReturn(document2);
+
+		elasticsearchService.deleteAll(entityType, Stream.of("id1", "id2"));
 
-		verify(clientFacade, times(1)).search(any(), eq(5000), eq(MAX_BATCH_SIZE), any(), any());
-		verify(clientFacade, times(1)).search(any(), eq(15000), eq(1), any(), any());
+		ArgumentCaptor<Stream<DocumentAction>> documentActionsCaptor = ArgumentCaptor.forClass(Stream.class);
+		verify(clientFacade).processDocumentActions(documentActionsCaptor.capture());
+		assertEquals(documentActionsCaptor.getValue().collect(toList()),
+				asList(DocumentAction.create(index, document1, DELETE),
+						DocumentAction.create(index, document2, DELETE)));
 		verifyNoMoreInteractions(clientFacade);
 	}
-}
\ No newline at end of file
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testRebuildIndex()
+	{
+		Repository<Entity> repository = mock(Repository.class);
+		when(repository.getEntityType()).thenReturn(entityType);
+		Index index = Index.create("index_v1", "index");
+		when(contentGenerators.createVersionedIndex(entityType)).thenReturn(index);
+		Entity entity = mock(Entity.class);
+		Document document = Document.create("id", null);
+		when(contentGenerators.createDocument(entity)).thenReturn(document);
+		doAnswer(invocation ->
+		{
+			Consumer<List<Entity>> consumer = invocation.getArgument(1);
+			consumer.accept(singletonList(entity));
+			return null;
+		}).when(repository).forEachBatched(any(), any(), anyInt());
+		List<DocumentAction> processedDocumentActions = new CopyOnWriteArrayList<>();
+		doAnswer(invocation ->
+		{
+			Stream<DocumentAction> documentActions = invocation.getArgument(0);
+			documentActions.forEach(processedDocumentActions::add);
+			return null;
+		}).when(clientFacade).processDocumentActions(any(Stream.class));
+
+		assertEquals(elasticsearchService.rebuildIndex(repository), 1L);
+		assertEquals(processedDocumentActions, singletonList(DocumentAction.create(index, document, INDEX)));
+
+		InOrder inOrder = inOrder(clientFacade);
+		inOrder.verify(clientFacade).createIndex(eq(index), any(), any());
+		inOrder.verify(clientFacade).processDocumentActions(any(Stream.class));
+		inOrder.verify(clientFacade).refreshIndex(index);
+		inOrder.verify(clientFacade).swapIndexAlias(index);
+		verify(clientFacade, never()).deleteIndex(any());
+		assertEquals(indexGenerations.getGeneration("entityTypeId"), 1L);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testRebuildIndexFails()
+	{
+		Repository<Entity> repository = mock(Repository.class);
+		when(repository.getEntityType()).thenReturn(entityType);
+		Index index = Index.create("index_v1", "index");
+		when(contentGenerators.createVersionedIndex(entityType)).thenReturn(index);
+		MolgenisDataException exception = new MolgenisDataException("exception");
+		doThrow(exception).when(repository).forEachBatched(any(), any(), anyInt());
+
+		try
+		{
+			elasticsearchService.rebuildIndex(repository);
+			fail("Expected rebuild to fail");
+		}
+		catch (MolgenisDataException e)
+		{
+			assertEquals(e, exception);
+		}
+
+		verify(clientFacade).deleteIndex(index);
+		verify(clientFacade, never()).swapIndexAlias(any());
+		assertEquals(indexGenerations.getGeneration("entityTypeId"), 0L);
+	}
+
+	@Test
+	public void testIndexInvalidatesResultsUntilRefresh()
+	{
+		when(contentGenerators.createIndex(entityType)).thenReturn(Index.create("index"));
+
+		elasticsearchService.index(entityType, Stream.empty());
+		assertEquals(indexGenerations.getGeneration("entityTypeId"), 1L);
+		elasticsearchService.refreshIndex();
+		assertEquals(indexGenerations.getGeneration("entityTypeId"), 2L);
+		elasticsearchService.refreshIndex();
+		assertEquals(indexGenerations.getGeneration("entityTypeId"), 2L);
+	}
+
+	@Test
+	public void testDeleteIndexInvalidatesResults()
+	{
+		when(contentGenerators.createIndex(entityType)).thenReturn(Index.create("index"));
+
+		elasticsearchService.deleteIndex(entityType);
+		assertEquals(indexGenerations.getGeneration("entityTypeId"), 1L);
+	}
+}
@@ -0,0 +1,109 @@
+package org.molgenis.data.elasticsearch;
+
+import org.mockito.Mock;
+import org.molgenis.data.Entity;
+import org.molgenis.data.MolgenisDataException;
+import org.molgenis.data.elasticsearch.client.ClientFacade;
+import org.molgenis.data.elasticsearch.generator.model.Document;
+import org.molgenis.data.elasticsearch.generator.model.DocumentAction;
+import org.molgenis.data.elasticsearch.generator.model.Index;
+import org.molgenis.test.AbstractMockitoTest;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static java.util.Arrays.asList;
+import static java.util.stream.Collectors.toList;
+import static org.mockito.Mockito.*;
+import static org.molgenis.data.elasticsearch.generator.model.DocumentAction.Operation.INDEX;
+import static org.testng.Assert.assertEquals;
+
+public class IndexingPipelineTest extends AbstractMockitoTest
+{
+	@Mock
+	private ClientFacade clientFacade;
+
+	private ExecutorService workerExecutorService;
+	private ExecutorService indexerExecutorService;
+	private List<DocumentAction> processedDocumentActions;
+
+	@SuppressWarnings("unchecked")
+	@BeforeMethod
+	public void setUpBeforeMethod()
+	{
+		workerExecutorService = Executors.newFixedThreadPool(4);
+		indexerExecutorService = Executors.newSingleThreadExecutor();
+		processedDocumentActions = new CopyOnWriteArrayList<>();
+		doAnswer(invocation ->
+		{
+			Stream<DocumentAction> documentActions = invocation.getArgument(0);
+			documentActions.forEach(processedDocumentActions::add);
+			return null;
+		}).when(clientFacade).processDocumentActions(any(Stream.class));
+	}
+
+	@AfterMethod
+	public void shutdownExecutorServices()
+	{
+		workerExecutorService.shutdownNow();
+		indexerExecutorService.shutdownNow();
+	}
+
+	@Test
+	public void testIndexInBatchOrder()
+	{
+		IndexingPipeline indexingPipeline = createIndexingPipeline(this::toDocumentAction);
+		List<Entity> entities = IntStream.range(0, 100).mapToObj(this::createEntity).collect(toList());
+		for (int i = 0; i < entities.size(); i += 10)
+		{
+			indexingPipeline.add(entities.subList(i, i + 10));
+		}
+
+		assertEquals(indexingPipeline.finish(), 100L);
+		assertEquals(processedDocumentActions, entities.stream().map(this::toDocumentAction).collect(toList()));
+	}
+
+	@Test(expectedExceptions = MolgenisDataException.class, expectedExceptionsMessageRegExp = "document failed")
+	public void testIndexDocumentCreationFails()
+	{
+		IndexingPipeline indexingPipeline = createIndexingPipeline(entity ->
+		{
+			throw new MolgenisDataException("document failed");
+		});
+		indexingPipeline.add(asList(mock(Entity.class), mock(Entity.class)));
+		indexingPipeline.finish();
+	}
+
+	@Test
+	public void testAbort()
+	{
+		IndexingPipeline indexingPipeline = createIndexingPipeline(this::toDocumentAction);
+		indexingPipeline.abort();
+		verify(clientFacade).processDocumentActions(any());
+	}
+
+	private IndexingPipeline createIndexingPipeline(Function<Entity, DocumentAction> documentActionCreator)
+	{
+		return new IndexingPipeline(clientFacade, documentActionCreator, workerExecutorService, indexerExecutorService,
+				2);
+	}
+
+	private Entity createEntity(int id)
+	{
+		return when(mock(Entity.class).getIdValue()).thenReturn(id).getMock();
+	}
+
+	private DocumentAction toDocumentAction(Entity entity)
+	{
+		return DocumentAction.create(Index.create("index"), Document.create(entity.getIdValue().toString(), null),
+				INDEX);
+	}
+}
@@ -0,0 +1,147 @@
+package org.molgenis.data.elasticsearch;
+
+import org.mockito.Mock;
+import org.molgenis.data.Entity;
+import org.molgenis.data.Query;
+import org.molgenis.data.QueryRule;
+import org.molgenis.data.Sort;
+import org.molgenis.data.aggregation.AggregateQuery;
+import org.molgenis.data.aggregation.AggregateResult;
+import org.molgenis.data.index.IndexGenerations;
+import org.molgenis.data.meta.model.Attribute;
+import org.molgenis.data.meta.model.EntityType;
+import org.molgenis.data.support.QueryImpl;
+import org.molgenis.test.AbstractMockitoTest;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static java.util.Collections.singleton;
+import static org.mockito.Mockito.when;
+import static org.molgenis.data.QueryRule.Operator.EQUALS;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+
+public class SearchResultCacheTest extends AbstractMockitoTest
+{
+	@Mock
+	private EntityType entityType;
+
+	@Mock
+	private Attribute attributeX;
+
+	@Mock
+	private AggregateQuery aggregateQuery;
+
+	@Mock
+	private AggregateResult aggregateResult;
+
+	@Mock
+	private AggregateResult otherAggregateResult;
+
+	private IndexGenerations indexGenerations;
+	private SearchResultCache searchResultCache;
+
+	@BeforeMethod
+	public void setUpBeforeMethod()
+	{
+		when(entityType.getId()).thenReturn("entityTypeId");
+		indexGenerations = new IndexGenerations();
+		searchResultCache = new SearchResultCache(indexGenerations);
+	}
+
+	@Test
+	public void testGetCount()
+	{
+		AtomicLong count = new AtomicLong();
+		Query<Entity> query = new QueryImpl<>().eq("attr", "value");
+		assertEquals(searchResultCache.getCount(entityType, query, count::incrementAndGet), 1L);
+		assertEquals(searchResultCache.getCount(entityType, new QueryImpl<>().eq("attr", "value"),
+				count::incrementAndGet), 1L);
+	}
+
+	@Test
+	public void testGetCountDifferentQuery()
+	{
+		AtomicLong count = new AtomicLong();
+		assertEquals(searchResultCache.getCount(entityType, null, count::incrementAndGet), 1L);
+		assertEquals(searchResultCache.getCount(entityType, new QueryImpl<>().eq("attr", "value"),
+				count::incrementAndGet), 2L);
+	}
+
+	@Test
+	public void testGetCountQueryChangedAfterCaching()
+	{
+		AtomicLong count = new AtomicLong();
+		Query<Entity> query = new QueryImpl<>().eq("attr", "value");
+		assertEquals(searchResultCache.getCount(entityType, query, count::incrementAndGet), 1L);
+		query.and().eq("otherAttr", "otherValue");
+		assertEquals(searchResultCache.getCount(entityType, query, count::incrementAndGet), 2L);
+	}
+
+	@Test
+	public void testGetCountNestedQueryChangedAfterCaching()
+	{
+		AtomicLong count = new AtomicLong();
+		QueryRule nestedRule = new QueryRule("attr", EQUALS, "value");
+		Query<Entity> query = new QueryImpl<>(new QueryRule(newArrayList(nestedRule)));
+		assertEquals(searchResultCache.getCount(entityType, query, count::incrementAndGet), 1L);
+		nestedRule.setValue("otherValue");
+		assertEquals(searchResultCache.getCount(entityType, query, count::incrementAndGet), 2L);
+	}
+
+	@Test
+	public void testGetCountQueryValueChangedAfterCaching()
+	{
+		AtomicLong count = new AtomicLong();
+		List<Object> values = newArrayList("value");
+		Query<Entity> query = new QueryImpl<>().in("attr", values);
+		assertEquals(searchResultCache.getCount(entityType, query, count::incrementAndGet), 1L);
+		values.add("otherValue");
+		assertEquals(searchResultCache.getCount(entityType, query, count::incrementAndGet), 2L);
+	}
+
+	@Test
+	public void testGetCountIgnoresPagingAndSort()
+	{
+		AtomicLong count = new AtomicLong();
+		Query<Entity> query = new QueryImpl<>().eq("attr", "value");
+		assertEquals(searchResultCache.getCount(entityType, query, count::incrementAndGet), 1L);
+		Query<Entity> pagedQuery = new QueryImpl<>().eq("attr", "value").pageSize(10).offset(20).sort(new Sort("attr"));
+		assertEquals(searchResultCache.getCount(entityType, pagedQuery, count::incrementAndGet), 1L);
+	}
+
+	@Test
+	public void testGetCountNextGeneration()
+	{
+		AtomicLong count = new AtomicLong();
+		assertEquals(searchResultCache.getCount(entityType, null, count::incrementAndGet), 1L);
+		indexGenerations.incrementGenerations(singleton("entityTypeId"));
+		assertEquals(searchResultCache.getCount(entityType, null, count::incrementAndGet), 2L);
+	}
+
+	@Test
+	public void testGetCountInvalidate()
+	{
+		AtomicLong count = new AtomicLong();
+		assertEquals(searchResultCache.getCount(entityType, null, count::incrementAndGet), 1L);
+		searchResultCache.invalidate(singleton("entityTypeId"));
+		assertEquals(searchResultCache.getCount(entityType, null, count::incrementAndGet), 2L);
+	}
+
+	@Test
+	public void testGetAggregateResult()
+	{
+		when(attributeX.getName()).thenReturn("x");
+		when(aggregateQuery.getAttributeX()).thenReturn(attributeX);
+
+		assertSame(searchResultCache.getAggregateResult(entityType, aggregateQuery, () -> aggregateResult),
+				aggregateResult);
+		assertSame(searchResultCache.getAggregateResult(entityType, aggregateQuery,
+				() -> otherAggregateResult),
+				aggregateResult);
+	}
+}
@@ -0,0 +1,70 @@
+package org.molgenis.data.elasticsearch.client;
+
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.action.index.IndexResponse;
+import org.elasticsearch.index.shard.ShardId;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import static org.elasticsearch.action.DocWriteRequest.OpType.INDEX;
+import static org.elasticsearch.client.Requests.indexRequest;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+public class BulkProcessorListenerTest
+{
+	private BulkProcessorListener bulkProcessorListener;
+	private BulkRequest bulkRequest;
+
+	@BeforeMethod
+	public void setUpBeforeMethod()
+	{
+		bulkProcessorListener = new BulkProcessorListener();
+		bulkRequest = new BulkRequest().add(indexRequest("index").type("type").id("id0").source("field", "value"))
+									   .add(indexRequest("index").type("type").id("id1").source("field", "value"));
+	}
+
+	@Test
+	public void testAfterBulk()
+	{
+		IndexResponse indexResponse = new IndexResponse(new ShardId("index", "uuid", 0), "type", "id0", 1, true);
+		BulkItemResponse[] itemResponses = new BulkItemResponse[] { new BulkItemResponse(0, INDEX, indexResponse),
+				new BulkItemResponse(1, INDEX,
+						new BulkItemResponse.Failure("index", "type", "id1", new IllegalArgumentException("invalid"))) };
+
+		bulkProcessorListener.beforeBulk(1L, bulkRequest);
+		bulkProcessorListener.afterBulk(1L, bulkRequest, new BulkResponse(itemResponses, 10L));
+
+		assertEquals(bulkProcessorListener.getNrActions(), 2L);
+		assertEquals(bulkProcessorListener.getNrFailedActions(), 1L);
+		assertEquals(bulkProcessorListener.getFirstFailureMessage(), "java.lang.IllegalArgumentException: invalid");
+	}
+
+	@Test
+	public void testAfterBulkNoFailures()
+	{
+		IndexResponse indexResponse = new IndexResponse(new ShardId("index", "uuid", 0), "type", "id0", 1, true);
+		BulkItemResponse[] itemResponses = new BulkItemResponse[] { new BulkItemResponse(0, INDEX, indexResponse),
+				new BulkItemResponse(1, INDEX, indexResponse) };
+
+		bulkProcessorListener.beforeBulk(1L, bulkRequest);
+		bulkProcessorListener.afterBulk(1L, bulkRequest, new BulkResponse(itemResponses, 10L));
+
+		assertEquals(bulkProcessorListener.getNrActions(), 2L);
+		assertEquals(bulkProcessorListener.getNrFailedActions(), 0L);
+		assertNull(bulkProcessorListener.getFirstFailureMessage());
+	}
+
+	@Test
+	public void testAfterBulkThrowable()
+	{
+		bulkProcessorListener.beforeBulk(1L, bulkRequest);
+		bulkProcessorListener.afterBulk(1L, bulkRequest, new IllegalStateException("rejected"));
+
+		assertEquals(bulkProcessorListener.getNrActions(), 2L);
+		assertEquals(bulkProcessorListener.getNrFailedActions(), 2L);
+		assertEquals(bulkProcessorListener.getFirstFailureMessage(), "rejected");
+	}
+}
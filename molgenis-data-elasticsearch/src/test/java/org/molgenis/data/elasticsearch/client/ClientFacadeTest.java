@@ -7,11 +7,16 @@ import com.google.common.collect.ImmutableList;
 import org.elasticsearch.ElasticsearchException;
 import org.elasticsearch.ResourceAlreadyExistsException;
 import org.elasticsearch.ResourceNotFoundException;
+import org.elasticsearch.action.admin.indices.alias.IndicesAliasesRequestBuilder;
+import org.elasticsearch.action.admin.indices.alias.IndicesAliasesResponse;
+import org.elasticsearch.action.admin.indices.alias.get.GetAliasesRequestBuilder;
+import org.elasticsearch.action.admin.indices.alias.get.GetAliasesResponse;
 import org.elasticsearch.action.admin.indices.create.CreateIndexRequestBuilder;
 import org.elasticsearch.action.admin.indices.create.CreateIndexResponse;
 import org.elasticsearch.action.admin.indices.delete.DeleteIndexRequestBuilder;
 import org.elasticsearch.action.admin.indices.delete.DeleteIndexResponse;
 import org.elasticsearch.action.admin.indices.exists.indices.IndicesExistsRequestBuilder;
+import org.elasticsearch.action.admin.indices.exists.indices.IndicesExistsResponse;
 import org.elasticsearch.action.admin.indices.refresh.RefreshRequestBuilder;
 import org.elasticsearch.action.admin.indices.refresh.RefreshResponse;
 import org.elasticsearch.action.delete.DeleteRequestBuilder;
@@ -28,6 +33,8 @@ import org.elasticsearch.action.support.replication.ReplicationResponse.ShardInf
 import org.elasticsearch.client.AdminClient;
 import org.elasticsearch.client.Client;
 import org.elasticsearch.client.IndicesAdminClient;
+import org.elasticsearch.cluster.metadata.AliasMetaData;
+import org.elasticsearch.common.collect.ImmutableOpenMap;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.xcontent.XContentBuilder;
 import org.elasticsearch.index.query.QueryBuilder;
@@ -37,6 +44,7 @@ import org.elasticsearch.search.SearchShardTarget;
 import org.elasticsearch.search.aggregations.AggregationBuilder;
 import org.mockito.Mock;
 import org.molgenis.data.elasticsearch.client.model.SearchHit;
+import org.molgenis.data.elasticsearch.client.model.SearchHits;
 import org.molgenis.data.elasticsearch.generator.model.*;
 import org.molgenis.data.index.exception.IndexAlreadyExistsException;
 import org.molgenis.data.index.exception.IndexException;
@@ -44,12 +52,16 @@ import org.molgenis.data.index.exception.UnknownIndexException;
 import org.slf4j.LoggerFactory;
 import org.testng.annotations.*;
 
+import java.util.List;
 import java.util.stream.Stream;
 
 import static ch.qos.logback.classic.Level.*;
+import static java.util.Arrays.asList;
 import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
 import static org.mockito.Mockito.*;
 import static org.mockito.MockitoAnnotations.initMocks;
+import static org.testng.Assert.assertEquals;
 
 /**
  * Unit tests for the exception flows of the ClientFacade.
@@ -81,6 +93,18 @@ public class ClientFacadeTest
 	@Mock
 	private DeleteIndexResponse deleteIndexResponse;
 
+	@Mock
+	private GetAliasesRequestBuilder getAliasesRequestBuilder;
+
+	@Mock
+	private GetAliasesResponse getAliasesResponse;
+
+	@Mock
+	private IndicesAliasesRequestBuilder indicesAliasesRequestBuilder;
+
+	@Mock
+	private IndicesAliasesResponse indicesAliasesResponse;
+
 	@Mock
 	private RefreshRequestBuilder refreshRequestBuilder;
 
@@ -167,7 +191,8 @@ public class ClientFacadeTest
 	public void setUp() throws Exception
 	{
 		reset(client, adminClient, indicesAdminClient, createIndexRequestBuilder, createIndexResponse,
-				indicesExistsRequestBuilder, deleteIndexRequestBuilder, deleteIndexResponse, refreshRequestBuilder,
+				indicesExistsRequestBuilder, deleteIndexRequestBuilder, deleteIndexResponse, getAliasesRequestBuilder,
+				getAliasesResponse, indicesAliasesRequestBuilder, indicesAliasesResponse, refreshRequestBuilder,
 				refreshResponse, searchRequestBuilder, searchResponse, queryBuilder, aggregationBuilder,
 				explainRequestBuilder, explainResponse, indexRequestBuilder, indexResponse, shardInfo,
 				deleteRequestBuilder, deleteResponse, document, xContentBuilder, shardInfo, mockAppender);
@@ -262,6 +287,7 @@ public class ClientFacadeTest
 	{
 		Index index = Index.create("index");
 
+		mockGetAliases("index", ImmutableOpenMap.of());
 		when(indicesAdminClient.prepareDelete("index")).thenReturn(deleteIndexRequestBuilder);
 		when(deleteIndexRequestBuilder.get()).thenThrow(new ElasticsearchException("exception"));
 
@@ -273,6 +299,7 @@ public class ClientFacadeTest
 	{
 		Index index = Index.create("index");
 
+		mockGetAliases("index", ImmutableOpenMap.of());
 		when(indicesAdminClient.prepareDelete("index")).thenReturn(deleteIndexRequestBuilder);
 		when(deleteIndexRequestBuilder.get()).thenReturn(deleteIndexResponse);
 		when(deleteIndexResponse.isAcknowledged()).thenReturn(false);
@@ -280,6 +307,84 @@ public class ClientFacadeTest
 		clientFacade.deleteIndex(index);
 	}
 
+	@Test
+	public void testDeleteIndexAlias()
+	{
+		Index index = Index.create("index");
+		mockGetAliases("index", createAliases("index_v1", "index"));
+
+		when(indicesAdminClient.prepareDelete("index_v1")).thenReturn(deleteIndexRequestBuilder);
+		when(deleteIndexRequestBuilder.get()).thenReturn(deleteIndexResponse);
+		when(deleteIndexResponse.isAcknowledged()).thenReturn(true);
+
+		clientFacade.deleteIndex(index);
+
+		verify(indicesAdminClient).prepareDelete("index_v1");
+	}
+
+	@Test
+	public void testSwapIndexAlias()
+	{
+		Index index = Index.create("index_v2", "index");
+		mockGetAliases("index", createAliases("index_v1", "index"));
+
+		when(indicesAdminClient.prepareAliases()).thenReturn(indicesAliasesRequestBuilder);
+		when(indicesAliasesRequestBuilder.addAlias("index_v2", "index")).thenReturn(indicesAliasesRequestBuilder);
+		when(indicesAliasesRequestBuilder.get()).thenReturn(indicesAliasesResponse);
+		when(indicesAliasesResponse.isAcknowledged()).thenReturn(true);
+
+		clientFacade.swapIndexAlias(index);
+
+		verify(indicesAliasesRequestBuilder).removeIndex("index_v1");
+		verify(indicesAdminClient, never()).prepareExists(any());
+	}
+
+	@Test
+	public void testSwapIndexAliasUnversionedIndex()
+	{
+		Index index = Index.create("index_v1", "index");
+		mockGetAliases("index", ImmutableOpenMap.of());
+
+		when(indicesAdminClient.prepareExists("index")).thenReturn(indicesExistsRequestBuilder);
+		IndicesExistsResponse indicesExistsResponse = new IndicesExistsResponse(true);
+		when(indicesExistsRequestBuilder.get()).thenReturn(indicesExistsResponse);
+		when(indicesAdminClient.prepareAliases()).thenReturn(indicesAliasesRequestBuilder);
+		when(indicesAliasesRequestBuilder.addAlias("index_v1", "index")).thenReturn(indicesAliasesRequestBuilder);
+		when(indicesAliasesRequestBuilder.get()).thenReturn(indicesAliasesResponse);
+		when(indicesAliasesResponse.isAcknowledged()).thenReturn(true);
+
+		clientFacade.swapIndexAlias(index);
+
+		verify(indicesAliasesRequestBuilder).removeIndex("index");
+	}
+
+	@Test(expectedExceptions = IndexException.class, expectedExceptionsMessageRegExp = "Error swapping alias 'index' to index 'index_v2'\\.")
+	public void testSwapIndexAliasNotAcknowledged()
+	{
+		Index index = Index.create("index_v2", "index");
+		mockGetAliases("index", createAliases("index_v1", "index"));
+
+		when(indicesAdminClient.prepareAliases()).thenReturn(indicesAliasesRequestBuilder);
+		when(indicesAliasesRequestBuilder.addAlias("index_v2", "index")).thenReturn(indicesAliasesRequestBuilder);
+		when(indicesAliasesRequestBuilder.get()).thenReturn(indicesAliasesResponse);
+		when(indicesAliasesResponse.isAcknowledged()).thenReturn(false);
+
+		clientFacade.swapIndexAlias(index);
+	}
+
+	private void mockGetAliases(String alias, ImmutableOpenMap<String, List<AliasMetaData>> aliases)
+	{
+		when(indicesAdminClient.prepareGetAliases(alias)).thenReturn(getAliasesRequestBuilder);
+		when(getAliasesRequestBuilder.get()).thenReturn(getAliasesResponse);
+		when(getAliasesResponse.getAliases()).thenReturn(aliases);
+	}
+
+	private static ImmutableOpenMap<String, List<AliasMetaData>> createAliases(String indexName, String alias)
+	{
+		return ImmutableOpenMap.<String, List<AliasMetaData>>builder().fPut(indexName,
+				singletonList(AliasMetaData.builder(alias).build())).build();
+	}
+
 	@Test(expectedExceptions = IndexException.class, expectedExceptionsMessageRegExp = "Error refreshing index\\(es\\) '_all'\\.")
 	public void testRefreshIndicesThrowsException()
 	{
@@ -409,6 +514,32 @@ public class ClientFacadeTest
 		clientFacade.search(queryBuilder, 0, 100, ImmutableList.of(index));
 	}
 
+	@Test
+	public void testSearchAfter()
+	{
+		Index index = Index.create("index");
+		org.elasticsearch.search.SearchHit hit = mock(org.elasticsearch.search.SearchHit.class);
+		when(hit.getId()).thenReturn("id3");
+		when(hit.getIndex()).thenReturn("index");
+		when(hit.getSortValues()).thenReturn(new Object[] { "c", "index#id3" });
+		org.elasticsearch.search.SearchHits hits = mock(org.elasticsearch.search.SearchHits.class);
+		when(hits.getHits()).thenReturn(new org.elasticsearch.search.SearchHit[] { hit });
+		when(hits.getTotalHits()).thenReturn(3L);
+
+		when(client.prepareSearch("index")).thenReturn(searchRequestBuilder);
+		when(searchRequestBuilder.get()).thenReturn(searchResponse);
+		when(searchResponse.getHits()).thenReturn(hits);
+		Sort sort = Sort.create(singletonList(SortOrder.create("_uid", SortDirection.ASC)));
+
+		SearchHits searchHits = clientFacade.searchAfter(queryBuilder, asList("b", "index#id2"), 2, sort, index);
+
+		verify(searchRequestBuilder).setFrom(0);
+		verify(searchRequestBuilder).setSize(2);
+		verify(searchRequestBuilder).searchAfter(new Object[] { "b", "index#id2" });
+		assertEquals(searchHits,
+				SearchHits.create(3L, singletonList(SearchHit.create("id3", "index", asList("c", "index#id3")))));
+	}
+
 	@Test(expectedExceptions = IndexException.class, expectedExceptionsMessageRegExp = "Error aggregating docs in index\\(es\\) 'index'\\.")
 	public void testAggregateThrowsException()
 	{
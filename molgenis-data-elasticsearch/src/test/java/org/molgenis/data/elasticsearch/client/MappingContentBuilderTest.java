@@ -5,6 +5,7 @@ import org.elasticsearch.common.xcontent.XContentType;
 import org.molgenis.data.elasticsearch.generator.model.FieldMapping;
 import org.molgenis.data.elasticsearch.generator.model.Mapping;
 import org.molgenis.data.elasticsearch.generator.model.MappingType;
+import org.molgenis.data.meta.IndexHint;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
@@ -49,6 +50,29 @@ public class MappingContentBuilderTest
 		assertEquals(xContentBuilder.string(), expectedJson);
 	}
 
+	@DataProvider(name = "createMappingIndexHintProvider")
+	public static Iterator<Object[]> createMappingIndexHintProvider()
+	{
+		List<Object[]> dataItems = new ArrayList<>();
+		dataItems.add(new Object[] { MappingType.TEXT, IndexHint.KEYWORD, JSON_TEXT_KEYWORD });
+		dataItems.add(new Object[] { MappingType.TEXT, IndexHint.DOC_VALUES, JSON_TEXT_DOC_VALUES });
+		dataItems.add(new Object[] { MappingType.TEXT, IndexHint.STORED, JSON_TEXT_STORED });
+		dataItems.add(new Object[] { MappingType.DATE, IndexHint.DOC_VALUES, JSON_DATE_DOC_VALUES });
+		dataItems.add(new Object[] { MappingType.INTEGER, IndexHint.DOC_VALUES, JSON_INTEGER_DOC_VALUES });
+		dataItems.add(new Object[] { MappingType.LONG, IndexHint.STORED, JSON_LONG_STORED });
+		return dataItems.iterator();
+	}
+
+	@Test(dataProvider = "createMappingIndexHintProvider")
+	public void testCreateMappingIndexHint(MappingType mappingType, IndexHint indexHint, String expectedJson)
+			throws IOException
+	{
+		Mapping mapping = createMapping(
+				FieldMapping.builder().setName("field").setType(mappingType).setIndexHint(indexHint).build());
+		XContentBuilder xContentBuilder = mappingContentBuilder.createMapping(mapping);
+		assertEquals(xContentBuilder.string(), expectedJson);
+	}
+
 	@Test
 	public void testCreateMappingNested() throws IOException
 	{
@@ -77,5 +101,11 @@ public class MappingContentBuilderTest
 	private static final String JSON_INTEGER = "{\"_source\":{\"enabled\":false},\"properties\":{\"field\":{\"type\":\"integer\",\"doc_values\":true}}}";
 	private static final String JSON_LONG = "{\"_source\":{\"enabled\":false},\"properties\":{\"field\":{\"type\":\"long\"}}}";
 	private static final String JSON_TEXT = "{\"_source\":{\"enabled\":false},\"properties\":{\"field\":{\"type\":\"text\",\"norms\":true,\"fields\":{\"raw\":{\"type\":\"keyword\",\"index\":true}}}}}";
+	private static final String JSON_TEXT_KEYWORD = "{\"_source\":{\"enabled\":false},\"properties\":{\"field\":{\"type\":\"text\",\"index\":false,\"norms\":false,\"fields\":{\"raw\":{\"type\":\"keyword\",\"index\":true}}}}}";
+	private static final String JSON_TEXT_DOC_VALUES = "{\"_source\":{\"enabled\":false},\"properties\":{\"field\":{\"type\":\"text\",\"index\":false,\"norms\":false,\"include_in_all\":false,\"fields\":{\"raw\":{\"type\":\"keyword\",\"index\":false}}}}}";
+	private static final String JSON_TEXT_STORED = "{\"_source\":{\"enabled\":false},\"properties\":{\"field\":{\"type\":\"text\",\"norms\":true,\"store\":true,\"fields\":{\"raw\":{\"type\":\"keyword\",\"index\":true}}}}}";
+	private static final String JSON_DATE_DOC_VALUES = "{\"_source\":{\"enabled\":false},\"properties\":{\"field\":{\"type\":\"date\",\"format\":\"date\",\"index\":false,\"include_in_all\":false,\"fields\":{\"raw\":{\"type\":\"keyword\",\"index\":false}}}}}";
+	private static final String JSON_INTEGER_DOC_VALUES = "{\"_source\":{\"enabled\":false},\"properties\":{\"field\":{\"type\":\"integer\",\"doc_values\":true,\"index\":false,\"include_in_all\":false}}}";
+	private static final String JSON_LONG_STORED = "{\"_source\":{\"enabled\":false},\"properties\":{\"field\":{\"type\":\"long\",\"store\":true}}}";
 	private static final String JSON_NESTED = "{\"_source\":{\"enabled\":false},\"properties\":{\"field\":{\"type\":\"nested\",\"properties\":{\"nestedField\":{\"type\":\"boolean\"}}}}}";
 }
\ No newline at end of file
@@ -40,6 +40,14 @@ public class SortContentBuilderTest
 		assertSortsEqual(sorts, singletonList(JSON_SORT_DESC));
 	}
 
+	@Test
+	public void createSortsScore()
+	{
+		List<SortBuilder> sorts = sortContentBuilder.createSorts(
+				Sort.create(singletonList(SortOrder.create("_score", DESC))));
+		assertSortsEqual(sorts, singletonList(JSON_SORT_SCORE));
+	}
+
 	private void assertSortsEqual(List<SortBuilder> sorts, List<String> contentStrings)
 	{
 		assertEquals(sorts.stream().map(SortBuilder::toString).collect(toList()), contentStrings);
@@ -49,4 +57,6 @@ public class SortContentBuilderTest
 			"{\n" + "  \"field\" : {\n" + "    \"order\" : \"asc\",\n" + "    \"mode\" : \"min\"\n" + "  }\n" + "}";
 	private static final String JSON_SORT_DESC =
 			"{\n" + "  \"field\" : {\n" + "    \"order\" : \"desc\",\n" + "    \"mode\" : \"min\"\n" + "  }\n" + "}";
-}
\ No newline at end of file
+	private static final String JSON_SORT_SCORE =
+			"{\n" + "  \"_score\" : {\n" + "    \"order\" : \"desc\"\n" + "  }\n" + "}";
+}
@@ -5,8 +5,11 @@ import org.mockito.quality.Strictness;
 import org.molgenis.data.Entity;
 import org.molgenis.data.elasticsearch.generator.model.Document;
 import org.molgenis.data.meta.AttributeType;
+import org.molgenis.data.meta.IndexHint;
 import org.molgenis.data.meta.model.Attribute;
 import org.molgenis.data.meta.model.EntityType;
+import org.molgenis.data.meta.model.Tag;
+import org.molgenis.data.semantic.Relation;
 import org.molgenis.test.AbstractMockitoTest;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.DataProvider;
@@ -87,6 +90,20 @@ public class DocumentContentBuilderTest extends AbstractMockitoTest
 		assertDocumentEquals(document, expectedContent);
 	}
 
+	@Test
+	public void createDocumentNotIndexed()
+	{
+		String attrIdentifier = "attr";
+		Entity entity = createEntity(attrIdentifier, AttributeType.TEXT);
+		Attribute attribute = entity.getEntityType().getAtomicAttributes().iterator().next();
+		Tag tag = mock(Tag.class);
+		when(tag.getRelationIri()).thenReturn(Relation.hasIndexHint.getIRI());
+		when(tag.getObjectIri()).thenReturn(IndexHint.NOT_INDEXED.getIRI());
+		when(attribute.getTags()).thenReturn(singletonList(tag));
+		Document document = documentContentBuilder.createDocument(entity);
+		assertDocumentEquals(document, "{}");
+	}
+
 	@DataProvider(name = "createDocumentReference")
 	public static Iterator<Object[]> createDocumentReferenceProvider()
 	{
@@ -6,8 +6,11 @@ import org.molgenis.data.elasticsearch.generator.model.FieldMapping;
 import org.molgenis.data.elasticsearch.generator.model.Mapping;
 import org.molgenis.data.elasticsearch.generator.model.MappingType;
 import org.molgenis.data.meta.AttributeType;
+import org.molgenis.data.meta.IndexHint;
 import org.molgenis.data.meta.model.Attribute;
 import org.molgenis.data.meta.model.EntityType;
+import org.molgenis.data.meta.model.Tag;
+import org.molgenis.data.semantic.Relation;
 import org.molgenis.test.AbstractMockitoTest;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.DataProvider;
@@ -17,6 +20,7 @@ import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 
+import static java.util.Arrays.asList;
 import static java.util.Collections.singletonList;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
@@ -86,6 +90,26 @@ public class MappingGeneratorTest extends AbstractMockitoTest
 		return dataItems.iterator();
 	}
 
+	@Test
+	public void testCreateMappingIndexHints()
+	{
+		initDocumentIdGeneratorMock();
+		Attribute keywordAttribute = createAttribute("keywordAttr", AttributeType.TEXT, IndexHint.KEYWORD);
+		Attribute notIndexedAttribute = createAttribute("notIndexedAttr", AttributeType.HTML, IndexHint.NOT_INDEXED);
+		EntityType entityType = mock(EntityType.class);
+		when(entityType.getId()).thenReturn("id");
+		when(entityType.getAtomicAttributes()).thenReturn(asList(keywordAttribute, notIndexedAttribute));
+
+		Mapping mapping = mappingGenerator.createMapping(entityType);
+
+		FieldMapping fieldMapping = FieldMapping.builder()
+												.setName("keywordAttr")
+												.setType(MappingType.TEXT)
+												.setIndexHint(IndexHint.KEYWORD)
+												.build();
+		assertEquals(mapping, createMapping(fieldMapping));
+	}
+
 	@DataProvider(name = "createMappingProviderNested")
 	public static Iterator<Object[]> createMappingProviderNested()
 	{
@@ -217,6 +241,18 @@ public class MappingGeneratorTest extends AbstractMockitoTest
 		return entityType;
 	}
 
+	private static Attribute createAttribute(String attrIdentifier, AttributeType type, IndexHint indexHint)
+	{
+		Tag tag = mock(Tag.class);
+		when(tag.getRelationIri()).thenReturn(Relation.hasIndexHint.getIRI());
+		when(tag.getObjectIri()).thenReturn(indexHint.getIRI());
+		Attribute attribute = mock(Attribute.class);
+		when(attribute.getIdentifier()).thenReturn(attrIdentifier);
+		when(attribute.getDataType()).thenReturn(type);
+		when(attribute.getTags()).thenReturn(singletonList(tag));
+		return attribute;
+	}
+
 	private static Mapping createMapping(FieldMapping fieldMapping)
 	{
 		return Mapping.builder().setType("id").setFieldMappings(singletonList(fieldMapping)).build();
@@ -0,0 +1,29 @@
+package org.molgenis.data.index;
+
+import org.springframework.context.annotation.Conditional;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Registers a configuration or component only if the given search backend is selected with the
+ * <code>search.backend</code> property, e.g. <code>-Dsearch.backend=lucene</code>. Defaults to
+ * {@link #ELASTICSEARCH}.
+ */
+@Target({ ElementType.TYPE, ElementType.METHOD })
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Conditional(OnSearchBackendCondition.class)
+public @interface ConditionalOnSearchBackend
+{
+	String ELASTICSEARCH = "elasticsearch";
+	String LUCENE = "lucene";
+
+	/**
+	 * Name of the search backend
+	 */
+	String value();
+}
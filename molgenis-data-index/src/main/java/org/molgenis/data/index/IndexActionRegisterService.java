@@ -3,6 +3,8 @@ package org.molgenis.data.index;
 import org.molgenis.data.meta.model.EntityType;
 import org.molgenis.security.core.runas.RunAsSystem;
 
+import java.util.Set;
+
 /**
  * Registers changes made to an indexed repository that need to be fixed by indexing
  * the relevant data.
@@ -33,6 +35,16 @@ public interface IndexActionRegisterService
 	@RunAsSystem
 	void storeIndexActions(String transactionId);
 
+	/**
+	 * Returns the ids of the entity types whose index documents contain data of the given entity types, because they
+	 * reference them within their indexing depth.
+	 *
+	 * @param entityTypeIds entity type ids
+	 * @return ids of the dependent entity types
+	 */
+	@RunAsSystem
+	Set<String> getDependentEntityTypeIds(Set<String> entityTypeIds);
+
 	/**
 	 * Removes all index actions registered for a transaction.
 	 *
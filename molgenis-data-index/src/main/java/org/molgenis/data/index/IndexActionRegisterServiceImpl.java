@@ -125,7 +125,8 @@ public class IndexActionRegisterServiceImpl implements TransactionInformation, I
 		}
 
 		IndexActionGroup indexActionGroup = indexActionGroupFactory.create(transactionId);
-		IndexDependencyModel dependencyModel = createIndexDependencyModel(changes);
+		IndexDependencyModel dependencyModel = createIndexDependencyModel(
+				changes.stream().map(Impact::getEntityTypeId).collect(toSet()));
 		Stream<Impact> impactStream = indexingStrategy.determineImpact(changes, dependencyModel)
 													  .stream()
 													  .filter(key -> !excludedEntities.contains(key.getEntityTypeId()));
@@ -141,9 +142,16 @@ public class IndexActionRegisterServiceImpl implements TransactionInformation, I
 		dataService.add(INDEX_ACTION, indexActions.stream());
 	}
 
-	private IndexDependencyModel createIndexDependencyModel(Set<Impact> changes)
+	@Override
+	@RunAsSystem
+	public Set<String> getDependentEntityTypeIds(Set<String> entityTypeIds)
+	{
+		IndexDependencyModel dependencyModel = createIndexDependencyModel(entityTypeIds);
+		return entityTypeIds.stream().flatMap(dependencyModel::getEntityTypesDependentOn).collect(toSet());
+	}
+
+	private IndexDependencyModel createIndexDependencyModel(Set<String> entityTypeIds)
 	{
-		Set<String> entityTypeIds = changes.stream().map(Impact::getEntityTypeId).collect(toSet());
 		boolean hasReferences = dataService.query(ATTRIBUTE_META_DATA).in(REF_ENTITY_TYPE, entityTypeIds).count() > 0;
 		if (hasReferences)
 		{
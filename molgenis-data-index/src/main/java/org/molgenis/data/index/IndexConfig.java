@@ -12,6 +12,7 @@ import org.molgenis.jobs.JobFactory;
 import org.molgenis.jobs.model.JobExecutionMetaData;
 import org.molgenis.jobs.model.JobPackage;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
@@ -23,7 +24,8 @@ import static org.molgenis.data.index.job.IndexJobExecutionMeta.INDEX_JOB_EXECUT
 //TODO: These imported classes should be in separate config and this is the IndexJobConfig
 @Import({ IndexActionFactory.class, IndexActionGroupFactory.class, IndexActionMetaData.class,
 		IndexActionGroupMetaData.class, IndexPackage.class, IndexJobExecutionFactory.class, IndexJobExecutionMeta.class,
-		JobPackage.class, JobExecutionMetaData.class, IndexActionRegisterServiceImpl.class, IndexingStrategy.class })
+		JobPackage.class, JobExecutionMetaData.class, IndexActionRegisterServiceImpl.class, IndexingStrategy.class,
+		IndexGenerations.class })
 @Configuration
 public class IndexConfig
 {
@@ -48,6 +50,9 @@ public class IndexConfig
 	@Autowired
 	private JobExecutor jobExecutor;
 
+	@Value("${index.job.threads:4}")
+	private int nrIndexJobThreads;
+
 	@PostConstruct
 	public void register()
 	{
@@ -66,7 +71,8 @@ public class IndexConfig
 	@Bean
 	public IndexJobScheduler indexJobScheduler()
 	{
-		return new IndexJobSchedulerImpl(dataService, indexJobExecutionFactory, jobExecutor);
+		return new IndexJobSchedulerImpl(dataService, indexActionRegisterService, indexJobExecutionFactory,
+				jobExecutor, nrIndexJobThreads);
 	}
 
 	@Bean
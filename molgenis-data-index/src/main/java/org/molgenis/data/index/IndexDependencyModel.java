@@ -1,6 +1,8 @@
 package org.molgenis.data.index;
 
+import com.google.common.collect.ImmutableListMultimap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Multimap;
 import org.molgenis.data.Fetch;
 import org.molgenis.data.meta.model.Attribute;
 import org.molgenis.data.meta.model.EntityType;
@@ -8,14 +10,15 @@ import org.molgenis.data.util.GenericDependencyResolver;
 
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Set;
 import java.util.stream.Stream;
 
 import static com.google.common.collect.Maps.uniqueIndex;
-import static java.util.Collections.emptySet;
+import static java.util.stream.Collectors.toList;
 import static java.util.stream.StreamSupport.stream;
+import static org.molgenis.data.meta.model.AttributeMetadata.NAME;
 import static org.molgenis.data.meta.model.AttributeMetadata.REF_ENTITY_TYPE;
+import static org.molgenis.data.meta.model.AttributeMetadata.TYPE;
 import static org.molgenis.data.meta.model.EntityTypeMetadata.*;
 
 /**
@@ -49,24 +52,38 @@ class IndexDependencyModel
 
 	private Set<String> getReferencingEntities(String entityTypeId)
 	{
-		ImmutableSet.Builder<String> result = ImmutableSet.builder();
+		return getReferencingAttributes(entityTypeId).keySet();
+	}
+
+	/**
+	 * Returns the attributes that reference an entity type grouped by the id of the non-abstract entity type that has
+	 * the attribute. Attributes of abstract entity types are returned for each of the non-abstract descendants.
+	 *
+	 * @param entityTypeId the ID of the entity type that may be referenced
+	 * @return referencing attributes per referencing entity type id
+	 */
+	Multimap<String, Attribute> getReferencingAttributes(String entityTypeId)
+	{
+		ImmutableListMultimap.Builder<String, Attribute> result = ImmutableListMultimap.builder();
 		EntityType entityType = entityTypes.get(entityTypeId);
 		if (entityType == null)
 		{
-			return emptySet();
+			return result.build();
 		}
 		for (Map.Entry<String, EntityType> candidate : entityTypes.entrySet())
 		{
 			EntityType candidateEntityType = candidate.getValue();
-			if (hasAttributeThatReferences(candidateEntityType, entityTypeId))
+			List<Attribute> referencingAttributes = getAttributesThatReference(candidateEntityType, entityTypeId);
+			if (!referencingAttributes.isEmpty())
 			{
 				if (candidateEntityType.isAbstract())
 				{
-					result.addAll(getDescendants(candidate.getKey()));
+					getDescendants(candidate.getKey()).forEach(
+							descendant -> result.putAll(descendant, referencingAttributes));
 				}
 				else
 				{
-					result.add(candidate.getKey());
+					result.putAll(candidate.getKey(), referencingAttributes);
 				}
 			}
 		}
@@ -101,17 +118,24 @@ class IndexDependencyModel
 	}
 
 	/**
-	 * Determines if an entityType has an attribute that references another entity
+	 * Determines the attributes of an entityType that reference another entity
 	 *
 	 * @param candidate    the EntityType that is examined
 	 * @param entityTypeId the ID of the entity that may be referenced
-	 * @return indication if candidate references entityTypeID
+	 * @return attributes of candidate that reference entityTypeID
 	 */
-	private boolean hasAttributeThatReferences(EntityType candidate, String entityTypeId)
+	private List<Attribute> getAttributesThatReference(EntityType candidate, String entityTypeId)
 	{
 		Iterable<Attribute> attributes = candidate.getOwnAtomicAttributes();
-		return stream(attributes.spliterator(), false).map(Attribute::getRefEntity).filter(Objects::nonNull).
-				map(EntityType::getId).anyMatch(entityTypeId::equals);
+		return stream(attributes.spliterator(), false).filter(attribute -> attribute.getRefEntity() != null)
+													  .filter(attribute -> entityTypeId.equals(
+															  attribute.getRefEntity().getId()))
+													  .collect(toList());
+	}
+
+	int getIndexingDepth(String entityTypeId)
+	{
+		return entityTypes.get(entityTypeId).getIndexingDepth();
 	}
 
 	Stream<String> getEntityTypesDependentOn(String entityTypeId)
@@ -0,0 +1,27 @@
+package org.molgenis.data.index;
+
+import com.google.common.util.concurrent.AtomicLongMap;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+
+/**
+ * Keeps track of the generation of the index of each entity type. The generation of an entity type is incremented by
+ * the search backend each time the index of the entity type changed, so that results derived from the index can be
+ * cached until the index changes.
+ */
+@Component
+public class IndexGenerations
+{
+	private final AtomicLongMap<String> generations = AtomicLongMap.create();
+
+	public long getGeneration(String entityTypeId)
+	{
+		return generations.get(entityTypeId);
+	}
+
+	public void incrementGenerations(Collection<String> entityTypeIds)
+	{
+		entityTypeIds.forEach(generations::incrementAndGet);
+	}
+}
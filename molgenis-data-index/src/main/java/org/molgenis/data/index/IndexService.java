@@ -14,7 +14,12 @@ public interface IndexService
 
 	void deleteIndex(EntityType entityType);
 
-	void rebuildIndex(Repository<? extends Entity> repository);
+	/**
+	 * Rebuilds the index of a repository.
+	 *
+	 * @return number of indexed entities
+	 */
+	long rebuildIndex(Repository<? extends Entity> repository);
 
 	void refreshIndex();
 
@@ -1,37 +1,58 @@
 package org.molgenis.data.index;
 
+import com.google.common.collect.Streams;
 import org.molgenis.data.*;
 import org.molgenis.data.QueryRule.Operator;
 import org.molgenis.data.aggregation.AggregateQuery;
 import org.molgenis.data.aggregation.AggregateResult;
 import org.molgenis.data.index.exception.UnknownIndexException;
 import org.molgenis.data.index.job.IndexJobScheduler;
+import org.molgenis.data.meta.IndexHint;
+import org.molgenis.data.meta.model.Attribute;
+import org.molgenis.data.meta.model.EntityType;
+import org.molgenis.data.support.QueryImpl;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.Collections;
 import java.util.EnumSet;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
 import java.util.Set;
+import java.util.function.Predicate;
 import java.util.function.Supplier;
 import java.util.stream.Stream;
 
+import static com.google.common.collect.Iterators.partition;
+import static java.lang.Math.max;
 import static java.lang.String.format;
 import static java.util.Collections.unmodifiableSet;
 import static java.util.Objects.requireNonNull;
+import static java.util.stream.Collectors.toSet;
+import static org.molgenis.data.QueryRule.Operator.PERMITTED;
 import static org.molgenis.data.QueryUtils.*;
 import static org.molgenis.data.RepositoryCapability.AGGREGATEABLE;
 import static org.molgenis.data.RepositoryCapability.QUERYABLE;
+import static org.molgenis.data.support.AttributeUtils.getIndexHint;
 
 /**
  * Decorator for indexed repositories. Sends all queries with operators that are not supported by the decorated
  * repository to the index.
+ * <p>
+ * The index doesn't know entity permissions, so a {@link Operator#PERMITTED} query rule of a query that is sent to the
+ * index is applied by the decorated repository to the entity ids found in the index.
+ * <p>
+ * Queries that are sent to the index are rejected if they query or sort by attributes whose {@link IndexHint index
+ * hint} doesn't allow it, aggregate queries are rejected if they aggregate attributes without doc values. Queries that
+ * are handled by the decorated repository are not affected by index hints.
  */
 class IndexedRepositoryDecorator extends AbstractRepositoryDecorator<Entity>
 {
 	private static final Logger LOG = LoggerFactory.getLogger(IndexedRepositoryDecorator.class);
 	private static final String INDEX_REPOSITORY = "Index Repository";
 	private static final String DECORATED_REPOSITORY = "Decorated Repository";
+	private static final int PERMITTED_BATCH_SIZE = 1000;
 
 	private final SearchService searchService;
 	private final IndexJobScheduler indexJobScheduler;
@@ -65,7 +86,16 @@ class IndexedRepositoryDecorator extends AbstractRepositoryDecorator<Entity>
 		{
 			LOG.debug("public Entity findOne({}) entityTypeId: [{}] repository: [{}]", q, getEntityType().getId(),
 					INDEX_REPOSITORY);
-			Object entityId = tryTwice(() -> searchService.searchOne(getEntityType(), q));
+			validateIndexHints(q);
+			Object entityId;
+			if (containsOperator(q, PERMITTED))
+			{
+				entityId = searchPermitted(new QueryImpl<>(q).setPageSize(1)).findFirst().orElse(null);
+			}
+			else
+			{
+				entityId = tryTwice(() -> searchService.searchOne(getEntityType(), q));
+			}
 			return entityId != null ? delegate().findOneById(entityId, q.getFetch()) : null;
 		}
 
@@ -84,7 +114,16 @@ class IndexedRepositoryDecorator extends AbstractRepositoryDecorator<Entity>
 		{
 			LOG.debug("public Entity findAll({}) entityTypeId: [{}] repository: [{}]", q, getEntityType().getId(),
 					INDEX_REPOSITORY);
-			Stream<Object> entityIds = tryTwice(() -> searchService.search(getEntityType(), q));
+			validateIndexHints(q);
+			Stream<Object> entityIds;
+			if (containsOperator(q, PERMITTED))
+			{
+				entityIds = searchPermitted(q);
+			}
+			else
+			{
+				entityIds = tryTwice(() -> searchService.search(getEntityType(), q));
+			}
 			return delegate().findAll(entityIds, q.getFetch());
 		}
 	}
@@ -103,10 +142,18 @@ class IndexedRepositoryDecorator extends AbstractRepositoryDecorator<Entity>
 		return unmodifiableSet(capabilities);
 	}
 
+	/**
+	 * Returns all operators, {@link Operator#PERMITTED} only if the underlying repository supports it.
+	 */
 	@Override
 	public Set<Operator> getQueryOperators()
 	{
-		return EnumSet.allOf(Operator.class);
+		Set<Operator> operators = EnumSet.allOf(Operator.class);
+		if (!delegate().getQueryOperators().contains(PERMITTED))
+		{
+			operators.remove(PERMITTED);
+		}
+		return operators;
 	}
 
 	@Override
@@ -123,6 +170,11 @@ class IndexedRepositoryDecorator extends AbstractRepositoryDecorator<Entity>
 		{
 			LOG.debug("public long count({}) entityTypeId: [{}] repository: [{}]", q, getEntityType().getId(),
 					INDEX_REPOSITORY);
+			validateIndexHints(q.getRules());
+			if (containsOperator(q, PERMITTED))
+			{
+				return searchPermitted(new QueryImpl<>(q).setOffset(0).setPageSize(0)).count();
+			}
 			return tryTwice(() -> searchService.count(getEntityType(), q));
 		}
 	}
@@ -130,6 +182,7 @@ class IndexedRepositoryDecorator extends AbstractRepositoryDecorator<Entity>
 	@Override
 	public AggregateResult aggregate(AggregateQuery aggregateQuery)
 	{
+		validateIndexHints(aggregateQuery);
 		return tryTwice(() -> searchService.aggregate(getEntityType(), aggregateQuery));
 	}
 
@@ -164,6 +217,51 @@ class IndexedRepositoryDecorator extends AbstractRepositoryDecorator<Entity>
 		}
 	}
 
+	/**
+	 * Searches the index with a query that ends with an {@link Operator#PERMITTED} query rule. The index query omits
+	 * the rule and paging, the underlying repository applies the rule to batches of the found entity ids.
+	 */
+	private Stream<Object> searchPermitted(Query<Entity> q)
+	{
+		List<QueryRule> rules = q.getRules();
+		QueryRule permittedRule = rules.get(rules.size() - 1);
+		List<QueryRule> indexRules = rules.subList(0, max(0, rules.size() - 2));
+		if (permittedRule.getOperator() != PERMITTED || (rules.size() > 1
+				&& rules.get(rules.size() - 2).getOperator() != Operator.AND) || containsAnyOperator(indexRules,
+				EnumSet.of(PERMITTED)))
+		{
+			throw new UnsupportedOperationException(
+					format("Query operator [%s] is only supported as last query rule", PERMITTED));
+		}
+
+		QueryImpl<Entity> indexQuery = new QueryImpl<>(indexRules);
+		indexQuery.sort(q.getSort());
+		Stream<Object> entityIds = tryTwice(() -> searchService.search(getEntityType(), indexQuery));
+		Stream<Object> permittedEntityIds = Streams.stream(partition(entityIds.iterator(), PERMITTED_BATCH_SIZE))
+												   .flatMap(batch -> getPermittedEntityIds(batch, permittedRule));
+		if (q.getOffset() > 0)
+		{
+			permittedEntityIds = permittedEntityIds.skip(q.getOffset());
+		}
+		if (q.getPageSize() > 0)
+		{
+			permittedEntityIds = permittedEntityIds.limit(q.getPageSize());
+		}
+		return permittedEntityIds;
+	}
+
+	private Stream<Object> getPermittedEntityIds(List<Object> entityIds, QueryRule permittedRule)
+	{
+		String idAttributeName = getEntityType().getIdAttribute().getName();
+		QueryImpl<Entity> query = new QueryImpl<>();
+		query.in(idAttributeName, entityIds).and();
+		query.addRule(permittedRule);
+		query.fetch(new Fetch().field(idAttributeName));
+
+		Set<Object> permittedEntityIds = delegate().findAll(query).map(Entity::getIdValue).collect(toSet());
+		return entityIds.stream().filter(permittedEntityIds::contains);
+	}
+
 	/**
 	 * Checks if the underlying repository can handle this query. Queries with unsupported operators, queries that use
 	 * attributes with computed values or queries with nested query rule field are delegated to the index.
@@ -174,6 +272,110 @@ class IndexedRepositoryDecorator extends AbstractRepositoryDecorator<Entity>
 				&& !containsNestedQueryRuleField(q);
 	}
 
+	/**
+	 * Validates that the index can answer the query rules and sort the results, see {@link #validateIndexHints(List)}.
+	 *
+	 * @throws MolgenisDataException if the query sorts by an attribute without doc values
+	 */
+	private void validateIndexHints(Query<Entity> q)
+	{
+		validateIndexHints(q.getRules());
+		Sort sort = q.getSort();
+		if (sort != null)
+		{
+			for (Sort.Order order : sort)
+			{
+				validateIndexHints(order.getAttr(), IndexHint::hasDocValues, "sorted");
+			}
+		}
+	}
+
+	/**
+	 * Validates that the index can answer the query rules of the aggregate query and aggregate its attributes.
+	 *
+	 * @throws MolgenisDataException if the aggregate query aggregates an attribute without doc values
+	 */
+	private void validateIndexHints(AggregateQuery aggregateQuery)
+	{
+		Query<Entity> q = aggregateQuery.getQuery();
+		if (q != null)
+		{
+			validateIndexHints(q.getRules());
+		}
+		Stream.of(aggregateQuery.getAttributeX(), aggregateQuery.getAttributeY(),
+				aggregateQuery.getAttributeDistinct())
+			  .filter(Objects::nonNull)
+			  .forEach(attr -> validateIndexHint(getEntityType(), attr, IndexHint::hasDocValues, "aggregated"));
+	}
+
+	/**
+	 * Validates that the index can answer the query rules: the attributes of the query rules must be indexed in a way
+	 * that supports the query rule operator.
+	 *
+	 * @throws MolgenisDataException if a query rule queries an attribute that isn't indexed for the operator
+	 */
+	private void validateIndexHints(List<QueryRule> rules)
+	{
+		for (QueryRule rule : rules)
+		{
+			if (rule.getField() != null)
+			{
+				validateIndexHints(rule.getField(), rule.getOperator());
+			}
+			validateIndexHints(rule.getNestedRules());
+		}
+	}
+
+	private void validateIndexHints(String field, Operator operator)
+	{
+		boolean fullTextOperator = operator == Operator.SEARCH || operator == Operator.LIKE
+				|| operator == Operator.FUZZY_MATCH || operator == Operator.FUZZY_MATCH_NGRAM;
+		Predicate<IndexHint> supported = fullTextOperator ? IndexHint::isFullTextSearchable : IndexHint::isFilterable;
+		validateIndexHints(field, supported, format("queried with operator [%s]", operator));
+	}
+
+	/**
+	 * Validates the index hints of all attributes on the path of a field (e.g. refAttr.attr), the values of a
+	 * referenced attribute are only indexed if the reference attribute is indexed.
+	 *
+	 * @throws UnknownAttributeException if an attribute on the path does not exist
+	 */
+	private void validateIndexHints(String field, Predicate<IndexHint> supported, String usage)
+	{
+		EntityType entityType = getEntityType();
+		Attribute attr = null;
+		for (String attrName : field.split("\\."))
+		{
+			if (attr != null)
+			{
+				if (attr.getRefEntity() == null)
+				{
+					// the path continues after an attribute that doesn't reference another entity type
+					throw new UnknownAttributeException(entityType, attr.getName() + '.' + attrName);
+				}
+				entityType = attr.getRefEntity();
+			}
+			attr = entityType.getAttribute(attrName);
+			if (attr == null)
+			{
+				throw new UnknownAttributeException(entityType, attrName);
+			}
+			validateIndexHint(entityType, attr, supported, usage);
+		}
+	}
+
+	private static void validateIndexHint(EntityType entityType, Attribute attr, Predicate<IndexHint> supported,
+			String usage)
+	{
+		IndexHint indexHint = getIndexHint(attr);
+		if (!supported.test(indexHint))
+		{
+			throw new MolgenisDataException(
+					format("Attribute [%s] of entity type [%s] with index hint [%s] cannot be %s", attr.getName(),
+							entityType.getId(), indexHint, usage));
+		}
+	}
+
 	private void waitForIndexToBeStable()
 	{
 		try
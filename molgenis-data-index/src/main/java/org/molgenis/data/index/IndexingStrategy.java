@@ -1,27 +1,71 @@
 package org.molgenis.data.index;
 
 import com.google.common.base.Stopwatch;
+import com.google.common.collect.HashMultimap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Multimap;
+import com.google.common.collect.SetMultimap;
+import org.molgenis.data.DataService;
+import org.molgenis.data.Entity;
+import org.molgenis.data.Fetch;
+import org.molgenis.data.Query;
+import org.molgenis.data.meta.model.Attribute;
+import org.molgenis.data.meta.model.EntityType;
+import org.molgenis.data.support.QueryImpl;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.Nullable;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import static com.google.common.collect.ImmutableListMultimap.toImmutableListMultimap;
 import static com.google.common.collect.ImmutableSet.toImmutableSet;
+import static com.google.common.collect.Sets.newHashSet;
 import static com.google.common.collect.Sets.union;
+import static java.lang.Math.min;
+import static java.util.Objects.requireNonNull;
 import static java.util.stream.Collectors.partitioningBy;
+import static org.molgenis.data.index.Impact.createSingleEntityImpact;
+import static org.molgenis.data.meta.AttributeType.ONE_TO_MANY;
 
 /**
  * Determines the impact of changes.
+ * <p>
+ * Changes to specific entities result in index actions for the specific entities that reference them, directly or
+ * within the indexing depth of the referencing entity type. If the number of referencing entities of an entity type
+ * exceeds a configurable fraction of the total number of entities, the dependent entity types are reindexed
+ * completely.
  */
 @Component
 public class IndexingStrategy
 {
 	private static final Logger LOG = LoggerFactory.getLogger(IndexingStrategy.class);
 
+	/**
+	 * Maximum number of referenced entity ids in a query
+	 */
+	private static final int BATCH_SIZE = 1000;
+
+	private final DataService dataService;
+	private final double maxPartialFraction;
+
+	/**
+	 * @param maxPartialFraction maximum fraction of the entities of a dependent entity type that are indexed
+	 *                           individually, zero to always reindex dependent entity types completely
+	 */
+	IndexingStrategy(DataService dataService,
+			@Value("${index.partial.max-fraction:0.1}") double maxPartialFraction)
+	{
+		this.dataService = requireNonNull(dataService);
+		this.maxPartialFraction = maxPartialFraction;
+	}
+
 	/**
 	 * Determines which {@link Impact}s follow from a set of changes.
 	 *
@@ -33,11 +77,43 @@ public class IndexingStrategy
 	{
 		Stopwatch sw = Stopwatch.createStarted();
 		Map<Boolean, List<Impact>> split = changes.stream().collect(partitioningBy(Impact::isWholeRepository));
-		ImmutableSet<String> allEntityTypeIds = changes.stream().map(Impact::getEntityTypeId).collect(toImmutableSet());
-		Set<String> dependentEntities = allEntityTypeIds.stream()
-														.flatMap(dependencyModel::getEntityTypesDependentOn)
-														.collect(toImmutableSet());
-		Set<Impact> result = collectResult(split.get(false), split.get(true), dependentEntities);
+		ImmutableSet<String> wholeRepoEntityTypeIds = split.get(true)
+														   .stream()
+														   .map(Impact::getEntityTypeId)
+														   .collect(toImmutableSet());
+		Set<String> dependentEntities = newHashSet();
+		wholeRepoEntityTypeIds.stream()
+							  .flatMap(dependencyModel::getEntityTypesDependentOn)
+							  .forEach(dependentEntities::add);
+
+		SetMultimap<String, Object> dependentEntityIds = HashMultimap.create();
+		Map<String, Collection<Object>> singleEntityChanges = split.get(false)
+																   .stream()
+																   .filter(impact -> !wholeRepoEntityTypeIds.contains(
+																		   impact.getEntityTypeId()))
+																   .collect(toImmutableListMultimap(
+																		   Impact::getEntityTypeId, Impact::getId))
+																   .asMap();
+		for (Map.Entry<String, Collection<Object>> entry : singleEntityChanges.entrySet())
+		{
+			Set<String> dependentEntityTypeIds = dependencyModel.getEntityTypesDependentOn(entry.getKey())
+																.collect(toImmutableSet());
+			if (!dependentEntityTypeIds.isEmpty())
+			{
+				Multimap<String, Object> entityIds = determineDependentEntityIds(entry.getKey(), entry.getValue(),
+						dependentEntityTypeIds, dependencyModel);
+				if (entityIds != null)
+				{
+					dependentEntityIds.putAll(entityIds);
+				}
+				else
+				{
+					dependentEntities.addAll(dependentEntityTypeIds);
+				}
+			}
+		}
+
+		Set<Impact> result = collectResult(split.get(false), split.get(true), dependentEntities, dependentEntityIds);
 		if (LOG.isDebugEnabled())
 		{
 			LOG.debug("Determined {} necessary actions in {}", result.size(), sw);
@@ -45,26 +121,141 @@ public class IndexingStrategy
 		return result;
 	}
 
+	/**
+	 * Determines the entities of the dependent entity types that reference changed entities, directly or via other
+	 * entities within the indexing depth of the dependent entity type.
+	 *
+	 * @param entityTypeId           id of the entity type of the changed entities
+	 * @param entityIds              ids of the changed entities
+	 * @param dependentEntityTypeIds ids of the entity types that depend on the changed entity type
+	 * @param dependencyModel        {@link IndexDependencyModel} to determine which entities reference which entities
+	 * @return dependent entity ids per entity type id or <code>null</code> if the dependent entity types need to be
+	 * reindexed completely
+	 */
+	@Nullable
+	private Multimap<String, Object> determineDependentEntityIds(String entityTypeId, Collection<Object> entityIds,
+			Set<String> dependentEntityTypeIds, IndexDependencyModel dependencyModel)
+	{
+		if (maxPartialFraction <= 0)
+		{
+			return null;
+		}
+		int maxDepth = dependentEntityTypeIds.stream().mapToInt(dependencyModel::getIndexingDepth).max().orElse(0);
+
+		SetMultimap<String, Object> visitedEntityIds = HashMultimap.create();
+		visitedEntityIds.putAll(entityTypeId, entityIds);
+		SetMultimap<String, Object> result = HashMultimap.create();
+
+		SetMultimap<String, Object> currentGeneration = HashMultimap.create(visitedEntityIds);
+		for (int depth = 1; depth <= maxDepth && !currentGeneration.isEmpty(); depth++)
+		{
+			SetMultimap<String, Object> nextGeneration = HashMultimap.create();
+			for (Map.Entry<String, Collection<Object>> referenced : currentGeneration.asMap().entrySet())
+			{
+				Multimap<String, Attribute> referencingAttributes = dependencyModel.getReferencingAttributes(
+						referenced.getKey());
+				for (Map.Entry<String, Collection<Attribute>> referencing : referencingAttributes.asMap().entrySet())
+				{
+					String referencingEntityTypeId = referencing.getKey();
+					Set<Object> referencingEntityIds = findReferencingEntityIds(referencingEntityTypeId,
+							referencing.getValue(), referenced.getValue());
+					if (referencingEntityIds == null)
+					{
+						LOG.debug("Too many entities of '{}' reference changed entities of '{}'",
+								referencingEntityTypeId, entityTypeId);
+						return null;
+					}
+					referencingEntityIds.stream()
+										.filter(id -> visitedEntityIds.put(referencingEntityTypeId, id))
+										.forEach(id -> nextGeneration.put(referencingEntityTypeId, id));
+				}
+			}
+
+			for (String referencingEntityTypeId : nextGeneration.keySet())
+			{
+				if (dependentEntityTypeIds.contains(referencingEntityTypeId)
+						&& depth <= dependencyModel.getIndexingDepth(referencingEntityTypeId))
+				{
+					result.putAll(referencingEntityTypeId, nextGeneration.get(referencingEntityTypeId));
+				}
+			}
+			currentGeneration = nextGeneration;
+		}
+		return result;
+	}
+
+	/**
+	 * Finds the ids of the entities that reference one or more of the given entities.
+	 *
+	 * @return referencing entity ids or <code>null</code> if the number of referencing entities exceeds the maximum
+	 * fraction of the entities of the entity type
+	 */
+	@Nullable
+	private Set<Object> findReferencingEntityIds(String entityTypeId, Collection<Attribute> attributes,
+			Collection<Object> referencedEntityIds)
+	{
+		// the referencing entity type doesn't store the reference
+		if (attributes.stream().anyMatch(attribute -> attribute.getDataType() == ONE_TO_MANY))
+		{
+			return null;
+		}
+
+		EntityType entityType = dataService.getEntityType(entityTypeId);
+		long maxNrEntities = (long) (maxPartialFraction * dataService.count(entityTypeId));
+		Fetch fetch = new Fetch().field(entityType.getIdAttribute().getName());
+
+		Set<Object> result = newHashSet();
+		for (List<Object> batch : Iterables.partition(referencedEntityIds, BATCH_SIZE))
+		{
+			Query<Entity> query = new QueryImpl<>();
+			for (Attribute attribute : attributes)
+			{
+				if (query.getRules().size() > 0)
+				{
+					query.or();
+				}
+				query.in(attribute.getName(), batch);
+			}
+			query.fetch(fetch);
+			query.pageSize((int) min(maxNrEntities - result.size() + 1, Integer.MAX_VALUE));
+
+			dataService.findAll(entityTypeId, query).map(Entity::getIdValue).forEach(result::add);
+			if (result.size() > maxNrEntities)
+			{
+				return null;
+			}
+		}
+		return result;
+	}
+
 	/**
 	 * Combines the results.
 	 *
-	 * @param singleEntityChanges {@link Impact}s for changes made to specific Entity instances
-	 * @param wholeRepoActions    {@link Impact}s for changes made to entire repositories
-	 * @param dependentEntityIds  {@link Impact}s for entitytypes that are dependent on one or more of the changes
+	 * @param singleEntityChanges    {@link Impact}s for changes made to specific Entity instances
+	 * @param wholeRepoActions       {@link Impact}s for changes made to entire repositories
+	 * @param dependentEntityTypeIds ids of entitytypes that are completely dependent on one or more of the changes
+	 * @param dependentEntityIds     ids of specific entities that are dependent on one or more of the changes per
+	 *                               entitytype id
 	 * @return Set with the {@link Impact}s
 	 */
 	private Set<Impact> collectResult(List<Impact> singleEntityChanges, List<Impact> wholeRepoActions,
-			Set<String> dependentEntityIds)
+			Set<String> dependentEntityTypeIds, SetMultimap<String, Object> dependentEntityIds)
 	{
 		Set<String> wholeRepoIds = union(
-				wholeRepoActions.stream().map(Impact::getEntityTypeId).collect(toImmutableSet()), dependentEntityIds);
+				wholeRepoActions.stream().map(Impact::getEntityTypeId).collect(toImmutableSet()),
+				dependentEntityTypeIds);
 
 		ImmutableSet.Builder<Impact> result = ImmutableSet.builder();
 		result.addAll(wholeRepoActions);
-		dependentEntityIds.stream().map(Impact::createWholeRepositoryImpact).forEach(result::add);
+		dependentEntityTypeIds.stream().map(Impact::createWholeRepositoryImpact).forEach(result::add);
 		singleEntityChanges.stream()
 						   .filter(action -> !wholeRepoIds.contains(action.getEntityTypeId()))
 						   .forEach(result::add);
+		dependentEntityIds.entries()
+						  .stream()
+						  .filter(entry -> !wholeRepoIds.contains(entry.getKey()))
+						  .map(entry -> createSingleEntityImpact(entry.getKey(), entry.getValue()))
+						  .forEach(result::add);
 		return result.build();
 	}
 }
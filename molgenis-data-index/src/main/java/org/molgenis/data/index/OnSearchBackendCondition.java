@@ -0,0 +1,30 @@
+package org.molgenis.data.index;
+
+import org.springframework.context.annotation.Condition;
+import org.springframework.context.annotation.ConditionContext;
+import org.springframework.core.type.AnnotatedTypeMetadata;
+
+import java.util.Map;
+
+import static org.molgenis.data.index.ConditionalOnSearchBackend.ELASTICSEARCH;
+
+/**
+ * Matches if the search backend of a {@link ConditionalOnSearchBackend} is the selected search backend. The property is
+ * read from the environment, which is populated before the property placeholders of the configuration are resolved.
+ */
+class OnSearchBackendCondition implements Condition
+{
+	static final String SEARCH_BACKEND_PROPERTY = "search.backend";
+
+	@Override
+	public boolean matches(ConditionContext context, AnnotatedTypeMetadata metadata)
+	{
+		Map<String, Object> attributes = metadata.getAnnotationAttributes(ConditionalOnSearchBackend.class.getName());
+		if (attributes == null)
+		{
+			return true;
+		}
+		String searchBackend = context.getEnvironment().getProperty(SEARCH_BACKEND_PROPERTY, ELASTICSEARCH);
+		return searchBackend.equalsIgnoreCase((String) attributes.get("value"));
+	}
+}
@@ -2,6 +2,7 @@ package org.molgenis.data.index.job;
 
 import org.molgenis.data.DataService;
 import org.molgenis.data.Entity;
+import org.molgenis.data.index.IndexActionRegisterService;
 import org.molgenis.data.index.meta.IndexActionGroup;
 import org.molgenis.data.meta.model.EntityType;
 import org.molgenis.data.support.QueryImpl;
@@ -13,7 +14,13 @@ import org.springframework.scheduling.annotation.Scheduled;
 
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.stream.Stream;
@@ -28,23 +35,39 @@ import static org.molgenis.jobs.model.JobExecutionMetaData.END_DATE;
 import static org.molgenis.jobs.model.JobExecutionMetaData.STATUS;
 import static org.molgenis.security.core.runas.RunAsSystemAspect.runAsSystem;
 
+/**
+ * Schedules index jobs on a pool of threads. Index jobs that write entity types in common run in the order in which
+ * they were scheduled, index jobs that write disjoint sets of entity types run in parallel. An index job writes the
+ * entity types of its index actions and the entity types whose documents contain data of those entity types.
+ */
 public class IndexJobSchedulerImpl implements IndexJobScheduler
 {
 	private static final Logger LOG = LoggerFactory.getLogger(IndexJobSchedulerImpl.class);
 
 	private final DataService dataService;
+	private final IndexActionRegisterService indexActionRegisterService;
 	private final IndexJobExecutionFactory indexJobExecutionFactory;
 	// the executor for the index jobs.
-	private ExecutorService executorService = Executors.newSingleThreadExecutor();
+	private final ExecutorService executorService;
 	private final JobExecutor jobExecutor;
 	private final IndexStatus indexStatus = new IndexStatus();
 
-	public IndexJobSchedulerImpl(DataService dataService, IndexJobExecutionFactory indexJobExecutionFactory,
-			JobExecutor jobExecutor)
+	/**
+	 * Maps entity type ids to the completion of the last index job scheduled for the entity type
+	 */
+	private final Map<String, CompletableFuture<Void>> lastIndexJobPerEntityType = new ConcurrentHashMap<>();
+
+	/**
+	 * @param nrThreads number of index jobs that run in parallel
+	 */
+	public IndexJobSchedulerImpl(DataService dataService, IndexActionRegisterService indexActionRegisterService,
+			IndexJobExecutionFactory indexJobExecutionFactory, JobExecutor jobExecutor, int nrThreads)
 	{
 		this.dataService = requireNonNull(dataService);
+		this.indexActionRegisterService = requireNonNull(indexActionRegisterService);
 		this.indexJobExecutionFactory = requireNonNull(indexJobExecutionFactory);
 		this.jobExecutor = requireNonNull(jobExecutor);
+		this.executorService = Executors.newFixedThreadPool(nrThreads);
 	}
 
 	@Override
@@ -66,8 +89,8 @@ public class IndexJobSchedulerImpl implements IndexJobScheduler
 			IndexJobExecution indexJobExecution = indexJobExecutionFactory.create();
 			indexJobExecution.setUser("admin");
 			indexJobExecution.setIndexActionJobID(transactionId);
-			jobExecutor.submit(indexJobExecution, executorService)
-					   .whenComplete((a, b) -> indexStatus.removeActionCounts(numberOfActionsPerEntity));
+			submit(indexJobExecution, numberOfActionsPerEntity,
+					getWrittenEntityTypeIds(numberOfActionsPerEntity.keySet()));
 		}
 		else
 		{
@@ -75,6 +98,40 @@ public class IndexJobSchedulerImpl implements IndexJobScheduler
 		}
 	}
 
+	/**
+	 * Returns the entity types of the index actions and the entity types that depend on them, the index job rewrites
+	 * the documents of dependent entity types that contain data of changed entities.
+	 */
+	private Set<String> getWrittenEntityTypeIds(Set<String> entityTypeIds)
+	{
+		Set<String> writtenEntityTypeIds = new HashSet<>(entityTypeIds);
+		writtenEntityTypeIds.addAll(indexActionRegisterService.getDependentEntityTypeIds(entityTypeIds));
+		return writtenEntityTypeIds;
+	}
+
+	/**
+	 * Submits an index job that starts when the previously scheduled index jobs that write any of the same entity types
+	 * have completed, whether they succeeded or not.
+	 */
+	private synchronized void submit(IndexJobExecution indexJobExecution, Map<String, Long> numberOfActionsPerEntity,
+			Set<String> entityTypeIds)
+	{
+		CompletableFuture<?>[] precedingIndexJobs = entityTypeIds.stream()
+																 .map(lastIndexJobPerEntityType::get)
+																 .filter(Objects::nonNull)
+																 .toArray(CompletableFuture[]::new);
+		CompletableFuture<Void> precedingIndexJobsCompleted = CompletableFuture.allOf(precedingIndexJobs);
+		Executor executor = command -> precedingIndexJobsCompleted.whenComplete(
+				(result, throwable) -> executorService.execute(command));
+
+		CompletableFuture<Void> indexJob = jobExecutor.submit(indexJobExecution, executor)
+													  .whenComplete((a, b) -> indexStatus.removeActionCounts(
+															  numberOfActionsPerEntity));
+		entityTypeIds.forEach(entityTypeId -> lastIndexJobPerEntityType.put(entityTypeId, indexJob));
+		indexJob.whenComplete(
+				(a, b) -> entityTypeIds.forEach(entityTypeId -> lastIndexJobPerEntityType.remove(entityTypeId, indexJob)));
+	}
+
 	@Override
 	@RunAsSystem
 	public void waitForAllIndicesStable() throws InterruptedException
@@ -1,5 +1,6 @@
 package org.molgenis.data.index.job;
 
+import com.google.common.base.Stopwatch;
 import org.molgenis.data.*;
 import org.molgenis.data.index.IndexService;
 import org.molgenis.data.index.meta.IndexAction;
@@ -13,11 +14,18 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
+import static com.google.common.collect.Lists.partition;
 import static java.text.MessageFormat.format;
 import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.stream.Collectors.groupingBy;
 import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toSet;
 import static org.molgenis.data.QueryRule.Operator.EQUALS;
 import static org.molgenis.data.index.meta.IndexActionGroupMetaData.INDEX_ACTION_GROUP;
 import static org.molgenis.data.index.meta.IndexActionMetaData.*;
@@ -31,6 +39,11 @@ public class IndexJobService
 {
 	private static final Logger LOG = LoggerFactory.getLogger(IndexJobService.class);
 
+	/**
+	 * Maximum number of single entity IndexActions that are performed in one bulk
+	 */
+	private static final int BATCH_SIZE = 1000;
+
 	private final DataService dataService;
 	private final IndexService indexService;
 	private final EntityTypeFactory entityTypeFactory;
@@ -74,9 +87,25 @@ public class IndexJobService
 		{
 			boolean success = true;
 			int count = 0;
+			Map<String, List<IndexAction>> singleEntityIndexActions = groupSingleEntityIndexActions(indexActions);
 			for (IndexAction indexAction : indexActions)
 			{
-				success &= performAction(progress, count++, indexAction);
+				if (indexAction.getEntityId() == null)
+				{
+					success &= performAction(progress, count++, indexAction);
+				}
+				else
+				{
+					// perform all single entity actions of an entity type at the first action of the entity type
+					List<IndexAction> entityTypeIndexActions = singleEntityIndexActions.remove(
+							indexAction.getEntityTypeId());
+					if (entityTypeIndexActions != null)
+					{
+						success &= performActions(progress, count, indexAction.getEntityTypeId(),
+								entityTypeIndexActions);
+						count += entityTypeIndexActions.size();
+					}
+				}
 			}
 			if (success)
 			{
@@ -100,7 +129,17 @@ public class IndexJobService
 	}
 
 	/**
-	 * Performs a single IndexAction
+	 * Groups the IndexActions with an entity id by entity type id in order of first occurrence
+	 */
+	private static Map<String, List<IndexAction>> groupSingleEntityIndexActions(List<IndexAction> indexActions)
+	{
+		return indexActions.stream()
+						   .filter(indexAction -> indexAction.getEntityId() != null)
+						   .collect(groupingBy(IndexAction::getEntityTypeId, LinkedHashMap::new, toList()));
+	}
+
+	/**
+	 * Performs a single IndexAction that applies to a whole repository or to an entity type that no longer exists
 	 *
 	 * @param progress      {@link Progress} to report progress to
 	 * @param progressCount the progress count for this IndexAction
@@ -117,18 +156,13 @@ public class IndexJobService
 		{
 			if (entityType != null)
 			{
-				if (indexAction.getEntityId() != null)
-				{
-					progress.progress(progressCount,
-							format("Indexing {0}.{1}", entityType.getId(), indexAction.getEntityId()));
-					rebuildIndexOneEntity(entityTypeId, indexAction.getEntityId());
-				}
-				else
-				{
-					progress.progress(progressCount, format("Indexing {0}", entityType.getId()));
-					final Repository<Entity> repository = dataService.getRepository(entityType.getId());
-					indexService.rebuildIndex(repository);
-				}
+				progress.progress(progressCount, format("Indexing {0}", entityType.getId()));
+				final Repository<Entity> repository = dataService.getRepository(entityType.getId());
+				Stopwatch stopwatch = Stopwatch.createStarted();
+				long count = indexService.rebuildIndex(repository);
+				long millis = Math.max(stopwatch.elapsed(MILLISECONDS), 1L);
+				progress.status(format("Indexed {0} entities of {1} in {2} ms ({3} entities/s)", count,
+						entityType.getId(), millis, count * 1000 / millis));
 			}
 			else
 			{
@@ -151,6 +185,7 @@ public class IndexJobService
 		catch (Exception ex)
 		{
 			LOG.error("Index job failed", ex);
+			progress.status(format("Failed to index {0}: {1}", entityTypeId, ex.getMessage()));
 			updateIndexActionStatus(indexAction, IndexActionMetaData.IndexStatus.FAILED);
 			return false;
 		}
@@ -169,32 +204,92 @@ public class IndexJobService
 	}
 
 	/**
-	 * Indexes one single entity instance.
+	 * Performs the single entity IndexActions of one entity type in bulk
 	 *
-	 * @param entityTypeId    the id of the entity's repository
-	 * @param untypedEntityId the identifier of the entity to update
+	 * @param progress      {@link Progress} to report progress to
+	 * @param progressCount the progress count for the first IndexAction
+	 * @param entityTypeId  the id of the entity type of the IndexActions
+	 * @param indexActions  Entities of type IndexActionMetaData with an entity id
+	 * @return boolean indicating success or failure
 	 */
-	private void rebuildIndexOneEntity(String entityTypeId, String untypedEntityId)
+	private boolean performActions(Progress progress, int progressCount, String entityTypeId,
+			List<IndexAction> indexActions)
 	{
-		LOG.trace("Indexing [{}].[{}]... ", entityTypeId, untypedEntityId);
-
-		// convert entity id string to typed entity id
 		EntityType entityType = dataService.getEntityType(entityTypeId);
-		if (null != entityType)
+		if (entityType == null)
 		{
-			Object entityId = getTypedValue(untypedEntityId, entityType.getIdAttribute());
-			String entityFullName = entityType.getId();
-
-			Entity actualEntity = dataService.findOneById(entityFullName, entityId);
+			boolean success = true;
+			for (IndexAction indexAction : indexActions)
+			{
+				success &= performAction(progress, progressCount++, indexAction);
+			}
+			return success;
+		}
 
-			if (null == actualEntity)
+		updateIndexActionStatus(indexActions, IndexActionMetaData.IndexStatus.STARTED);
+		try
+		{
+			progress.progress(progressCount, format("Indexing {0} entities of {1}", indexActions.size(), entityTypeId));
+			for (List<IndexAction> batch : partition(indexActions, BATCH_SIZE))
 			{
-				// Delete
-				LOG.debug("Index delete [{}].[{}].", entityFullName, entityId);
-				indexService.deleteById(entityType, entityId);
-				return;
+				rebuildIndexEntities(entityType, batch);
 			}
+			updateIndexActionStatus(indexActions, IndexActionMetaData.IndexStatus.FINISHED);
+			return true;
+		}
+		catch (Exception ex)
+		{
+			LOG.error("Index job failed", ex);
+			progress.status(format("Failed to index {0}: {1}", entityTypeId, ex.getMessage()));
+			updateIndexActionStatus(indexActions, IndexActionMetaData.IndexStatus.FAILED);
+			return false;
+		}
+	}
+
+	/**
+	 * Updates the {@link IndexStatus} of IndexActions and stores the changes.
+	 *
+	 * @param indexActions the IndexActions of which the status is updated
+	 * @param status       the new {@link IndexStatus}
+	 */
+	private void updateIndexActionStatus(List<IndexAction> indexActions, IndexActionMetaData.IndexStatus status)
+	{
+		indexActions.forEach(indexAction -> indexAction.setIndexStatus(status));
+		dataService.update(INDEX_ACTION, indexActions.stream());
+	}
 
+	/**
+	 * Indexes entity instances of one entity type, entities that no longer exist are deleted from the index.
+	 *
+	 * @param entityType   the entity type of the entities
+	 * @param indexActions the IndexActions with the identifiers of the entities to update
+	 */
+	private void rebuildIndexEntities(EntityType entityType, List<IndexAction> indexActions)
+	{
+		String entityTypeId = entityType.getId();
+		LOG.trace("Indexing [{}] entities of [{}]... ", indexActions.size(), entityTypeId);
+
+		// convert entity id strings to typed entity ids
+		List<Object> entityIds = indexActions.stream()
+											 .map(indexAction -> getTypedValue(indexAction.getEntityId(),
+													 entityType.getIdAttribute()))
+											 .distinct()
+											 .collect(toList());
+
+		List<Entity> actualEntities = dataService.findAll(entityTypeId, entityIds.stream()).collect(toList());
+
+		Set<Object> actualEntityIds = actualEntities.stream().map(Entity::getIdValue).collect(toSet());
+		List<Object> deletedEntityIds = entityIds.stream()
+												 .filter(entityId -> !actualEntityIds.contains(entityId))
+												 .collect(toList());
+		if (!deletedEntityIds.isEmpty())
+		{
+			LOG.debug("Index delete [{}] entities of [{}].", deletedEntityIds.size(), entityTypeId);
+			indexService.deleteAll(entityType, deletedEntityIds.stream());
+		}
+
+		if (!actualEntities.isEmpty())
+		{
 			boolean indexEntityExists = indexService.hasIndex(entityType);
 			if (!indexEntityExists)
 			{
@@ -202,12 +297,8 @@ public class IndexJobService
 				indexService.createIndex(entityType);
 			}
 
-			LOG.debug("Index [{}].[{}].", entityTypeId, entityId);
-			indexService.index(actualEntity.getEntityType(), actualEntity);
-		}
-		else
-		{
-			throw new MolgenisDataException("Unknown EntityType for entityTypeId: " + entityTypeId);
+			LOG.debug("Index [{}] entities of [{}].", actualEntities.size(), entityTypeId);
+			indexService.index(entityType, actualEntities.stream());
 		}
 	}
 
@@ -53,7 +53,7 @@ public class IndexActionRegisterServiceTest extends AbstractMockitoTest
 	{
 		TransactionSynchronizationManager.bindResource(TransactionManager.TRANSACTION_ID_RESOURCE_NAME, "1");
 		indexActionRegisterServiceImpl = new IndexActionRegisterServiceImpl(dataService, indexActionFactory,
-				indexActionGroupFactory, new IndexingStrategy());
+				indexActionGroupFactory, new IndexingStrategy(dataService, 0));
 	}
 
 	@AfterMethod
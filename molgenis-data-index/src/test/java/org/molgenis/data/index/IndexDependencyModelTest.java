@@ -2,6 +2,7 @@ package org.molgenis.data.index;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Multimap;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.molgenis.data.meta.model.Attribute;
@@ -125,6 +126,27 @@ public class IndexDependencyModelTest
 		assertEquals(dependencies, ImmutableSet.of());
 	}
 
+	@Test
+	public void testGetReferencingAttributes()
+	{
+		List<EntityType> entityTypes = ImmutableList.of(entity0, entity1, entity2, entity3, entity4);
+
+		addReferences(entity0, ImmutableList.of());
+		addReferences(entity1, ImmutableList.of());
+		addReferences(entity2, ImmutableList.of(entity3));
+		addReferences(entity3, ImmutableList.of());
+		addReferences(entity4, ImmutableList.of(entity3, entity0));
+
+		when(entity0.getExtends()).thenReturn(entity2);
+		when(entity2.isAbstract()).thenReturn(true);
+
+		IndexDependencyModel dependencyModel = new IndexDependencyModel(entityTypes);
+		Multimap<String, Attribute> referencingAttributes = dependencyModel.getReferencingAttributes("3");
+		assertEquals(referencingAttributes.keySet(), ImmutableSet.of("0", "4"));
+		assertEquals(referencingAttributes.get("0"), entity2.getOwnAtomicAttributes());
+		assertEquals(referencingAttributes.get("4").size(), 1);
+	}
+
 	private void addReferences(EntityType referringEntity, List<EntityType> refEntities)
 	{
 		ImmutableList.Builder<Attribute> attributes = ImmutableList.builder();
@@ -6,26 +6,38 @@ import org.molgenis.data.aggregation.AggregateQuery;
 import org.molgenis.data.aggregation.AggregateResult;
 import org.molgenis.data.index.exception.UnknownIndexException;
 import org.molgenis.data.index.job.IndexJobScheduler;
+import org.molgenis.data.meta.IndexHint;
 import org.molgenis.data.meta.model.Attribute;
 import org.molgenis.data.meta.model.EntityType;
+import org.molgenis.data.meta.model.Tag;
+import org.molgenis.data.semantic.Relation;
 import org.molgenis.data.support.AggregateQueryImpl;
+import org.molgenis.data.support.QueryImpl;
 import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.EnumSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static com.google.common.collect.Lists.newArrayList;
+import static java.util.Collections.emptySet;
+import static java.util.Collections.singleton;
 import static java.util.Collections.singletonList;
+import static java.util.stream.Collectors.toList;
 import static org.mockito.Mockito.*;
 import static org.molgenis.data.QueryRule.Operator.*;
 import static org.molgenis.data.RepositoryCapability.*;
+import static org.molgenis.data.meta.AttributeType.STRING;
+import static org.molgenis.data.meta.AttributeType.XREF;
 import static org.testng.Assert.assertEquals;
 
 public class IndexedRepositoryDecoratorTest
@@ -414,9 +426,50 @@ public class IndexedRepositoryDecoratorTest
 	@Test
 	public void getQueryOperators()
 	{
+		assertEquals(indexedRepositoryDecorator.getQueryOperators(), EnumSet.complementOf(EnumSet.of(PERMITTED)));
+	}
+
+	@Test
+	public void getQueryOperatorsPermittedSupported()
+	{
+		when(delegateRepository.getQueryOperators()).thenReturn(EnumSet.of(IN, EQUALS, AND, PERMITTED));
 		assertEquals(indexedRepositoryDecorator.getQueryOperators(), EnumSet.allOf(Operator.class));
 	}
 
+	@SuppressWarnings("unchecked")
+	@Test
+	public void findAllQueryUnsupportedPermitted()
+	{
+		when(delegateRepository.getQueryOperators()).thenReturn(EnumSet.of(IN, EQUALS, AND, PERMITTED));
+		indexedRepositoryDecorator = new IndexedRepositoryDecorator(delegateRepository, searchService,
+				mock(IndexJobScheduler.class));
+
+		QueryRule permittedRule = new QueryRule(PERMITTED,
+				PermissionFilter.create("entity-entity", singleton("user"), emptySet(), 2));
+		QueryImpl<Entity> q = new QueryImpl<>();
+		q.search("text").and();
+		q.addRule(permittedRule);
+		q.setOffset(1).setPageSize(1);
+
+		QueryImpl<Entity> indexQuery = new QueryImpl<>();
+		indexQuery.search("text");
+		when(searchService.search(repositoryEntityType, indexQuery)).thenReturn(Stream.of("id0", "id1", "id2"));
+
+		QueryImpl<Entity> permittedQuery = new QueryImpl<>();
+		permittedQuery.in(idAttrName, newArrayList("id0", "id1", "id2")).and();
+		permittedQuery.addRule(permittedRule);
+		permittedQuery.fetch(new Fetch().field(idAttrName));
+		Entity entity0 = when(mock(Entity.class).getIdValue()).thenReturn("id0").getMock();
+		Entity entity2 = when(mock(Entity.class).getIdValue()).thenReturn("id2").getMock();
+		when(delegateRepository.findAll(permittedQuery)).thenReturn(Stream.of(entity0, entity2));
+
+		when(delegateRepository.findAll(any(Stream.class), eq(null))).thenAnswer(
+				invocation -> ((Stream<Object>) invocation.getArguments()[0]).map(
+						id -> id.equals("id0") ? entity0 : entity2));
+
+		assertEquals(indexedRepositoryDecorator.findAll(q).collect(toList()), singletonList(entity2));
+	}
+
 	@Test
 	public void query()
 	{
@@ -503,4 +556,119 @@ public class IndexedRepositoryDecoratorTest
 		verify(searchService).count(repositoryEntityType, q);
 		verify(delegateRepository, never()).count(q);
 	}
+
+	@Test
+	public void findAllQuerySupportedNotIndexed()
+	{
+		createIndexHintAttribute("attr", IndexHint.NOT_INDEXED);
+		QueryImpl<Entity> q = new QueryImpl<>();
+		q.in("attr", singletonList("str"));
+		indexedRepositoryDecorator.findAll(q);
+		verify(delegateRepository).findAll(q);
+		verifyZeroInteractions(searchService);
+	}
+
+	@DataProvider(name = "findAllQueryUnsupportedIndexHintValidProvider")
+	public static Iterator<Object[]> findAllQueryUnsupportedIndexHintValidProvider()
+	{
+		List<Object[]> queries = new ArrayList<>();
+		queries.add(new Object[] { IndexHint.KEYWORD, new QueryImpl<>().search("str").and().eq("attr", "str") });
+		queries.add(new Object[] { IndexHint.STORED, new QueryImpl<>().search("attr", "str") });
+		queries.add(new Object[] { IndexHint.DOC_VALUES, new QueryImpl<>().search("str") });
+		queries.add(new Object[] { IndexHint.NOT_INDEXED, new QueryImpl<>().search("str") });
+		return queries.iterator();
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test(dataProvider = "findAllQueryUnsupportedIndexHintValidProvider")
+	public void findAllQueryUnsupportedIndexHintValid(IndexHint indexHint, Query<Entity> q)
+	{
+		createIndexHintAttribute("attr", indexHint);
+		indexedRepositoryDecorator.findAll(q);
+		verify(searchService).search(repositoryEntityType, q);
+		verify(delegateRepository).findAll(any(Stream.class), isNull());
+	}
+
+	@DataProvider(name = "findAllQueryUnsupportedIndexHintInvalidProvider")
+	public static Iterator<Object[]> findAllQueryUnsupportedIndexHintInvalidProvider()
+	{
+		List<Object[]> queries = new ArrayList<>();
+		queries.add(new Object[] { IndexHint.KEYWORD, new QueryImpl<>().search("attr", "str") });
+		queries.add(new Object[] { IndexHint.KEYWORD, new QueryImpl<>().like("attr", "str") });
+		queries.add(new Object[] { IndexHint.DOC_VALUES, new QueryImpl<>().search("str").and().eq("attr", "str") });
+		queries.add(new Object[] { IndexHint.NOT_INDEXED, new QueryImpl<>().search("str").and().eq("attr", "str") });
+		queries.add(new Object[] { IndexHint.NOT_INDEXED,
+				new QueryImpl<>().search("str").and().nest().eq("attr", "str").unnest() });
+		return queries.iterator();
+	}
+
+	@Test(dataProvider = "findAllQueryUnsupportedIndexHintInvalidProvider", expectedExceptions = MolgenisDataException.class, expectedExceptionsMessageRegExp = "Attribute \\[attr\\] of entity type \\[entity\\] with index hint \\[.*\\] cannot be queried with operator \\[.*\\]")
+	public void findAllQueryUnsupportedIndexHintInvalid(IndexHint indexHint, Query<Entity> q)
+	{
+		createIndexHintAttribute("attr", indexHint);
+		indexedRepositoryDecorator.findAll(q);
+	}
+
+	@Test(expectedExceptions = MolgenisDataException.class, expectedExceptionsMessageRegExp = "Attribute \\[refAttr\\] of entity type \\[entity\\] with index hint \\[NOT_INDEXED\\] cannot be queried with operator \\[EQUALS\\]")
+	public void countQueryUnsupportedNestedQueryRuleFieldNotIndexed()
+	{
+		Attribute refAttr = createIndexHintAttribute("refAttr", IndexHint.NOT_INDEXED);
+		when(refAttr.getDataType()).thenReturn(XREF);
+		EntityType refEntityType = mock(EntityType.class);
+		Attribute attr = mock(Attribute.class);
+		when(refEntityType.getAttribute("attr")).thenReturn(attr);
+		when(refAttr.getRefEntity()).thenReturn(refEntityType);
+		indexedRepositoryDecorator.count(new QueryImpl<>().eq("refAttr.attr", "str"));
+	}
+
+	@Test(expectedExceptions = UnknownAttributeException.class, expectedExceptionsMessageRegExp = "type:entity attribute:attr.attr")
+	public void countQueryUnsupportedNestedQueryRuleFieldNoReference()
+	{
+		createIndexHintAttribute("attr", IndexHint.INDEXED);
+		indexedRepositoryDecorator.count(new QueryImpl<>().search("str").and().eq("attr.attr", "str"));
+	}
+
+	@Test
+	public void findAllQueryUnsupportedSortDocValues()
+	{
+		createIndexHintAttribute("attr", IndexHint.DOC_VALUES);
+		Query<Entity> q = new QueryImpl<>().search("str").sort(new Sort("attr"));
+		indexedRepositoryDecorator.findAll(q);
+		verify(searchService).search(repositoryEntityType, q);
+	}
+
+	@Test(expectedExceptions = MolgenisDataException.class, expectedExceptionsMessageRegExp = "Attribute \\[attr\\] of entity type \\[entity\\] with index hint \\[NOT_INDEXED\\] cannot be sorted")
+	public void findAllQueryUnsupportedSortNotIndexed()
+	{
+		createIndexHintAttribute("attr", IndexHint.NOT_INDEXED);
+		indexedRepositoryDecorator.findAll(new QueryImpl<>().search("str").sort(new Sort("attr")));
+	}
+
+	@Test(expectedExceptions = MolgenisDataException.class, expectedExceptionsMessageRegExp = "Attribute \\[attr\\] of entity type \\[entity\\] with index hint \\[NOT_INDEXED\\] cannot be aggregated")
+	public void aggregateNotIndexed()
+	{
+		Attribute attr = createIndexHintAttribute("attr", IndexHint.NOT_INDEXED);
+		indexedRepositoryDecorator.aggregate(new AggregateQueryImpl().attrX(attr));
+	}
+
+	@Test(expectedExceptions = MolgenisDataException.class, expectedExceptionsMessageRegExp = "Attribute \\[attr\\] of entity type \\[entity\\] with index hint \\[DOC_VALUES\\] cannot be queried with operator \\[EQUALS\\]")
+	public void aggregateQueryDocValues()
+	{
+		Attribute attr = createIndexHintAttribute("attr", IndexHint.DOC_VALUES);
+		indexedRepositoryDecorator.aggregate(
+				new AggregateQueryImpl().attrX(attr).query(new QueryImpl<>().eq("attr", "str")));
+	}
+
+	private Attribute createIndexHintAttribute(String attrName, IndexHint indexHint)
+	{
+		Tag tag = mock(Tag.class);
+		when(tag.getRelationIri()).thenReturn(Relation.hasIndexHint.getIRI());
+		when(tag.getObjectIri()).thenReturn(indexHint.getIRI());
+		Attribute attr = mock(Attribute.class);
+		when(attr.getName()).thenReturn(attrName);
+		when(attr.getDataType()).thenReturn(STRING);
+		when(attr.getTags()).thenReturn(singletonList(tag));
+		when(repositoryEntityType.getAttribute(attrName)).thenReturn(attr);
+		return attr;
+	}
 }
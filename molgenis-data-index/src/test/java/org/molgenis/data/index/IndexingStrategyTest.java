@@ -1,8 +1,17 @@
 package org.molgenis.data.index;
 
+import com.google.common.collect.ImmutableListMultimap;
 import com.google.common.collect.ImmutableSet;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
+import org.molgenis.data.DataService;
+import org.molgenis.data.Entity;
+import org.molgenis.data.Query;
+import org.molgenis.data.QueryRule;
 import org.molgenis.data.index.config.IndexTestConfig;
+import org.molgenis.data.meta.AttributeType;
+import org.molgenis.data.meta.model.Attribute;
+import org.molgenis.data.meta.model.EntityType;
 import org.springframework.test.context.ContextConfiguration;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.BeforeMethod;
@@ -13,11 +22,15 @@ import java.util.stream.Stream;
 
 import static java.util.Collections.emptySet;
 import static java.util.Collections.singleton;
-import static org.mockito.Mockito.reset;
-import static org.mockito.Mockito.when;
+import static java.util.Collections.singletonList;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
 import static org.mockito.MockitoAnnotations.initMocks;
 import static org.molgenis.data.index.Impact.createSingleEntityImpact;
 import static org.molgenis.data.index.Impact.createWholeRepositoryImpact;
+import static org.molgenis.data.meta.AttributeType.*;
+import static org.molgenis.data.QueryRule.Operator.IN;
 import static org.testng.Assert.assertEquals;
 
 @ContextConfiguration(classes = { IndexTestConfig.class })
@@ -26,19 +39,25 @@ public class IndexingStrategyTest
 	@Mock
 	private IndexDependencyModel dependencyModel;
 
+	@Mock
+	private DataService dataService;
+
 	IndexingStrategy indexingStrategy;
 
+	IndexingStrategy partialIndexingStrategy;
+
 	@BeforeClass
 	private void beforeClass()
 	{
 		initMocks(this);
-		indexingStrategy = new IndexingStrategy();
+		indexingStrategy = new IndexingStrategy(dataService, 0);
+		partialIndexingStrategy = new IndexingStrategy(dataService, 0.1);
 	}
 
 	@BeforeMethod
 	private void beforeMethod()
 	{
-		reset(dependencyModel);
+		reset(dependencyModel, dataService);
 	}
 
 	@Test
@@ -82,4 +101,108 @@ public class IndexingStrategyTest
 		Set<Impact> actual = indexingStrategy.determineImpact(registeredIndexActions, dependencyModel);
 		assertEquals(actual, ImmutableSet.of(createSingleEntityImpact("A", "6")));
 	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void testDetermineImpactPartial()
+	{
+		Attribute xrefAttr = createAttribute("xref", XREF);
+		when(dependencyModel.getEntityTypesDependentOn("A")).thenReturn(Stream.of("B"));
+		when(dependencyModel.getIndexingDepth("B")).thenReturn(1);
+		when(dependencyModel.getReferencingAttributes("A")).thenReturn(ImmutableListMultimap.of("B", xrefAttr));
+		mockEntityType("B", 100);
+		Entity entityB1 = createEntity("b1");
+		when(dataService.findAll(eq("B"), any(Query.class))).thenReturn(Stream.of(entityB1));
+
+		Set<Impact> actual = partialIndexingStrategy.determineImpact(singleton(createSingleEntityImpact("A", "a1")),
+				dependencyModel);
+		assertEquals(actual, ImmutableSet.of(createSingleEntityImpact("A", "a1"), createSingleEntityImpact("B", "b1")));
+
+		ArgumentCaptor<Query<Entity>> queryCaptor = ArgumentCaptor.forClass(Query.class);
+		verify(dataService).findAll(eq("B"), queryCaptor.capture());
+		Query<Entity> query = queryCaptor.getValue();
+		assertEquals(query.getRules(), singletonList(new QueryRule("xref", IN, singletonList("a1"))));
+		assertEquals(query.getPageSize(), 11);
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void testDetermineImpactPartialDeep()
+	{
+		Attribute xrefAttr = createAttribute("xref", XREF);
+		Attribute mrefAttr = createAttribute("mref", MREF);
+		when(dependencyModel.getEntityTypesDependentOn("A")).thenReturn(Stream.of("B", "C"));
+		when(dependencyModel.getIndexingDepth("B")).thenReturn(1);
+		when(dependencyModel.getIndexingDepth("C")).thenReturn(2);
+		when(dependencyModel.getReferencingAttributes("A")).thenReturn(ImmutableListMultimap.of("B", xrefAttr));
+		when(dependencyModel.getReferencingAttributes("B")).thenReturn(ImmutableListMultimap.of("C", mrefAttr));
+		mockEntityType("B", 100);
+		mockEntityType("C", 100);
+		Entity entityB1 = createEntity("b1");
+		when(dataService.findAll(eq("B"), any(Query.class))).thenReturn(Stream.of(entityB1));
+		Entity entityC1 = createEntity("c1");
+		when(dataService.findAll(eq("C"), any(Query.class))).thenReturn(Stream.of(entityC1));
+
+		Set<Impact> actual = partialIndexingStrategy.determineImpact(singleton(createSingleEntityImpact("A", "a1")),
+				dependencyModel);
+		assertEquals(actual, ImmutableSet.of(createSingleEntityImpact("A", "a1"), createSingleEntityImpact("B", "b1"),
+				createSingleEntityImpact("C", "c1")));
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void testDetermineImpactPartialTooManyEntities()
+	{
+		Attribute xrefAttr = createAttribute("xref", XREF);
+		when(dependencyModel.getEntityTypesDependentOn("A")).thenReturn(Stream.of("B"));
+		when(dependencyModel.getIndexingDepth("B")).thenReturn(1);
+		when(dependencyModel.getReferencingAttributes("A")).thenReturn(ImmutableListMultimap.of("B", xrefAttr));
+		mockEntityType("B", 10);
+		Entity entityB1 = createEntity("b1");
+		Entity entityB2 = createEntity("b2");
+		when(dataService.findAll(eq("B"), any(Query.class))).thenReturn(Stream.of(entityB1, entityB2));
+
+		Set<Impact> actual = partialIndexingStrategy.determineImpact(singleton(createSingleEntityImpact("A", "a1")),
+				dependencyModel);
+		assertEquals(actual, ImmutableSet.of(createSingleEntityImpact("A", "a1"), createWholeRepositoryImpact("B")));
+	}
+
+	@Test
+	public void testDetermineImpactPartialOneToMany()
+	{
+		Attribute oneToManyAttr = createAttribute("oneToMany", ONE_TO_MANY);
+		when(dependencyModel.getEntityTypesDependentOn("A")).thenReturn(Stream.of("B"));
+		when(dependencyModel.getIndexingDepth("B")).thenReturn(1);
+		when(dependencyModel.getReferencingAttributes("A")).thenReturn(
+				ImmutableListMultimap.of("B", oneToManyAttr));
+
+		Set<Impact> actual = partialIndexingStrategy.determineImpact(singleton(createSingleEntityImpact("A", "a1")),
+				dependencyModel);
+		assertEquals(actual, ImmutableSet.of(createSingleEntityImpact("A", "a1"), createWholeRepositoryImpact("B")));
+		verifyZeroInteractions(dataService);
+	}
+
+	private static Attribute createAttribute(String name, AttributeType type)
+	{
+		Attribute attribute = mock(Attribute.class);
+		when(attribute.getName()).thenReturn(name);
+		when(attribute.getDataType()).thenReturn(type);
+		return attribute;
+	}
+
+	private static Entity createEntity(Object id)
+	{
+		Entity entity = mock(Entity.class);
+		when(entity.getIdValue()).thenReturn(id);
+		return entity;
+	}
+
+	private void mockEntityType(String entityTypeId, long count)
+	{
+		Attribute idAttr = createAttribute("id", STRING);
+		EntityType entityType = mock(EntityType.class);
+		when(entityType.getIdAttribute()).thenReturn(idAttr);
+		when(dataService.getEntityType(entityTypeId)).thenReturn(entityType);
+		when(dataService.count(entityTypeId)).thenReturn(count);
+	}
 }
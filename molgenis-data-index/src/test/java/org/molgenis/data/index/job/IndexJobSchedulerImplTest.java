@@ -0,0 +1,169 @@
+package org.molgenis.data.index.job;
+
+import org.mockito.Mock;
+import org.molgenis.data.DataService;
+import org.molgenis.data.Entity;
+import org.molgenis.data.Query;
+import org.molgenis.data.index.IndexActionRegisterService;
+import org.molgenis.data.index.meta.IndexActionGroup;
+import org.molgenis.jobs.JobExecutor;
+import org.molgenis.test.AbstractMockitoTest;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.stream.Stream;
+
+import static java.util.Collections.emptySet;
+import static java.util.Collections.singleton;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.mockito.Mockito.*;
+import static org.molgenis.data.index.meta.IndexActionGroupMetaData.INDEX_ACTION_GROUP;
+import static org.molgenis.data.index.meta.IndexActionMetaData.ENTITY_TYPE_ID;
+import static org.molgenis.data.index.meta.IndexActionMetaData.INDEX_ACTION;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class IndexJobSchedulerImplTest extends AbstractMockitoTest
+{
+	@Mock
+	private DataService dataService;
+
+	@Mock
+	private IndexActionRegisterService indexActionRegisterService;
+
+	@Mock
+	private IndexJobExecutionFactory indexJobExecutionFactory;
+
+	@Mock
+	private JobExecutor jobExecutor;
+
+	@Mock
+	private IndexActionGroup indexActionGroup;
+
+	@Mock
+	private IndexJobExecution indexJobExecution1;
+
+	@Mock
+	private IndexJobExecution indexJobExecution2;
+
+	private IndexJobSchedulerImpl indexJobScheduler;
+
+	private Map<IndexJobExecution, Runnable> jobs;
+
+	@BeforeMethod
+	public void setUpBeforeMethod()
+	{
+		indexJobScheduler = new IndexJobSchedulerImpl(dataService, indexActionRegisterService, indexJobExecutionFactory,
+				jobExecutor, 2);
+		jobs = new ConcurrentHashMap<>();
+
+		when(dataService.findOneById(eq(INDEX_ACTION_GROUP), anyString(), eq(IndexActionGroup.class))).thenReturn(
+				indexActionGroup);
+		when(indexJobExecutionFactory.create()).thenReturn(indexJobExecution1, indexJobExecution2);
+		when(jobExecutor.submit(any(IndexJobExecution.class), any(Executor.class))).thenAnswer(
+				invocation -> CompletableFuture.runAsync(jobs.get(invocation.<IndexJobExecution>getArgument(0)),
+						invocation.getArgument(1)));
+	}
+
+	@Test
+	public void testScheduleIndexJobSameEntityTypeRunsInOrder() throws InterruptedException
+	{
+		CountDownLatch job1Released = new CountDownLatch(1);
+		CountDownLatch job2Started = new CountDownLatch(1);
+		jobs.put(indexJobExecution1, () -> await(job1Released));
+		jobs.put(indexJobExecution2, job2Started::countDown);
+		mockIndexActions("entityTypeA", "entityTypeA");
+
+		indexJobScheduler.scheduleIndexJob("transaction1");
+		indexJobScheduler.scheduleIndexJob("transaction2");
+
+		assertFalse(job2Started.await(100, MILLISECONDS));
+		job1Released.countDown();
+		assertTrue(job2Started.await(5, SECONDS));
+		indexJobScheduler.waitForAllIndicesStable();
+	}
+
+	@Test
+	public void testScheduleIndexJobOtherEntityTypeRunsInParallel() throws InterruptedException
+	{
+		CountDownLatch job1Released = new CountDownLatch(1);
+		CountDownLatch job2Started = new CountDownLatch(1);
+		jobs.put(indexJobExecution1, () -> await(job1Released));
+		jobs.put(indexJobExecution2, job2Started::countDown);
+		mockIndexActions("entityTypeA", "entityTypeB");
+
+		indexJobScheduler.scheduleIndexJob("transaction1");
+		indexJobScheduler.scheduleIndexJob("transaction2");
+
+		assertTrue(job2Started.await(5, SECONDS));
+		job1Released.countDown();
+		indexJobScheduler.waitForAllIndicesStable();
+	}
+
+	@Test
+	public void testScheduleIndexJobDependentEntityTypeRunsInOrder() throws InterruptedException
+	{
+		CountDownLatch job1Released = new CountDownLatch(1);
+		CountDownLatch job2Started = new CountDownLatch(1);
+		jobs.put(indexJobExecution1, () -> await(job1Released));
+		jobs.put(indexJobExecution2, job2Started::countDown);
+		mockIndexActions("entityTypeA", "entityTypeB");
+		// documents of entityTypeB contain data of entityTypeA
+		when(indexActionRegisterService.getDependentEntityTypeIds(singleton("entityTypeA"))).thenReturn(
+				singleton("entityTypeB"));
+		when(indexActionRegisterService.getDependentEntityTypeIds(singleton("entityTypeB"))).thenReturn(emptySet());
+
+		indexJobScheduler.scheduleIndexJob("transaction1");
+		indexJobScheduler.scheduleIndexJob("transaction2");
+
+		assertFalse(job2Started.await(100, MILLISECONDS));
+		job1Released.countDown();
+		assertTrue(job2Started.await(5, SECONDS));
+		indexJobScheduler.waitForAllIndicesStable();
+	}
+
+	@Test
+	public void testScheduleIndexJobAfterFailedIndexJob() throws InterruptedException
+	{
+		CountDownLatch job2Started = new CountDownLatch(1);
+		jobs.put(indexJobExecution1, () ->
+		{
+			throw new RuntimeException("index job failed");
+		});
+		jobs.put(indexJobExecution2, job2Started::countDown);
+		mockIndexActions("entityTypeA", "entityTypeA");
+
+		indexJobScheduler.scheduleIndexJob("transaction1");
+		indexJobScheduler.scheduleIndexJob("transaction2");
+
+		assertTrue(job2Started.await(5, SECONDS));
+		indexJobScheduler.waitForAllIndicesStable();
+	}
+
+	@SuppressWarnings("unchecked")
+	private void mockIndexActions(String entityTypeId1, String entityTypeId2)
+	{
+		Entity indexAction1 = when(mock(Entity.class).getString(ENTITY_TYPE_ID)).thenReturn(entityTypeId1).getMock();
+		Entity indexAction2 = when(mock(Entity.class).getString(ENTITY_TYPE_ID)).thenReturn(entityTypeId2).getMock();
+		when(dataService.findAll(eq(INDEX_ACTION), any(Query.class))).thenReturn(Stream.of(indexAction1),
+				Stream.of(indexAction2));
+	}
+
+	private static void await(CountDownLatch countDownLatch)
+	{
+		try
+		{
+			assertTrue(countDownLatch.await(5, SECONDS));
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+	}
+}
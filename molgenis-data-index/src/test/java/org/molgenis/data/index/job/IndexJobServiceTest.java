@@ -87,7 +87,8 @@ public class IndexJobServiceTest extends AbstractMolgenisSpringTest
 		when(mds.getEntityType("TypeTestRefDynamic")).thenReturn(testEntityType);
 		toIndexEntity = harness.createTestRefEntities(testEntityType, 1).get(0);
 		when(dataService.getEntityType("TypeTestRefDynamic")).thenReturn(testEntityType);
-		when(dataService.findOneById("TypeTestRefDynamic", "entityId")).thenReturn(toIndexEntity);
+		when(dataService.findAll(eq("TypeTestRefDynamic"), any(Stream.class))).thenAnswer(
+				invocation -> Stream.of(toIndexEntity));
 		when(dataService.getEntityType("entityType")).thenReturn(testEntityType);
 	}
 
@@ -128,10 +129,11 @@ public class IndexJobServiceTest extends AbstractMolgenisSpringTest
 				"rules=['indexActionGroup' = 'testme'], sort=Sort [orders=[Order [attr=actionOrder, direction=ASC]]]");
 	}
 
+	@SuppressWarnings("unchecked")
 	@Test
 	public void rebuildIndexDeleteSingleEntityTest()
 	{
-		when(dataService.findOneById("TypeTestRefDynamic", "entityId")).thenReturn(null);
+		when(dataService.findAll(eq("TypeTestRefDynamic"), any(Stream.class))).thenAnswer(invocation -> empty());
 
 		IndexAction indexAction = indexActionFactory.create()
 													.setIndexActionGroup(indexActionGroup)
@@ -147,20 +149,24 @@ public class IndexJobServiceTest extends AbstractMolgenisSpringTest
 		indexJobService.executeJob(progress, transactionId);
 		assertEquals(indexAction.getIndexStatus(), FINISHED);
 
-		verify(indexService).deleteById(testEntityType, "entityId");
+		ArgumentCaptor<Stream<Object>> entityIdsCaptor = ArgumentCaptor.forClass(Stream.class);
+		verify(indexService).deleteAll(eq(testEntityType), entityIdsCaptor.capture());
+		assertEquals(entityIdsCaptor.getValue().collect(toList()), newArrayList("entityId"));
+		verify(indexService, never()).index(eq(testEntityType), any(Stream.class));
 
 		// verify progress messages
 		verify(progress).status("Start indexing for transaction id: [aabbcc]");
 		verify(progress).setProgressMax(1);
-		verify(progress).progress(0, "Indexing TypeTestRefDynamic.entityId");
+		verify(progress).progress(0, "Indexing 1 entities of entityType");
 		verify(progress).progress(1, "Executed all index actions, cleaning up the actions...");
 		verify(progress).status("Refresh index start");
 		verify(progress).status("Refresh index done");
 		verify(progress).status("Finished indexing for transaction id: [aabbcc]");
 		verify(indexService).refreshIndex();
-		verify(dataService, times(2)).update(INDEX_ACTION, indexAction);
+		verify(dataService, times(2)).update(eq(INDEX_ACTION), any(Stream.class));
 	}
 
+	@SuppressWarnings("unchecked")
 	@Test
 	public void rebuildIndexCreateSingleEntityTest()
 	{
@@ -177,17 +183,59 @@ public class IndexJobServiceTest extends AbstractMolgenisSpringTest
 		indexJobService.executeJob(progress, transactionId);
 		assertEquals(indexAction.getIndexStatus(), FINISHED);
 
-		verify(this.indexService).index(testEntityType, toIndexEntity);
+		verify(indexService).createIndex(testEntityType);
+		verify(indexService).index(eq(testEntityType), streamCaptor.capture());
+		assertEquals(streamCaptor.getValue().collect(toList()), newArrayList(toIndexEntity));
 
 		verify(progress).status("Start indexing for transaction id: [aabbcc]");
 		verify(progress).setProgressMax(1);
-		verify(progress).progress(0, "Indexing TypeTestRefDynamic.entityId");
+		verify(progress).progress(0, "Indexing 1 entities of entityType");
 		verify(progress).progress(1, "Executed all index actions, cleaning up the actions...");
 		verify(progress).status("Refresh index start");
 		verify(progress).status("Refresh index done");
 		verify(progress).status("Finished indexing for transaction id: [aabbcc]");
 
-		verify(dataService, times(2)).update(INDEX_ACTION, indexAction);
+		verify(dataService, times(2)).update(eq(INDEX_ACTION), any(Stream.class));
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void rebuildIndexSingleEntitiesBulkTest()
+	{
+		IndexAction indexAction1 = indexActionFactory.create()
+													 .setIndexActionGroup(indexActionGroup)
+													 .setEntityTypeId("entityType")
+													 .setEntityId(toIndexEntity.getIdValue().toString())
+													 .setActionOrder(0)
+													 .setIndexStatus(IndexActionMetaData.IndexStatus.PENDING);
+		IndexAction indexAction2 = indexActionFactory.create()
+													 .setIndexActionGroup(indexActionGroup)
+													 .setEntityTypeId("entityType")
+													 .setEntityId("deletedEntityId")
+													 .setActionOrder(1)
+													 .setIndexStatus(IndexActionMetaData.IndexStatus.PENDING);
+		mockGetAllIndexActions(of(indexAction1, indexAction2));
+		indexActionGroup.setCount(2);
+		when(indexService.hasIndex(testEntityType)).thenReturn(true);
+
+		indexJobService.executeJob(progress, transactionId);
+		assertEquals(indexAction1.getIndexStatus(), FINISHED);
+		assertEquals(indexAction2.getIndexStatus(), FINISHED);
+
+		ArgumentCaptor<Stream<Object>> entityIdsCaptor = ArgumentCaptor.forClass(Stream.class);
+		verify(dataService).findAll(eq("TypeTestRefDynamic"), entityIdsCaptor.capture());
+		assertEquals(entityIdsCaptor.getValue().collect(toList()), newArrayList(toIndexEntity.getIdValue(), "deletedEntityId"));
+
+		verify(indexService).index(eq(testEntityType), streamCaptor.capture());
+		assertEquals(streamCaptor.getValue().collect(toList()), newArrayList(toIndexEntity));
+		verify(indexService).deleteAll(eq(testEntityType), entityIdsCaptor.capture());
+		assertEquals(entityIdsCaptor.getValue().collect(toList()), newArrayList("deletedEntityId"));
+		verify(indexService, never()).createIndex(testEntityType);
+
+		verify(progress).progress(0, "Indexing 2 entities of entityType");
+		verify(progress).progress(2, "Executed all index actions, cleaning up the actions...");
+		verify(dataService, times(2)).update(eq(INDEX_ACTION), any(Stream.class));
+		verify(dataService, never()).update(eq(INDEX_ACTION), any(IndexAction.class));
 	}
 
 	@Test
@@ -212,6 +260,7 @@ public class IndexJobServiceTest extends AbstractMolgenisSpringTest
 		verify(progress).status("Start indexing for transaction id: [aabbcc]");
 		verify(progress).setProgressMax(1);
 		verify(progress).progress(0, "Indexing TypeTestRefDynamic");
+		verify(progress).status(startsWith("Indexed 0 entities of TypeTestRefDynamic in "));
 		verify(progress).progress(1, "Executed all index actions, cleaning up the actions...");
 		verify(progress).status("Refresh index start");
 		verify(progress).status("Refresh index done");
@@ -301,8 +350,9 @@ public class IndexJobServiceTest extends AbstractMolgenisSpringTest
 		verify(dataService, times(2)).update(INDEX_ACTION, indexAction);
 	}
 
+	@SuppressWarnings("unchecked")
 	@Test
-	public void indexSingleEntityindexServiceThrowsExceptionOnSecondEntityId()
+	public void indexSingleEntitiesIndexServiceThrowsException()
 	{
 		IndexAction indexAction1 = indexActionFactory.create()
 													 .setIndexActionGroup(indexActionGroup)
@@ -328,32 +378,24 @@ public class IndexJobServiceTest extends AbstractMolgenisSpringTest
 		mockGetAllIndexActions(of(indexAction1, indexAction2, indexAction3));
 		indexActionGroup.setCount(3);
 
+		when(dataService.findAll(eq("TypeTestRefDynamic"), any(Stream.class))).thenAnswer(invocation -> empty());
 		MolgenisDataException mde = new MolgenisDataException("Random unrecoverable exception");
-		doThrow(mde).when(indexService).deleteById(testEntityType, "entityId2");
+		doThrow(mde).when(indexService).deleteAll(eq(testEntityType), any(Stream.class));
 
 		when(dataService.hasRepository("TypeTestRefDynamic")).thenReturn(true);
 
-		try
-		{
-			indexJobService.executeJob(progress, transactionId);
-		}
-		catch (Exception expected)
-		{
-			assertSame(expected, mde);
-		}
-
-		verify(indexService).deleteById(testEntityType, "entityId1");
-		verify(indexService).deleteById(testEntityType, "entityId2");
-		verify(indexService).deleteById(testEntityType, "entityId3");
+		indexJobService.executeJob(progress, transactionId);
 
 		verify(indexService).refreshIndex();
+		verify(progress).status("Failed to index entityType: Random unrecoverable exception");
 
 		// Make sure the action status got updated and that the actionJob didn't get deleted
-		assertEquals(indexAction1.getIndexStatus(), FINISHED);
+		assertEquals(indexAction1.getIndexStatus(), FAILED);
 		assertEquals(indexAction2.getIndexStatus(), FAILED);
-		verify(dataService, atLeast(1)).update(INDEX_ACTION, indexAction1);
-		verify(dataService, atLeast(1)).update(INDEX_ACTION, indexAction2);
+		assertEquals(indexAction3.getIndexStatus(), FAILED);
+		verify(dataService, times(2)).update(eq(INDEX_ACTION), any(Stream.class));
 		verify(dataService, never()).delete(INDEX_ACTION_GROUP, indexActionGroup);
+		verify(dataService, never()).deleteById(INDEX_ACTION_GROUP, transactionId);
 	}
 
 	@Configuration
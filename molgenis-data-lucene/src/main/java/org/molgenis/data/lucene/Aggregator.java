@@ -0,0 +1,337 @@
+package org.molgenis.data.lucene;
+
+import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.SortedNumericDocValues;
+import org.apache.lucene.index.SortedSetDocValues;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.SimpleCollector;
+import org.apache.lucene.util.NumericUtils;
+import org.molgenis.data.DataService;
+import org.molgenis.data.Entity;
+import org.molgenis.data.aggregation.AggregateResult;
+import org.molgenis.data.meta.AttributeType;
+import org.molgenis.data.meta.IllegalAttributeTypeException;
+import org.molgenis.data.meta.model.Attribute;
+import org.molgenis.data.meta.model.EntityType;
+import org.molgenis.data.util.EntityUtils;
+import org.molgenis.util.UnexpectedEnumException;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.LongFunction;
+import java.util.stream.Stream;
+
+import static java.time.ZoneOffset.UTC;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static java.util.Objects.requireNonNull;
+import static org.molgenis.data.lucene.FieldConstants.FIELD_NOT_ANALYZED_POSTFIX;
+import static org.molgenis.data.support.EntityTypeUtils.isReferenceType;
+
+/**
+ * Aggregates the documents that match a query by the values of one or two attributes. Counts either the number of
+ * documents or the exact number of distinct values of a third attribute.
+ */
+class Aggregator
+{
+	private final DataService dataService;
+
+	Aggregator(DataService dataService)
+	{
+		this.dataService = requireNonNull(dataService);
+	}
+
+	AggregateResult aggregate(IndexSearcher indexSearcher, Query query, Attribute aggAttr1, Attribute aggAttr2,
+			Attribute aggAttrDistinct) throws IOException
+	{
+		validate(aggAttr1, aggAttr2, aggAttrDistinct);
+
+		AggregateCollector aggregateCollector = new AggregateCollector(aggAttr1, aggAttr2, aggAttrDistinct);
+		indexSearcher.search(query, aggregateCollector);
+		Map<Object, Map<Object, Bucket>> buckets = aggregateCollector.getBuckets();
+
+		List<Object> xLabels = new ArrayList<>(buckets.keySet());
+		xLabels.sort(new AggregateLabelComparable());
+		List<Object> yLabels;
+		if (aggAttr2 != null)
+		{
+			Set<Object> yLabelSet = new HashSet<>();
+			buckets.values().forEach(subBuckets -> yLabelSet.addAll(subBuckets.keySet()));
+			yLabels = new ArrayList<>(yLabelSet);
+			yLabels.sort(new AggregateLabelComparable());
+		}
+		else
+		{
+			yLabels = emptyList();
+		}
+
+		List<List<Long>> matrix = new ArrayList<>(xLabels.size());
+		for (Object xLabel : xLabels)
+		{
+			Map<Object, Bucket> subBuckets = buckets.get(xLabel);
+			List<Long> yValues = new ArrayList<>();
+			for (Object yLabel : aggAttr2 != null ? yLabels : singletonList(null))
+			{
+				Bucket bucket = subBuckets.get(yLabel);
+				yValues.add(bucket != null ? bucket.getCount() : 0L);
+			}
+			matrix.add(yValues);
+		}
+
+		if (isReferenceType(aggAttr1))
+		{
+			convertIdToLabelLabels(xLabels, aggAttr1.getRefEntity());
+		}
+		if (aggAttr2 != null && isReferenceType(aggAttr2))
+		{
+			convertIdToLabelLabels(yLabels, aggAttr2.getRefEntity());
+		}
+		return new AggregateResult(matrix, xLabels, yLabels);
+	}
+
+	private static void validate(Attribute aggAttr1, Attribute aggAttr2, Attribute aggAttrDistinct)
+	{
+		if (aggAttr1 == null)
+		{
+			throw new IllegalArgumentException("Aggregation requires at least one isAggregatable attribute");
+		}
+		if (!aggAttr1.isAggregatable())
+		{
+			throw new IllegalArgumentException("Attribute is not isAggregatable [ " + aggAttr1.getName() + "]");
+		}
+		if (aggAttr2 != null && !aggAttr2.isAggregatable())
+		{
+			throw new IllegalArgumentException("Attribute is not isAggregatable [ " + aggAttr2.getName() + "]");
+		}
+		if (aggAttrDistinct != null && aggAttrDistinct.isNillable())
+		{
+			throw new IllegalArgumentException("Distinct isAggregatable attribute cannot be nillable");
+		}
+		if (aggAttr1.isNillable() && isReferenceType(aggAttr1))
+		{
+			throw new IllegalArgumentException(
+					"Aggregatable attribute of type [" + aggAttr1.getDataType() + "] cannot be nillable");
+		}
+		if (aggAttr2 != null && aggAttr2.isNillable() && isReferenceType(aggAttr2))
+		{
+			throw new IllegalArgumentException(
+					"Aggregatable attribute of type [" + aggAttr2.getDataType() + "] cannot be nillable");
+		}
+	}
+
+	/**
+	 * Converts labels that contain ids to the referenced entities.
+	 */
+	private void convertIdToLabelLabels(List<Object> idLabels, EntityType entityType)
+	{
+		if (idLabels.isEmpty())
+		{
+			return;
+		}
+
+		Stream<Object> ids = idLabels.stream()
+									 .filter(Objects::nonNull)
+									 .map(idLabel -> EntityUtils.getTypedValue(idLabel.toString(),
+											 entityType.getIdAttribute()));
+		Map<String, Entity> idToEntityMap = new HashMap<>();
+		dataService.findAll(entityType.getId(), ids)
+				   .forEach(entity -> idToEntityMap.put(entity.getIdValue().toString(), entity));
+
+		for (int i = 0; i < idLabels.size(); ++i)
+		{
+			Object id = idLabels.get(i);
+			if (id != null) // missing value label
+			{
+				idLabels.set(i, idToEntityMap.get(id.toString()));
+			}
+		}
+	}
+
+	private static class AggregateCollector extends SimpleCollector
+	{
+		private final Attribute aggAttr1;
+		private final Attribute aggAttr2;
+		private final Attribute aggAttrDistinct;
+		private final Map<Object, Map<Object, Bucket>> buckets = new HashMap<>();
+
+		private DocValuesReader valuesReader1;
+		private DocValuesReader valuesReader2;
+		private DocValuesReader valuesReaderDistinct;
+
+		AggregateCollector(Attribute aggAttr1, Attribute aggAttr2, Attribute aggAttrDistinct)
+		{
+			this.aggAttr1 = aggAttr1;
+			this.aggAttr2 = aggAttr2;
+			this.aggAttrDistinct = aggAttrDistinct;
+		}
+
+		Map<Object, Map<Object, Bucket>> getBuckets()
+		{
+			return buckets;
+		}
+
+		@Override
+		protected void doSetNextReader(LeafReaderContext context) throws IOException
+		{
+			LeafReader reader = context.reader();
+			valuesReader1 = createValuesReader(reader, aggAttr1);
+			valuesReader2 = aggAttr2 != null ? createValuesReader(reader, aggAttr2) : null;
+			valuesReaderDistinct = aggAttrDistinct != null ? createValuesReader(reader, aggAttrDistinct) : null;
+		}
+
+		@Override
+		public void collect(int doc)
+		{
+			List<Object> keys2 = valuesReader2 != null ? getKeys(valuesReader2, aggAttr2, doc) : singletonList(null);
+			List<Object> distinctValues = valuesReaderDistinct != null ? valuesReaderDistinct.getValues(doc) : null;
+			for (Object key1 : getKeys(valuesReader1, aggAttr1, doc))
+			{
+				Map<Object, Bucket> subBuckets = buckets.computeIfAbsent(key1, key -> new HashMap<>());
+				for (Object key2 : keys2)
+				{
+					subBuckets.computeIfAbsent(key2, key -> new Bucket(distinctValues != null))
+							  .add(distinctValues);
+				}
+			}
+		}
+
+		@Override
+		public boolean needsScores()
+		{
+			return false;
+		}
+
+		/**
+		 * Returns the values of the document or a <code>null</code> value for documents without values of a nillable
+		 * attribute.
+		 */
+		private static List<Object> getKeys(DocValuesReader valuesReader, Attribute attr, int doc)
+		{
+			List<Object> values = valuesReader.getValues(doc);
+			if (values.isEmpty() && attr.isNillable())
+			{
+				return singletonList(null);
+			}
+			return values;
+		}
+
+		private static DocValuesReader createValuesReader(LeafReader reader, Attribute attr) throws IOException
+		{
+			String fieldName = attr.getName();
+			AttributeType attrType = attr.getDataType();
+			switch (attrType)
+			{
+				case BOOL:
+					return createSortedSetValuesReader(reader, fieldName, Boolean::valueOf);
+				case CATEGORICAL:
+				case CATEGORICAL_MREF:
+				case FILE:
+				case MREF:
+				case ONE_TO_MANY:
+				case XREF:
+					return createSortedSetValuesReader(reader, fieldName, value -> value);
+				case EMAIL:
+				case ENUM:
+				case HTML:
+				case HYPERLINK:
+				case SCRIPT:
+				case STRING:
+				case TEXT:
+					return createSortedSetValuesReader(reader, fieldName + FIELD_NOT_ANALYZED_POSTFIX,
+							value -> value);
+				case DATE:
+					return createSortedNumericValuesReader(reader, fieldName,
+							value -> Instant.ofEpochMilli(value).atZone(UTC).toLocalDate());
+				case DATE_TIME:
+					return createSortedNumericValuesReader(reader, fieldName, Instant::ofEpochMilli);
+				case DECIMAL:
+					return createSortedNumericValuesReader(reader, fieldName, NumericUtils::sortableLongToDouble);
+				case INT:
+				case LONG:
+					return createSortedNumericValuesReader(reader, fieldName, value -> value);
+				case COMPOUND:
+					throw new IllegalAttributeTypeException(attrType);
+				default:
+					throw new UnexpectedEnumException(attrType);
+			}
+		}
+
+		private static DocValuesReader createSortedSetValuesReader(LeafReader reader, String fieldName,
+				Function<String, Object> valueConverter) throws IOException
+		{
+			SortedSetDocValues docValues = DocValues.getSortedSet(reader, fieldName);
+			return doc ->
+			{
+				docValues.setDocument(doc);
+				List<Object> values = new ArrayList<>();
+				for (long ord = docValues.nextOrd(); ord != SortedSetDocValues.NO_MORE_ORDS; ord = docValues.nextOrd())
+				{
+					values.add(valueConverter.apply(docValues.lookupOrd(ord).utf8ToString()));
+				}
+				return values;
+			};
+		}
+
+		private static DocValuesReader createSortedNumericValuesReader(LeafReader reader, String fieldName,
+				LongFunction<Object> valueConverter) throws IOException
+		{
+			SortedNumericDocValues docValues = DocValues.getSortedNumeric(reader, fieldName);
+			return doc ->
+			{
+				docValues.setDocument(doc);
+				int count = docValues.count();
+				List<Object> values = new ArrayList<>(count);
+				for (int i = 0; i < count; ++i)
+				{
+					values.add(valueConverter.apply(docValues.valueAt(i)));
+				}
+				return values;
+			};
+		}
+	}
+
+	@FunctionalInterface
+	private interface DocValuesReader
+	{
+		List<Object> getValues(int doc);
+	}
+
+	private static class Bucket
+	{
+		private final Set<Object> distinctValues;
+		private long docCount;
+
+		Bucket(boolean distinct)
+		{
+			this.distinctValues = distinct ? new HashSet<>() : null;
+		}
+
+		void add(List<Object> docDistinctValues)
+		{
+			++docCount;
+			if (distinctValues != null)
+			{
+				distinctValues.addAll(docDistinctValues);
+			}
+		}
+
+		long getCount()
+		{
+			return distinctValues != null ? distinctValues.size() : docCount;
+		}
+	}
+
+	private static class AggregateLabelComparable implements Comparator<Object>
+	{
+		@Override
+		public int compare(Object o1, Object o2)
+		{
+			return o1 == null ? 1 : (o2 == null ? -1 : o1.toString().compareTo(o2.toString()));
+		}
+	}
+}
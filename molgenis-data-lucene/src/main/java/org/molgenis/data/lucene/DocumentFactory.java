@@ -0,0 +1,226 @@
+package org.molgenis.data.lucene;
+
+import org.apache.lucene.document.*;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.NumericUtils;
+import org.molgenis.data.Entity;
+import org.molgenis.data.meta.AttributeType;
+import org.molgenis.data.meta.IllegalAttributeTypeException;
+import org.molgenis.data.meta.IndexHint;
+import org.molgenis.data.meta.model.Attribute;
+import org.molgenis.util.UnexpectedEnumException;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.time.ZoneOffset.UTC;
+import static org.apache.lucene.document.Field.Store.NO;
+import static org.apache.lucene.document.Field.Store.YES;
+import static org.molgenis.data.lucene.FieldConstants.*;
+import static org.molgenis.data.support.AttributeUtils.getIndexHint;
+
+/**
+ * Creates Lucene documents from entities. Each attribute is indexed in a field named after the attribute, the
+ * attributes of referenced entities are indexed up to the indexing depth of the entity type in fields named after the
+ * attribute path:
+ * <ul>
+ * <li>string attributes are indexed analyzed and, in a separate field, not analyzed</li>
+ * <li>numeric, date and date time attributes are indexed as points, dates as epoch milliseconds</li>
+ * <li>reference attributes are indexed by the ids of the referenced entities</li>
+ * </ul>
+ * All values are stored in doc values for sorting and aggregation. Attributes with a not indexed index hint are left
+ * out.
+ */
+class DocumentFactory
+{
+	Document createDocument(Entity entity)
+	{
+		Document document = new Document();
+		document.add(new StringField(FIELD_ID, toDocumentId(entity.getIdValue()), YES));
+
+		List<String> allValues = new ArrayList<>();
+		int maxIndexingDepth = entity.getEntityType().getIndexingDepth();
+		addFields(document, entity, "", 0, maxIndexingDepth, allValues);
+		allValues.forEach(value -> document.add(new TextField(FIELD_ALL, value, NO)));
+		return document;
+	}
+
+	static String toDocumentId(Object entityId)
+	{
+		return entityId.toString();
+	}
+
+	static long toEpochMilli(LocalDate date)
+	{
+		return date.atStartOfDay(UTC).toInstant().toEpochMilli();
+	}
+
+	private void addFields(Document document, Entity entity, String fieldPrefix, int depth, int maxDepth,
+			List<String> allValues)
+	{
+		for (Attribute attr : entity.getEntityType().getAtomicAttributes())
+		{
+			if (getIndexHint(attr) != IndexHint.NOT_INDEXED)
+			{
+				addFields(document, entity, attr, fieldPrefix + attr.getName(), depth, maxDepth, allValues);
+			}
+		}
+	}
+
+	private void addFields(Document document, Entity entity, Attribute attr, String fieldName, int depth,
+			int maxDepth, List<String> allValues)
+	{
+		String attrName = attr.getName();
+		AttributeType attrType = attr.getDataType();
+		switch (attrType)
+		{
+			case BOOL:
+				Boolean boolValue = entity.getBoolean(attrName);
+				if (boolValue != null)
+				{
+					addKeywordFields(document, fieldName, boolValue.toString());
+					allValues.add(boolValue.toString());
+				}
+				break;
+			case DECIMAL:
+				Double doubleValue = entity.getDouble(attrName);
+				if (doubleValue != null)
+				{
+					document.add(new DoublePoint(fieldName, doubleValue));
+					addNumericDocValues(document, fieldName, NumericUtils.doubleToSortableLong(doubleValue));
+					allValues.add(doubleValue.toString());
+				}
+				break;
+			case INT:
+				Integer intValue = entity.getInt(attrName);
+				if (intValue != null)
+				{
+					addLongFields(document, fieldName, intValue);
+					allValues.add(intValue.toString());
+				}
+				break;
+			case LONG:
+				Long longValue = entity.getLong(attrName);
+				if (longValue != null)
+				{
+					addLongFields(document, fieldName, longValue);
+					allValues.add(longValue.toString());
+				}
+				break;
+			case EMAIL:
+			case ENUM:
+			case HTML:
+			case HYPERLINK:
+			case SCRIPT:
+			case STRING:
+			case TEXT:
+				String strValue = entity.getString(attrName);
+				if (strValue != null)
+				{
+					addStringFields(document, fieldName, strValue);
+					allValues.add(strValue);
+				}
+				break;
+			case DATE:
+				LocalDate date = entity.getLocalDate(attrName);
+				if (date != null)
+				{
+					addLongFields(document, fieldName, toEpochMilli(date));
+					allValues.add(date.toString());
+				}
+				break;
+			case DATE_TIME:
+				Instant dateTime = entity.getInstant(attrName);
+				if (dateTime != null)
+				{
+					addLongFields(document, fieldName, dateTime.toEpochMilli());
+					allValues.add(dateTime.toString());
+				}
+				break;
+			case CATEGORICAL:
+			case XREF:
+			case FILE:
+				Entity xrefEntity = entity.getEntity(attrName);
+				if (xrefEntity != null)
+				{
+					addReferenceFields(document, fieldName, xrefEntity, depth, maxDepth, allValues);
+				}
+				break;
+			case CATEGORICAL_MREF:
+			case MREF:
+			case ONE_TO_MANY:
+				for (Entity mrefEntity : entity.getEntities(attrName))
+				{
+					addReferenceFields(document, fieldName, mrefEntity, depth, maxDepth, allValues);
+				}
+				break;
+			case COMPOUND:
+				throw new IllegalAttributeTypeException(attrType);
+			default:
+				throw new UnexpectedEnumException(attrType);
+		}
+	}
+
+	private void addReferenceFields(Document document, String fieldName, Entity refEntity, int depth, int maxDepth,
+			List<String> allValues)
+	{
+		addKeywordFields(document, fieldName, toDocumentId(refEntity.getIdValue()));
+		if (depth < maxDepth)
+		{
+			List<String> refAllValues = new ArrayList<>();
+			addFields(document, refEntity, fieldName + ATTRIBUTE_SEPARATOR, depth + 1, maxDepth, refAllValues);
+			refAllValues.forEach(
+					value -> document.add(new TextField(fieldName + ATTRIBUTE_SEPARATOR + FIELD_ALL, value, NO)));
+			allValues.addAll(refAllValues);
+		}
+		else
+		{
+			Object labelValue = refEntity.getLabelValue();
+			if (labelValue != null)
+			{
+				allValues.add(labelValue.toString());
+			}
+		}
+	}
+
+	private static void addStringFields(Document document, String fieldName, String value)
+	{
+		document.add(new TextField(fieldName, value, NO));
+		// terms longer than the maximum term length can't be indexed, so values that long can't be sorted or filtered
+		if (value.getBytes(UTF_8).length <= IndexWriter.MAX_TERM_LENGTH)
+		{
+			String notAnalyzedFieldName = fieldName + FIELD_NOT_ANALYZED_POSTFIX;
+			document.add(new StringField(notAnalyzedFieldName, value, NO));
+			document.add(new SortedSetDocValuesField(notAnalyzedFieldName, new BytesRef(value)));
+		}
+		addExists(document, fieldName);
+	}
+
+	private static void addKeywordFields(Document document, String fieldName, String value)
+	{
+		document.add(new StringField(fieldName, value, NO));
+		document.add(new SortedSetDocValuesField(fieldName, new BytesRef(value)));
+		addExists(document, fieldName);
+	}
+
+	private static void addLongFields(Document document, String fieldName, long value)
+	{
+		document.add(new LongPoint(fieldName, value));
+		addNumericDocValues(document, fieldName, value);
+	}
+
+	private static void addNumericDocValues(Document document, String fieldName, long value)
+	{
+		document.add(new SortedNumericDocValuesField(fieldName, value));
+		addExists(document, fieldName);
+	}
+
+	private static void addExists(Document document, String fieldName)
+	{
+		document.add(new StringField(FIELD_EXISTS, fieldName, NO));
+	}
+}
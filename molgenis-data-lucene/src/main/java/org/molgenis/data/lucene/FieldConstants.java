@@ -0,0 +1,22 @@
+package org.molgenis.data.lucene;
+
+public interface FieldConstants
+{
+	/**
+	 * Stored field containing the entity id
+	 */
+	String FIELD_ID = "_id";
+	/**
+	 * Analyzed field containing the values of all attributes
+	 */
+	String FIELD_ALL = "_all";
+	/**
+	 * Field containing the names of the fields that have a value
+	 */
+	String FIELD_EXISTS = "_exists";
+	/**
+	 * Postfix of the not analyzed field of string attributes
+	 */
+	String FIELD_NOT_ANALYZED_POSTFIX = ".raw";
+	String ATTRIBUTE_SEPARATOR = ".";
+}
@@ -0,0 +1,69 @@
+package org.molgenis.data.lucene;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.CharArraySet;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.molgenis.data.DataService;
+import org.molgenis.data.index.ConditionalOnSearchBackend;
+import org.molgenis.data.index.IndexConfig;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static java.util.Objects.requireNonNull;
+import static org.molgenis.data.index.ConditionalOnSearchBackend.LUCENE;
+import static org.molgenis.util.AppDataRootProvider.getAppDataRoot;
+
+/**
+ * Spring config for the embedded Lucene search backend, for small deployments and tests that don't need an
+ * Elasticsearch cluster. Use this in your own app by importing this in your spring config next to the Elasticsearch
+ * config: <code> @Import(LuceneConfig.class)</code>. Only active if Lucene is the selected search backend, e.g. with
+ * <code>-Dsearch.backend=lucene</code>, see {@link ConditionalOnSearchBackend}.
+ */
+@Configuration
+@ConditionalOnSearchBackend(LUCENE)
+@Import(IndexConfig.class)
+public class LuceneConfig
+{
+	private static final String DEFAULT_INDEX_DIRECTORY = "index";
+
+	/**
+	 * Directory containing the indexes, defaults to the index directory in the application data root
+	 */
+	@Value("${lucene.index.directory:#{null}}")
+	private String indexDirectory;
+
+	private final DataService dataService;
+
+	public LuceneConfig(DataService dataService)
+	{
+		this.dataService = requireNonNull(dataService);
+	}
+
+	@Bean
+	public LuceneService luceneService()
+	{
+		Analyzer analyzer = analyzer();
+		return new LuceneService(luceneIndexes(), new DocumentFactory(), new QueryGenerator(analyzer),
+				new SortGenerator(), new Aggregator(dataService));
+	}
+
+	@Bean(destroyMethod = "close")
+	LuceneIndexes luceneIndexes()
+	{
+		Path indexRoot = indexDirectory != null ? Paths.get(indexDirectory) : getAppDataRoot().resolve(
+				DEFAULT_INDEX_DIRECTORY);
+		return new LuceneIndexes(indexRoot, analyzer());
+	}
+
+	@Bean(destroyMethod = "close")
+	Analyzer analyzer()
+	{
+		// like the Elasticsearch standard analyzer, which doesn't remove stop words
+		return new StandardAnalyzer(CharArraySet.EMPTY_SET);
+	}
+}
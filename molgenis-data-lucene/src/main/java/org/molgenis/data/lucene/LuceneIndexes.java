@@ -0,0 +1,482 @@
+package org.molgenis.data.lucene;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.SearcherFactory;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.MMapDirectory;
+import org.apache.lucene.util.IOUtils;
+import org.molgenis.data.index.exception.IndexAlreadyExistsException;
+import org.molgenis.data.index.exception.IndexException;
+import org.molgenis.data.index.exception.UnknownIndexException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.util.Comparator.comparingLong;
+import static java.util.Objects.requireNonNull;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Manages the Lucene indexes in an index root directory. Each index is stored in a memory-mapped directory
+ * <code>&lt;index root&gt;/&lt;index name&gt;/&lt;generation&gt;</code>. Rebuilding an index creates a directory for the
+ * next generation that replaces the current generation once it is complete.
+ * <p>
+ * The generation that is in use is recorded in the file <code>&lt;index root&gt;/&lt;index name&gt;/generation</code>,
+ * which is only replaced once a generation is complete. Generations of rebuilds that were interrupted, e.g. by a
+ * crash, are deleted when the index is opened again.
+ * <p>
+ * Searches and writes use an index while holding a read lock. Replacing, deleting or closing indexes requires the write
+ * lock, so an index is only closed once the searches and writes that use it have completed.
+ */
+class LuceneIndexes implements Closeable
+{
+	private static final Logger LOG = LoggerFactory.getLogger(LuceneIndexes.class);
+
+	static final String GENERATION_FILE_NAME = "generation";
+
+	@FunctionalInterface
+	interface IndexWriterCallback
+	{
+		void doWithIndexWriter(IndexWriter indexWriter) throws IOException;
+	}
+
+	@FunctionalInterface
+	interface IndexSearcherCallback<T>
+	{
+		T doWithIndexSearcher(IndexSearcher indexSearcher) throws IOException;
+	}
+
+	private final Path indexRoot;
+	private final Analyzer analyzer;
+	private final Map<String, LuceneIndex> indexes = new ConcurrentHashMap<>();
+	private final ReadWriteLock indexesLock = new ReentrantReadWriteLock();
+
+	LuceneIndexes(Path indexRoot, Analyzer analyzer)
+	{
+		this.indexRoot = requireNonNull(indexRoot);
+		this.analyzer = requireNonNull(analyzer);
+	}
+
+	synchronized void createIndex(String indexName)
+	{
+		if (getIndex(indexName) != null)
+		{
+			throw new IndexAlreadyExistsException(indexName);
+		}
+		LuceneIndex index = openIndex(indexName, 0L);
+		writeGeneration(indexName, index.getGeneration());
+		indexes.put(indexName, index);
+	}
+
+	boolean hasIndex(String indexName)
+	{
+		return getIndex(indexName) != null;
+	}
+
+	void deleteIndex(String indexName)
+	{
+		Lock lock = indexesLock.writeLock();
+		lock.lock();
+		try
+		{
+			synchronized (this)
+			{
+				LuceneIndex index = getExistingIndex(indexName);
+				indexes.remove(indexName);
+				index.close();
+				IOUtils.rm(getIndexDirectory(indexName));
+			}
+		}
+		catch (IOException e)
+		{
+			throw new IndexException(format("Error deleting index '%s'.", indexName), e);
+		}
+		finally
+		{
+			lock.unlock();
+		}
+	}
+
+	void write(String indexName, IndexWriterCallback callback)
+	{
+		Lock lock = indexesLock.readLock();
+		lock.lock();
+		try
+		{
+			callback.doWithIndexWriter(getExistingIndex(indexName).getIndexWriter());
+		}
+		catch (IOException e)
+		{
+			throw new IndexException(format("Error writing index '%s'.", indexName), e);
+		}
+		finally
+		{
+			lock.unlock();
+		}
+	}
+
+	<T> T search(String indexName, IndexSearcherCallback<T> callback)
+	{
+		Lock lock = indexesLock.readLock();
+		lock.lock();
+		try
+		{
+			SearcherManager searcherManager = getExistingIndex(indexName).getSearcherManager();
+			IndexSearcher indexSearcher = searcherManager.acquire();
+			try
+			{
+				return callback.doWithIndexSearcher(indexSearcher);
+			}
+			finally
+			{
+				searcherManager.release(indexSearcher);
+			}
+		}
+		catch (IOException e)
+		{
+			throw new IndexException(format("Error searching index '%s'.", indexName), e);
+		}
+		finally
+		{
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Writes the next generation of an index. The current generation keeps serving requests until the next generation
+	 * is written and replaces it. The index is created if it doesn't exist.
+	 */
+	void rebuildIndex(String indexName, IndexWriterCallback callback)
+	{
+		LuceneIndex currentIndex = getIndex(indexName);
+		long generation = currentIndex != null ? currentIndex.getGeneration() + 1 : 0L;
+		LuceneIndex nextIndex = openIndex(indexName, generation);
+		try
+		{
+			callback.doWithIndexWriter(nextIndex.getIndexWriter());
+			nextIndex.refresh();
+		}
+		catch (IOException | RuntimeException e)
+		{
+			nextIndex.close();
+			deleteGeneration(nextIndex);
+			if (e instanceof RuntimeException)
+			{
+				throw (RuntimeException) e;
+			}
+			throw new IndexException(format("Error rebuilding index '%s'.", indexName), e);
+		}
+
+		// waits for the searches and writes that use the replaced index
+		Lock lock = indexesLock.writeLock();
+		lock.lock();
+		try
+		{
+			synchronized (this)
+			{
+				writeGeneration(indexName, nextIndex.getGeneration());
+				LuceneIndex replacedIndex = indexes.put(indexName, nextIndex);
+				if (replacedIndex != null)
+				{
+					replacedIndex.close();
+					deleteGeneration(replacedIndex);
+				}
+			}
+		}
+		finally
+		{
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Commits the changes of all indexes and makes them visible to searches.
+	 */
+	void refreshIndexes()
+	{
+		Lock lock = indexesLock.readLock();
+		lock.lock();
+		try
+		{
+			indexes.values().forEach(LuceneIndex::refresh);
+		}
+		finally
+		{
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public void close()
+	{
+		Lock lock = indexesLock.writeLock();
+		lock.lock();
+		try
+		{
+			synchronized (this)
+			{
+				indexes.values().forEach(LuceneIndex::close);
+				indexes.clear();
+			}
+		}
+		finally
+		{
+			lock.unlock();
+		}
+	}
+
+	private LuceneIndex getExistingIndex(String indexName)
+	{
+		LuceneIndex index = getIndex(indexName);
+		if (index == null)
+		{
+			throw new UnknownIndexException(indexName);
+		}
+		return index;
+	}
+
+	/**
+	 * Returns the open index, opens the latest generation of an index written before or returns <code>null</code> if
+	 * the index doesn't exist.
+	 */
+	private LuceneIndex getIndex(String indexName)
+	{
+		LuceneIndex index = indexes.get(indexName);
+		if (index == null)
+		{
+			synchronized (this)
+			{
+				index = indexes.get(indexName);
+				if (index == null)
+				{
+					index = openLatestGeneration(indexName);
+					if (index != null)
+					{
+						indexes.put(indexName, index);
+					}
+				}
+			}
+		}
+		return index;
+	}
+
+	/**
+	 * Opens the generation of an index that was completed last and deletes all other generations, which belong to
+	 * rebuilds that were interrupted or to generations that were replaced.
+	 */
+	private LuceneIndex openLatestGeneration(String indexName)
+	{
+		Path indexDirectory = getIndexDirectory(indexName);
+		if (!Files.isDirectory(indexDirectory))
+		{
+			return null;
+		}
+
+		Optional<Long> generation = readGeneration(indexName);
+		List<Path> generationDirectories;
+		try (Stream<Path> paths = Files.list(indexDirectory))
+		{
+			generationDirectories = paths.filter(path -> path.getFileName().toString().matches("\\d+"))
+										 .sorted(comparingLong(LuceneIndexes::getGeneration))
+										 .collect(toList());
+		}
+		catch (IOException e)
+		{
+			throw new IndexException(format("Error opening index '%s'.", indexName), e);
+		}
+
+		generationDirectories.stream()
+							 .filter(generationDirectory -> !generation.isPresent()
+									 || getGeneration(generationDirectory) != generation.get())
+							 .forEach(LuceneIndexes::deleteGenerationDirectory);
+		if (!generation.isPresent())
+		{
+			return null;
+		}
+		if (generationDirectories.stream().noneMatch(
+				generationDirectory -> getGeneration(generationDirectory) == generation.get()))
+		{
+			LOG.warn("Generation {} of index '{}' is missing", generation.get(), indexName);
+			return null;
+		}
+		return openIndex(indexName, generation.get());
+	}
+
+	private Optional<Long> readGeneration(String indexName)
+	{
+		Path generationFile = getIndexDirectory(indexName).resolve(GENERATION_FILE_NAME);
+		if (!Files.exists(generationFile))
+		{
+			return Optional.empty();
+		}
+		try
+		{
+			return Optional.of(Long.parseLong(new String(Files.readAllBytes(generationFile), UTF_8).trim()));
+		}
+		catch (IOException | NumberFormatException e)
+		{
+			throw new IndexException(format("Error reading generation of index '%s'.", indexName), e);
+		}
+	}
+
+	/**
+	 * Records the completed generation of an index. The file is replaced atomically so that a crash leaves either the
+	 * previous or the new generation recorded.
+	 */
+	private void writeGeneration(String indexName, long generation)
+	{
+		Path indexDirectory = getIndexDirectory(indexName);
+		Path tempGenerationFile = indexDirectory.resolve(GENERATION_FILE_NAME + ".tmp");
+		try
+		{
+			Files.write(tempGenerationFile, Long.toString(generation).getBytes(UTF_8));
+			Files.move(tempGenerationFile, indexDirectory.resolve(GENERATION_FILE_NAME), ATOMIC_MOVE,
+					REPLACE_EXISTING);
+		}
+		catch (IOException e)
+		{
+			throw new IndexException(format("Error writing generation of index '%s'.", indexName), e);
+		}
+	}
+
+	private LuceneIndex openIndex(String indexName, long generation)
+	{
+		try
+		{
+			Path generationDirectory = getIndexDirectory(indexName).resolve(Long.toString(generation));
+			Directory directory = new MMapDirectory(generationDirectory);
+			IndexWriter indexWriter = new IndexWriter(directory, new IndexWriterConfig(analyzer));
+			// commit to create the index when the directory is empty
+			indexWriter.commit();
+			SearcherManager searcherManager = new SearcherManager(indexWriter, new SearcherFactory());
+			return new LuceneIndex(generation, generationDirectory, directory, indexWriter, searcherManager);
+		}
+		catch (IOException e)
+		{
+			throw new IndexException(format("Error opening index '%s'.", indexName), e);
+		}
+	}
+
+	private Path getIndexDirectory(String indexName)
+	{
+		try
+		{
+			return indexRoot.resolve(URLEncoder.encode(indexName, "UTF-8"));
+		}
+		catch (UnsupportedEncodingException e)
+		{
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static long getGeneration(Path generationDirectory)
+	{
+		return Long.parseLong(generationDirectory.getFileName().toString());
+	}
+
+	private static void deleteGeneration(LuceneIndex index)
+	{
+		deleteGenerationDirectory(index.getGenerationDirectory());
+	}
+
+	private static void deleteGenerationDirectory(Path generationDirectory)
+	{
+		try
+		{
+			IOUtils.rm(generationDirectory);
+		}
+		catch (IOException e)
+		{
+			LOG.warn("Error deleting index directory '{}'", generationDirectory, e);
+		}
+	}
+
+	private static class LuceneIndex
+	{
+		private final long generation;
+		private final Path generationDirectory;
+		private final Directory directory;
+		private final IndexWriter indexWriter;
+		private final SearcherManager searcherManager;
+
+		LuceneIndex(long generation, Path generationDirectory, Directory directory, IndexWriter indexWriter,
+				SearcherManager searcherManager)
+		{
+			this.generation = generation;
+			this.generationDirectory = generationDirectory;
+			this.directory = directory;
+			this.indexWriter = indexWriter;
+			this.searcherManager = searcherManager;
+		}
+
+		long getGeneration()
+		{
+			return generation;
+		}
+
+		Path getGenerationDirectory()
+		{
+			return generationDirectory;
+		}
+
+		IndexWriter getIndexWriter()
+		{
+			return indexWriter;
+		}
+
+		SearcherManager getSearcherManager()
+		{
+			return searcherManager;
+		}
+
+		void refresh()
+		{
+			try
+			{
+				indexWriter.commit();
+				searcherManager.maybeRefreshBlocking();
+			}
+			catch (IOException e)
+			{
+				throw new IndexException("Error refreshing index.", e);
+			}
+		}
+
+		/**
+		 * Closes the index, searchers that are in use remain usable until they are released.
+		 */
+		void close()
+		{
+			try
+			{
+				IOUtils.close(searcherManager, indexWriter, directory);
+			}
+			catch (IOException e)
+			{
+				LOG.warn("Error closing index", e);
+			}
+		}
+	}
+}
@@ -0,0 +1,277 @@
+package org.molgenis.data.lucene;
+
+import com.google.common.collect.Iterators;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.Sort;
+import org.molgenis.data.Entity;
+import org.molgenis.data.Repository;
+import org.molgenis.data.aggregation.AggregateQuery;
+import org.molgenis.data.aggregation.AggregateResult;
+import org.molgenis.data.index.IndexService;
+import org.molgenis.data.index.SearchService;
+import org.molgenis.data.meta.AttributeType;
+import org.molgenis.data.meta.IllegalAttributeTypeException;
+import org.molgenis.data.meta.model.EntityType;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static java.lang.Math.min;
+import static java.util.Collections.singleton;
+import static java.util.Objects.requireNonNull;
+import static org.molgenis.data.lucene.FieldConstants.FIELD_ID;
+import static org.molgenis.data.support.EntityTypeUtils.createFetchForReindexing;
+
+/**
+ * Search and index service that executes all requests on embedded Lucene indexes, one index per entity type.
+ */
+public class LuceneService implements SearchService, IndexService
+{
+	private static final int BATCH_SIZE = 1000;
+	private static final Set<String> ID_FIELDS = singleton(FIELD_ID);
+
+	private final LuceneIndexes luceneIndexes;
+	private final DocumentFactory documentFactory;
+	private final QueryGenerator queryGenerator;
+	private final SortGenerator sortGenerator;
+	private final Aggregator aggregator;
+
+	LuceneService(LuceneIndexes luceneIndexes, DocumentFactory documentFactory, QueryGenerator queryGenerator,
+			SortGenerator sortGenerator, Aggregator aggregator)
+	{
+		this.luceneIndexes = requireNonNull(luceneIndexes);
+		this.documentFactory = requireNonNull(documentFactory);
+		this.queryGenerator = requireNonNull(queryGenerator);
+		this.sortGenerator = requireNonNull(sortGenerator);
+		this.aggregator = requireNonNull(aggregator);
+	}
+
+	@Override
+	public void createIndex(EntityType entityType)
+	{
+		luceneIndexes.createIndex(getIndexName(entityType));
+	}
+
+	@Override
+	public boolean hasIndex(EntityType entityType)
+	{
+		return luceneIndexes.hasIndex(getIndexName(entityType));
+	}
+
+	@Override
+	public void deleteIndex(EntityType entityType)
+	{
+		luceneIndexes.deleteIndex(getIndexName(entityType));
+	}
+
+	/**
+	 * Rebuilds the index of a repository in the next generation of the index while the current generation keeps
+	 * serving requests.
+	 */
+	@Override
+	public long rebuildIndex(Repository<? extends Entity> repository)
+	{
+		EntityType entityType = repository.getEntityType();
+		AtomicLong count = new AtomicLong(0L);
+		luceneIndexes.rebuildIndex(getIndexName(entityType),
+				indexWriter -> repository.forEachBatched(createFetchForReindexing(entityType), entities ->
+				{
+					List<Document> documents = new ArrayList<>(entities.size());
+					entities.forEach(entity -> documents.add(documentFactory.createDocument(entity)));
+					addDocuments(indexWriter, documents);
+					count.addAndGet(documents.size());
+				}, BATCH_SIZE));
+		return count.get();
+	}
+
+	@Override
+	public void refreshIndex()
+	{
+		luceneIndexes.refreshIndexes();
+	}
+
+	@Override
+	public void index(EntityType entityType, Entity entity)
+	{
+		Document document = documentFactory.createDocument(entity);
+		luceneIndexes.write(getIndexName(entityType),
+				indexWriter -> indexWriter.updateDocument(createIdTerm(entity.getIdValue()), document));
+	}
+
+	@Override
+	public long index(EntityType entityType, Stream<? extends Entity> entities)
+	{
+		AtomicLong count = new AtomicLong(0L);
+		luceneIndexes.write(getIndexName(entityType), indexWriter -> entities.forEach(entity ->
+		{
+			updateDocument(indexWriter, entity);
+			count.incrementAndGet();
+		}));
+		return count.get();
+	}
+
+	@Override
+	public void delete(EntityType entityType, Entity entity)
+	{
+		deleteById(entityType, entity.getIdValue());
+	}
+
+	@Override
+	public void deleteById(EntityType entityType, Object entityId)
+	{
+		luceneIndexes.write(getIndexName(entityType),
+				indexWriter -> indexWriter.deleteDocuments(createIdTerm(entityId)));
+	}
+
+	@Override
+	public void deleteAll(EntityType entityType, Stream<Object> entityIds)
+	{
+		luceneIndexes.write(getIndexName(entityType), indexWriter -> Iterators.partition(entityIds.iterator(),
+				BATCH_SIZE).forEachRemaining(batchEntityIds -> deleteDocuments(indexWriter, batchEntityIds)));
+	}
+
+	@Override
+	public void delete(EntityType entityType, Stream<? extends Entity> entities)
+	{
+		deleteAll(entityType, entities.map(Entity::getIdValue));
+	}
+
+	@Override
+	public long count(EntityType entityType)
+	{
+		return luceneIndexes.search(getIndexName(entityType),
+				indexSearcher -> (long) indexSearcher.getIndexReader().numDocs());
+	}
+
+	@Override
+	public long count(EntityType entityType, org.molgenis.data.Query<Entity> q)
+	{
+		Query query = queryGenerator.createQuery(q, entityType);
+		return luceneIndexes.search(getIndexName(entityType), indexSearcher -> (long) indexSearcher.count(query));
+	}
+
+	@Override
+	public Stream<Object> search(EntityType entityType, org.molgenis.data.Query<Entity> q)
+	{
+		return search(entityType, q, q.getOffset(), q.getPageSize());
+	}
+
+	@Override
+	public Object searchOne(EntityType entityType, org.molgenis.data.Query<Entity> q)
+	{
+		return search(entityType, q, q.getOffset(), 1).findFirst().orElse(null);
+	}
+
+	/**
+	 * @param pageSize maximum number of entity ids, 0 for all entity ids
+	 */
+	private Stream<Object> search(EntityType entityType, org.molgenis.data.Query<Entity> q, int offset,
+			int pageSize)
+	{
+		Query query = queryGenerator.createQuery(q, entityType);
+		Sort sort = q.getSort() != null ? sortGenerator.generateSort(q.getSort(), entityType) : null;
+		// the number of hits is limited to the number of documents by the searcher
+		int nrHits = pageSize != 0 ? (int) min((long) offset + pageSize, Integer.MAX_VALUE) : Integer.MAX_VALUE;
+
+		List<Object> entityIds = luceneIndexes.search(getIndexName(entityType), indexSearcher ->
+		{
+			ScoreDoc[] scoreDocs = sort != null ? indexSearcher.search(query, nrHits, sort).scoreDocs
+					: indexSearcher.search(query, nrHits).scoreDocs;
+			List<Object> ids = new ArrayList<>(Math.max(scoreDocs.length - offset, 0));
+			for (int i = offset; i < scoreDocs.length; ++i)
+			{
+				ids.add(toEntityId(entityType, getDocumentId(indexSearcher, scoreDocs[i])));
+			}
+			return ids;
+		});
+		return entityIds.stream();
+	}
+
+	@Override
+	public AggregateResult aggregate(EntityType entityType, AggregateQuery aggregateQuery)
+	{
+		Query query = queryGenerator.createQuery(aggregateQuery.getQuery(), entityType);
+		return luceneIndexes.search(getIndexName(entityType),
+				indexSearcher -> aggregator.aggregate(indexSearcher, query, aggregateQuery.getAttributeX(),
+						aggregateQuery.getAttributeY(), aggregateQuery.getAttributeDistinct()));
+	}
+
+	private void updateDocument(IndexWriter indexWriter, Entity entity)
+	{
+		try
+		{
+			indexWriter.updateDocument(createIdTerm(entity.getIdValue()), documentFactory.createDocument(entity));
+		}
+		catch (IOException e)
+		{
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static void addDocuments(IndexWriter indexWriter, List<Document> documents)
+	{
+		try
+		{
+			indexWriter.addDocuments(documents);
+		}
+		catch (IOException e)
+		{
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static void deleteDocuments(IndexWriter indexWriter, List<Object> entityIds)
+	{
+		try
+		{
+			indexWriter.deleteDocuments(entityIds.stream().map(LuceneService::createIdTerm).toArray(Term[]::new));
+		}
+		catch (IOException e)
+		{
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static String getDocumentId(IndexSearcher indexSearcher, ScoreDoc scoreDoc) throws IOException
+	{
+		return indexSearcher.doc(scoreDoc.doc, ID_FIELDS).get(FIELD_ID);
+	}
+
+	private static Term createIdTerm(Object entityId)
+	{
+		return new Term(FIELD_ID, DocumentFactory.toDocumentId(entityId));
+	}
+
+	private static String getIndexName(EntityType entityType)
+	{
+		return entityType.getId();
+	}
+
+	private static Object toEntityId(EntityType entityType, String documentId)
+	{
+		AttributeType attributeType = entityType.getIdAttribute().getDataType();
+		switch (attributeType)
+		{
+			case EMAIL:
+			case HYPERLINK:
+			case STRING:
+				return documentId;
+			case INT:
+				return Integer.parseInt(documentId);
+			case LONG:
+				return Long.parseLong(documentId);
+			default:
+				throw new IllegalAttributeTypeException(attributeType);
+		}
+	}
+}
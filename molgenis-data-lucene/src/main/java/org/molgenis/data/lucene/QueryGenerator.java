@@ -0,0 +1,858 @@
+package org.molgenis.data.lucene;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.DoublePoint;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queryparser.classic.ParseException;
+import org.apache.lucene.queryparser.classic.QueryParser;
+import org.apache.lucene.search.*;
+import org.apache.lucene.search.BooleanClause.Occur;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.QueryBuilder;
+import org.molgenis.data.Entity;
+import org.molgenis.data.MolgenisQueryException;
+import org.molgenis.data.QueryRule;
+import org.molgenis.data.UnknownAttributeException;
+import org.molgenis.data.meta.AttributeType;
+import org.molgenis.data.meta.IllegalAttributeTypeException;
+import org.molgenis.data.meta.model.Attribute;
+import org.molgenis.data.meta.model.EntityType;
+import org.molgenis.util.UnexpectedEnumException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.StreamSupport;
+
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+import static java.util.stream.Collectors.joining;
+import static java.util.stream.Collectors.toList;
+import static org.molgenis.data.QueryRule.Operator.LIKE;
+import static org.molgenis.data.lucene.FieldConstants.*;
+import static org.molgenis.data.support.EntityTypeUtils.isReferenceType;
+
+/**
+ * Generates Lucene queries from MOLGENIS queries with the same semantics as the queries generated for Elasticsearch:
+ * <ul>
+ * <li>LIKE matches values that contain all terms of the query value, the last term as prefix</li>
+ * <li>SEARCH matches values that contain any term of the query value, without attribute all attribute values are
+ * searched for the query value as phrase</li>
+ * <li>FUZZY_MATCH and FUZZY_MATCH_NGRAM parse the query value with the Lucene query syntax</li>
+ * </ul>
+ */
+class QueryGenerator
+{
+	private static final int PHRASE_SLOP = 10;
+
+	private final Analyzer analyzer;
+	private final QueryBuilder queryBuilder;
+
+	QueryGenerator(Analyzer analyzer)
+	{
+		this.analyzer = requireNonNull(analyzer);
+		this.queryBuilder = new QueryBuilder(analyzer);
+	}
+
+	Query createQuery(org.molgenis.data.Query<Entity> query, EntityType entityType)
+	{
+		List<QueryRule> queryRules = query.getRules();
+		if (queryRules.isEmpty())
+		{
+			return new MatchAllDocsQuery();
+		}
+		return createQuery(queryRules, entityType);
+	}
+
+	private Query createQuery(List<QueryRule> queryRules, EntityType entityType)
+	{
+		final int nrQueryRules = queryRules.size();
+		if (nrQueryRules == 1)
+		{
+			// simple query consisting of one query clause
+			return createQueryClause(queryRules.get(0), entityType);
+		}
+
+		// boolean query consisting of combination of query clauses
+		QueryRule.Operator occur = null;
+		List<BooleanClause> clauses = new ArrayList<>();
+
+		for (int i = 0; i < nrQueryRules; i += 2)
+		{
+			QueryRule queryRule = queryRules.get(i);
+
+			// determine whether this query is a 'not' query
+			if (queryRule.getOperator() == QueryRule.Operator.NOT)
+			{
+				occur = QueryRule.Operator.NOT;
+				queryRule = queryRules.get(i + 1);
+				i += 1;
+			}
+			else if (i + 1 < nrQueryRules)
+			{
+				QueryRule occurQueryRule = queryRules.get(i + 1);
+				QueryRule.Operator occurOperator = occurQueryRule.getOperator();
+				if (occurOperator == null) throw new MolgenisQueryException("Missing expected occur operator");
+
+				//noinspection EnumSwitchStatementWhichMissesCases
+				switch (occurOperator)
+				{
+					case AND:
+					case OR:
+						if (occur != null && occurOperator != occur)
+						{
+							throw new MolgenisQueryException("Mixing query operators not allowed, use nested queries");
+						}
+						occur = occurOperator;
+						break;
+					default:
+						throw new MolgenisQueryException(
+								"Expected query occur operator instead of [" + occurOperator + "]");
+				}
+			}
+
+			Query queryPart = createQueryClause(queryRule, entityType);
+
+			// add query part to query
+			//noinspection EnumSwitchStatementWhichMissesCases
+			switch (occur)
+			{
+				case AND:
+					clauses.add(new BooleanClause(queryPart, Occur.MUST));
+					break;
+				case OR:
+					clauses.add(new BooleanClause(queryPart, Occur.SHOULD));
+					break;
+				case NOT:
+					clauses.add(new BooleanClause(queryPart, Occur.MUST_NOT));
+					break;
+				default:
+					throw new MolgenisQueryException("Unknown occurence operator [" + occur + "]");
+			}
+		}
+		return createBooleanQuery(clauses);
+	}
+
+	/**
+	 * Creates a boolean query. Unlike Elasticsearch, Lucene doesn't match any document with a boolean query that only
+	 * consists of prohibited clauses.
+	 */
+	private static Query createBooleanQuery(List<BooleanClause> clauses)
+	{
+		BooleanQuery.Builder booleanQuery = new BooleanQuery.Builder();
+		clauses.forEach(booleanQuery::add);
+		if (clauses.stream().allMatch(BooleanClause::isProhibited))
+		{
+			booleanQuery.add(new MatchAllDocsQuery(), Occur.FILTER);
+		}
+		return booleanQuery.build();
+	}
+
+	private Query createQueryClause(QueryRule queryRule, EntityType entityType)
+	{
+		QueryRule.Operator queryOperator = queryRule.getOperator();
+		switch (queryOperator)
+		{
+			case DIS_MAX:
+				return createQueryClauseDisMax(queryRule, entityType);
+			case EQUALS:
+				return createQueryClauseEquals(queryRule, entityType);
+			case FUZZY_MATCH:
+			case FUZZY_MATCH_NGRAM:
+				return createQueryClauseFuzzyMatch(queryRule, entityType);
+			case GREATER:
+			case GREATER_EQUAL:
+			case LESS:
+			case LESS_EQUAL:
+				return createQueryClauseRangeOpen(queryRule, entityType);
+			case IN:
+				return createQueryClauseIn(queryRule, entityType);
+			case LIKE:
+				return createQueryClauseLike(queryRule, entityType);
+			case NESTED:
+				return createQueryClauseNested(queryRule, entityType);
+			case RANGE:
+				return createQueryClauseRangeClosed(queryRule, entityType);
+			case SEARCH:
+				return createQueryClauseSearch(queryRule, entityType);
+			case SHOULD:
+				return createQueryClauseShould(queryRule, entityType);
+			case AND:
+			case OR:
+			case NOT:
+			case PERMITTED:
+				throw new MolgenisQueryException(format("Unexpected query operator [%s]", queryOperator.toString()));
+			default:
+				throw new UnexpectedEnumException(queryOperator);
+		}
+	}
+
+	private Query createQueryClauseDisMax(QueryRule queryRule, EntityType entityType)
+	{
+		List<Query> disjuncts = queryRule.getNestedRules()
+										 .stream()
+										 .map(nestedQueryRule -> createQueryClause(nestedQueryRule, entityType))
+										 .collect(toList());
+		Query query = new DisjunctionMaxQuery(disjuncts, 0.0f);
+		if (queryRule.getValue() != null)
+		{
+			query = new BoostQuery(query, Float.parseFloat(queryRule.getValue().toString()));
+		}
+		return query;
+	}
+
+	private Query createQueryClauseEquals(QueryRule queryRule, EntityType entityType)
+	{
+		Query query;
+		if (queryRule.getValue() != null)
+		{
+			query = createQueryClauseEqualsValue(queryRule, entityType);
+		}
+		else
+		{
+			query = createQueryClauseEqualsNoValue(queryRule, entityType);
+		}
+		return new ConstantScoreQuery(query);
+	}
+
+	private Query createQueryClauseEqualsValue(QueryRule queryRule, EntityType entityType)
+	{
+		List<Attribute> attributePath = getAttributePath(queryRule.getField(), entityType);
+		Attribute attr = attributePath.get(attributePath.size() - 1);
+		validateAttributePath(attributePath);
+
+		String fieldName = getQueryFieldName(attributePath);
+		AttributeType attrType = attr.getDataType();
+		switch (attrType)
+		{
+			case BOOL:
+				return new TermQuery(new Term(fieldName, getBooleanQueryValue(queryRule.getValue())));
+			case DATE:
+			case DATE_TIME:
+			case INT:
+			case LONG:
+				return LongPoint.newExactQuery(fieldName, getLongQueryValue(attr, queryRule.getValue()));
+			case DECIMAL:
+				return DoublePoint.newExactQuery(fieldName, getDoubleQueryValue(queryRule.getValue()));
+			case EMAIL:
+			case ENUM:
+			case HTML:
+			case HYPERLINK:
+			case SCRIPT:
+			case STRING:
+			case TEXT:
+				return new TermQuery(
+						new Term(fieldName + FIELD_NOT_ANALYZED_POSTFIX, getStringQueryValue(queryRule.getValue())));
+			case CATEGORICAL:
+			case CATEGORICAL_MREF:
+			case XREF:
+			case MREF:
+			case FILE:
+			case ONE_TO_MANY:
+				return new TermQuery(new Term(fieldName, getStringQueryValue(queryRule.getValue())));
+			case COMPOUND:
+				throw new MolgenisQueryException(new IllegalAttributeTypeException(attrType));
+			default:
+				throw new UnexpectedEnumException(attrType);
+		}
+	}
+
+	private Query createQueryClauseEqualsNoValue(QueryRule queryRule, EntityType entityType)
+	{
+		List<Attribute> attributePath = getAttributePath(queryRule.getField(), entityType);
+		Attribute attr = attributePath.get(attributePath.size() - 1);
+		validateAttributePath(attributePath);
+
+		AttributeType attrType = attr.getDataType();
+		if (attrType == AttributeType.COMPOUND)
+		{
+			throw new MolgenisQueryException(new IllegalAttributeTypeException(attrType));
+		}
+		String fieldName = getQueryFieldName(attributePath);
+		return new BooleanQuery.Builder().add(new MatchAllDocsQuery(), Occur.FILTER)
+										 .add(new TermQuery(new Term(FIELD_EXISTS, fieldName)), Occur.MUST_NOT)
+										 .build();
+	}
+
+	private Query createQueryClauseFuzzyMatch(QueryRule queryRule, EntityType entityType)
+	{
+		String queryField = queryRule.getField();
+		Object queryValue = queryRule.getValue();
+		if (queryValue == null) throw new MolgenisQueryException("Query value cannot be null");
+
+		if (queryField == null)
+		{
+			return createMatchQuery(FIELD_ALL, queryValue);
+		}
+
+		Attribute attr = entityType.getAttribute(queryField);
+		if (attr == null)
+		{
+			throw new UnknownAttributeException(entityType, queryField);
+		}
+		AttributeType dataType = attr.getDataType();
+		switch (dataType)
+		{
+			case DATE:
+			case DATE_TIME:
+			case DECIMAL:
+			case EMAIL:
+			case ENUM:
+			case HTML:
+			case HYPERLINK:
+			case INT:
+			case LONG:
+			case SCRIPT:
+			case STRING:
+			case TEXT:
+				return parseQuery(attr.getName(), queryValue);
+			case MREF:
+			case XREF:
+			case CATEGORICAL:
+			case CATEGORICAL_MREF:
+			case ONE_TO_MANY:
+			case FILE:
+				return parseQuery(attr.getName() + ATTRIBUTE_SEPARATOR + attr.getRefEntity()
+																			 .getLabelAttribute()
+																			 .getName(), queryValue);
+			case BOOL:
+			case COMPOUND:
+				throw new MolgenisQueryException(
+						"Illegal data type [" + dataType + "] for operator [" + queryRule.getOperator() + "]");
+			default:
+				throw new UnexpectedEnumException(dataType);
+		}
+	}
+
+	private Query createQueryClauseIn(QueryRule queryRule, EntityType entityType)
+	{
+		List<Attribute> attributePath = getAttributePath(queryRule.getField(), entityType);
+		Attribute attr = attributePath.get(attributePath.size() - 1);
+		validateAttributePath(attributePath);
+
+		Object queryRuleValue = queryRule.getValue();
+		if (queryRuleValue == null)
+		{
+			throw new MolgenisQueryException("Query value cannot be null");
+		}
+		if (!(queryRuleValue instanceof Iterable<?>))
+		{
+			throw new MolgenisQueryException(
+					"Query value must be a Iterable instead of [" + queryRuleValue.getClass().getSimpleName() + "]");
+		}
+		List<?> queryValues = StreamSupport.stream(((Iterable<?>) queryRuleValue).spliterator(), false)
+										   .collect(toList());
+
+		Query query;
+		String fieldName = getQueryFieldName(attributePath);
+		AttributeType dataType = attr.getDataType();
+		switch (dataType)
+		{
+			case BOOL:
+				query = new TermInSetQuery(fieldName, queryValues.stream()
+																  .map(value -> new BytesRef(
+																		  getBooleanQueryValue(value)))
+																  .collect(toList()));
+				break;
+			case DATE:
+			case DATE_TIME:
+			case INT:
+			case LONG:
+				query = LongPoint.newSetQuery(fieldName,
+						queryValues.stream().map(value -> getLongQueryValue(attr, value)).collect(toList()));
+				break;
+			case DECIMAL:
+				query = DoublePoint.newSetQuery(fieldName,
+						queryValues.stream().map(QueryGenerator::getDoubleQueryValue).collect(toList()));
+				break;
+			case EMAIL:
+			case ENUM:
+			case HTML:
+			case HYPERLINK:
+			case SCRIPT:
+			case STRING:
+			case TEXT:
+				query = new TermInSetQuery(fieldName + FIELD_NOT_ANALYZED_POSTFIX, toBytesRefs(queryValues));
+				break;
+			case CATEGORICAL:
+			case CATEGORICAL_MREF:
+			case MREF:
+			case XREF:
+			case FILE:
+			case ONE_TO_MANY:
+				query = new TermInSetQuery(fieldName, toBytesRefs(queryValues));
+				break;
+			case COMPOUND:
+				throw new MolgenisQueryException(
+						"Illegal data type [" + dataType + "] for operator [" + QueryRule.Operator.IN + "]");
+			default:
+				throw new UnexpectedEnumException(dataType);
+		}
+		return new ConstantScoreQuery(query);
+	}
+
+	private Query createQueryClauseLike(QueryRule queryRule, EntityType entityType)
+	{
+		List<Attribute> attributePath = getAttributePath(queryRule.getField(), entityType);
+		Attribute attr = attributePath.get(attributePath.size() - 1);
+		validateAttributePath(attributePath);
+
+		String fieldName = getQueryFieldName(attributePath);
+		AttributeType attrType = attr.getDataType();
+		switch (attrType)
+		{
+			case EMAIL:
+			case ENUM:
+			case HYPERLINK:
+			case STRING:
+				return createPrefixMatchQuery(fieldName, getStringQueryValue(queryRule.getValue()));
+			case BOOL:
+			case COMPOUND:
+			case DATE:
+			case DATE_TIME:
+			case DECIMAL:
+			case INT:
+			case LONG:
+				throw new MolgenisQueryException(format("Illegal data type [%s] for operator [%s]", attrType, LIKE));
+			case CATEGORICAL:
+			case CATEGORICAL_MREF:
+			case FILE:
+			case HTML:
+			case MREF:
+			case ONE_TO_MANY:
+			case SCRIPT:
+			case TEXT:
+			case XREF:
+				throw new UnsupportedOperationException(
+						format("Unsupported data type [%s] for operator [%s]", attrType, LIKE));
+			default:
+				throw new UnexpectedEnumException(attrType);
+		}
+	}
+
+	private Query createQueryClauseNested(QueryRule queryRule, EntityType entityType)
+	{
+		List<QueryRule> nestedQueryRules = queryRule.getNestedRules();
+		if (nestedQueryRules == null || nestedQueryRules.isEmpty())
+		{
+			throw new MolgenisQueryException("Missing nested rules for nested query");
+		}
+		return createQuery(nestedQueryRules, entityType);
+	}
+
+	private Query createQueryClauseRangeClosed(QueryRule queryRule, EntityType entityType)
+	{
+		List<Attribute> attributePath = getAttributePath(queryRule.getField(), entityType);
+		Attribute attr = attributePath.get(attributePath.size() - 1);
+		validateNumericalQueryField(attr);
+		validateAttributePath(attributePath);
+		String fieldName = getQueryFieldName(attributePath);
+
+		Object queryValue = queryRule.getValue();
+		if (queryValue == null)
+		{
+			throw new MolgenisQueryException("Query value cannot be null");
+		}
+		if (!(queryValue instanceof Iterable<?>))
+		{
+			throw new MolgenisQueryException(
+					format("Query value must be a Iterable instead of [%s]", queryValue.getClass().getSimpleName()));
+		}
+		Iterator<?> queryValuesIterator = ((Iterable<?>) queryValue).iterator();
+		Object queryValueFrom = queryValuesIterator.next();
+		Object queryValueTo = queryValuesIterator.next();
+
+		Query query;
+		if (attr.getDataType() == AttributeType.DECIMAL)
+		{
+			query = DoublePoint.newRangeQuery(fieldName, getDoubleQueryValue(queryValueFrom),
+					getDoubleQueryValue(queryValueTo));
+		}
+		else
+		{
+			query = LongPoint.newRangeQuery(fieldName, getLongQueryValue(attr, queryValueFrom),
+					getLongQueryValue(attr, queryValueTo));
+		}
+		return new ConstantScoreQuery(query);
+	}
+
+	private Query createQueryClauseRangeOpen(QueryRule queryRule, EntityType entityType)
+	{
+		List<Attribute> attributePath = getAttributePath(queryRule.getField(), entityType);
+		Attribute attr = attributePath.get(attributePath.size() - 1);
+		validateNumericalQueryField(attr);
+		validateAttributePath(attributePath);
+		String fieldName = getQueryFieldName(attributePath);
+
+		Object queryValue = queryRule.getValue();
+		if (queryValue == null)
+		{
+			throw new MolgenisQueryException("Query value cannot be null");
+		}
+
+		Query query;
+		if (attr.getDataType() == AttributeType.DECIMAL)
+		{
+			double value = getDoubleQueryValue(queryValue);
+			double lowerValue = Double.NEGATIVE_INFINITY;
+			double upperValue = Double.POSITIVE_INFINITY;
+			QueryRule.Operator operator = queryRule.getOperator();
+			switch (operator)
+			{
+				case GREATER:
+					lowerValue = DoublePoint.nextUp(value);
+					break;
+				case GREATER_EQUAL:
+					lowerValue = value;
+					break;
+				case LESS:
+					upperValue = DoublePoint.nextDown(value);
+					break;
+				case LESS_EQUAL:
+					upperValue = value;
+					break;
+				default:
+					throw new MolgenisQueryException(format("Illegal query rule operator [%s]", operator.toString()));
+			}
+			query = DoublePoint.newRangeQuery(fieldName, lowerValue, upperValue);
+		}
+		else
+		{
+			long value = getLongQueryValue(attr, queryValue);
+			long lowerValue = Long.MIN_VALUE;
+			long upperValue = Long.MAX_VALUE;
+			QueryRule.Operator operator = queryRule.getOperator();
+			switch (operator)
+			{
+				case GREATER:
+					lowerValue = value == Long.MAX_VALUE ? value : value + 1;
+					break;
+				case GREATER_EQUAL:
+					lowerValue = value;
+					break;
+				case LESS:
+					upperValue = value == Long.MIN_VALUE ? value : value - 1;
+					break;
+				case LESS_EQUAL:
+					upperValue = value;
+					break;
+				default:
+					throw new MolgenisQueryException(format("Illegal query rule operator [%s]", operator.toString()));
+			}
+			query = LongPoint.newRangeQuery(fieldName, lowerValue, upperValue);
+		}
+		return new ConstantScoreQuery(query);
+	}
+
+	private Query createQueryClauseSearch(QueryRule queryRule, EntityType entityType)
+	{
+		if (queryRule.getValue() == null)
+		{
+			throw new MolgenisQueryException("Query value cannot be null");
+		}
+
+		if (queryRule.getField() == null)
+		{
+			return createPhraseQuery(queryRule.getValue());
+		}
+		else
+		{
+			return createQueryClauseSearchAttribute(queryRule, entityType);
+		}
+	}
+
+	private Query createQueryClauseSearchAttribute(QueryRule queryRule, EntityType entityType)
+	{
+		List<Attribute> attributePath = getAttributePath(queryRule.getField(), entityType);
+		Attribute attr = attributePath.get(attributePath.size() - 1);
+		validateAttributePath(attributePath);
+
+		String fieldName = getQueryFieldName(attributePath);
+		AttributeType dataType = attr.getDataType();
+		switch (dataType)
+		{
+			case EMAIL:
+			case ENUM:
+			case HTML:
+			case HYPERLINK:
+			case SCRIPT:
+			case STRING:
+			case TEXT:
+				return createMatchQuery(fieldName, queryRule.getValue());
+			case DATE:
+			case DATE_TIME:
+			case DECIMAL:
+			case INT:
+			case LONG:
+				// numeric fields are not analyzed, searching them is equivalent to an equals query
+				return createQueryClauseEqualsValue(queryRule, entityType);
+			case CATEGORICAL:
+			case CATEGORICAL_MREF:
+			case MREF:
+			case ONE_TO_MANY:
+			case XREF:
+			case FILE:
+				return createMatchQuery(fieldName + ATTRIBUTE_SEPARATOR + FIELD_ALL, queryRule.getValue());
+			case BOOL:
+				throw new MolgenisQueryException("Cannot execute search query on [" + dataType + "] attribute");
+			case COMPOUND:
+				throw new MolgenisQueryException(
+						"Illegal data type [" + dataType + "] for operator [" + QueryRule.Operator.SEARCH + "]");
+			default:
+				throw new UnexpectedEnumException(dataType);
+		}
+	}
+
+	private Query createQueryClauseShould(QueryRule queryRule, EntityType entityType)
+	{
+		List<BooleanClause> clauses = queryRule.getNestedRules()
+											   .stream()
+											   .map(subQuery -> new BooleanClause(
+													   createQueryClause(subQuery, entityType), Occur.SHOULD))
+											   .collect(toList());
+		return createBooleanQuery(clauses);
+	}
+
+	/**
+	 * Matches documents that contain any term of the analyzed query value.
+	 */
+	private Query createMatchQuery(String fieldName, Object queryValue)
+	{
+		Query query = queryBuilder.createBooleanQuery(fieldName, queryValue.toString());
+		return query != null ? query : new MatchNoDocsQuery();
+	}
+
+	/**
+	 * Matches documents that contain the terms of the analyzed query value near each other.
+	 */
+	private Query createPhraseQuery(Object queryValue)
+	{
+		Query query = queryBuilder.createPhraseQuery(FIELD_ALL, queryValue.toString(), PHRASE_SLOP);
+		return query != null ? query : new MatchNoDocsQuery();
+	}
+
+	/**
+	 * Matches documents that contain all terms of the analyzed query value, the last term as prefix.
+	 */
+	private Query createPrefixMatchQuery(String fieldName, String queryValue)
+	{
+		List<String> terms = analyze(fieldName, queryValue);
+		if (terms.isEmpty())
+		{
+			return new MatchNoDocsQuery();
+		}
+
+		BooleanQuery.Builder booleanQuery = new BooleanQuery.Builder();
+		int lastTermIndex = terms.size() - 1;
+		for (int i = 0; i < lastTermIndex; ++i)
+		{
+			booleanQuery.add(new TermQuery(new Term(fieldName, terms.get(i))), Occur.MUST);
+		}
+		booleanQuery.add(new PrefixQuery(new Term(fieldName, terms.get(lastTermIndex))), Occur.MUST);
+		return booleanQuery.build();
+	}
+
+	private Query parseQuery(String fieldName, Object queryValue)
+	{
+		try
+		{
+			return new QueryParser(fieldName, analyzer).parse(queryValue.toString());
+		}
+		catch (ParseException e)
+		{
+			throw new MolgenisQueryException(format("Invalid query value [%s]", queryValue), e);
+		}
+	}
+
+	private List<String> analyze(String fieldName, String value)
+	{
+		List<String> terms = new ArrayList<>();
+		try (TokenStream tokenStream = analyzer.tokenStream(fieldName, value))
+		{
+			CharTermAttribute charTermAttribute = tokenStream.addAttribute(CharTermAttribute.class);
+			tokenStream.reset();
+			while (tokenStream.incrementToken())
+			{
+				terms.add(charTermAttribute.toString());
+			}
+			tokenStream.end();
+		}
+		catch (IOException e)
+		{
+			throw new UncheckedIOException(e);
+		}
+		return terms;
+	}
+
+	private void validateNumericalQueryField(Attribute attr)
+	{
+		AttributeType dataType = attr.getDataType();
+
+		switch (dataType)
+		{
+			case DATE:
+			case DATE_TIME:
+			case DECIMAL:
+			case INT:
+			case LONG:
+				break;
+			case BOOL:
+			case CATEGORICAL:
+			case CATEGORICAL_MREF:
+			case COMPOUND:
+			case EMAIL:
+			case ENUM:
+			case FILE:
+			case HTML:
+			case HYPERLINK:
+			case MREF:
+			case ONE_TO_MANY:
+			case SCRIPT:
+			case STRING:
+			case TEXT:
+			case XREF:
+				throw new MolgenisQueryException("Range query not allowed for type [" + dataType + "]");
+			default:
+				throw new UnexpectedEnumException(dataType);
+		}
+	}
+
+	/**
+	 * Attributes of referenced entities are indexed up to depth 1, references of referenced entities are not indexed.
+	 */
+	private static void validateAttributePath(List<Attribute> attributePath)
+	{
+		if (attributePath.size() > 2 || (attributePath.size() == 2 && isReferenceType(attributePath.get(1))))
+		{
+			throw new UnsupportedOperationException("Can not filter on references deeper than 1.");
+		}
+	}
+
+	private static List<Attribute> getAttributePath(String queryRuleField, EntityType entityType)
+	{
+		String[] queryRuleFieldTokens = queryRuleField.split("\\" + ATTRIBUTE_SEPARATOR);
+		List<Attribute> attributePath = new ArrayList<>(queryRuleFieldTokens.length);
+		EntityType entityTypeAtCurrentDepth = entityType;
+		for (int depth = 0; depth < queryRuleFieldTokens.length; ++depth)
+		{
+			Attribute attribute = entityTypeAtCurrentDepth.getAttribute(queryRuleFieldTokens[depth]);
+			if (attribute == null)
+			{
+				throw new UnknownAttributeException(entityTypeAtCurrentDepth, queryRuleFieldTokens[depth]);
+			}
+			attributePath.add(attribute);
+
+			if (depth + 1 < queryRuleFieldTokens.length)
+			{
+				entityTypeAtCurrentDepth = attribute.getRefEntity();
+				if (entityTypeAtCurrentDepth == null)
+				{
+					throw new MolgenisQueryException(
+							format("Invalid query field [%s]: attribute [%s] does not refer to another entity",
+									queryRuleField, attribute.getName()));
+				}
+			}
+		}
+		return attributePath;
+	}
+
+	private static String getQueryFieldName(List<Attribute> attributePath)
+	{
+		return attributePath.stream().map(Attribute::getName).collect(joining(ATTRIBUTE_SEPARATOR));
+	}
+
+	private static List<BytesRef> toBytesRefs(List<?> queryValues)
+	{
+		return queryValues.stream().map(value -> new BytesRef(getStringQueryValue(value))).collect(toList());
+	}
+
+	private static String getStringQueryValue(Object queryRuleValue)
+	{
+		if (queryRuleValue == null)
+		{
+			throw new MolgenisQueryException("Query value cannot be null");
+		}
+		return queryRuleValue instanceof Entity ? DocumentFactory.toDocumentId(
+				((Entity) queryRuleValue).getIdValue()) : queryRuleValue.toString();
+	}
+
+	private static String getBooleanQueryValue(Object queryRuleValue)
+	{
+		return Boolean.toString(Boolean.parseBoolean(getStringQueryValue(queryRuleValue)));
+	}
+
+	private static double getDoubleQueryValue(Object queryRuleValue)
+	{
+		if (queryRuleValue instanceof Number)
+		{
+			return ((Number) queryRuleValue).doubleValue();
+		}
+		try
+		{
+			return Double.parseDouble(getStringQueryValue(queryRuleValue));
+		}
+		catch (NumberFormatException e)
+		{
+			throw new MolgenisQueryException(format("Invalid decimal query value [%s]", queryRuleValue), e);
+		}
+	}
+
+	private static long getLongQueryValue(Attribute attribute, Object queryRuleValue)
+	{
+		AttributeType attrType = attribute.getDataType();
+		switch (attrType)
+		{
+			case INT:
+			case LONG:
+				if (queryRuleValue instanceof Number)
+				{
+					return ((Number) queryRuleValue).longValue();
+				}
+				try
+				{
+					return Long.parseLong(getStringQueryValue(queryRuleValue));
+				}
+				catch (NumberFormatException e)
+				{
+					throw new MolgenisQueryException(format("Invalid number query value [%s]", queryRuleValue), e);
+				}
+			case DATE:
+				if (queryRuleValue instanceof LocalDate)
+				{
+					return DocumentFactory.toEpochMilli((LocalDate) queryRuleValue);
+				}
+				else if (queryRuleValue instanceof String)
+				{
+					return DocumentFactory.toEpochMilli(LocalDate.parse((String) queryRuleValue));
+				}
+				else
+				{
+					throw new MolgenisQueryException(format("Query value must be of type LocalDate instead of [%s]",
+							queryRuleValue.getClass().getSimpleName()));
+				}
+			case DATE_TIME:
+				if (queryRuleValue instanceof Instant)
+				{
+					return ((Instant) queryRuleValue).toEpochMilli();
+				}
+				else if (queryRuleValue instanceof String)
+				{
+					return Instant.parse((String) queryRuleValue).toEpochMilli();
+				}
+				else
+				{
+					throw new MolgenisQueryException(format("Query value must be of type Instant instead of [%s]",
+							queryRuleValue.getClass().getSimpleName()));
+				}
+			default:
+				throw new MolgenisQueryException(new IllegalAttributeTypeException(attrType));
+		}
+	}
+}
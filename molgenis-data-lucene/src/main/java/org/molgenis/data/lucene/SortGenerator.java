@@ -0,0 +1,109 @@
+package org.molgenis.data.lucene;
+
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.SortedNumericSortField;
+import org.apache.lucene.search.SortedSetSortField;
+import org.molgenis.data.UnknownAttributeException;
+import org.molgenis.data.meta.AttributeType;
+import org.molgenis.data.meta.model.Attribute;
+import org.molgenis.data.meta.model.EntityType;
+import org.molgenis.util.UnexpectedEnumException;
+
+import static java.util.stream.StreamSupport.stream;
+import static org.molgenis.data.lucene.FieldConstants.ATTRIBUTE_SEPARATOR;
+import static org.molgenis.data.lucene.FieldConstants.FIELD_NOT_ANALYZED_POSTFIX;
+
+/**
+ * Generates Lucene sorts from MOLGENIS sorts. Documents without value are sorted last regardless of the sort
+ * direction.
+ */
+class SortGenerator
+{
+	Sort generateSort(org.molgenis.data.Sort sort, EntityType entityType)
+	{
+		SortField[] sortFields = stream(sort.spliterator(), false).map(order -> toSortField(order, entityType))
+																  .toArray(SortField[]::new);
+		return new Sort(sortFields);
+	}
+
+	private SortField toSortField(org.molgenis.data.Sort.Order order, EntityType entityType)
+	{
+		String attributeName = order.getAttr();
+		if (attributeName == null)
+		{
+			throw new IllegalArgumentException("Sort property is null");
+		}
+		Attribute sortAttribute = entityType.getAttribute(attributeName);
+		if (sortAttribute == null)
+		{
+			throw new UnknownAttributeException(entityType, attributeName);
+		}
+		boolean reverse = isReverse(order.getDirection());
+		return createSortField(sortAttribute, sortAttribute.getName(), reverse);
+	}
+
+	private SortField createSortField(Attribute attr, String fieldName, boolean reverse)
+	{
+		SortField sortField;
+		AttributeType dataType = attr.getDataType();
+		switch (dataType)
+		{
+			case BOOL:
+				sortField = new SortedSetSortField(fieldName, reverse);
+				sortField.setMissingValue(reverse ? SortField.STRING_FIRST : SortField.STRING_LAST);
+				break;
+			case DATE:
+			case DATE_TIME:
+			case INT:
+			case LONG:
+				sortField = new SortedNumericSortField(fieldName, SortField.Type.LONG, reverse);
+				sortField.setMissingValue(reverse ? Long.MIN_VALUE : Long.MAX_VALUE);
+				break;
+			case DECIMAL:
+				sortField = new SortedNumericSortField(fieldName, SortField.Type.DOUBLE, reverse);
+				sortField.setMissingValue(reverse ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY);
+				break;
+			case EMAIL:
+			case ENUM:
+			case HTML:
+			case HYPERLINK:
+			case SCRIPT:
+			case STRING:
+			case TEXT:
+				// use not analyzed field for sorting
+				sortField = new SortedSetSortField(fieldName + FIELD_NOT_ANALYZED_POSTFIX, reverse);
+				sortField.setMissingValue(reverse ? SortField.STRING_FIRST : SortField.STRING_LAST);
+				break;
+			case CATEGORICAL:
+			case CATEGORICAL_MREF:
+			case FILE:
+			case MREF:
+			case ONE_TO_MANY:
+			case XREF:
+				// sort by label of referenced entity
+				Attribute refLabelAttr = attr.getRefEntity().getLabelAttribute();
+				sortField = createSortField(refLabelAttr,
+						fieldName + ATTRIBUTE_SEPARATOR + refLabelAttr.getName(), reverse);
+				break;
+			case COMPOUND:
+				throw new UnsupportedOperationException();
+			default:
+				throw new UnexpectedEnumException(dataType);
+		}
+		return sortField;
+	}
+
+	private static boolean isReverse(org.molgenis.data.Sort.Direction direction)
+	{
+		switch (direction)
+		{
+			case ASC:
+				return false;
+			case DESC:
+				return true;
+			default:
+				throw new UnexpectedEnumException(direction);
+		}
+	}
+}
@@ -0,0 +1,242 @@
+package org.molgenis.data.lucene;
+
+import org.apache.lucene.analysis.CharArraySet;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.SortedNumericDocValuesField;
+import org.apache.lucene.document.SortedSetDocValuesField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.RAMDirectory;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.IOUtils;
+import org.apache.lucene.util.NumericUtils;
+import org.molgenis.data.DataService;
+import org.molgenis.data.Entity;
+import org.molgenis.data.aggregation.AggregateResult;
+import org.molgenis.data.meta.AttributeType;
+import org.molgenis.data.meta.model.Attribute;
+import org.molgenis.data.meta.model.EntityType;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.stream.Stream;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.molgenis.data.meta.AttributeType.*;
+import static org.testng.Assert.assertEquals;
+
+public class AggregatorTest
+{
+	private DataService dataService;
+	private Aggregator aggregator;
+	private Directory directory;
+	private DirectoryReader directoryReader;
+	private IndexSearcher indexSearcher;
+	private EntityType refEntityType;
+
+	@BeforeMethod
+	public void setUpBeforeMethod() throws IOException
+	{
+		dataService = mock(DataService.class);
+		aggregator = new Aggregator(dataService);
+
+		refEntityType = mock(EntityType.class);
+		when(refEntityType.getId()).thenReturn("ref");
+		Attribute refIdAttr = createAttribute("id", STRING, false);
+		when(refEntityType.getIdAttribute()).thenReturn(refIdAttr);
+
+		directory = new RAMDirectory();
+		try (IndexWriter indexWriter = new IndexWriter(directory,
+				new IndexWriterConfig(new StandardAnalyzer(CharArraySet.EMPTY_SET))))
+		{
+			indexWriter.addDocument(
+					createDocument(true, "b", 1L, 1.5, LocalDate.parse("2017-01-01"), Instant.EPOCH, "ref0"));
+			indexWriter.addDocument(
+					createDocument(false, "a", 2L, 2.5, LocalDate.parse("2017-01-02"), Instant.EPOCH, "ref1"));
+			indexWriter.addDocument(
+					createDocument(true, "a", 2L, 2.5, LocalDate.parse("2017-01-02"), Instant.EPOCH, "ref0"));
+			indexWriter.addDocument(new Document());
+		}
+		directoryReader = DirectoryReader.open(directory);
+		indexSearcher = new IndexSearcher(directoryReader);
+	}
+
+	@AfterMethod
+	public void tearDownAfterMethod() throws IOException
+	{
+		IOUtils.close(directoryReader, directory);
+	}
+
+	@Test
+	public void testAggregateBool() throws IOException
+	{
+		AggregateResult aggregateResult = aggregate(createAttribute("bool", BOOL, false), null, null);
+		assertEquals(aggregateResult.getxLabels(), asList(false, true));
+		assertEquals(aggregateResult.getyLabels(), emptyList());
+		assertEquals(aggregateResult.getMatrix(), asList(singletonList(1L), singletonList(2L)));
+	}
+
+	@Test
+	public void testAggregateString() throws IOException
+	{
+		AggregateResult aggregateResult = aggregate(createAttribute("string", STRING, false), null, null);
+		assertEquals(aggregateResult.getxLabels(), asList("a", "b"));
+		assertEquals(aggregateResult.getMatrix(), asList(singletonList(2L), singletonList(1L)));
+	}
+
+	@Test
+	public void testAggregateNillable() throws IOException
+	{
+		AggregateResult aggregateResult = aggregate(createAttribute("string", STRING, true), null, null);
+		assertEquals(aggregateResult.getxLabels(), asList("a", "b", null));
+		assertEquals(aggregateResult.getMatrix(), asList(singletonList(2L), singletonList(1L), singletonList(1L)));
+	}
+
+	@Test
+	public void testAggregateInt() throws IOException
+	{
+		AggregateResult aggregateResult = aggregate(createAttribute("int", INT, false), null, null);
+		assertEquals(aggregateResult.getxLabels(), asList(1L, 2L));
+		assertEquals(aggregateResult.getMatrix(), asList(singletonList(1L), singletonList(2L)));
+	}
+
+	@Test
+	public void testAggregateDecimal() throws IOException
+	{
+		AggregateResult aggregateResult = aggregate(createAttribute("decimal", DECIMAL, false), null, null);
+		assertEquals(aggregateResult.getxLabels(), asList(1.5, 2.5));
+		assertEquals(aggregateResult.getMatrix(), asList(singletonList(1L), singletonList(2L)));
+	}
+
+	@Test
+	public void testAggregateDate() throws IOException
+	{
+		AggregateResult aggregateResult = aggregate(createAttribute("date", DATE, false), null, null);
+		assertEquals(aggregateResult.getxLabels(),
+				asList(LocalDate.parse("2017-01-01"), LocalDate.parse("2017-01-02")));
+		assertEquals(aggregateResult.getMatrix(), asList(singletonList(1L), singletonList(2L)));
+	}
+
+	@Test
+	public void testAggregateDateTime() throws IOException
+	{
+		AggregateResult aggregateResult = aggregate(createAttribute("dateTime", DATE_TIME, false), null, null);
+		assertEquals(aggregateResult.getxLabels(), singletonList(Instant.EPOCH));
+		assertEquals(aggregateResult.getMatrix(), singletonList(singletonList(3L)));
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void testAggregateReference() throws IOException
+	{
+		Attribute xrefAttr = createAttribute("xref", XREF, false);
+		when(xrefAttr.getRefEntity()).thenReturn(refEntityType);
+		Entity refEntity0 = createRefEntity("ref0");
+		Entity refEntity1 = createRefEntity("ref1");
+		when(dataService.findAll(eq("ref"), any(Stream.class))).thenReturn(Stream.of(refEntity0, refEntity1));
+
+		AggregateResult aggregateResult = aggregate(xrefAttr, null, null);
+		assertEquals(aggregateResult.getxLabels(), asList(refEntity0, refEntity1));
+		assertEquals(aggregateResult.getMatrix(), asList(singletonList(2L), singletonList(1L)));
+	}
+
+	@Test
+	public void testAggregateTwoDimensional() throws IOException
+	{
+		AggregateResult aggregateResult = aggregate(createAttribute("string", STRING, false),
+				createAttribute("bool", BOOL, false), null);
+		assertEquals(aggregateResult.getxLabels(), asList("a", "b"));
+		assertEquals(aggregateResult.getyLabels(), asList(false, true));
+		assertEquals(aggregateResult.getMatrix(), asList(asList(1L, 1L), asList(0L, 1L)));
+	}
+
+	@Test
+	public void testAggregateDistinct() throws IOException
+	{
+		AggregateResult aggregateResult = aggregate(createAttribute("bool", BOOL, false), null,
+				createAttribute("string", STRING, false));
+		assertEquals(aggregateResult.getxLabels(), asList(false, true));
+		assertEquals(aggregateResult.getMatrix(), asList(singletonList(1L), singletonList(2L)));
+	}
+
+	@Test(expectedExceptions = IllegalArgumentException.class)
+	public void testAggregateNoAttribute() throws IOException
+	{
+		aggregate(null, null, null);
+	}
+
+	@Test(expectedExceptions = IllegalArgumentException.class)
+	public void testAggregateNotAggregatable() throws IOException
+	{
+		Attribute attr = createAttribute("string", STRING, false);
+		when(attr.isAggregatable()).thenReturn(false);
+		aggregate(attr, null, null);
+	}
+
+	@Test(expectedExceptions = IllegalArgumentException.class)
+	public void testAggregateDistinctNillable() throws IOException
+	{
+		aggregate(createAttribute("bool", BOOL, false), null, createAttribute("string", STRING, true));
+	}
+
+	@Test(expectedExceptions = IllegalArgumentException.class)
+	public void testAggregateNillableReference() throws IOException
+	{
+		aggregate(createAttribute("xref", XREF, true), null, null);
+	}
+
+	private AggregateResult aggregate(Attribute aggAttr1, Attribute aggAttr2, Attribute aggAttrDistinct)
+			throws IOException
+	{
+		return aggregator.aggregate(indexSearcher, new MatchAllDocsQuery(), aggAttr1, aggAttr2, aggAttrDistinct);
+	}
+
+	/**
+	 * Creates a document with the doc values fields of {@link DocumentFactory}
+	 */
+	private static Document createDocument(boolean boolValue, String stringValue, long intValue,
+			double decimalValue, LocalDate dateValue, Instant dateTimeValue, String xrefValue)
+	{
+		Document document = new Document();
+		document.add(new SortedSetDocValuesField("bool", new BytesRef(Boolean.toString(boolValue))));
+		document.add(new SortedSetDocValuesField("string.raw", new BytesRef(stringValue)));
+		document.add(new SortedNumericDocValuesField("int", intValue));
+		document.add(new SortedNumericDocValuesField("decimal", NumericUtils.doubleToSortableLong(decimalValue)));
+		document.add(new SortedNumericDocValuesField("date", DocumentFactory.toEpochMilli(dateValue)));
+		document.add(new SortedNumericDocValuesField("dateTime", dateTimeValue.toEpochMilli()));
+		document.add(new SortedSetDocValuesField("xref", new BytesRef(xrefValue)));
+		return document;
+	}
+
+	private static Entity createRefEntity(String id)
+	{
+		Entity entity = mock(Entity.class);
+		when(entity.getIdValue()).thenReturn(id);
+		return entity;
+	}
+
+	private static Attribute createAttribute(String name, AttributeType type, boolean nillable)
+	{
+		Attribute attribute = mock(Attribute.class);
+		when(attribute.getName()).thenReturn(name);
+		when(attribute.getDataType()).thenReturn(type);
+		when(attribute.isNillable()).thenReturn(nillable);
+		when(attribute.isAggregatable()).thenReturn(true);
+		return attribute;
+	}
+}
@@ -0,0 +1,189 @@
+package org.molgenis.data.lucene;
+
+import org.apache.lucene.analysis.CharArraySet;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field.Store;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.MMapDirectory;
+import org.apache.lucene.util.IOUtils;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.testng.Assert.*;
+
+public class LuceneIndexesTest
+{
+	private static final String INDEX_NAME = "test_Person";
+
+	private Path indexRoot;
+	private StandardAnalyzer analyzer;
+	private LuceneIndexes luceneIndexes;
+
+	@BeforeMethod
+	public void setUpBeforeMethod() throws IOException
+	{
+		indexRoot = Files.createTempDirectory("index");
+		analyzer = new StandardAnalyzer(CharArraySet.EMPTY_SET);
+		luceneIndexes = new LuceneIndexes(indexRoot, analyzer);
+		luceneIndexes.createIndex(INDEX_NAME);
+		luceneIndexes.write(INDEX_NAME, indexWriter ->
+		{
+			indexWriter.addDocument(createDocument("0"));
+			indexWriter.addDocument(createDocument("1"));
+		});
+		luceneIndexes.refreshIndexes();
+	}
+
+	@AfterMethod
+	public void tearDownAfterMethod() throws IOException
+	{
+		luceneIndexes.close();
+		IOUtils.rm(indexRoot);
+	}
+
+	@Test
+	public void testRestart()
+	{
+		restart();
+		assertEquals(count(), 2);
+	}
+
+	@Test
+	public void testRestartAfterRebuild()
+	{
+		luceneIndexes.rebuildIndex(INDEX_NAME, indexWriter -> indexWriter.addDocument(createDocument("2")));
+		restart();
+
+		assertEquals(count(), 1);
+		assertFalse(Files.exists(getGenerationDirectory(0)));
+		assertTrue(Files.exists(getGenerationDirectory(1)));
+	}
+
+	@Test
+	public void testRestartAfterInterruptedRebuild() throws IOException
+	{
+		luceneIndexes.close();
+
+		// a rebuild that crashed leaves a partially written next generation behind
+		try (Directory directory = new MMapDirectory(getGenerationDirectory(1));
+				IndexWriter indexWriter = new IndexWriter(directory, new IndexWriterConfig(analyzer)))
+		{
+			indexWriter.addDocument(createDocument("2"));
+			indexWriter.commit();
+		}
+
+		restart();
+
+		assertEquals(count(), 2);
+		assertTrue(Files.exists(getGenerationDirectory(0)));
+		assertFalse(Files.exists(getGenerationDirectory(1)));
+	}
+
+	@Test
+	public void testRebuildAfterInterruptedRebuild() throws IOException
+	{
+		luceneIndexes.close();
+		Files.createDirectories(getGenerationDirectory(1));
+		restart();
+
+		luceneIndexes.rebuildIndex(INDEX_NAME, indexWriter -> indexWriter.addDocument(createDocument("2")));
+		restart();
+
+		assertEquals(count(), 1);
+	}
+
+	@Test
+	public void testCreateIndexAfterInterruptedCreate() throws IOException
+	{
+		luceneIndexes.deleteIndex(INDEX_NAME);
+		Files.createDirectories(getGenerationDirectory(0));
+		restart();
+
+		assertFalse(luceneIndexes.hasIndex(INDEX_NAME));
+		luceneIndexes.createIndex(INDEX_NAME);
+		assertEquals(count(), 0);
+	}
+
+	@Test
+	public void testRebuildWhileWriting() throws Exception
+	{
+		CountDownLatch writeStarted = new CountDownLatch(1);
+		ExecutorService executorService = Executors.newSingleThreadExecutor();
+		try
+		{
+			Future<?> rebuild = executorService.submit(() ->
+			{
+				writeStarted.await();
+				luceneIndexes.rebuildIndex(INDEX_NAME, indexWriter -> indexWriter.addDocument(createDocument("2")));
+				return null;
+			});
+			luceneIndexes.write(INDEX_NAME, indexWriter ->
+			{
+				writeStarted.countDown();
+				assertNotDone(rebuild);
+				indexWriter.addDocument(createDocument("3"));
+			});
+			rebuild.get(10, SECONDS);
+		}
+		finally
+		{
+			executorService.shutdownNow();
+		}
+
+		assertEquals(count(), 1);
+		assertFalse(Files.exists(getGenerationDirectory(0)));
+	}
+
+	private static void assertNotDone(Future<?> future)
+	{
+		try
+		{
+			// gives the future the time to complete if nothing blocks it
+			Thread.sleep(200);
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
+		}
+		assertFalse(future.isDone());
+	}
+
+	private void restart()
+	{
+		luceneIndexes.close();
+		luceneIndexes = new LuceneIndexes(indexRoot, analyzer);
+	}
+
+	private int count()
+	{
+		return luceneIndexes.search(INDEX_NAME, indexSearcher -> indexSearcher.count(new MatchAllDocsQuery()));
+	}
+
+	private Path getGenerationDirectory(long generation)
+	{
+		return indexRoot.resolve(INDEX_NAME).resolve(Long.toString(generation));
+	}
+
+	private static Document createDocument(String id)
+	{
+		Document document = new Document();
+		document.add(new StringField("_id", id, Store.YES));
+		return document;
+	}
+}
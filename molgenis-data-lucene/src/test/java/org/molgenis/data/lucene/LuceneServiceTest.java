@@ -0,0 +1,227 @@
+package org.molgenis.data.lucene;
+
+import org.apache.lucene.analysis.CharArraySet;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.util.IOUtils;
+import org.molgenis.data.DataService;
+import org.molgenis.data.Entity;
+import org.molgenis.data.Fetch;
+import org.molgenis.data.Query;
+import org.molgenis.data.Repository;
+import org.molgenis.data.Sort;
+import org.molgenis.data.aggregation.AggregateQuery;
+import org.molgenis.data.aggregation.AggregateResult;
+import org.molgenis.data.index.exception.IndexAlreadyExistsException;
+import org.molgenis.data.meta.model.Attribute;
+import org.molgenis.data.meta.model.EntityType;
+import org.molgenis.data.support.AggregateQueryImpl;
+import org.molgenis.data.support.QueryImpl;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static java.util.stream.Collectors.toList;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+import static org.molgenis.data.meta.AttributeType.INT;
+import static org.molgenis.data.meta.AttributeType.STRING;
+import static org.testng.Assert.*;
+
+public class LuceneServiceTest
+{
+	private Path indexRoot;
+	private LuceneIndexes luceneIndexes;
+	private LuceneService luceneService;
+	private EntityType entityType;
+
+	@BeforeMethod
+	public void setUpBeforeMethod() throws IOException
+	{
+		indexRoot = Files.createTempDirectory("index");
+		StandardAnalyzer analyzer = new StandardAnalyzer(CharArraySet.EMPTY_SET);
+		luceneIndexes = new LuceneIndexes(indexRoot, analyzer);
+		luceneService = new LuceneService(luceneIndexes, new DocumentFactory(), new QueryGenerator(analyzer),
+				new SortGenerator(), new Aggregator(mock(DataService.class)));
+
+		Attribute idAttr = createAttribute("id", STRING, false);
+		Attribute nameAttr = createAttribute("name", STRING, true);
+		Attribute ageAttr = createAttribute("age", INT, true);
+		entityType = mock(EntityType.class);
+		when(entityType.getId()).thenReturn("test_Person");
+		when(entityType.getIdAttribute()).thenReturn(idAttr);
+		when(entityType.getIndexingDepth()).thenReturn(1);
+		when(entityType.getAtomicAttributes()).thenReturn(asList(idAttr, nameAttr, ageAttr));
+		when(entityType.getAttribute("id")).thenReturn(idAttr);
+		when(entityType.getAttribute("name")).thenReturn(nameAttr);
+		when(entityType.getAttribute("age")).thenReturn(ageAttr);
+
+		luceneService.createIndex(entityType);
+		luceneService.index(entityType,
+				Stream.of(createEntity("0", "John Doe", 42), createEntity("1", "Jane Doe", 37),
+						createEntity("2", "Jack Smith", null)));
+		luceneService.refreshIndex();
+	}
+
+	@AfterMethod
+	public void tearDownAfterMethod() throws IOException
+	{
+		luceneIndexes.close();
+		IOUtils.rm(indexRoot);
+	}
+
+	@Test
+	public void testHasIndex()
+	{
+		assertTrue(luceneService.hasIndex(entityType));
+	}
+
+	@Test(expectedExceptions = IndexAlreadyExistsException.class)
+	public void testCreateIndexAlreadyExists()
+	{
+		luceneService.createIndex(entityType);
+	}
+
+	@Test
+	public void testDeleteIndex()
+	{
+		luceneService.deleteIndex(entityType);
+		assertFalse(luceneService.hasIndex(entityType));
+	}
+
+	@Test
+	public void testCount()
+	{
+		assertEquals(luceneService.count(entityType), 3L);
+	}
+
+	@Test
+	public void testCountQuery()
+	{
+		assertEquals(luceneService.count(entityType, new QueryImpl<>().search("doe")), 2L);
+	}
+
+	@Test
+	public void testSearchEquals()
+	{
+		assertEquals(search(new QueryImpl<>().eq("name", "Jane Doe")), singletonList("1"));
+	}
+
+	@Test
+	public void testSearchEqualsNull()
+	{
+		assertEquals(search(new QueryImpl<>().eq("age", null)), singletonList("2"));
+	}
+
+	@Test
+	public void testSearchLike()
+	{
+		assertEquals(search(new QueryImpl<>().like("name", "ja").sort(new Sort("name"))), asList("2", "1"));
+	}
+
+	@Test
+	public void testSearchRangeSortDescending()
+	{
+		assertEquals(search(new QueryImpl<>().ge("age", 30).sort(new Sort("age", Sort.Direction.DESC))),
+				asList("0", "1"));
+	}
+
+	@Test
+	public void testSearchSortMissingLast()
+	{
+		assertEquals(search(new QueryImpl<>().sort(new Sort("age"))), asList("1", "0", "2"));
+	}
+
+	@Test
+	public void testSearchPaged()
+	{
+		assertEquals(search(new QueryImpl<>().sort(new Sort("id")).offset(1).pageSize(1)), singletonList("1"));
+	}
+
+	@Test
+	public void testSearchOne()
+	{
+		assertEquals(luceneService.searchOne(entityType, new QueryImpl<>().eq("age", 42)), "0");
+	}
+
+	@Test
+	public void testIndexUpdatesDocument()
+	{
+		luceneService.index(entityType, createEntity("0", "John Smith", 43));
+		luceneService.refreshIndex();
+		assertEquals(luceneService.count(entityType), 3L);
+		assertEquals(search(new QueryImpl<>().search("name", "smith").sort(new Sort("id"))), asList("0", "2"));
+	}
+
+	@Test
+	public void testDeleteAll()
+	{
+		luceneService.deleteAll(entityType, Stream.of("0", "2"));
+		luceneService.refreshIndex();
+		assertEquals(search(new QueryImpl<>()), singletonList("1"));
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void testRebuildIndex()
+	{
+		Repository<Entity> repository = mock(Repository.class);
+		when(repository.getEntityType()).thenReturn(entityType);
+		doAnswer(invocation ->
+		{
+			Consumer<List<Entity>> consumer = invocation.getArgument(1);
+			consumer.accept(singletonList(createEntity("3", "Jill Smith", 25)));
+			return null;
+		}).when(repository).forEachBatched(any(Fetch.class), any(Consumer.class), anyInt());
+
+		assertEquals(luceneService.rebuildIndex(repository), 1L);
+		luceneService.refreshIndex();
+		assertEquals(search(new QueryImpl<>()), singletonList("3"));
+	}
+
+	@Test
+	public void testAggregate()
+	{
+		AggregateQuery aggregateQuery = new AggregateQueryImpl().attrX(entityType.getAttribute("age"))
+																 .query(new QueryImpl<>());
+		AggregateResult aggregateResult = luceneService.aggregate(entityType, aggregateQuery);
+		assertEquals(aggregateResult.getxLabels(), asList(37L, 42L, null));
+		assertEquals(aggregateResult.getMatrix(), asList(singletonList(1L), singletonList(1L), singletonList(1L)));
+	}
+
+	private List<Object> search(Query<Entity> query)
+	{
+		return luceneService.search(entityType, query).collect(toList());
+	}
+
+	private Entity createEntity(String id, String name, Integer age)
+	{
+		Entity entity = mock(Entity.class);
+		when(entity.getEntityType()).thenReturn(entityType);
+		when(entity.getIdValue()).thenReturn(id);
+		when(entity.getString("id")).thenReturn(id);
+		when(entity.getString("name")).thenReturn(name);
+		when(entity.getInt("age")).thenReturn(age);
+		return entity;
+	}
+
+	private static Attribute createAttribute(String name, org.molgenis.data.meta.AttributeType type,
+			boolean nillable)
+	{
+		Attribute attribute = mock(Attribute.class);
+		when(attribute.getName()).thenReturn(name);
+		when(attribute.getDataType()).thenReturn(type);
+		when(attribute.isNillable()).thenReturn(nillable);
+		when(attribute.isAggregatable()).thenReturn(true);
+		return attribute;
+	}
+}
@@ -0,0 +1,772 @@
+package org.molgenis.data.lucene;
+
+import org.apache.lucene.analysis.CharArraySet;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.DoublePoint;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.*;
+import org.apache.lucene.search.BooleanClause.Occur;
+import org.apache.lucene.util.BytesRef;
+import org.molgenis.data.Entity;
+import org.molgenis.data.MolgenisQueryException;
+import org.molgenis.data.QueryRule;
+import org.molgenis.data.UnknownAttributeException;
+import org.molgenis.data.meta.AttributeType;
+import org.molgenis.data.meta.model.Attribute;
+import org.molgenis.data.meta.model.EntityType;
+import org.molgenis.data.support.QueryImpl;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.molgenis.data.QueryRule.Operator.*;
+import static org.molgenis.data.meta.AttributeType.*;
+import static org.testng.Assert.assertEquals;
+
+public class QueryGeneratorTest
+{
+	private static final String idAttrName = "xid";
+	private static final String boolAttrName = "xbool";
+	private static final String categoricalAttrName = "xcategorical";
+	private static final String compoundAttrName = "xcompound";
+	private static final String dateAttrName = "xdate";
+	private static final String dateTimeAttrName = "xdatetime";
+	private static final String decimalAttrName = "xdecimal";
+	private static final String emailAttrName = "xemail";
+	private static final String enumAttrName = "xenum";
+	private static final String htmlAttrName = "xhtml";
+	private static final String hyperlinkAttrName = "xhyperlink";
+	private static final String intAttrName = "xint";
+	private static final String longAttrName = "xlong";
+	private static final String mrefAttrName = "xmref";
+	private static final String scriptAttrName = "xscript";
+	private static final String stringAttrName = "xstring";
+	private static final String textAttrName = "xtext";
+	private static final String xrefAttrName = "xxref";
+	private static final String refStringAttrName = "ref_xstring";
+	private static final String refXrefAttrName = "ref_xxref";
+
+	private StandardAnalyzer analyzer;
+	private EntityType entityType;
+	private QueryGenerator queryGenerator;
+
+	@BeforeMethod
+	public void setUpBeforeMethod()
+	{
+		EntityType refEntityType = mock(EntityType.class);
+		when(refEntityType.getId()).thenReturn("ref_entity");
+		Attribute refIdAttr = addAttribute(refEntityType, idAttrName, STRING);
+		when(refEntityType.getIdAttribute()).thenReturn(refIdAttr);
+		Attribute refStringAttr = addAttribute(refEntityType, refStringAttrName, STRING);
+		when(refEntityType.getLabelAttribute()).thenReturn(refStringAttr);
+		Attribute refXrefAttr = addAttribute(refEntityType, refXrefAttrName, XREF);
+		when(refXrefAttr.getRefEntity()).thenReturn(refEntityType);
+
+		entityType = mock(EntityType.class);
+		when(entityType.getId()).thenReturn("entity");
+		addAttribute(entityType, idAttrName, STRING);
+		for (String attrName : asList(boolAttrName, compoundAttrName, dateAttrName, dateTimeAttrName,
+				decimalAttrName, emailAttrName, enumAttrName, htmlAttrName, hyperlinkAttrName, intAttrName,
+				longAttrName, scriptAttrName, stringAttrName, textAttrName))
+		{
+			addAttribute(entityType, attrName, getAttributeType(attrName));
+		}
+		for (String attrName : asList(categoricalAttrName, mrefAttrName, xrefAttrName))
+		{
+			Attribute attr = addAttribute(entityType, attrName, getAttributeType(attrName));
+			when(attr.getRefEntity()).thenReturn(refEntityType);
+		}
+
+		analyzer = new StandardAnalyzer(CharArraySet.EMPTY_SET);
+		queryGenerator = new QueryGenerator(analyzer);
+	}
+
+	@AfterMethod
+	public void tearDownAfterMethod()
+	{
+		analyzer.close();
+	}
+
+	@Test
+	public void testCreateQueryNoRules()
+	{
+		assertEquals(queryGenerator.createQuery(new QueryImpl<>(), entityType), new MatchAllDocsQuery());
+	}
+
+	@Test(expectedExceptions = UnknownAttributeException.class)
+	public void testCreateQueryUnknownAttribute()
+	{
+		queryGenerator.createQuery(new QueryImpl<>().eq("unknown", "str"), entityType);
+	}
+
+	@Test
+	public void testGreaterDate()
+	{
+		LocalDate value = LocalDate.parse("2015-01-22");
+		Query query = queryGenerator.createQuery(new QueryImpl<>().gt(dateAttrName, value), entityType);
+		long epochMilli = DocumentFactory.toEpochMilli(value);
+		assertEquals(query,
+				new ConstantScoreQuery(LongPoint.newRangeQuery(dateAttrName, epochMilli + 1, Long.MAX_VALUE)));
+	}
+
+	@Test
+	public void testGreaterDateString()
+	{
+		Query query = queryGenerator.createQuery(new QueryImpl<>().gt(dateAttrName, "2015-01-22"), entityType);
+		long epochMilli = DocumentFactory.toEpochMilli(LocalDate.parse("2015-01-22"));
+		assertEquals(query,
+				new ConstantScoreQuery(LongPoint.newRangeQuery(dateAttrName, epochMilli + 1, Long.MAX_VALUE)));
+	}
+
+	@Test
+	public void testGreaterDateTime()
+	{
+		Instant value = Instant.parse("2015-05-22T06:12:13Z");
+		Query query = queryGenerator.createQuery(new QueryImpl<>().gt(dateTimeAttrName, value), entityType);
+		assertEquals(query, new ConstantScoreQuery(
+				LongPoint.newRangeQuery(dateTimeAttrName, value.toEpochMilli() + 1, Long.MAX_VALUE)));
+	}
+
+	@Test
+	public void testGreaterDecimal()
+	{
+		Query query = queryGenerator.createQuery(new QueryImpl<>().gt(decimalAttrName, 1.23), entityType);
+		assertEquals(query, new ConstantScoreQuery(
+				DoublePoint.newRangeQuery(decimalAttrName, DoublePoint.nextUp(1.23), Double.POSITIVE_INFINITY)));
+	}
+
+	@Test
+	public void testGreaterInt()
+	{
+		Query query = queryGenerator.createQuery(new QueryImpl<>().gt(intAttrName, 1), entityType);
+		assertEquals(query, new ConstantScoreQuery(LongPoint.newRangeQuery(intAttrName, 2L, Long.MAX_VALUE)));
+	}
+
+	@Test
+	public void testGreaterLong()
+	{
+		Query query = queryGenerator.createQuery(new QueryImpl<>().gt(longAttrName, 1L), entityType);
+		assertEquals(query, new ConstantScoreQuery(LongPoint.newRangeQuery(longAttrName, 2L, Long.MAX_VALUE)));
+	}
+
+	@Test
+	public void testGreaterLongMaxValue()
+	{
+		Query query = queryGenerator.createQuery(new QueryImpl<>().gt(longAttrName, Long.MAX_VALUE), entityType);
+		assertEquals(query,
+				new ConstantScoreQuery(LongPoint.newRangeQuery(longAttrName, Long.MAX_VALUE, Long.MAX_VALUE)));
+	}
+
+	@Test
+	public void testGreaterEqualInt()
+	{
+		Query query = queryGenerator.createQuery(new QueryImpl<>().ge(intAttrName, 1), entityType);
+		assertEquals(query, new ConstantScoreQuery(LongPoint.newRangeQuery(intAttrName, 1L, Long.MAX_VALUE)));
+	}
+
+	@Test
+	public void testGreaterEqualDecimal()
+	{
+		Query query = queryGenerator.createQuery(new QueryImpl<>().ge(decimalAttrName, 1.23), entityType);
+		assertEquals(query, new ConstantScoreQuery(
+				DoublePoint.newRangeQuery(decimalAttrName, 1.23, Double.POSITIVE_INFINITY)));
+	}
+
+	@Test
+	public void testLessInt()
+	{
+		Query query = queryGenerator.createQuery(new QueryImpl<>().lt(intAttrName, 1), entityType);
+		assertEquals(query, new ConstantScoreQuery(LongPoint.newRangeQuery(intAttrName, Long.MIN_VALUE, 0L)));
+	}
+
+	@Test
+	public void testLessDecimal()
+	{
+		Query query = queryGenerator.createQuery(new QueryImpl<>().lt(decimalAttrName, 1.23), entityType);
+		assertEquals(query, new ConstantScoreQuery(
+				DoublePoint.newRangeQuery(decimalAttrName, Double.NEGATIVE_INFINITY, DoublePoint.nextDown(1.23))));
+	}
+
+	@Test
+	public void testLessEqualInt()
+	{
+		Query query = queryGenerator.createQuery(new QueryImpl<>().le(intAttrName, 1), entityType);
+		assertEquals(query, new ConstantScoreQuery(LongPoint.newRangeQuery(intAttrName, Long.MIN_VALUE, 1L)));
+	}
+
+	@Test
+	public void testLessEqualDecimal()
+	{
+		Query query = queryGenerator.createQuery(new QueryImpl<>().le(decimalAttrName, 1.23), entityType);
+		assertEquals(query, new ConstantScoreQuery(
+				DoublePoint.newRangeQuery(decimalAttrName, Double.NEGATIVE_INFINITY, 1.23)));
+	}
+
+	@DataProvider(name = "nonNumericalAttributes")
+	public static Iterator<Object[]> nonNumericalAttributesProvider()
+	{
+		List<Object[]> dataList = new ArrayList<>();
+		for (String attrName : asList(boolAttrName, categoricalAttrName, compoundAttrName, emailAttrName,
+				enumAttrName, htmlAttrName, hyperlinkAttrName, mrefAttrName, scriptAttrName, stringAttrName,
+				textAttrName, xrefAttrName))
+		{
+			dataList.add(new Object[] { attrName });
+		}
+		return dataList.iterator();
+	}
+
+	@Test(dataProvider = "nonNumericalAttributes", expectedExceptions = MolgenisQueryException.class)
+	public void testGreaterNonNumericalAttribute(String attrName)
+	{
+		queryGenerator.createQuery(new QueryImpl<>().gt(attrName, "str"), entityType);
+	}
+
+	@Test(dataProvider = "nonNumericalAttributes", expectedExceptions = MolgenisQueryException.class)
+	public void testRangeNonNumericalAttribute(String attrName)
+	{
+		queryGenerator.createQuery(new QueryImpl<>().rng(attrName, "a", "b"), entityType);
+	}
+
+	@Test
+	public void testRangeInt()
+	{
+		Query query = queryGenerator.createQuery(new QueryImpl<>().rng(intAttrName, 1, 3), entityType);
+		assertEquals(query, new ConstantScoreQuery(LongPoint.newRangeQuery(intAttrName, 1L, 3L)));
+	}
+
+	@Test
+	public void testRangeDecimal()
+	{
+		Query query = queryGenerator.createQuery(new QueryImpl<>().rng(decimalAttrName, 1.23, 4.56), entityType);
+		assertEquals(query, new ConstantScoreQuery(DoublePoint.newRangeQuery(decimalAttrName, 1.23, 4.56)));
+	}
+
+	@Test
+	public void testRangeDate()
+	{
+		LocalDate from = LocalDate.parse("2015-01-22");
+		LocalDate to = LocalDate.parse("2016-01-22");
+		Query query = queryGenerator.createQuery(new QueryImpl<>().rng(dateAttrName, from, to), entityType);
+		assertEquals(query, new ConstantScoreQuery(
+				LongPoint.newRangeQuery(dateAttrName, DocumentFactory.toEpochMilli(from),
+						DocumentFactory.toEpochMilli(to))));
+	}
+
+	@Test(expectedExceptions = MolgenisQueryException.class)
+	public void testRangeNoIterable()
+	{
+		queryGenerator.createQuery(new QueryImpl<>(new QueryRule(intAttrName, RANGE, 1)), entityType);
+	}
+
+	@Test(expectedExceptions = MolgenisQueryException.class)
+	public void testGreaterNull()
+	{
+		queryGenerator.createQuery(new QueryImpl<>().gt(intAttrName, null), entityType);
+	}
+
+	@Test
+	public void testEqualsBool()
+	{
+		Query query = queryGenerator.createQuery(new QueryImpl<>().eq(boolAttrName, true), entityType);
+		assertEquals(query, new ConstantScoreQuery(new TermQuery(new Term(boolAttrName, "true"))));
+	}
+
+	@Test
+	public void testEqualsDate()
+	{
+		LocalDate value = LocalDate.parse("2015-01-22");
+		Query query = queryGenerator.createQuery(new QueryImpl<>().eq(dateAttrName, value), entityType);
+		assertEquals(query, new ConstantScoreQuery(
+				LongPoint.newExactQuery(dateAttrName, DocumentFactory.toEpochMilli(value))));
+	}
+
+	@Test
+	public void testEqualsDateTime()
+	{
+		Instant value = Instant.parse("2015-05-22T06:12:13Z");
+		Query query = queryGenerator.createQuery(new QueryImpl<>().eq(dateTimeAttrName, value), entityType);
+		assertEquals(query,
+				new ConstantScoreQuery(LongPoint.newExactQuery(dateTimeAttrName, value.toEpochMilli())));
+	}
+
+	@Test
+	public void testEqualsDecimal()
+	{
+		Query query = queryGenerator.createQuery(new QueryImpl<>().eq(decimalAttrName, 1.23), entityType);
+		assertEquals(query, new ConstantScoreQuery(DoublePoint.newExactQuery(decimalAttrName, 1.23)));
+	}
+
+	@Test
+	public void testEqualsInt()
+	{
+		Query query = queryGenerator.createQuery(new QueryImpl<>().eq(intAttrName, 1), entityType);
+		assertEquals(query, new ConstantScoreQuery(LongPoint.newExactQuery(intAttrName, 1L)));
+	}
+
+	@Test
+	public void testEqualsLong()
+	{
+		Query query = queryGenerator.createQuery(new QueryImpl<>().eq(longAttrName, 1L), entityType);
+		assertEquals(query, new ConstantScoreQuery(LongPoint.newExactQuery(longAttrName, 1L)));
+	}
+
+	@Test(expectedExceptions = MolgenisQueryException.class)
+	public void testEqualsIntInvalidValue()
+	{
+		queryGenerator.createQuery(new QueryImpl<>().eq(intAttrName, "one"), entityType);
+	}
+
+	@DataProvider(name = "stringAttributes")
+	public static Iterator<Object[]> stringAttributesProvider()
+	{
+		List<Object[]> dataList = new ArrayList<>();
+		for (String attrName : asList(emailAttrName, enumAttrName, htmlAttrName, hyperlinkAttrName,
+				scriptAttrName, stringAttrName, textAttrName))
+		{
+			dataList.add(new Object[] { attrName });
+		}
+		return dataList.iterator();
+	}
+
+	@Test(dataProvider = "stringAttributes")
+	public void testEqualsString(String attrName)
+	{
+		Query query = queryGenerator.createQuery(new QueryImpl<>().eq(attrName, "Str Value"), entityType);
+		assertEquals(query, new ConstantScoreQuery(new TermQuery(new Term(attrName + ".raw", "Str Value"))));
+	}
+
+	@DataProvider(name = "referenceAttributes")
+	public static Iterator<Object[]> referenceAttributesProvider()
+	{
+		List<Object[]> dataList = new ArrayList<>();
+		for (String attrName : asList(categoricalAttrName, mrefAttrName, xrefAttrName))
+		{
+			dataList.add(new Object[] { attrName });
+		}
+		return dataList.iterator();
+	}
+
+	@Test(dataProvider = "referenceAttributes")
+	public void testEqualsReference(String attrName)
+	{
+		Query query = queryGenerator.createQuery(new QueryImpl<>().eq(attrName, "id0"), entityType);
+		assertEquals(query, new ConstantScoreQuery(new TermQuery(new Term(attrName, "id0"))));
+	}
+
+	@Test(dataProvider = "referenceAttributes")
+	public void testEqualsReferenceEntity(String attrName)
+	{
+		Entity refEntity = mock(Entity.class);
+		when(refEntity.getIdValue()).thenReturn("id0");
+		Query query = queryGenerator.createQuery(new QueryImpl<>().eq(attrName, refEntity), entityType);
+		assertEquals(query, new ConstantScoreQuery(new TermQuery(new Term(attrName, "id0"))));
+	}
+
+	@Test
+	public void testEqualsReferencedAttribute()
+	{
+		String fieldName = xrefAttrName + '.' + refStringAttrName;
+		Query query = queryGenerator.createQuery(new QueryImpl<>().eq(fieldName, "str"), entityType);
+		assertEquals(query, new ConstantScoreQuery(new TermQuery(new Term(fieldName + ".raw", "str"))));
+	}
+
+	@Test(expectedExceptions = UnsupportedOperationException.class)
+	public void testEqualsReferencedReferenceAttribute()
+	{
+		queryGenerator.createQuery(new QueryImpl<>().eq(xrefAttrName + '.' + refXrefAttrName, "id0"), entityType);
+	}
+
+	@Test(expectedExceptions = MolgenisQueryException.class)
+	public void testEqualsReferencedAttributeOfNonReference()
+	{
+		queryGenerator.createQuery(new QueryImpl<>().eq(stringAttrName + '.' + refStringAttrName, "str"),
+				entityType);
+	}
+
+	@Test
+	public void testEqualsNull()
+	{
+		Query query = queryGenerator.createQuery(new QueryImpl<>().eq(stringAttrName, null), entityType);
+		Query expectedQuery = new BooleanQuery.Builder().add(new MatchAllDocsQuery(), Occur.FILTER)
+														.add(new TermQuery(new Term("_exists", stringAttrName)),
+																Occur.MUST_NOT)
+														.build();
+		assertEquals(query, new ConstantScoreQuery(expectedQuery));
+	}
+
+	@Test(expectedExceptions = MolgenisQueryException.class)
+	public void testEqualsCompound()
+	{
+		queryGenerator.createQuery(new QueryImpl<>().eq(compoundAttrName, "str"), entityType);
+	}
+
+	@Test(expectedExceptions = MolgenisQueryException.class)
+	public void testEqualsNullCompound()
+	{
+		queryGenerator.createQuery(new QueryImpl<>().eq(compoundAttrName, null), entityType);
+	}
+
+	@Test
+	public void testInBool()
+	{
+		Query query = queryGenerator.createQuery(new QueryImpl<>().in(boolAttrName, asList(true, false)),
+				entityType);
+		assertEquals(query, new ConstantScoreQuery(
+				new TermInSetQuery(boolAttrName, new BytesRef("true"), new BytesRef("false"))));
+	}
+
+	@Test
+	public void testInInt()
+	{
+		Query query = queryGenerator.createQuery(new QueryImpl<>().in(intAttrName, asList(1, 2)), entityType);
+		assertEquals(query, new ConstantScoreQuery(LongPoint.newSetQuery(intAttrName, 1L, 2L)));
+	}
+
+	@Test
+	public void testInDecimal()
+	{
+		Query query = queryGenerator.createQuery(new QueryImpl<>().in(decimalAttrName, asList(1.23, 4.56)),
+				entityType);
+		assertEquals(query, new ConstantScoreQuery(DoublePoint.newSetQuery(decimalAttrName, 1.23, 4.56)));
+	}
+
+	@Test(dataProvider = "stringAttributes")
+	public void testInString(String attrName)
+	{
+		Query query = queryGenerator.createQuery(new QueryImpl<>().in(attrName, asList("a", "b")), entityType);
+		assertEquals(query,
+				new ConstantScoreQuery(new TermInSetQuery(attrName + ".raw", new BytesRef("a"), new BytesRef("b"))));
+	}
+
+	@Test(dataProvider = "referenceAttributes")
+	public void testInReference(String attrName)
+	{
+		Query query = queryGenerator.createQuery(new QueryImpl<>().in(attrName, asList("id0", "id1")), entityType);
+		assertEquals(query,
+				new ConstantScoreQuery(new TermInSetQuery(attrName, new BytesRef("id0"), new BytesRef("id1"))));
+	}
+
+	@Test(expectedExceptions = MolgenisQueryException.class)
+	public void testInCompound()
+	{
+		queryGenerator.createQuery(new QueryImpl<>().in(compoundAttrName, asList("a", "b")), entityType);
+	}
+
+	@Test(expectedExceptions = MolgenisQueryException.class)
+	public void testInNoIterable()
+	{
+		queryGenerator.createQuery(new QueryImpl<>(new QueryRule(stringAttrName, IN, "a")), entityType);
+	}
+
+	@Test(dataProvider = "likeAttributes")
+	public void testLike(String attrName)
+	{
+		Query query = queryGenerator.createQuery(new QueryImpl<>().like(attrName, "John Do"), entityType);
+		Query expectedQuery = new BooleanQuery.Builder().add(new TermQuery(new Term(attrName, "john")), Occur.MUST)
+														.add(new PrefixQuery(new Term(attrName, "do")), Occur.MUST)
+														.build();
+		assertEquals(query, expectedQuery);
+	}
+
+	@DataProvider(name = "likeAttributes")
+	public static Iterator<Object[]> likeAttributesProvider()
+	{
+		List<Object[]> dataList = new ArrayList<>();
+		for (String attrName : asList(emailAttrName, enumAttrName, hyperlinkAttrName, stringAttrName))
+		{
+			dataList.add(new Object[] { attrName });
+		}
+		return dataList.iterator();
+	}
+
+	@Test
+	public void testLikeNoTerms()
+	{
+		Query query = queryGenerator.createQuery(new QueryImpl<>().like(stringAttrName, "?"), entityType);
+		assertEquals(query, new MatchNoDocsQuery());
+	}
+
+	@Test(expectedExceptions = MolgenisQueryException.class)
+	public void testLikeInt()
+	{
+		queryGenerator.createQuery(new QueryImpl<>().like(intAttrName, "1"), entityType);
+	}
+
+	@Test(expectedExceptions = UnsupportedOperationException.class)
+	public void testLikeText()
+	{
+		queryGenerator.createQuery(new QueryImpl<>().like(textAttrName, "str"), entityType);
+	}
+
+	@Test
+	public void testSearchAllAttributes()
+	{
+		Query query = queryGenerator.createQuery(new QueryImpl<>().search("John Doe"), entityType);
+		Query expectedQuery = new PhraseQuery.Builder().add(new Term("_all", "john"), 0)
+													   .add(new Term("_all", "doe"), 1)
+													   .setSlop(10)
+													   .build();
+		assertEquals(query, expectedQuery);
+	}
+
+	@Test(dataProvider = "stringAttributes")
+	public void testSearchString(String attrName)
+	{
+		Query query = queryGenerator.createQuery(new QueryImpl<>().search(attrName, "Doe"), entityType);
+		assertEquals(query, new TermQuery(new Term(attrName, "doe")));
+	}
+
+	@Test
+	public void testSearchInt()
+	{
+		Query query = queryGenerator.createQuery(new QueryImpl<>().search(intAttrName, "1"), entityType);
+		assertEquals(query, LongPoint.newExactQuery(intAttrName, 1L));
+	}
+
+	@Test(dataProvider = "referenceAttributes")
+	public void testSearchReference(String attrName)
+	{
+		Query query = queryGenerator.createQuery(new QueryImpl<>().search(attrName, "Doe"), entityType);
+		assertEquals(query, new TermQuery(new Term(attrName + "._all", "doe")));
+	}
+
+	@Test(expectedExceptions = MolgenisQueryException.class)
+	public void testSearchBool()
+	{
+		queryGenerator.createQuery(new QueryImpl<>().search(boolAttrName, "true"), entityType);
+	}
+
+	@Test(expectedExceptions = MolgenisQueryException.class)
+	public void testSearchCompound()
+	{
+		queryGenerator.createQuery(new QueryImpl<>().search(compoundAttrName, "str"), entityType);
+	}
+
+	@Test
+	public void testFuzzyMatchString()
+	{
+		Query query = queryGenerator.createQuery(
+				new QueryImpl<>(new QueryRule(stringAttrName, FUZZY_MATCH, "doe~")), entityType);
+		assertEquals(query, new FuzzyQuery(new Term(stringAttrName, "doe")));
+	}
+
+	@Test
+	public void testFuzzyMatchNgramString()
+	{
+		Query query = queryGenerator.createQuery(
+				new QueryImpl<>(new QueryRule(stringAttrName, FUZZY_MATCH_NGRAM, "Doe")), entityType);
+		assertEquals(query, new TermQuery(new Term(stringAttrName, "doe")));
+	}
+
+	@Test(dataProvider = "referenceAttributes")
+	public void testFuzzyMatchReference(String attrName)
+	{
+		Query query = queryGenerator.createQuery(new QueryImpl<>(new QueryRule(attrName, FUZZY_MATCH, "Doe")),
+				entityType);
+		assertEquals(query, new TermQuery(new Term(attrName + '.' + refStringAttrName, "doe")));
+	}
+
+	@Test
+	public void testFuzzyMatchAllAttributes()
+	{
+		Query query = queryGenerator.createQuery(new QueryImpl<>(new QueryRule(null, FUZZY_MATCH, "Doe")),
+				entityType);
+		assertEquals(query, new TermQuery(new Term("_all", "doe")));
+	}
+
+	@Test(expectedExceptions = MolgenisQueryException.class)
+	public void testFuzzyMatchBool()
+	{
+		queryGenerator.createQuery(new QueryImpl<>(new QueryRule(boolAttrName, FUZZY_MATCH, "true")), entityType);
+	}
+
+	@Test(expectedExceptions = MolgenisQueryException.class)
+	public void testFuzzyMatchInvalidSyntax()
+	{
+		queryGenerator.createQuery(new QueryImpl<>(new QueryRule(stringAttrName, FUZZY_MATCH, "doe AND")),
+				entityType);
+	}
+
+	@Test
+	public void testAnd()
+	{
+		Query query = queryGenerator.createQuery(new QueryImpl<>().eq(intAttrName, 1).and().eq(longAttrName, 2L),
+				entityType);
+		Query expectedQuery = new BooleanQuery.Builder().add(
+				new ConstantScoreQuery(LongPoint.newExactQuery(intAttrName, 1L)), Occur.MUST)
+														.add(new ConstantScoreQuery(
+																LongPoint.newExactQuery(longAttrName, 2L)),
+																Occur.MUST)
+														.build();
+		assertEquals(query, expectedQuery);
+	}
+
+	@Test
+	public void testOr()
+	{
+		Query query = queryGenerator.createQuery(new QueryImpl<>().eq(intAttrName, 1).or().eq(longAttrName, 2L),
+				entityType);
+		Query expectedQuery = new BooleanQuery.Builder().add(
+				new ConstantScoreQuery(LongPoint.newExactQuery(intAttrName, 1L)), Occur.SHOULD)
+														.add(new ConstantScoreQuery(
+																LongPoint.newExactQuery(longAttrName, 2L)),
+																Occur.SHOULD)
+														.build();
+		assertEquals(query, expectedQuery);
+	}
+
+	@Test
+	public void testNot()
+	{
+		Query query = queryGenerator.createQuery(new QueryImpl<>().not().eq(intAttrName, 1), entityType);
+		Query expectedQuery = new BooleanQuery.Builder().add(
+				new ConstantScoreQuery(LongPoint.newExactQuery(intAttrName, 1L)), Occur.MUST_NOT)
+														.add(new MatchAllDocsQuery(), Occur.FILTER)
+														.build();
+		assertEquals(query, expectedQuery);
+	}
+
+	@Test(expectedExceptions = MolgenisQueryException.class)
+	public void testMixedOccurOperators()
+	{
+		queryGenerator.createQuery(
+				new QueryImpl<>().eq(intAttrName, 1).and().eq(longAttrName, 2L).or().eq(boolAttrName, true),
+				entityType);
+	}
+
+	@Test
+	public void testNested()
+	{
+		Query query = queryGenerator.createQuery(
+				new QueryImpl<>().nest().eq(intAttrName, 1).or().eq(longAttrName, 2L).unnest().and().eq(boolAttrName,
+						true), entityType);
+		Query expectedNestedQuery = new BooleanQuery.Builder().add(
+				new ConstantScoreQuery(LongPoint.newExactQuery(intAttrName, 1L)), Occur.SHOULD)
+															  .add(new ConstantScoreQuery(
+																	  LongPoint.newExactQuery(longAttrName, 2L)),
+																	  Occur.SHOULD)
+															  .build();
+		Query expectedQuery = new BooleanQuery.Builder().add(expectedNestedQuery, Occur.MUST)
+														.add(new ConstantScoreQuery(
+																new TermQuery(new Term(boolAttrName, "true"))),
+																Occur.MUST)
+														.build();
+		assertEquals(query, expectedQuery);
+	}
+
+	@Test(expectedExceptions = MolgenisQueryException.class)
+	public void testNestedNoRules()
+	{
+		queryGenerator.createQuery(new QueryImpl<>(new QueryRule(new ArrayList<>())), entityType);
+	}
+
+	@Test
+	public void testDisMax()
+	{
+		QueryRule disMaxRule = new QueryRule(
+				asList(new QueryRule(stringAttrName, EQUALS, "a"), new QueryRule(textAttrName, EQUALS, "b")));
+		disMaxRule.setOperator(DIS_MAX);
+		Query query = queryGenerator.createQuery(new QueryImpl<>(disMaxRule), entityType);
+		Query expectedQuery = new DisjunctionMaxQuery(
+				asList(new ConstantScoreQuery(new TermQuery(new Term(stringAttrName + ".raw", "a"))),
+						new ConstantScoreQuery(new TermQuery(new Term(textAttrName + ".raw", "b")))), 0.0f);
+		assertEquals(query, expectedQuery);
+	}
+
+	@Test
+	public void testDisMaxBoost()
+	{
+		QueryRule disMaxRule = new QueryRule(singletonList(new QueryRule(stringAttrName, EQUALS, "a")));
+		disMaxRule.setOperator(DIS_MAX);
+		disMaxRule.setValue("0.5");
+		Query query = queryGenerator.createQuery(new QueryImpl<>(disMaxRule), entityType);
+		Query expectedQuery = new BoostQuery(new DisjunctionMaxQuery(
+				singletonList(new ConstantScoreQuery(new TermQuery(new Term(stringAttrName + ".raw", "a")))),
+				0.0f), 0.5f);
+		assertEquals(query, expectedQuery);
+	}
+
+	@Test
+	public void testShould()
+	{
+		QueryRule shouldRule = new QueryRule(
+				asList(new QueryRule(stringAttrName, EQUALS, "a"), new QueryRule(textAttrName, EQUALS, "b")));
+		shouldRule.setOperator(SHOULD);
+		Query query = queryGenerator.createQuery(new QueryImpl<>(shouldRule), entityType);
+		Query expectedQuery = new BooleanQuery.Builder().add(
+				new ConstantScoreQuery(new TermQuery(new Term(stringAttrName + ".raw", "a"))), Occur.SHOULD)
+														.add(new ConstantScoreQuery(
+																new TermQuery(new Term(textAttrName + ".raw", "b"))),
+																Occur.SHOULD)
+														.build();
+		assertEquals(query, expectedQuery);
+	}
+
+	@Test(expectedExceptions = MolgenisQueryException.class)
+	public void testUnexpectedOperator()
+	{
+		queryGenerator.createQuery(new QueryImpl<>(new QueryRule(AND)), entityType);
+	}
+
+	private static AttributeType getAttributeType(String attrName)
+	{
+		switch (attrName)
+		{
+			case boolAttrName:
+				return BOOL;
+			case categoricalAttrName:
+				return CATEGORICAL;
+			case compoundAttrName:
+				return COMPOUND;
+			case dateAttrName:
+				return DATE;
+			case dateTimeAttrName:
+				return DATE_TIME;
+			case decimalAttrName:
+				return DECIMAL;
+			case emailAttrName:
+				return EMAIL;
+			case enumAttrName:
+				return ENUM;
+			case htmlAttrName:
+				return HTML;
+			case hyperlinkAttrName:
+				return HYPERLINK;
+			case intAttrName:
+				return INT;
+			case longAttrName:
+				return LONG;
+			case mrefAttrName:
+				return MREF;
+			case scriptAttrName:
+				return SCRIPT;
+			case textAttrName:
+				return TEXT;
+			case xrefAttrName:
+				return XREF;
+			default:
+				return STRING;
+		}
+	}
+
+	private static Attribute addAttribute(EntityType entityType, String name, AttributeType type)
+	{
+		Attribute attribute = mock(Attribute.class);
+		when(attribute.getName()).thenReturn(name);
+		when(attribute.getDataType()).thenReturn(type);
+		when(entityType.getAttribute(name)).thenReturn(attribute);
+		return attribute;
+	}
+}
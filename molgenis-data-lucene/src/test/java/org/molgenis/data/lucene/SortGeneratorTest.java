@@ -0,0 +1,152 @@
+package org.molgenis.data.lucene;
+
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.SortedNumericSortField;
+import org.apache.lucene.search.SortedSetSortField;
+import org.molgenis.data.UnknownAttributeException;
+import org.molgenis.data.meta.AttributeType;
+import org.molgenis.data.meta.model.Attribute;
+import org.molgenis.data.meta.model.EntityType;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.molgenis.data.Sort.Direction.ASC;
+import static org.molgenis.data.Sort.Direction.DESC;
+import static org.molgenis.data.meta.AttributeType.*;
+import static org.testng.Assert.assertEquals;
+
+public class SortGeneratorTest
+{
+	private SortGenerator sortGenerator;
+	private EntityType entityType;
+
+	@BeforeMethod
+	public void setUpBeforeMethod()
+	{
+		sortGenerator = new SortGenerator();
+
+		EntityType refEntityType = mock(EntityType.class);
+		Attribute refLabelAttr = createAttribute(refEntityType, "label", STRING);
+		when(refEntityType.getLabelAttribute()).thenReturn(refLabelAttr);
+
+		entityType = mock(EntityType.class);
+		when(entityType.getId()).thenReturn("entity");
+		createAttribute(entityType, "bool", BOOL);
+		createAttribute(entityType, "compound", COMPOUND);
+		createAttribute(entityType, "date", DATE);
+		createAttribute(entityType, "decimal", DECIMAL);
+		createAttribute(entityType, "int", INT);
+		createAttribute(entityType, "string", STRING);
+		createAttribute(entityType, "text", TEXT);
+		Attribute xrefAttr = createAttribute(entityType, "xref", XREF);
+		when(xrefAttr.getRefEntity()).thenReturn(refEntityType);
+	}
+
+	@Test
+	public void testGenerateAsc()
+	{
+		Sort sort = sortGenerator.generateSort(new org.molgenis.data.Sort("int", ASC), entityType);
+		SortField sortField = new SortedNumericSortField("int", SortField.Type.LONG, false);
+		sortField.setMissingValue(Long.MAX_VALUE);
+		assertEquals(sort, new Sort(sortField));
+	}
+
+	@Test
+	public void testGenerateDesc()
+	{
+		Sort sort = sortGenerator.generateSort(new org.molgenis.data.Sort("int", DESC), entityType);
+		SortField sortField = new SortedNumericSortField("int", SortField.Type.LONG, true);
+		sortField.setMissingValue(Long.MIN_VALUE);
+		assertEquals(sort, new Sort(sortField));
+	}
+
+	@Test
+	public void testGenerateDate()
+	{
+		Sort sort = sortGenerator.generateSort(new org.molgenis.data.Sort("date", ASC), entityType);
+		SortField sortField = new SortedNumericSortField("date", SortField.Type.LONG, false);
+		sortField.setMissingValue(Long.MAX_VALUE);
+		assertEquals(sort, new Sort(sortField));
+	}
+
+	@Test
+	public void testGenerateDecimal()
+	{
+		Sort sort = sortGenerator.generateSort(new org.molgenis.data.Sort("decimal", DESC), entityType);
+		SortField sortField = new SortedNumericSortField("decimal", SortField.Type.DOUBLE, true);
+		sortField.setMissingValue(Double.NEGATIVE_INFINITY);
+		assertEquals(sort, new Sort(sortField));
+	}
+
+	@Test
+	public void testGenerateBool()
+	{
+		Sort sort = sortGenerator.generateSort(new org.molgenis.data.Sort("bool", ASC), entityType);
+		SortField sortField = new SortedSetSortField("bool", false);
+		sortField.setMissingValue(SortField.STRING_LAST);
+		assertEquals(sort, new Sort(sortField));
+	}
+
+	@Test
+	public void testGenerateAscRaw()
+	{
+		Sort sort = sortGenerator.generateSort(new org.molgenis.data.Sort("string", ASC), entityType);
+		SortField sortField = new SortedSetSortField("string.raw", false);
+		sortField.setMissingValue(SortField.STRING_LAST);
+		assertEquals(sort, new Sort(sortField));
+	}
+
+	@Test
+	public void testGenerateDescRaw()
+	{
+		Sort sort = sortGenerator.generateSort(new org.molgenis.data.Sort("text", DESC), entityType);
+		SortField sortField = new SortedSetSortField("text.raw", true);
+		sortField.setMissingValue(SortField.STRING_FIRST);
+		assertEquals(sort, new Sort(sortField));
+	}
+
+	@Test
+	public void testGenerateReference()
+	{
+		Sort sort = sortGenerator.generateSort(new org.molgenis.data.Sort("xref", ASC), entityType);
+		SortField sortField = new SortedSetSortField("xref.label.raw", false);
+		sortField.setMissingValue(SortField.STRING_LAST);
+		assertEquals(sort, new Sort(sortField));
+	}
+
+	@Test
+	public void testGenerateDescAscRaw()
+	{
+		Sort sort = sortGenerator.generateSort(new org.molgenis.data.Sort("int", DESC).on("string", ASC),
+				entityType);
+		SortField intSortField = new SortedNumericSortField("int", SortField.Type.LONG, true);
+		intSortField.setMissingValue(Long.MIN_VALUE);
+		SortField stringSortField = new SortedSetSortField("string.raw", false);
+		stringSortField.setMissingValue(SortField.STRING_LAST);
+		assertEquals(sort, new Sort(intSortField, stringSortField));
+	}
+
+	@Test(expectedExceptions = UnknownAttributeException.class)
+	public void testGenerateUnknownAttribute()
+	{
+		sortGenerator.generateSort(new org.molgenis.data.Sort("unknown", ASC), entityType);
+	}
+
+	@Test(expectedExceptions = UnsupportedOperationException.class)
+	public void testGenerateCompound()
+	{
+		sortGenerator.generateSort(new org.molgenis.data.Sort("compound", ASC), entityType);
+	}
+
+	private static Attribute createAttribute(EntityType entityType, String name, AttributeType type)
+	{
+		Attribute attribute = mock(Attribute.class);
+		when(attribute.getName()).thenReturn(name);
+		when(attribute.getDataType()).thenReturn(type);
+		when(entityType.getAttribute(name)).thenReturn(attribute);
+		return attribute;
+	}
+}
@@ -81,6 +81,8 @@ public class DatabaseConfig implements TransactionManagementConfigurer
 		Properties properties = dataSource.getProperties();
 		properties.setProperty("reWriteBatchedInserts", "true");
 		properties.setProperty("autosave", "CONSERVATIVE");
+		// statements that are executed repeatedly on a connection become server-side prepared statements
+		properties.setProperty("preparedStatementCacheQueries", "1024");
 		dataSource.setProperties(properties);
 
 		return dataSource;
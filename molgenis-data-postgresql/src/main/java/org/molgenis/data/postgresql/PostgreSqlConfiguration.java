@@ -28,6 +28,12 @@ public class PostgreSqlConfiguration
 	@Autowired
 	private EntityTypeRegistry entityTypeRegistry;
 
+	@Autowired
+	private PostgreSqlStatementCache statementCache;
+
+	@Autowired
+	private PostgreSqlFetchPushDownPlanner fetchPushDownPlanner;
+
 	@Bean
 	public JdbcTemplate jdbcTemplate()
 	{
@@ -40,7 +46,7 @@ public class PostgreSqlConfiguration
 	public RepositoryCollection postgreSqlRepositoryCollection()
 	{
 		return new PostgreSqlRepositoryCollectionDecorator(
-				new PostgreSqlRepositoryCollection(postgreSqlEntityFactory, dataSource, jdbcTemplate(), dataService),
-				entityTypeRegistry);
+				new PostgreSqlRepositoryCollection(postgreSqlEntityFactory, dataSource, jdbcTemplate(), dataService,
+						statementCache, fetchPushDownPlanner), entityTypeRegistry, statementCache);
 	}
 }
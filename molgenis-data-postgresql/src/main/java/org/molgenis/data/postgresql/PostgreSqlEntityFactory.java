@@ -1,5 +1,9 @@
 package org.molgenis.data.postgresql;
 
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
 import org.molgenis.data.Entity;
 import org.molgenis.data.EntityManager;
 import org.molgenis.data.Fetch;
@@ -19,7 +23,9 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.time.LocalDate;
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 
 import static java.time.ZoneOffset.UTC;
 import static java.util.Arrays.asList;
@@ -44,7 +50,17 @@ class PostgreSqlEntityFactory
 
 	RowMapper<Entity> createRowMapper(EntityType entityType, Fetch fetch)
 	{
-		return new EntityMapper(entityManager, entityType, fetch);
+		return createRowMapper(entityType, fetch, null);
+	}
+
+	/**
+	 * @param pushDownFetch reference attributes for which the referenced entities were selected as JSON, can be
+	 *                      <code>null</code>
+	 * @see PostgreSqlFetchPushDownPlanner
+	 */
+	RowMapper<Entity> createRowMapper(EntityType entityType, Fetch fetch, Fetch pushDownFetch)
+	{
+		return new EntityMapper(entityManager, entityType, fetch, pushDownFetch);
 	}
 
 	Iterable<Entity> getReferences(EntityType refEntityType, Iterable<?> ids)
@@ -57,12 +73,14 @@ class PostgreSqlEntityFactory
 		private final EntityManager entityManager;
 		private final EntityType entityType;
 		private final Fetch fetch;
+		private final Fetch pushDownFetch;
 
-		private EntityMapper(EntityManager entityManager, EntityType entityType, Fetch fetch)
+		private EntityMapper(EntityManager entityManager, EntityType entityType, Fetch fetch, Fetch pushDownFetch)
 		{
 			this.entityManager = requireNonNull(entityManager);
 			this.entityType = requireNonNull(entityType);
 			this.fetch = fetch; // can be null
+			this.pushDownFetch = pushDownFetch; // can be null
 		}
 
 		@Override
@@ -80,12 +98,127 @@ class PostgreSqlEntityFactory
 						continue;
 					}
 
-					e.set(attr.getName(), mapValue(resultSet, attr));
+					if (pushDownFetch != null && pushDownFetch.hasField(attr))
+					{
+						String jsonValue = resultSet.getString(getColumnName(attr, false));
+						e.set(attr.getName(),
+								jsonValue != null ? mapJsonValue(attr, new JsonParser().parse(jsonValue), fetch,
+										pushDownFetch) : null);
+					}
+					else
+					{
+						e.set(attr.getName(), mapValue(resultSet, attr));
+					}
 				}
 			}
 			return e;
 		}
 
+		/**
+		 * Maps a referenced entity selected as JSON object to an entity.
+		 *
+		 * @param entityType    referenced entity type
+		 * @param jsonObject    JSON object with a member for each attribute in the fetch
+		 * @param fetch         referenced entity fetch
+		 * @param pushDownFetch reference attributes for which the referenced entities were selected, can be
+		 *                      <code>null</code>
+		 * @return entity
+		 */
+		private Entity mapJsonEntity(EntityType entityType, JsonObject jsonObject, Fetch fetch, Fetch pushDownFetch)
+		{
+			Entity entity = entityManager.createFetch(entityType, fetch);
+
+			String idAttrName = entityType.getIdAttribute().getName();
+			for (Attribute attr : entityType.getAtomicAttributes())
+			{
+				String attrName = attr.getName();
+				if (attr.getExpression() == null && (fetch.hasField(attrName) || attrName.equals(idAttrName)))
+				{
+					entity.set(attrName, mapJsonValue(attr, jsonObject.get(attrName), fetch, pushDownFetch));
+				}
+			}
+			return entity;
+		}
+
+		/**
+		 * Maps a JSON value of a referenced entity to an entity value.
+		 *
+		 * @param attr          attribute
+		 * @param jsonValue     JSON value, can be <code>null</code>
+		 * @param fetch         fetch of the entity that contains the attribute
+		 * @param pushDownFetch reference attributes for which the referenced entities were selected, can be
+		 *                      <code>null</code>
+		 * @return value for the given attribute in the type defined by the attribute type
+		 */
+		private Object mapJsonValue(Attribute attr, JsonElement jsonValue, Fetch fetch, Fetch pushDownFetch)
+		{
+			if (jsonValue == null || jsonValue.isJsonNull())
+			{
+				return null;
+			}
+
+			AttributeType attrType = attr.getDataType();
+			switch (attrType)
+			{
+				case BOOL:
+					return jsonValue.getAsBoolean();
+				case CATEGORICAL:
+				case FILE:
+				case XREF:
+					EntityType xrefEntityType = attr.getRefEntity();
+					if (pushDownFetch != null && pushDownFetch.hasField(attr))
+					{
+						return mapJsonEntity(xrefEntityType, jsonValue.getAsJsonObject(), fetch.getFetch(attr),
+								pushDownFetch.getFetch(attr));
+					}
+					Object refIdValue = mapJsonValue(xrefEntityType.getIdAttribute(), jsonValue, null, null);
+					return entityManager.getReference(xrefEntityType, refIdValue);
+				case CATEGORICAL_MREF:
+				case MREF:
+					EntityType mrefEntityType = attr.getRefEntity();
+					JsonArray jsonArray = jsonValue.getAsJsonArray();
+					if (pushDownFetch != null && pushDownFetch.hasField(attr))
+					{
+						List<Entity> mrefEntities = new ArrayList<>(jsonArray.size());
+						for (JsonElement jsonElement : jsonArray)
+						{
+							mrefEntities.add(mapJsonEntity(mrefEntityType, jsonElement.getAsJsonObject(),
+									fetch.getFetch(attr), pushDownFetch.getFetch(attr)));
+						}
+						return mrefEntities;
+					}
+					List<Object> mrefIds = new ArrayList<>(jsonArray.size());
+					for (JsonElement jsonElement : jsonArray)
+					{
+						mrefIds.add(mapJsonValue(mrefEntityType.getIdAttribute(), jsonElement, null, null));
+					}
+					return entityManager.getReferences(mrefEntityType, mrefIds);
+				case DATE:
+					return LocalDate.parse(jsonValue.getAsString());
+				case DATE_TIME:
+					return OffsetDateTime.parse(jsonValue.getAsString()).toInstant();
+				case DECIMAL:
+					return jsonValue.getAsDouble();
+				case EMAIL:
+				case ENUM:
+				case HTML:
+				case HYPERLINK:
+				case SCRIPT:
+				case STRING:
+				case TEXT:
+					return jsonValue.getAsString();
+				case INT:
+					return jsonValue.getAsInt();
+				case LONG:
+					return jsonValue.getAsLong();
+				case COMPOUND:
+				case ONE_TO_MANY:
+					throw new IllegalAttributeTypeException(attrType);
+				default:
+					throw new UnexpectedEnumException(attrType);
+			}
+		}
+
 		/**
 		 * Maps a single results set value to an entity value.
 		 * See the JDBC 4.0 specification appendix B titled "Data Type Conversion Tables" for conversion rules.
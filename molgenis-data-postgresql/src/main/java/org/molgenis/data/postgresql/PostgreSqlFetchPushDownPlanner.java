@@ -0,0 +1,119 @@
+package org.molgenis.data.postgresql;
+
+import org.molgenis.data.Fetch;
+import org.molgenis.data.FetchPushDownPolicy;
+import org.molgenis.data.meta.model.Attribute;
+import org.molgenis.data.meta.model.EntityType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Nullable;
+import java.util.Objects;
+
+import static java.util.Objects.requireNonNull;
+import static org.molgenis.data.meta.AttributeType.ONE_TO_MANY;
+
+/**
+ * Determines for which reference attributes the referenced entities are selected in the same SQL query as the
+ * referring entities, so that resolving the references of the retrieved entities doesn't require a query per
+ * referenced entity type and nesting level.
+ *
+ * @see PostgreSqlQueryGenerator#getSqlSelect(EntityType, org.molgenis.data.Query, java.util.List, boolean, Fetch)
+ */
+@Component
+class PostgreSqlFetchPushDownPlanner
+{
+	/**
+	 * Maximum number of attributes of a referenced entity, PostgreSQL functions accept at most 100 arguments
+	 */
+	static final int MAX_PUSH_DOWN_ATTRIBUTES = 50;
+
+	private final FetchPushDownPolicy fetchPushDownPolicy;
+	private final int maxDepth;
+
+	PostgreSqlFetchPushDownPlanner(FetchPushDownPolicy fetchPushDownPolicy,
+			@Value("${db.fetch.push-down-depth:0}") int maxDepth)
+	{
+		this.fetchPushDownPolicy = requireNonNull(fetchPushDownPolicy);
+		this.maxDepth = maxDepth;
+	}
+
+	/**
+	 * Returns the reference attributes for which the referenced entities are selected together with the entities. The
+	 * fetch of such an attribute describes the reference attributes for which this applies in the referenced entity
+	 * type.
+	 *
+	 * @param entityType entity type
+	 * @param fetch      entity fetch, can be <code>null</code>
+	 * @return push down fetch or <code>null</code> if referenced entities are not selected together with the entities
+	 */
+	@Nullable
+	Fetch createPushDownFetch(EntityType entityType, @Nullable Fetch fetch)
+	{
+		if (maxDepth <= 0 || fetch == null)
+		{
+			return null;
+		}
+		return createPushDownFetch(entityType, fetch, maxDepth);
+	}
+
+	private Fetch createPushDownFetch(EntityType entityType, Fetch fetch, int depth)
+	{
+		Fetch pushDownFetch = null;
+		for (Attribute attr : entityType.getAtomicAttributes())
+		{
+			Fetch refFetch = fetch.getFetch(attr);
+			if (refFetch != null && isPushDownAllowed(entityType, attr, refFetch))
+			{
+				if (pushDownFetch == null)
+				{
+					pushDownFetch = new Fetch();
+				}
+				Fetch refPushDownFetch =
+						depth > 1 ? createPushDownFetch(attr.getRefEntity(), refFetch, depth - 1) : null;
+				pushDownFetch.field(attr.getName(), refPushDownFetch);
+			}
+		}
+		return pushDownFetch;
+	}
+
+	private boolean isPushDownAllowed(EntityType entityType, Attribute attr, Fetch refFetch)
+	{
+		switch (attr.getDataType())
+		{
+			case CATEGORICAL:
+			case CATEGORICAL_MREF:
+			case FILE:
+			case MREF:
+			case XREF:
+				break;
+			default:
+				return false;
+		}
+		if (attr.getExpression() != null)
+		{
+			return false;
+		}
+
+		EntityType refEntityType = attr.getRefEntity();
+		if (refEntityType.isAbstract() || !Objects.equals(refEntityType.getBackend(), entityType.getBackend())
+				|| refEntityType.hasAttributeWithExpression())
+		{
+			return false;
+		}
+
+		if (refFetch.getFields().size() >= MAX_PUSH_DOWN_ATTRIBUTES)
+		{
+			return false;
+		}
+		for (String refAttrName : refFetch.getFields())
+		{
+			Attribute refAttr = refEntityType.getAttribute(refAttrName);
+			if (refAttr == null || refAttr.getDataType() == ONE_TO_MANY)
+			{
+				return false;
+			}
+		}
+		return fetchPushDownPolicy.isPushDownAllowed(refEntityType);
+	}
+}
@@ -395,6 +395,19 @@ class PostgreSqlQueryGenerator
 				entityType.getIdAttribute()) + ',' + getColumnName(attr) + ") VALUES (?,?,?)";
 	}
 
+	static String getSqlCopy(EntityType entityType)
+	{
+		return "COPY " + getTableName(entityType) + " (" + getTableAttributes(entityType).map(
+				PostgreSqlNameGenerator::getColumnName).collect(joining(", ")) + ") FROM STDIN";
+	}
+
+	static String getSqlCopyJunction(EntityType entityType, Attribute attr)
+	{
+		String junctionTableName = getJunctionTableName(entityType, attr);
+		return "COPY " + junctionTableName + " (" + getJunctionTableOrderColumnName() + ',' + getColumnName(
+				entityType.getIdAttribute()) + ',' + getColumnName(attr) + ") FROM STDIN";
+	}
+
 	static String getSqlDeleteAll(EntityType entityType)
 	{
 		return "DELETE FROM " + getTableName(entityType);
@@ -434,6 +447,47 @@ class PostgreSqlQueryGenerator
 				+ getJunctionTableOrderColumnName();
 	}
 
+	/**
+	 * Returns a SQL statement that selects the junction table rows of multiple MREF attributes for a batch of entity
+	 * ids in a single round-trip. Each row consists of the index of the attribute in the given list, the entity id,
+	 * the order number and the referenced entity id as text.
+	 *
+	 * @param entityType entity type
+	 * @param attrs      attributes that are persisted in junction tables
+	 * @param numOfIds   number of entity ids in the batch
+	 * @return SQL statement with a parameter for each entity id
+	 */
+	static String getSqlJunctionTablesSelect(EntityType entityType, List<Attribute> attrs, int numOfIds)
+	{
+		String idColName = getColumnName(entityType.getIdAttribute());
+		String orderColName = getJunctionTableOrderColumnName();
+
+		StringBuilder sql = new StringBuilder("WITH batch (id) AS (VALUES ");
+		sql.append(range(0, numOfIds).mapToObj(x -> "(?)").collect(joining(", "))).append(") ");
+		for (int i = 0; i < attrs.size(); ++i)
+		{
+			if (i > 0)
+			{
+				sql.append(" UNION ALL ");
+			}
+			Attribute attr = attrs.get(i);
+			sql.append("SELECT ")
+			   .append(i)
+			   .append(',')
+			   .append(idColName)
+			   .append(',')
+			   .append(orderColName)
+			   .append(',')
+			   .append(getColumnName(attr))
+			   .append("::TEXT FROM ")
+			   .append(getJunctionTableName(entityType, attr))
+			   .append(" WHERE ")
+			   .append(idColName)
+			   .append(" IN (SELECT id FROM batch)");
+		}
+		return sql.append(" ORDER BY 1,2,3").toString();
+	}
+
 	/**
 	 * Determines whether a distinct select is required based on a given query.
 	 *
@@ -443,7 +497,7 @@ class PostgreSqlQueryGenerator
 	 * @return <code>true</code> if a distinct select is required for SQL queries based on the given query
 	 * @throws UnknownAttributeException if query field refers to an attribute that does not exist in entity meta
 	 */
-	private static <E extends Entity> boolean isDistinctSelectRequired(EntityType entityType, Query<E> q)
+	static <E extends Entity> boolean isDistinctSelectRequired(EntityType entityType, Query<E> q)
 	{
 		return isDistinctSelectRequiredRec(entityType, q.getRules());
 	}
@@ -486,6 +540,24 @@ class PostgreSqlQueryGenerator
 
 	static <E extends Entity> String getSqlSelect(EntityType entityType, Query<E> q, List<Object> parameters,
 			boolean includeMrefs)
+	{
+		return getSqlSelect(entityType, q, parameters, includeMrefs, null);
+	}
+
+	/**
+	 * Returns a SQL select statement for the given query that selects the referenced entities of the attributes in
+	 * the push down fetch as JSON, see {@link PostgreSqlFetchPushDownPlanner}.
+	 *
+	 * @param entityType    entity type
+	 * @param q             query, must not require a distinct select if a push down fetch is given
+	 * @param parameters    statement parameters, filled by this method
+	 * @param includeMrefs  whether to select the values of attributes persisted in junction tables
+	 * @param pushDownFetch reference attributes for which the referenced entities are selected, can be
+	 *                      <code>null</code>
+	 * @return SQL select statement
+	 */
+	static <E extends Entity> String getSqlSelect(EntityType entityType, Query<E> q, List<Object> parameters,
+			boolean includeMrefs, Fetch pushDownFetch)
 	{
 		final StringBuilder select = new StringBuilder("SELECT ");
 		if (isDistinctSelectRequired(entityType, q))
@@ -494,6 +566,7 @@ class PostgreSqlQueryGenerator
 		}
 		final StringBuilder group = new StringBuilder();
 		final AtomicInteger count = new AtomicInteger();
+		final AtomicInteger aliasCount = new AtomicInteger();
 		final Attribute idAttribute = entityType.getIdAttribute();
 		getPersistedAttributes(entityType).forEach(attr ->
 		{
@@ -506,7 +579,12 @@ class PostgreSqlQueryGenerator
 					select.append(", ");
 				}
 
-				if (isPersistedInOtherTable(attr))
+				if (pushDownFetch != null && pushDownFetch.hasField(attr))
+				{
+					select.append(getSqlSelectRefEntities(entityType, attr, "this", q.getFetch().getFetch(attr),
+							pushDownFetch.getFetch(attr), aliasCount)).append(" AS ").append(getColumnName(attr));
+				}
+				else if (isPersistedInOtherTable(attr))
 				{
 					if (includeMrefs || (attr.getDataType() == ONE_TO_MANY && attr.isMappedBy()))
 					{
@@ -584,6 +662,99 @@ class PostgreSqlQueryGenerator
 		return result.toString().trim();
 	}
 
+	/**
+	 * Returns a sub-select that selects the referenced entity of a reference attribute as JSON object or, for
+	 * attributes persisted in a junction table, the referenced entities as JSON array of objects in attribute value
+	 * order.
+	 *
+	 * @param entityType       entity type
+	 * @param attr             reference attribute
+	 * @param tableAlias       alias of the entity table in the enclosing select
+	 * @param refFetch         fetch of the referenced entities
+	 * @param refPushDownFetch reference attributes of the referenced entity type for which the referenced entities are
+	 *                         selected, can be <code>null</code>
+	 * @param aliasCount       counter used to create unique table aliases
+	 * @return sub-select
+	 */
+	private static String getSqlSelectRefEntities(EntityType entityType, Attribute attr, String tableAlias,
+			Fetch refFetch, Fetch refPushDownFetch, AtomicInteger aliasCount)
+	{
+		EntityType refEntityType = attr.getRefEntity();
+		String refTableAlias = "r" + aliasCount.incrementAndGet();
+		String refIdColName = getColumnName(refEntityType.getIdAttribute());
+		String jsonObject = getSqlJsonObject(refEntityType, refTableAlias, refFetch, refPushDownFetch, aliasCount);
+
+		if (isMultipleReferenceType(attr))
+		{
+			String junctionTableAlias = "j" + aliasCount.incrementAndGet();
+			String idColName = getColumnName(entityType.getIdAttribute());
+			return "(SELECT json_agg(" + jsonObject + " ORDER BY " + junctionTableAlias + '.'
+					+ getJunctionTableOrderColumnName() + ") FROM " + getJunctionTableName(entityType, attr) + " AS "
+					+ junctionTableAlias + " JOIN " + getTableName(refEntityType) + " AS " + refTableAlias + " ON "
+					+ refTableAlias + '.' + refIdColName + " = " + junctionTableAlias + '.' + getColumnName(attr)
+					+ " WHERE " + junctionTableAlias + '.' + idColName + " = " + tableAlias + '.' + idColName + ')';
+		}
+		return "(SELECT " + jsonObject + " FROM " + getTableName(refEntityType) + " AS " + refTableAlias + " WHERE "
+				+ refTableAlias + '.' + refIdColName + " = " + tableAlias + '.' + getColumnName(attr) + ')';
+	}
+
+	private static String getSqlJsonObject(EntityType entityType, String tableAlias, Fetch fetch,
+			Fetch pushDownFetch, AtomicInteger aliasCount)
+	{
+		String idAttrName = entityType.getIdAttribute().getName();
+		StringBuilder jsonObject = new StringBuilder("json_build_object(");
+		int count = 0;
+		for (Attribute attr : entityType.getAtomicAttributes())
+		{
+			if (attr.getExpression() != null || !(fetch.hasField(attr) || attr.getName().equals(idAttrName)))
+			{
+				continue;
+			}
+			if (count++ > 0)
+			{
+				jsonObject.append(", ");
+			}
+			jsonObject.append('\'').append(attr.getName().replace("'", "''")).append("', ");
+
+			if (pushDownFetch != null && pushDownFetch.hasField(attr))
+			{
+				jsonObject.append(getSqlSelectRefEntities(entityType, attr, tableAlias, fetch.getFetch(attr),
+						pushDownFetch.getFetch(attr), aliasCount));
+			}
+			else if (isMultipleReferenceType(attr))
+			{
+				String junctionTableAlias = "j" + aliasCount.incrementAndGet();
+				String idColName = getColumnName(entityType.getIdAttribute());
+				jsonObject.append("(SELECT json_agg(")
+						  .append(junctionTableAlias)
+						  .append('.')
+						  .append(getColumnName(attr))
+						  .append(" ORDER BY ")
+						  .append(junctionTableAlias)
+						  .append('.')
+						  .append(getJunctionTableOrderColumnName())
+						  .append(") FROM ")
+						  .append(getJunctionTableName(entityType, attr))
+						  .append(" AS ")
+						  .append(junctionTableAlias)
+						  .append(" WHERE ")
+						  .append(junctionTableAlias)
+						  .append('.')
+						  .append(idColName)
+						  .append(" = ")
+						  .append(tableAlias)
+						  .append('.')
+						  .append(idColName)
+						  .append(')');
+			}
+			else
+			{
+				jsonObject.append(tableAlias).append('.').append(getColumnName(attr));
+			}
+		}
+		return jsonObject.append(')').toString();
+	}
+
 	static String getSqlUpdate(EntityType entityType)
 	{
 		// use (readonly) identifier
@@ -1061,6 +1232,16 @@ class PostgreSqlQueryGenerator
 
 					parameters.add(PostgreSqlUtils.getPostgreSqlQueryValue(r.getValue(), attr));
 
+					if (result.length() > 0 && !result.toString().endsWith(" OR ") && !result.toString()
+																							 .endsWith(" AND ")
+							&& !result.toString().endsWith(" NOT "))
+					{
+						result.append(" AND ");
+					}
+					result.append(predicate);
+					break;
+				case PERMITTED:
+					predicate.append(getSqlPermitted(entityType, (PermissionFilter) r.getValue(), parameters));
 					if (result.length() > 0 && !result.toString().endsWith(" OR ") && !result.toString()
 																							 .endsWith(" AND ")
 							&& !result.toString().endsWith(" NOT "))
@@ -1085,6 +1266,47 @@ class PostgreSqlQueryGenerator
 		return result.toString().trim();
 	}
 
+	/**
+	 * Returns a semi-join with the access control list tables that matches rows with a granting entry for one of the
+	 * security identities of the filter. Access control entries are not inherited from parent objects and entries are
+	 * always granting for row level secured entities, so the first matching entry never denies the permission.
+	 */
+	private static String getSqlPermitted(EntityType entityType, PermissionFilter permissionFilter,
+			List<Object> parameters)
+	{
+		List<String> sidPredicates = Lists.newArrayList();
+		if (!permissionFilter.getPrincipals().isEmpty())
+		{
+			sidPredicates.add("(acl_sid.principal AND acl_sid.sid IN (" + getSqlParameters(
+					permissionFilter.getPrincipals(), parameters) + "))");
+		}
+		if (!permissionFilter.getAuthorities().isEmpty())
+		{
+			sidPredicates.add("(NOT acl_sid.principal AND acl_sid.sid IN (" + getSqlParameters(
+					permissionFilter.getAuthorities(), parameters) + "))");
+		}
+		if (sidPredicates.isEmpty())
+		{
+			return "FALSE";
+		}
+		parameters.add(permissionFilter.getMask());
+		parameters.add(permissionFilter.getAclClass());
+
+		return "EXISTS (SELECT 1 FROM acl_object_identity"
+				+ " JOIN acl_entry ON acl_entry.acl_object_identity = acl_object_identity.id"
+				+ " JOIN acl_sid ON acl_sid.id = acl_entry.sid WHERE (" + String.join(" OR ", sidPredicates)
+				+ ") AND acl_entry.granting AND (acl_entry.mask & ?) <> 0"
+				+ " AND acl_object_identity.object_id_class = (SELECT id FROM acl_class WHERE acl_class.class = ?)"
+				+ " AND acl_object_identity.object_id_identity = this." + getColumnName(entityType.getIdAttribute())
+				+ "::varchar)";
+	}
+
+	private static String getSqlParameters(Collection<?> values, List<Object> parameters)
+	{
+		parameters.addAll(values);
+		return values.stream().map(value -> "?").collect(joining(","));
+	}
+
 	/**
 	 * Package-private for testability
 	 */
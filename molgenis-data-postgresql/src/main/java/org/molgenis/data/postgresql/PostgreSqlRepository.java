@@ -20,7 +20,13 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.jdbc.core.*;
 
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+
 import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
@@ -33,7 +39,9 @@ import static com.google.common.base.Stopwatch.createStarted;
 import static com.google.common.collect.Lists.newArrayList;
 import static com.google.common.collect.Maps.newHashMap;
 import static java.lang.String.format;
+import static java.util.Arrays.asList;
 import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
 import static java.util.Collections.unmodifiableSet;
 import static java.util.Objects.requireNonNull;
 import static java.util.stream.Collectors.*;
@@ -46,6 +54,9 @@ import static org.molgenis.data.postgresql.PostgreSqlNameGenerator.getJunctionTa
 import static org.molgenis.data.postgresql.PostgreSqlQueryGenerator.*;
 import static org.molgenis.data.postgresql.PostgreSqlQueryUtils.getJunctionTableAttributes;
 import static org.molgenis.data.postgresql.PostgreSqlQueryUtils.getTableAttributes;
+import static org.molgenis.data.postgresql.PostgreSqlStatementCache.StatementType.*;
+import static org.molgenis.data.postgresql.PostgreSqlUtils.appendCopyRow;
+import static org.molgenis.data.postgresql.PostgreSqlUtils.getPostgreSqlQueryValue;
 import static org.molgenis.data.postgresql.PostgreSqlUtils.getPostgreSqlValue;
 import static org.molgenis.data.support.EntityTypeUtils.isMultipleReferenceType;
 
@@ -65,6 +76,14 @@ class PostgreSqlRepository extends AbstractRepository
 	 * JDBC batch operation size
 	 */
 	static final int BATCH_SIZE = 1000;
+	/**
+	 * Minimum number of entities added in one call for which entities are added using COPY instead of INSERT
+	 */
+	static final int COPY_THRESHOLD = 10000;
+	/**
+	 * Number of entities per COPY operation
+	 */
+	static final int COPY_BATCH_SIZE = 10000;
 	/**
 	 * Repository capabilities
 	 */
@@ -76,19 +95,25 @@ class PostgreSqlRepository extends AbstractRepository
 	 * Supported query operators
 	 */
 	private static final Set<Operator> QUERY_OPERATORS = unmodifiableSet(
-			EnumSet.of(EQUALS, IN, LESS, LESS_EQUAL, GREATER, GREATER_EQUAL, RANGE, LIKE, NOT, AND, OR, NESTED));
+			EnumSet.of(EQUALS, IN, LESS, LESS_EQUAL, GREATER, GREATER_EQUAL, RANGE, LIKE, NOT, AND, OR, NESTED,
+					PERMITTED));
 
 	private final PostgreSqlEntityFactory postgreSqlEntityFactory;
 	private final JdbcTemplate jdbcTemplate;
 	private final DataSource dataSource;
+	private final PostgreSqlStatementCache statementCache;
+	private final PostgreSqlFetchPushDownPlanner fetchPushDownPlanner;
 	private final EntityType entityType;
 
 	PostgreSqlRepository(PostgreSqlEntityFactory postgreSqlEntityFactory, JdbcTemplate jdbcTemplate,
-			DataSource dataSource, EntityType entityType)
+			DataSource dataSource, PostgreSqlStatementCache statementCache,
+			PostgreSqlFetchPushDownPlanner fetchPushDownPlanner, EntityType entityType)
 	{
 		this.postgreSqlEntityFactory = requireNonNull(postgreSqlEntityFactory);
 		this.jdbcTemplate = requireNonNull(jdbcTemplate);
 		this.dataSource = requireNonNull(dataSource);
+		this.statementCache = requireNonNull(statementCache);
+		this.fetchPushDownPlanner = requireNonNull(fetchPushDownPlanner);
 		this.entityType = requireNonNull(entityType);
 	}
 
@@ -154,11 +179,7 @@ class PostgreSqlRepository extends AbstractRepository
 	@Override
 	public Entity findOneById(Object id)
 	{
-		if (id == null)
-		{
-			return null;
-		}
-		return findOne(new QueryImpl<>().eq(entityType.getIdAttribute().getName(), id));
+		return findOneById(id, null);
 	}
 
 	@Override
@@ -168,7 +189,27 @@ class PostgreSqlRepository extends AbstractRepository
 		{
 			return null;
 		}
-		return findOne(new QueryImpl<>().eq(entityType.getIdAttribute().getName(), id).fetch(fetch));
+
+		Attribute idAttr = entityType.getIdAttribute();
+		Query<Entity> q = new QueryImpl<>().eq(idAttr.getName(), id).pageSize(1).fetch(fetch);
+		// the referenced entities that are selected depend on the current user, so don't cache these statements
+		Fetch pushDownFetch = fetchPushDownPlanner.createPushDownFetch(entityType, fetch);
+		String sql = pushDownFetch != null ? getSqlSelect(entityType, q, new ArrayList<>(), true,
+				pushDownFetch) : statementCache.getSelectByIdStatement(entityType, fetch,
+				() -> getSqlSelect(entityType, q, new ArrayList<>(), true));
+		Object postgreSqlId = getPostgreSqlQueryValue(id, idAttr);
+
+		if (LOG.isDebugEnabled())
+		{
+			LOG.debug("Fetching [{}] entity with id [{}]", getName(), id);
+			if (LOG.isTraceEnabled())
+			{
+				LOG.trace("SQL: {}, parameters: {}", sql, postgreSqlId);
+			}
+		}
+		RowMapper<Entity> entityMapper = postgreSqlEntityFactory.createRowMapper(entityType, fetch, pushDownFetch);
+		List<Entity> entities = jdbcTemplate.query(sql, new Object[] { postgreSqlId }, entityMapper);
+		return !entities.isEmpty() ? entities.get(0) : null;
 	}
 
 	@Override
@@ -204,9 +245,9 @@ class PostgreSqlRepository extends AbstractRepository
 	@Override
 	public void deleteAll(Stream<Object> ids)
 	{
+		String sql = statementCache.getStatement(entityType, DELETE, () -> getSqlDelete(entityType));
 		Iterators.partition(ids.iterator(), BATCH_SIZE).forEachRemaining(idsBatch ->
 		{
-			String sql = getSqlDelete(entityType);
 			if (LOG.isDebugEnabled())
 			{
 				LOG.debug("Deleting {} [{}] entities", idsBatch.size(), getName());
@@ -222,7 +263,7 @@ class PostgreSqlRepository extends AbstractRepository
 	@Override
 	public void deleteAll()
 	{
-		String deleteAllSql = getSqlDeleteAll(entityType);
+		String deleteAllSql = statementCache.getStatement(entityType, DELETE_ALL, () -> getSqlDeleteAll(entityType));
 		if (LOG.isDebugEnabled())
 		{
 			LOG.debug("Deleting all [{}] entities", getName());
@@ -247,7 +288,13 @@ class PostgreSqlRepository extends AbstractRepository
 	@Override
 	public Integer add(Stream<Entity> entities)
 	{
-		return addBatching(entities.iterator());
+		Iterator<Entity> it = entities.iterator();
+		List<Entity> firstEntities = newArrayList(Iterators.limit(it, COPY_THRESHOLD));
+		if (it.hasNext())
+		{
+			return addCopying(Iterators.concat(firstEntities.iterator(), it));
+		}
+		return addBatching(firstEntities.iterator());
 	}
 
 	@Override
@@ -305,18 +352,32 @@ class PostgreSqlRepository extends AbstractRepository
 	private void handleBatch(Consumer<List<Entity>> consumer, EntityType entityType, Map<Object, Entity> batch)
 	{
 		AttributeType idAttributeDataType = entityType.getIdAttribute().getDataType();
-		LOG.debug("Select ID values for a batch of MREF attributes...");
-		for (Attribute mrefAttr : entityType.getAtomicAttributes())
-		{
-			if (mrefAttr.getExpression() == null && isMultipleReferenceType(mrefAttr) && !(
-					mrefAttr.getDataType() == ONE_TO_MANY && mrefAttr.isMappedBy()))
+		List<Attribute> mrefAttrs = stream(entityType.getAtomicAttributes().spliterator(), false).filter(
+				mrefAttr -> mrefAttr.getExpression() == null && isMultipleReferenceType(mrefAttr) && !(
+						mrefAttr.getDataType() == ONE_TO_MANY && mrefAttr.isMappedBy())).collect(toList());
+		if (!mrefAttrs.isEmpty())
+		{
+			LOG.debug("Select ID values for a batch of MREF attributes...");
+			List<Multimap<Object, Object>> mrefIDsList;
+			if (mrefAttrs.size() == 1)
+			{
+				Attribute mrefAttr = mrefAttrs.get(0);
+				mrefIDsList = singletonList(selectMrefIDsForAttribute(entityType, idAttributeDataType, mrefAttr,
+						batch.keySet(), mrefAttr.getRefEntity().getIdAttribute().getDataType()));
+			}
+			else
+			{
+				mrefIDsList = selectMrefIDsForAttributes(entityType, idAttributeDataType, mrefAttrs, batch.keySet());
+			}
+
+			for (int i = 0; i < mrefAttrs.size(); ++i)
 			{
+				Attribute mrefAttr = mrefAttrs.get(i);
 				EntityType refEntityType = mrefAttr.getRefEntity();
-				Multimap<Object, Object> mrefIDs = selectMrefIDsForAttribute(entityType, idAttributeDataType, mrefAttr,
-						batch.keySet(), refEntityType.getIdAttribute().getDataType());
-				for (Map.Entry entry : batch.entrySet())
+				Multimap<Object, Object> mrefIDs = mrefIDsList.get(i);
+				for (Map.Entry<Object, Entity> entry : batch.entrySet())
 				{
-					batch.get(entry.getKey())
+					entry.getValue()
 						 .set(mrefAttr.getName(), postgreSqlEntityFactory.getReferences(refEntityType,
 								 newArrayList(mrefIDs.get(entry.getKey()))));
 				}
@@ -326,6 +387,41 @@ class PostgreSqlRepository extends AbstractRepository
 		consumer.accept(batch.values().stream().collect(toList()));
 	}
 
+	/**
+	 * Selects MREF IDs for multiple MREF attributes from their junction tables in a single query, in the order of the
+	 * MREF attribute values.
+	 *
+	 * @param entityType          EntityType for the entities
+	 * @param idAttributeDataType {@link AttributeType} of the ID attribute of the entity
+	 * @param mrefAttrs           MREF attributes to select the values for
+	 * @param ids                 {@link Set} of {@link Object}s containing the values for the ID attribute of the entity
+	 * @return list with for each MREF attribute a Multimap mapping entity ID to a list containing the MREF IDs
+	 */
+	private List<Multimap<Object, Object>> selectMrefIDsForAttributes(EntityType entityType,
+			AttributeType idAttributeDataType, List<Attribute> mrefAttrs, Set<Object> ids)
+	{
+		Stopwatch stopwatch = null;
+		if (LOG.isTraceEnabled()) stopwatch = createStarted();
+
+		String junctionTablesSelect = getSqlJunctionTablesSelect(entityType, mrefAttrs, ids.size());
+		LOG.trace("SQL: {}", junctionTablesSelect);
+
+		List<AttributeType> refIdDataTypes = mrefAttrs.stream()
+													  .map(mrefAttr -> mrefAttr.getRefEntity()
+																			   .getIdAttribute()
+																			   .getDataType())
+													  .collect(toList());
+		List<Multimap<Object, Object>> mrefIDsList = mrefAttrs.stream()
+															  .map(mrefAttr -> ArrayListMultimap.create())
+															  .collect(toList());
+		jdbcTemplate.query(junctionTablesSelect,
+				getJunctionTablesRowCallbackHandler(idAttributeDataType, refIdDataTypes, mrefIDsList), ids.toArray());
+
+		if (LOG.isTraceEnabled()) LOG.trace("Selected ID values for {} MREF attributes in {}", mrefAttrs.size(),
+				stopwatch);
+		return mrefIDsList;
+	}
+
 	/**
 	 * Selects MREF IDs for an MREF attribute from the junction table, in the order of the MREF attribute value.
 	 *
@@ -356,60 +452,55 @@ class PostgreSqlRepository extends AbstractRepository
 
 	RowCallbackHandler getJunctionTableRowCallbackHandler(AttributeType idAttributeDataType,
 			AttributeType refIdDataType, Multimap<Object, Object> mrefIDs)
+	{
+		return row -> mrefIDs.put(getJunctionTableId(row, 1, idAttributeDataType),
+				getJunctionTableId(row, 3, refIdDataType));
+	}
+
+	RowCallbackHandler getJunctionTablesRowCallbackHandler(AttributeType idAttributeDataType,
+			List<AttributeType> refIdDataTypes, List<Multimap<Object, Object>> mrefIDsList)
 	{
 		return row ->
 		{
-			Object id;
-			switch (idAttributeDataType)
-			{
-				case EMAIL:
-				case HYPERLINK:
-				case STRING:
-					id = row.getString(1);
-					break;
-				case INT:
-					id = row.getInt(1);
-					break;
-				case LONG:
-					id = row.getLong(1);
-					break;
-				default:
-					throw new UnexpectedEnumException(idAttributeDataType);
-			}
-
-			Object refId;
-			switch (refIdDataType)
-			{
-				case EMAIL:
-				case HYPERLINK:
-				case STRING:
-					refId = row.getString(3);
-					break;
-				case INT:
-					refId = row.getInt(3);
-					break;
-				case LONG:
-					refId = row.getLong(3);
-					break;
-				default:
-					throw new UnexpectedEnumException(refIdDataType);
-			}
-			mrefIDs.put(id, refId);
+			int attrIndex = row.getInt(1);
+			mrefIDsList.get(attrIndex)
+					   .put(getJunctionTableId(row, 2, idAttributeDataType),
+							   getJunctionTableId(row, 4, refIdDataTypes.get(attrIndex)));
 		};
 	}
 
+	private static Object getJunctionTableId(ResultSet row, int columnIndex, AttributeType idDataType)
+			throws SQLException
+	{
+		switch (idDataType)
+		{
+			case EMAIL:
+			case HYPERLINK:
+			case STRING:
+				return row.getString(columnIndex);
+			case INT:
+				return row.getInt(columnIndex);
+			case LONG:
+				return row.getLong(columnIndex);
+			default:
+				throw new UnexpectedEnumException(idDataType);
+		}
+	}
+
 	private BatchingQueryResult<Entity> findAllBatching(Query<Entity> q)
 	{
-		return new BatchingQueryResult<Entity>(BATCH_SIZE, q)
+		return new BatchingQueryResult<Entity>(BATCH_SIZE, q, getEntityType())
 		{
 			@Override
 			protected List<Entity> getBatch(Query<Entity> batchQuery)
 			{
 				List<Object> parameters = new ArrayList<>();
 
-				String sql = getSqlSelect(getEntityType(), batchQuery, parameters, true);
+				Fetch pushDownFetch = !isDistinctSelectRequired(getEntityType(), batchQuery) ?
+						fetchPushDownPlanner.createPushDownFetch(getEntityType(), batchQuery.getFetch()) : null;
+				String sql = getSqlSelect(getEntityType(), batchQuery, parameters, true, pushDownFetch);
 				RowMapper<Entity> entityMapper = postgreSqlEntityFactory.createRowMapper(getEntityType(),
-						batchQuery.getFetch());
+						batchQuery.getFetch(), pushDownFetch);
 				LOG.debug("Fetching [{}] data for query [{}]", getName(), batchQuery);
 				LOG.trace("SQL: {}, parameters: {}", sql, parameters);
 				Stopwatch sw = createStarted();
@@ -428,7 +519,7 @@ class PostgreSqlRepository extends AbstractRepository
 		final Attribute idAttr = entityType.getIdAttribute();
 		final List<Attribute> tableAttrs = getTableAttributes(entityType).collect(toList());
 		final List<Attribute> junctionTableAttrs = getJunctionTableAttributes(entityType).collect(toList());
-		final String insertSql = getSqlInsert(entityType);
+		final String insertSql = statementCache.getStatement(entityType, INSERT, () -> getSqlInsert(entityType));
 
 		Iterators.partition(entities, BATCH_SIZE).forEachRemaining(entitiesBatch ->
 		{
@@ -465,6 +556,49 @@ class PostgreSqlRepository extends AbstractRepository
 		return count.get();
 	}
 
+	private Integer addCopying(Iterator<? extends Entity> entities)
+	{
+		AtomicInteger count = new AtomicInteger();
+
+		final Attribute idAttr = entityType.getIdAttribute();
+		final List<Attribute> tableAttrs = getTableAttributes(entityType).collect(toList());
+		final List<Attribute> junctionTableAttrs = getJunctionTableAttributes(entityType).collect(toList());
+		final String copySql = statementCache.getStatement(entityType, COPY, () -> getSqlCopy(entityType));
+
+		Iterators.partition(entities, COPY_BATCH_SIZE).forEachRemaining(entitiesBatch ->
+		{
+			LOG.debug("Copying {} [{}] entities", entitiesBatch.size(), getName());
+
+			// persist values in entity table
+			StringBuilder copyRows = new StringBuilder();
+			for (Entity entity : entitiesBatch)
+			{
+				appendCopyRow(copyRows,
+						tableAttrs.stream().map(attr -> getPostgreSqlValue(entity, attr)).collect(toList()));
+			}
+			copyIn(copySql, copyRows);
+
+			// persist values in entity junction table
+			if (!junctionTableAttrs.isEmpty())
+			{
+				Map<String, List<Map<String, Object>>> mrefs = createMrefMap(idAttr, junctionTableAttrs, entitiesBatch);
+
+				for (Attribute attr : junctionTableAttrs)
+				{
+					List<Map<String, Object>> attrMrefs = mrefs.get(attr.getName());
+					if (attrMrefs != null && !attrMrefs.isEmpty())
+					{
+						copyMrefs(attrMrefs, attr);
+					}
+				}
+			}
+
+			count.addAndGet(entitiesBatch.size());
+		});
+
+		return count.get();
+	}
+
 	private static Map<String, List<Map<String, Object>>> createMrefMap(Attribute idAttr,
 			List<Attribute> junctionTableAttrs, List<? extends Entity> entitiesBatch)
 	{
@@ -517,7 +651,7 @@ class PostgreSqlRepository extends AbstractRepository
 		final List<Attribute> tableAttrs = getTableAttributes(entityType).collect(toList());
 		final List<Attribute> junctionTableAttrs = getJunctionTableAttributes(entityType).filter(
 				attr -> !attr.isReadOnly()).collect(toList());
-		final String updateSql = getSqlUpdate(entityType);
+		final String updateSql = statementCache.getStatement(entityType, UPDATE, () -> getSqlUpdate(entityType));
 
 		// update values in entity table
 		Iterators.partition(entities, BATCH_SIZE).forEachRemaining(entitiesBatch ->
@@ -582,7 +716,8 @@ class PostgreSqlRepository extends AbstractRepository
 		}
 
 		final Attribute idAttr = entityType.getIdAttribute();
-		String insertMrefSql = getSqlInsertJunction(entityType, attr);
+		String insertMrefSql = statementCache.getStatement(entityType, attr, INSERT_JUNCTION,
+				() -> getSqlInsertJunction(entityType, attr));
 
 		if (LOG.isDebugEnabled())
 		{
@@ -601,20 +736,72 @@ class PostgreSqlRepository extends AbstractRepository
 		}
 		catch (MolgenisValidationException mve)
 		{
-			if (mve.getMessage().equals(VALUE_TOO_LONG_MSG))
+			throw translateMrefValidationException(mve, attr);
+		}
+	}
+
+	private void copyMrefs(List<Map<String, Object>> mrefs, Attribute attr)
+	{
+		final Attribute idAttr = entityType.getIdAttribute();
+		String copyMrefSql = statementCache.getStatement(entityType, attr, COPY_JUNCTION,
+				() -> getSqlCopyJunction(entityType, attr));
+
+		LOG.debug("Copying junction table entries for entity [{}] attribute [{}]", getName(), attr.getName());
+
+		StringBuilder copyRows = new StringBuilder();
+		for (Map<String, Object> mref : mrefs)
+		{
+			appendCopyRow(copyRows, getJunctionTableRowValues(mref, attr, idAttr));
+		}
+
+		try
+		{
+			copyIn(copyMrefSql, copyRows);
+		}
+		catch (MolgenisValidationException mve)
+		{
+			throw translateMrefValidationException(mve, attr);
+		}
+	}
+
+	private MolgenisValidationException translateMrefValidationException(MolgenisValidationException mve,
+			Attribute attr)
+	{
+		if (mve.getMessage().equals(VALUE_TOO_LONG_MSG))
+		{
+			return new MolgenisValidationException(new ConstraintViolation(
+					format("One of the mref values in entity type [%s] attribute [%s] is too long.",
+							getEntityType().getId(), attr.getName())));
+		}
+		return mve;
+	}
+
+	/**
+	 * Streams rows in COPY text format to the database using the connection of the current transaction. Exceptions
+	 * are translated by the exception translator of the {@link JdbcTemplate}.
+	 */
+	private void copyIn(String copySql, StringBuilder copyRows)
+	{
+		LOG.trace("SQL: {}", copySql);
+		jdbcTemplate.execute((ConnectionCallback<Long>) connection ->
+		{
+			CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+			try
 			{
-				mve = new MolgenisValidationException(new ConstraintViolation(
-						format("One of the mref values in entity type [%s] attribute [%s] is too long.",
-								getEntityType().getId(), attr.getName())));
+				return copyManager.copyIn(copySql, new StringReader(copyRows.toString()));
 			}
-			throw mve;
-		}
+			catch (IOException e)
+			{
+				throw new UncheckedIOException(e);
+			}
+		});
 	}
 
 	private void removeMrefs(final List<Object> ids, final Attribute attr)
 	{
 		final Attribute idAttr = attr.isMappedBy() ? attr.getMappedBy() : entityType.getIdAttribute();
-		String deleteMrefSql = getSqlDelete(PostgreSqlNameGenerator.getJunctionTableName(entityType, attr), idAttr);
+		String deleteMrefSql = statementCache.getStatement(entityType, attr, DELETE_JUNCTION,
+				() -> getSqlDelete(PostgreSqlNameGenerator.getJunctionTableName(entityType, attr), idAttr));
 
 		if (LOG.isDebugEnabled())
 		{
@@ -627,6 +814,28 @@ class PostgreSqlRepository extends AbstractRepository
 		jdbcTemplate.batchUpdate(deleteMrefSql, new BatchJunctionTableDeletePreparedStatementSetter(ids));
 	}
 
+	/**
+	 * Returns the order number, first id value and second id value of a junction table row.
+	 */
+	private static List<Object> getJunctionTableRowValues(Map<String, Object> mref, Attribute attr, Attribute idAttr)
+	{
+		Object idValue0;
+		Object idValue1;
+		if (attr.isMappedBy())
+		{
+			Entity mrefEntity = (Entity) mref.get(attr.getName());
+			idValue0 = getPostgreSqlValue(mrefEntity, attr.getRefEntity().getIdAttribute());
+			idValue1 = mref.get(idAttr.getName());
+		}
+		else
+		{
+			idValue0 = mref.get(idAttr.getName());
+			Entity mrefEntity = (Entity) mref.get(attr.getName());
+			idValue1 = getPostgreSqlValue(mrefEntity, mrefEntity.getEntityType().getIdAttribute());
+		}
+		return asList(mref.get(getJunctionTableOrderColumnName()), idValue0, idValue1);
+	}
+
 	private static class BatchAddPreparedStatementSetter implements BatchPreparedStatementSetter
 	{
 		private final List<? extends Entity> entities;
@@ -732,25 +941,10 @@ class PostgreSqlRepository extends AbstractRepository
 		@Override
 		public void setValues(PreparedStatement preparedStatement, int i) throws SQLException
 		{
-			Map<String, Object> mref = mrefs.get(i);
-
-			Object idValue0;
-			Object idValue1;
-			if (attr.isMappedBy())
-			{
-				Entity mrefEntity = (Entity) mref.get(attr.getName());
-				idValue0 = getPostgreSqlValue(mrefEntity, attr.getRefEntity().getIdAttribute());
-				idValue1 = mref.get(idAttr.getName());
-			}
-			else
-			{
-				idValue0 = mref.get(idAttr.getName());
-				Entity mrefEntity = (Entity) mref.get(attr.getName());
-				idValue1 = getPostgreSqlValue(mrefEntity, mrefEntity.getEntityType().getIdAttribute());
-			}
-			preparedStatement.setInt(1, (int) mref.get(getJunctionTableOrderColumnName()));
-			preparedStatement.setObject(2, idValue0);
-			preparedStatement.setObject(3, idValue1);
+			List<Object> values = getJunctionTableRowValues(mrefs.get(i), attr, idAttr);
+			preparedStatement.setInt(1, (int) values.get(0));
+			preparedStatement.setObject(2, values.get(1));
+			preparedStatement.setObject(3, values.get(2));
 		}
 
 		@Override
@@ -46,14 +46,19 @@ public class PostgreSqlRepositoryCollection extends AbstractRepositoryCollection
 	private final DataSource dataSource;
 	private final JdbcTemplate jdbcTemplate;
 	private final DataService dataService;
+	private final PostgreSqlStatementCache statementCache;
+	private final PostgreSqlFetchPushDownPlanner fetchPushDownPlanner;
 
 	PostgreSqlRepositoryCollection(PostgreSqlEntityFactory postgreSqlEntityFactory, DataSource dataSource,
-			JdbcTemplate jdbcTemplate, DataService dataService)
+			JdbcTemplate jdbcTemplate, DataService dataService, PostgreSqlStatementCache statementCache,
+			PostgreSqlFetchPushDownPlanner fetchPushDownPlanner)
 	{
 		this.postgreSqlEntityFactory = requireNonNull(postgreSqlEntityFactory);
 		this.dataSource = requireNonNull(dataSource);
 		this.jdbcTemplate = requireNonNull(jdbcTemplate);
 		this.dataService = requireNonNull(dataService);
+		this.statementCache = requireNonNull(statementCache);
+		this.fetchPushDownPlanner = requireNonNull(fetchPushDownPlanner);
 	}
 
 	@Override
@@ -562,7 +567,8 @@ public class PostgreSqlRepositoryCollection extends AbstractRepositoryCollection
 	 */
 	private PostgreSqlRepository createPostgreSqlRepository(EntityType entityType)
 	{
-		return new PostgreSqlRepository(postgreSqlEntityFactory, jdbcTemplate, dataSource, entityType);
+		return new PostgreSqlRepository(postgreSqlEntityFactory, jdbcTemplate, dataSource, statementCache,
+				fetchPushDownPlanner, entityType);
 	}
 
 	private boolean isTableExists(EntityType entityType)
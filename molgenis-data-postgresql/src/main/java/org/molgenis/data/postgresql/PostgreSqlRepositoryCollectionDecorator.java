@@ -11,16 +11,20 @@ import org.molgenis.data.postgresql.identifier.EntityTypeRegistry;
 import static java.util.Objects.requireNonNull;
 
 /**
- * Repository collection decorator that updates {@link EntityTypeRegistry} when entity types are create, updated or deleted.
+ * Repository collection decorator that updates {@link EntityTypeRegistry} and evicts the {@link PostgreSqlStatementCache}
+ * when entity types are create, updated or deleted.
  */
 public class PostgreSqlRepositoryCollectionDecorator extends AbstractRepositoryCollectionDecorator
 {
 	private final EntityTypeRegistry entityTypeRegistry;
+	private final PostgreSqlStatementCache statementCache;
 
-	PostgreSqlRepositoryCollectionDecorator(RepositoryCollection delegateRepositoryCollection, EntityTypeRegistry entityTypeRegistry)
+	PostgreSqlRepositoryCollectionDecorator(RepositoryCollection delegateRepositoryCollection,
+			EntityTypeRegistry entityTypeRegistry, PostgreSqlStatementCache statementCache)
 	{
 		super(delegateRepositoryCollection);
 		this.entityTypeRegistry = requireNonNull(entityTypeRegistry);
+		this.statementCache = requireNonNull(statementCache);
 	}
 
 	@Override
@@ -36,6 +40,7 @@ public class PostgreSqlRepositoryCollectionDecorator extends AbstractRepositoryC
 	{
 		delegate().deleteRepository(entityType);
 		entityTypeRegistry.unregisterEntityType(entityType);
+		statementCache.evictAll();
 	}
 
 	@Override
@@ -43,6 +48,7 @@ public class PostgreSqlRepositoryCollectionDecorator extends AbstractRepositoryC
 	{
 		delegate().updateRepository(entityType, updatedEntityType);
 		entityTypeRegistry.registerEntityType(updatedEntityType);
+		statementCache.evictAll();
 	}
 
 	@Override
@@ -50,6 +56,7 @@ public class PostgreSqlRepositoryCollectionDecorator extends AbstractRepositoryC
 	{
 		entityTypeRegistry.addAttribute(entityType, attribute);
 		delegate().addAttribute(entityType, attribute);
+		statementCache.evictAll();
 	}
 
 	@Override
@@ -57,6 +64,7 @@ public class PostgreSqlRepositoryCollectionDecorator extends AbstractRepositoryC
 	{
 		entityTypeRegistry.updateAttribute(entityType, attr, updatedAttr);
 		delegate().updateAttribute(entityType, attr, updatedAttr);
+		statementCache.evictAll();
 	}
 
 	@Override
@@ -64,5 +72,6 @@ public class PostgreSqlRepositoryCollectionDecorator extends AbstractRepositoryC
 	{
 		entityTypeRegistry.deleteAttribute(entityType, attr);
 		delegate().deleteAttribute(entityType, attr);
+		statementCache.evictAll();
 	}
 }
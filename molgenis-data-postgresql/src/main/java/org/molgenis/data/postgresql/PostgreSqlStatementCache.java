@@ -0,0 +1,180 @@
+package org.molgenis.data.postgresql;
+
+import com.google.auto.value.AutoValue;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.molgenis.data.Fetch;
+import org.molgenis.data.meta.model.Attribute;
+import org.molgenis.data.meta.model.EntityType;
+import org.molgenis.data.transaction.DefaultMolgenisTransactionListener;
+import org.molgenis.data.transaction.TransactionManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.Nullable;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import static org.molgenis.data.transaction.TransactionManager.TRANSACTION_ID_RESOURCE_NAME;
+
+/**
+ * Caches the SQL statements of frequent repository operations per entity type, so that they are generated once
+ * instead of on every call. Reusing identical SQL strings also allows the PostgreSQL driver to reuse server-side
+ * prepared statements.
+ * <p>
+ * Statements of an entity type can depend on the schema of referenced entity types, so all statements are evicted
+ * when the schema of an entity type changes. A transaction that changes a schema doesn't use the cache until it
+ * completes.
+ */
+@Component
+class PostgreSqlStatementCache extends DefaultMolgenisTransactionListener
+{
+	private static final int MAX_STATEMENTS = 10000;
+
+	enum StatementType
+	{
+		INSERT, UPDATE, DELETE, DELETE_ALL, COPY, SELECT_BY_ID, INSERT_JUNCTION, DELETE_JUNCTION, COPY_JUNCTION
+	}
+
+	private final Cache<StatementKey, String> statements;
+	private final Set<String> schemaChangingTransactionIds;
+	/**
+	 * Incremented on eviction to prevent caching statements that were generated before the eviction
+	 */
+	private long generation;
+
+	PostgreSqlStatementCache(TransactionManager transactionManager)
+	{
+		statements = CacheBuilder.newBuilder().maximumSize(MAX_STATEMENTS).build();
+		schemaChangingTransactionIds = ConcurrentHashMap.newKeySet();
+		transactionManager.addTransactionListener(this);
+	}
+
+	String getStatement(EntityType entityType, StatementType statementType, Supplier<String> statementSupplier)
+	{
+		return getStatement(StatementKey.create(entityType.getId(), statementType, null, null), statementSupplier);
+	}
+
+	String getStatement(EntityType entityType, Attribute attr, StatementType statementType,
+			Supplier<String> statementSupplier)
+	{
+		return getStatement(StatementKey.create(entityType.getId(), statementType, attr.getName(), null),
+				statementSupplier);
+	}
+
+	/**
+	 * Fetches are mutable, so the statement is cached by the string representation of the fetch instead of the fetch
+	 * itself to prevent the cache key from changing after it is cached.
+	 */
+	String getSelectByIdStatement(EntityType entityType, @Nullable Fetch fetch, Supplier<String> statementSupplier)
+	{
+		String fetchString = fetch != null ? fetch.toString() : null;
+		return getStatement(StatementKey.create(entityType.getId(), StatementType.SELECT_BY_ID, null, fetchString),
+				statementSupplier);
+	}
+
+	/**
+	 * Evicts all statements, must be called when the schema of an entity type changes.
+	 */
+	void evictAll()
+	{
+		String transactionId = getTransactionId();
+		if (transactionId != null)
+		{
+			schemaChangingTransactionIds.add(transactionId);
+		}
+		evictStatements();
+	}
+
+	@Override
+	public void afterCommitTransaction(String transactionId)
+	{
+		if (schemaChangingTransactionIds.remove(transactionId))
+		{
+			evictStatements();
+		}
+	}
+
+	@Override
+	public void rollbackTransaction(String transactionId)
+	{
+		if (schemaChangingTransactionIds.remove(transactionId))
+		{
+			evictStatements();
+		}
+	}
+
+	private String getStatement(StatementKey key, Supplier<String> statementSupplier)
+	{
+		if (isSchemaChangingTransaction())
+		{
+			return statementSupplier.get();
+		}
+
+		String statement = statements.getIfPresent(key);
+		if (statement == null)
+		{
+			long statementGeneration = getGeneration();
+			statement = statementSupplier.get();
+			putStatement(key, statement, statementGeneration);
+		}
+		return statement;
+	}
+
+	private boolean isSchemaChangingTransaction()
+	{
+		if (schemaChangingTransactionIds.isEmpty())
+		{
+			return false;
+		}
+		String transactionId = getTransactionId();
+		return transactionId != null && schemaChangingTransactionIds.contains(transactionId);
+	}
+
+	private synchronized long getGeneration()
+	{
+		return generation;
+	}
+
+	private synchronized void putStatement(StatementKey key, String statement, long statementGeneration)
+	{
+		if (statementGeneration == generation)
+		{
+			statements.put(key, statement);
+		}
+	}
+
+	private synchronized void evictStatements()
+	{
+		++generation;
+		statements.invalidateAll();
+	}
+
+	private static String getTransactionId()
+	{
+		return (String) TransactionSynchronizationManager.getResource(TRANSACTION_ID_RESOURCE_NAME);
+	}
+
+	@AutoValue
+	@SuppressWarnings("squid:S1610") // Abstract classes without fields should be converted to interfaces
+	abstract static class StatementKey
+	{
+		abstract String getEntityTypeId();
+
+		abstract StatementType getStatementType();
+
+		@Nullable
+		abstract String getAttributeName();
+
+		@Nullable
+		abstract String getFetchString();
+
+		static StatementKey create(String entityTypeId, StatementType statementType, @Nullable String attributeName,
+				@Nullable String fetchString)
+		{
+			return new AutoValue_PostgreSqlStatementCache_StatementKey(entityTypeId, statementType, attributeName,
+					fetchString);
+		}
+	}
+}
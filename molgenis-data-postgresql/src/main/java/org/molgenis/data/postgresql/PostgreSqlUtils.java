@@ -11,6 +11,7 @@ import org.molgenis.util.UnexpectedEnumException;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
+import java.util.List;
 
 import static java.lang.String.format;
 import static java.time.ZoneOffset.UTC;
@@ -218,4 +219,60 @@ class PostgreSqlUtils
 			}
 		}
 	}
+
+	/**
+	 * Appends a row in the text format of the PostgreSQL COPY command.
+	 *
+	 * @param copyRows         rows in COPY text format
+	 * @param postgreSqlValues PostgreSQL values of the row as returned by {@link #getPostgreSqlValue(Entity, Attribute)}
+	 */
+	static void appendCopyRow(StringBuilder copyRows, List<Object> postgreSqlValues)
+	{
+		for (int i = 0; i < postgreSqlValues.size(); ++i)
+		{
+			if (i > 0)
+			{
+				copyRows.append('\t');
+			}
+			appendCopyValue(copyRows, postgreSqlValues.get(i));
+		}
+		copyRows.append('\n');
+	}
+
+	private static void appendCopyValue(StringBuilder copyRows, Object postgreSqlValue)
+	{
+		if (postgreSqlValue == null)
+		{
+			copyRows.append("\\N");
+		}
+		else if (postgreSqlValue instanceof Boolean)
+		{
+			copyRows.append((Boolean) postgreSqlValue ? 't' : 'f');
+		}
+		else
+		{
+			String value = postgreSqlValue.toString();
+			for (int i = 0; i < value.length(); ++i)
+			{
+				char c = value.charAt(i);
+				switch (c)
+				{
+					case '\\':
+						copyRows.append("\\\\");
+						break;
+					case '\n':
+						copyRows.append("\\n");
+						break;
+					case '\r':
+						copyRows.append("\\r");
+						break;
+					case '\t':
+						copyRows.append("\\t");
+						break;
+					default:
+						copyRows.append(c);
+				}
+			}
+		}
+	}
 }
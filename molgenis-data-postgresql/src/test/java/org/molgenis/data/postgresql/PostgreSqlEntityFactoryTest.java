@@ -2,6 +2,7 @@ package org.molgenis.data.postgresql;
 
 import org.molgenis.data.Entity;
 import org.molgenis.data.EntityManager;
+import org.molgenis.data.Fetch;
 import org.molgenis.data.meta.AttributeType;
 import org.molgenis.data.meta.model.Attribute;
 import org.molgenis.data.meta.model.EntityType;
@@ -10,6 +11,7 @@ import org.testng.annotations.Test;
 
 import java.sql.Array;
 import java.sql.ResultSet;
+import java.time.LocalDate;
 
 import static com.google.common.collect.Lists.newArrayList;
 import static java.util.Collections.singleton;
@@ -123,4 +125,60 @@ public class PostgreSqlEntityFactoryTest
 		assertEquals(postgreSqlEntityFactory.createRowMapper(entityType, null).mapRow(rs, rowNum), entity);
 		verify(entity).set(xrefAttr, refEntity);
 	}
-}
\ No newline at end of file
+
+	@Test
+	public void createRowMapperPushDownMref() throws Exception
+	{
+		Attribute refRefIdAttr = mock(Attribute.class);
+		when(refRefIdAttr.getDataType()).thenReturn(INT);
+		EntityType refRefEntityType = mock(EntityType.class);
+		when(refRefEntityType.getIdAttribute()).thenReturn(refRefIdAttr);
+
+		Attribute refIdAttr = mock(Attribute.class);
+		when(refIdAttr.getName()).thenReturn("id");
+		when(refIdAttr.getDataType()).thenReturn(STRING);
+		Attribute refDateAttr = mock(Attribute.class);
+		when(refDateAttr.getName()).thenReturn("date");
+		when(refDateAttr.getDataType()).thenReturn(DATE);
+		Attribute refXrefAttr = mock(Attribute.class);
+		when(refXrefAttr.getName()).thenReturn("xrefAttr");
+		when(refXrefAttr.getDataType()).thenReturn(XREF);
+		when(refXrefAttr.getRefEntity()).thenReturn(refRefEntityType);
+		EntityType refEntityType = mock(EntityType.class);
+		when(refEntityType.getIdAttribute()).thenReturn(refIdAttr);
+		when(refEntityType.getAtomicAttributes()).thenReturn(newArrayList(refIdAttr, refDateAttr, refXrefAttr));
+
+		String mrefAttrName = "mrefAttr";
+		Attribute mrefAttr = mock(Attribute.class);
+		when(mrefAttr.getName()).thenReturn(mrefAttrName);
+		when(mrefAttr.getDataType()).thenReturn(MREF);
+		when(mrefAttr.getRefEntity()).thenReturn(refEntityType);
+
+		EntityType entityType = mock(EntityType.class);
+		when(entityType.getAtomicAttributes()).thenReturn(singleton(mrefAttr));
+		ResultSet rs = mock(ResultSet.class);
+		when(rs.getString(mrefAttrName)).thenReturn(
+				"[{\"id\":\"id0\",\"date\":\"2018-01-31\",\"xrefAttr\":3},{\"id\":\"id1\",\"date\":null,\"xrefAttr\":null}]");
+
+		Fetch refFetch = new Fetch().field("id").field("date").field("xrefAttr");
+		Fetch fetch = new Fetch().field(mrefAttrName, refFetch);
+		Fetch pushDownFetch = new Fetch().field(mrefAttrName);
+
+		Entity entity = mock(Entity.class);
+		when(entityManager.createFetch(entityType, fetch)).thenReturn(entity);
+		Entity refEntity0 = mock(Entity.class);
+		Entity refEntity1 = mock(Entity.class);
+		when(entityManager.createFetch(refEntityType, refFetch)).thenReturn(refEntity0, refEntity1);
+		Entity refRefEntity = mock(Entity.class);
+		when(entityManager.getReference(refRefEntityType, 3)).thenReturn(refRefEntity);
+
+		assertEquals(postgreSqlEntityFactory.createRowMapper(entityType, fetch, pushDownFetch).mapRow(rs, 0), entity);
+		verify(entity).set(mrefAttrName, newArrayList(refEntity0, refEntity1));
+		verify(refEntity0).set("id", "id0");
+		verify(refEntity0).set("date", LocalDate.of(2018, 1, 31));
+		verify(refEntity0).set("xrefAttr", refRefEntity);
+		verify(refEntity1).set("id", "id1");
+		verify(refEntity1).set("date", null);
+		verify(refEntity1).set("xrefAttr", null);
+	}
+}
@@ -0,0 +1,141 @@
+package org.molgenis.data.postgresql;
+
+import org.mockito.Mock;
+import org.mockito.quality.Strictness;
+import org.molgenis.data.Fetch;
+import org.molgenis.data.FetchPushDownPolicy;
+import org.molgenis.data.meta.model.Attribute;
+import org.molgenis.data.meta.model.EntityType;
+import org.molgenis.test.AbstractMockitoTest;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.mockito.Mockito.when;
+import static org.molgenis.data.meta.AttributeType.*;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+public class PostgreSqlFetchPushDownPlannerTest extends AbstractMockitoTest
+{
+	@Mock
+	private FetchPushDownPolicy fetchPushDownPolicy;
+
+	@Mock
+	private EntityType entityType;
+
+	@Mock
+	private Attribute idAttr;
+
+	@Mock
+	private Attribute xrefAttr;
+
+	@Mock
+	private EntityType refEntityType;
+
+	@Mock
+	private Attribute refIdAttr;
+
+	@Mock
+	private Attribute refMrefAttr;
+
+	@Mock
+	private EntityType refRefEntityType;
+
+	public PostgreSqlFetchPushDownPlannerTest()
+	{
+		super(Strictness.WARN);
+	}
+
+	@BeforeMethod
+	public void setUpBeforeMethod()
+	{
+		when(idAttr.getName()).thenReturn("id");
+		when(idAttr.getDataType()).thenReturn(STRING);
+		when(xrefAttr.getName()).thenReturn("xref");
+		when(xrefAttr.getDataType()).thenReturn(XREF);
+		when(xrefAttr.getRefEntity()).thenReturn(refEntityType);
+		when(entityType.getAtomicAttributes()).thenReturn(asList(idAttr, xrefAttr));
+		when(entityType.getBackend()).thenReturn("PostgreSQL");
+
+		when(refIdAttr.getName()).thenReturn("refId");
+		when(refIdAttr.getDataType()).thenReturn(STRING);
+		when(refMrefAttr.getName()).thenReturn("mref");
+		when(refMrefAttr.getDataType()).thenReturn(MREF);
+		when(refMrefAttr.getRefEntity()).thenReturn(refRefEntityType);
+		when(refEntityType.getAtomicAttributes()).thenReturn(asList(refIdAttr, refMrefAttr));
+		when(refEntityType.getAttribute("refId")).thenReturn(refIdAttr);
+		when(refEntityType.getAttribute("mref")).thenReturn(refMrefAttr);
+		when(refEntityType.getBackend()).thenReturn("PostgreSQL");
+
+		when(refRefEntityType.getBackend()).thenReturn("PostgreSQL");
+		when(refRefEntityType.getAtomicAttributes()).thenReturn(singletonList(refIdAttr));
+		when(refRefEntityType.getAttribute("refId")).thenReturn(refIdAttr);
+	}
+
+	@Test
+	public void testCreatePushDownFetchDisabled()
+	{
+		PostgreSqlFetchPushDownPlanner planner = new PostgreSqlFetchPushDownPlanner(fetchPushDownPolicy, 0);
+		assertNull(planner.createPushDownFetch(entityType, createFetch()));
+	}
+
+	@Test
+	public void testCreatePushDownFetchNoFetch()
+	{
+		PostgreSqlFetchPushDownPlanner planner = new PostgreSqlFetchPushDownPlanner(fetchPushDownPolicy, 2);
+		assertNull(planner.createPushDownFetch(entityType, null));
+	}
+
+	@Test
+	public void testCreatePushDownFetch()
+	{
+		when(fetchPushDownPolicy.isPushDownAllowed(refEntityType)).thenReturn(true);
+		when(fetchPushDownPolicy.isPushDownAllowed(refRefEntityType)).thenReturn(true);
+
+		PostgreSqlFetchPushDownPlanner planner = new PostgreSqlFetchPushDownPlanner(fetchPushDownPolicy, 2);
+		assertEquals(planner.createPushDownFetch(entityType, createFetch()),
+				new Fetch().field("xref", new Fetch().field("mref")));
+	}
+
+	@Test
+	public void testCreatePushDownFetchMaxDepth()
+	{
+		when(fetchPushDownPolicy.isPushDownAllowed(refEntityType)).thenReturn(true);
+
+		PostgreSqlFetchPushDownPlanner planner = new PostgreSqlFetchPushDownPlanner(fetchPushDownPolicy, 1);
+		assertEquals(planner.createPushDownFetch(entityType, createFetch()), new Fetch().field("xref"));
+	}
+
+	@Test
+	public void testCreatePushDownFetchNotAllowed()
+	{
+		PostgreSqlFetchPushDownPlanner planner = new PostgreSqlFetchPushDownPlanner(fetchPushDownPolicy, 2);
+		assertNull(planner.createPushDownFetch(entityType, createFetch()));
+	}
+
+	@Test
+	public void testCreatePushDownFetchOtherBackend()
+	{
+		when(refEntityType.getBackend()).thenReturn("ElasticSearch");
+
+		PostgreSqlFetchPushDownPlanner planner = new PostgreSqlFetchPushDownPlanner(fetchPushDownPolicy, 2);
+		assertNull(planner.createPushDownFetch(entityType, createFetch()));
+	}
+
+	@Test
+	public void testCreatePushDownFetchOneToMany()
+	{
+		when(refMrefAttr.getDataType()).thenReturn(ONE_TO_MANY);
+
+		PostgreSqlFetchPushDownPlanner planner = new PostgreSqlFetchPushDownPlanner(fetchPushDownPolicy, 2);
+		assertNull(planner.createPushDownFetch(entityType, createFetch()));
+	}
+
+	private static Fetch createFetch()
+	{
+		return new Fetch().field("id")
+						  .field("xref", new Fetch().field("refId").field("mref", new Fetch().field("refId")));
+	}
+}
@@ -20,6 +20,9 @@ import java.util.concurrent.atomic.AtomicInteger;
 import static com.google.common.collect.Lists.newArrayList;
 import static java.util.Arrays.asList;
 import static java.util.Collections.emptyList;
+import static java.util.Collections.emptySet;
+import static java.util.Collections.singleton;
+import static java.util.Collections.singletonList;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 import static org.molgenis.data.QueryRule.Operator.*;
@@ -388,6 +391,34 @@ public class PostgreSqlQueryGeneratorTest
 				"SELECT \"idAttr\",\"order\",\"attr\" FROM \"entityTypeId#c34894ba_attr\" WHERE \"idAttr\" in (?, ?, ?) ORDER BY \"idAttr\",\"order\"");
 	}
 
+	@Test
+	public void getJunctionTablesSelect()
+	{
+		EntityType entityType = when(mock(EntityType.class).getId()).thenReturn("entityTypeId").getMock();
+		Attribute idAttr = when(mock(Attribute.class).getName()).thenReturn("idAttr").getMock();
+		when(idAttr.getIdentifier()).thenReturn("idAttrId");
+		Attribute attr0 = when(mock(Attribute.class).getName()).thenReturn("attr0").getMock();
+		when(attr0.getIdentifier()).thenReturn("attr0Id");
+		Attribute attr1 = when(mock(Attribute.class).getName()).thenReturn("attr1").getMock();
+		when(attr1.getIdentifier()).thenReturn("attr1Id");
+		when(entityType.getIdAttribute()).thenReturn(idAttr);
+		assertEquals(PostgreSqlQueryGenerator.getSqlJunctionTablesSelect(entityType, asList(attr0, attr1), 2),
+				"WITH batch (id) AS (VALUES (?), (?)) SELECT 0,\"idAttr\",\"order\",\"attr0\"::TEXT FROM \"entityTypeId#c34894ba_attr0\" WHERE \"idAttr\" IN (SELECT id FROM batch) UNION ALL SELECT 1,\"idAttr\",\"order\",\"attr1\"::TEXT FROM \"entityTypeId#c34894ba_attr1\" WHERE \"idAttr\" IN (SELECT id FROM batch) ORDER BY 1,2,3");
+	}
+
+	@Test
+	public void getSqlCopyJunction()
+	{
+		EntityType entityType = when(mock(EntityType.class).getId()).thenReturn("entityTypeId").getMock();
+		Attribute idAttr = when(mock(Attribute.class).getName()).thenReturn("idAttr").getMock();
+		when(idAttr.getIdentifier()).thenReturn("idAttrId");
+		Attribute attr = when(mock(Attribute.class).getName()).thenReturn("attr").getMock();
+		when(attr.getIdentifier()).thenReturn("attrId");
+		when(entityType.getIdAttribute()).thenReturn(idAttr);
+		assertEquals(PostgreSqlQueryGenerator.getSqlCopyJunction(entityType, attr),
+				"COPY \"entityTypeId#c34894ba_attr\" (\"order\",\"idAttr\",\"attr\") FROM STDIN");
+	}
+
 	@Test
 	public void getSqlInsertJunction()
 	{
@@ -585,6 +616,59 @@ public class PostgreSqlQueryGeneratorTest
 				"SELECT this.\"masterId\", (SELECT array_agg(DISTINCT ARRAY[\"mref1\".\"order\"::TEXT,\"mref1\".\"mref1\"::TEXT]) FROM \"entityTypeId#c34894ba_mref1\" AS \"mref1\" WHERE this.\"masterId\" = \"mref1\".\"masterId\") AS \"mref1\", (SELECT array_agg(DISTINCT ARRAY[\"mref2\".\"order\"::TEXT,\"mref2\".\"mref2\"::TEXT]) FROM \"entityTypeId#c34894ba_mref2\" AS \"mref2\" WHERE this.\"masterId\" = \"mref2\".\"masterId\") AS \"mref2\" FROM \"entityTypeId#c34894ba\" AS this ORDER BY \"masterId\" ASC");
 	}
 
+	@Test
+	public void getSqlSelectPushDown()
+	{
+		Attribute ref2IdAttr = when(mock(Attribute.class).getName()).thenReturn("ref2Id").getMock();
+		when(ref2IdAttr.getIdentifier()).thenReturn("ref2IdAttrId");
+		when(ref2IdAttr.getDataType()).thenReturn(STRING);
+		EntityType ref2Meta = when(mock(EntityType.class).getId()).thenReturn("ref2Id").getMock();
+		when(ref2Meta.getIdAttribute()).thenReturn(ref2IdAttr);
+		when(ref2Meta.getAtomicAttributes()).thenReturn(singletonList(ref2IdAttr));
+
+		Attribute ref1IdAttr = when(mock(Attribute.class).getName()).thenReturn("ref1Id").getMock();
+		when(ref1IdAttr.getIdentifier()).thenReturn("ref1IdAttrId");
+		when(ref1IdAttr.getDataType()).thenReturn(STRING);
+		Attribute ref1LabelAttr = when(mock(Attribute.class).getName()).thenReturn("label").getMock();
+		when(ref1LabelAttr.getIdentifier()).thenReturn("labelAttrId");
+		when(ref1LabelAttr.getDataType()).thenReturn(STRING);
+		Attribute ref1MrefAttr = when(mock(Attribute.class).getName()).thenReturn("tags").getMock();
+		when(ref1MrefAttr.getIdentifier()).thenReturn("tagsAttrId");
+		when(ref1MrefAttr.getDataType()).thenReturn(MREF);
+		EntityType ref1Meta = when(mock(EntityType.class).getId()).thenReturn("ref1Id").getMock();
+		when(ref1Meta.getIdAttribute()).thenReturn(ref1IdAttr);
+		when(ref1Meta.getAtomicAttributes()).thenReturn(asList(ref1IdAttr, ref1LabelAttr, ref1MrefAttr));
+
+		Attribute masterIdAttr = when(mock(Attribute.class).getName()).thenReturn("masterId").getMock();
+		when(masterIdAttr.getIdentifier()).thenReturn("masterIdAttrId");
+		when(masterIdAttr.getDataType()).thenReturn(STRING);
+		Attribute xrefAttr = when(mock(Attribute.class).getName()).thenReturn("xref").getMock();
+		when(xrefAttr.getIdentifier()).thenReturn("xrefAttrId");
+		when(xrefAttr.getDataType()).thenReturn(XREF);
+		when(xrefAttr.getRefEntity()).thenReturn(ref1Meta);
+		Attribute mrefAttr = when(mock(Attribute.class).getName()).thenReturn("mref").getMock();
+		when(mrefAttr.getIdentifier()).thenReturn("mrefAttrId");
+		when(mrefAttr.getDataType()).thenReturn(MREF);
+		when(mrefAttr.getRefEntity()).thenReturn(ref2Meta);
+
+		EntityType entityType = when(mock(EntityType.class).getId()).thenReturn("entityTypeId").getMock();
+		when(entityType.getIdAttribute()).thenReturn(masterIdAttr);
+		when(entityType.getAttribute("masterId")).thenReturn(masterIdAttr);
+		when(entityType.getAtomicAttributes()).thenReturn(asList(masterIdAttr, xrefAttr, mrefAttr));
+
+		Fetch fetch = new Fetch().field("masterId")
+								 .field("xref", new Fetch().field("label").field("tags"))
+								 .field("mref", new Fetch().field("ref2Id"));
+		Query<Entity> q = new QueryImpl<>().fetch(fetch);
+		Fetch pushDownFetch = new Fetch().field("xref").field("mref");
+
+		List<Object> parameters = Lists.newArrayList();
+		String sqlSelect = PostgreSqlQueryGenerator.getSqlSelect(entityType, q, parameters, true, pushDownFetch);
+		assertEquals(sqlSelect,
+				"SELECT this.\"masterId\", (SELECT json_build_object('ref1Id', r1.\"ref1Id\", 'label', r1.\"label\", 'tags', (SELECT json_agg(j2.\"tags\" ORDER BY j2.\"order\") FROM \"ref1Id#21837af6_tags\" AS j2 WHERE j2.\"ref1Id\" = r1.\"ref1Id\")) FROM \"ref1Id#21837af6\" AS r1 WHERE r1.\"ref1Id\" = this.\"xref\") AS \"xref\", (SELECT json_agg(json_build_object('ref2Id', r3.\"ref2Id\") ORDER BY j4.\"order\") FROM \"entityTypeId#c34894ba_mref\" AS j4 JOIN \"ref2Id#783d3cf4\" AS r3 ON r3.\"ref2Id\" = j4.\"mref\" WHERE j4.\"masterId\" = this.\"masterId\") AS \"mref\" FROM \"entityTypeId#c34894ba\" AS this ORDER BY \"masterId\" ASC");
+		assertEquals(parameters, emptyList());
+	}
+
 	@Test
 	public void getSqlSortNoSort()
 	{
@@ -993,6 +1077,48 @@ public class PostgreSqlQueryGeneratorTest
 				+ "(\"data_categories_filter3\".\"data_categories\" = ?  OR \"data_categories_filter4\".\"data_categories\" = ?))");
 	}
 
+	@Test
+	public void getSqlWherePermitted()
+	{
+		Attribute idAttribute = createIdAttribute("id");
+		EntityType entityType = createMockEntityWithIdAttribute("entity", idAttribute, "id");
+		Attribute stringAttribute = when(mock(Attribute.class).getName()).thenReturn("str").getMock();
+		when(stringAttribute.getIdentifier()).thenReturn("strAttrId");
+		when(stringAttribute.getDataType()).thenReturn(STRING);
+		when(entityType.getAttribute("str")).thenReturn(stringAttribute);
+
+		PermissionFilter permissionFilter = PermissionFilter.create("entity-entity", singleton("user"),
+				singleton("ROLE_USER"), 14);
+		QueryImpl<Entity> q = new QueryImpl<>();
+		q.eq("str", "value").and();
+		q.addRule(new QueryRule(PERMITTED, permissionFilter));
+
+		List<Object> parameters = Lists.newArrayList();
+		String sqlWhere = PostgreSqlQueryGenerator.getSqlWhere(entityType, q, parameters, new AtomicInteger());
+		assertEquals(sqlWhere, "this.\"str\" = ?  AND EXISTS (SELECT 1 FROM acl_object_identity"
+				+ " JOIN acl_entry ON acl_entry.acl_object_identity = acl_object_identity.id"
+				+ " JOIN acl_sid ON acl_sid.id = acl_entry.sid"
+				+ " WHERE ((acl_sid.principal AND acl_sid.sid IN (?)) OR (NOT acl_sid.principal AND acl_sid.sid IN (?)))"
+				+ " AND acl_entry.granting AND (acl_entry.mask & ?) <> 0"
+				+ " AND acl_object_identity.object_id_class = (SELECT id FROM acl_class WHERE acl_class.class = ?)"
+				+ " AND acl_object_identity.object_id_identity = this.\"id\"::varchar)");
+		assertEquals(parameters, asList("value", "user", "ROLE_USER", 14, "entity-entity"));
+	}
+
+	@Test
+	public void getSqlWherePermittedNoSids()
+	{
+		Attribute idAttribute = createIdAttribute("id");
+		EntityType entityType = createMockEntityWithIdAttribute("entity", idAttribute, "id");
+
+		PermissionFilter permissionFilter = PermissionFilter.create("entity-entity", emptySet(), emptySet(), 14);
+		QueryImpl<Entity> q = new QueryImpl<>(new QueryRule(PERMITTED, permissionFilter));
+
+		List<Object> parameters = Lists.newArrayList();
+		assertEquals(PostgreSqlQueryGenerator.getSqlWhere(entityType, q, parameters, new AtomicInteger()), "FALSE");
+		assertEquals(parameters, emptyList());
+	}
+
 	private Attribute createIdAttribute(String idAttributeName)
 	{
 		final String idAttributeIdentifier = idAttributeName + "AttrId";
@@ -24,14 +24,17 @@ public class PostgreSqlRepositoryCollectionDecoratorTest extends AbstractMockito
 	private RepositoryCollection repoCollection;
 	@Mock
 	private EntityTypeRegistry entityTypeRegistry;
+	@Mock
+	private PostgreSqlStatementCache statementCache;
 	private PostgreSqlRepositoryCollectionDecorator repoCollectionDecorator;
 	private InOrder inOrder;
 
 	@BeforeMethod
 	public void setUpBeforeMethod()
 	{
-		repoCollectionDecorator = new PostgreSqlRepositoryCollectionDecorator(repoCollection, entityTypeRegistry);
-		inOrder = inOrder(repoCollection, entityTypeRegistry);
+		repoCollectionDecorator = new PostgreSqlRepositoryCollectionDecorator(repoCollection, entityTypeRegistry,
+				statementCache);
+		inOrder = inOrder(repoCollection, entityTypeRegistry, statementCache);
 	}
 
 	@Test
@@ -41,6 +44,7 @@ public class PostgreSqlRepositoryCollectionDecoratorTest extends AbstractMockito
 
 		inOrder.verify(repoCollection).createRepository(entityType);
 		inOrder.verify(entityTypeRegistry).registerEntityType(entityType);
+		verifyZeroInteractions(statementCache);
 	}
 
 	@Test
@@ -50,6 +54,18 @@ public class PostgreSqlRepositoryCollectionDecoratorTest extends AbstractMockito
 
 		inOrder.verify(repoCollection).deleteRepository(entityType);
 		inOrder.verify(entityTypeRegistry).unregisterEntityType(entityType);
+		inOrder.verify(statementCache).evictAll();
+	}
+
+	@Test
+	public void testUpdateRepository()
+	{
+		EntityType updatedEntityType = mock(EntityType.class);
+		repoCollectionDecorator.updateRepository(entityType, updatedEntityType);
+
+		inOrder.verify(repoCollection).updateRepository(entityType, updatedEntityType);
+		inOrder.verify(entityTypeRegistry).registerEntityType(updatedEntityType);
+		inOrder.verify(statementCache).evictAll();
 	}
 
 	@Test
@@ -59,6 +75,7 @@ public class PostgreSqlRepositoryCollectionDecoratorTest extends AbstractMockito
 
 		inOrder.verify(entityTypeRegistry).addAttribute(entityType, attr);
 		inOrder.verify(repoCollection).addAttribute(entityType, attr);
+		inOrder.verify(statementCache).evictAll();
 	}
 
 	@Test
@@ -68,6 +85,7 @@ public class PostgreSqlRepositoryCollectionDecoratorTest extends AbstractMockito
 
 		inOrder.verify(entityTypeRegistry).updateAttribute(entityType, attr, updatedAttr);
 		inOrder.verify(repoCollection).updateAttribute(entityType, attr, updatedAttr);
+		inOrder.verify(statementCache).evictAll();
 	}
 
 	@Test
@@ -77,5 +95,6 @@ public class PostgreSqlRepositoryCollectionDecoratorTest extends AbstractMockito
 
 		inOrder.verify(entityTypeRegistry).deleteAttribute(entityType, attr);
 		inOrder.verify(repoCollection).deleteAttribute(entityType, attr);
+		inOrder.verify(statementCache).evictAll();
 	}
 }
\ No newline at end of file
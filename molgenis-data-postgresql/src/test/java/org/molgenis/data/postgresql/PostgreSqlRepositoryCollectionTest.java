@@ -38,8 +38,10 @@ public class PostgreSqlRepositoryCollectionTest
 		DataSource dataSource = mock(DataSource.class);
 		jdbcTemplate = mock(JdbcTemplate.class);
 		dataService = mock(DataService.class);
+		PostgreSqlStatementCache statementCache = mock(PostgreSqlStatementCache.class);
+		PostgreSqlFetchPushDownPlanner fetchPushDownPlanner = mock(PostgreSqlFetchPushDownPlanner.class);
 		postgreSqlRepoCollection = new PostgreSqlRepositoryCollection(postgreSqlEntityFactory, dataSource, jdbcTemplate,
-				dataService);
+				dataService, statementCache, fetchPushDownPlanner);
 	}
 
 	@Test
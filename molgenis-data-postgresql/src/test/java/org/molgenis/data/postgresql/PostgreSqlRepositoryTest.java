@@ -12,10 +12,12 @@ import org.molgenis.data.QueryRule;
 import org.molgenis.data.meta.AttributeType;
 import org.molgenis.data.meta.model.Attribute;
 import org.molgenis.data.meta.model.EntityType;
+import org.molgenis.data.transaction.TransactionManager;
 import org.molgenis.data.validation.ConstraintViolation;
 import org.molgenis.data.validation.MolgenisValidationException;
 import org.molgenis.util.UnexpectedEnumException;
 import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
@@ -34,6 +36,7 @@ import java.util.stream.Stream;
 
 import static com.google.common.collect.Lists.newArrayList;
 import static com.google.common.collect.Maps.newHashMap;
+import static java.util.Collections.emptyList;
 import static java.util.Collections.singletonList;
 import static java.util.stream.Collectors.toList;
 import static org.mockito.Mockito.*;
@@ -42,6 +45,7 @@ import static org.molgenis.data.QueryRule.Operator.EQUALS;
 import static org.molgenis.data.meta.AttributeType.*;
 import static org.molgenis.data.postgresql.PostgreSqlExceptionTranslator.VALUE_TOO_LONG_MSG;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
 
 public class PostgreSqlRepositoryTest
 {
@@ -58,6 +62,12 @@ public class PostgreSqlRepositoryTest
 	private Query<Entity> query;
 	@Mock
 	private RowMapper<Entity> rowMapper;
+	@Mock
+	private TransactionManager transactionManager;
+	@Mock
+	private PostgreSqlFetchPushDownPlanner fetchPushDownPlanner;
+
+	private PostgreSqlStatementCache statementCache;
 
 	private MockitoSession mockitoSession;
 
@@ -65,7 +75,9 @@ public class PostgreSqlRepositoryTest
 	public void setUpBeforeMethod() throws Exception
 	{
 		mockitoSession = mockitoSession().initMocks(this).strictness(STRICT_STUBS).startMocking();
-		postgreSqlRepo = new PostgreSqlRepository(postgreSqlEntityFactory, jdbcTemplate, dataSource, entityType);
+		statementCache = new PostgreSqlStatementCache(transactionManager);
+		postgreSqlRepo = new PostgreSqlRepository(postgreSqlEntityFactory, jdbcTemplate, dataSource, statementCache,
+				fetchPushDownPlanner, entityType);
 	}
 
 	@AfterMethod
@@ -155,7 +167,8 @@ public class PostgreSqlRepositoryTest
 		doReturn(oneToManyAttr).when(entityType).getAttribute(oneToManyAttrName);
 		when(entityType.getAtomicAttributes()).thenReturn(newArrayList(idAttr, oneToManyAttr));
 		EntityType entityType = this.entityType;
-		postgreSqlRepo = new PostgreSqlRepository(postgreSqlEntityFactory, jdbcTemplate, dataSource, entityType);
+		postgreSqlRepo = new PostgreSqlRepository(postgreSqlEntityFactory, jdbcTemplate, dataSource, statementCache,
+				fetchPushDownPlanner, entityType);
 
 		int queryValue = 2;
 		QueryRule queryRule = new QueryRule(oneToManyAttrName, EQUALS, queryValue);
@@ -163,12 +176,33 @@ public class PostgreSqlRepositoryTest
 
 		String sql = "SELECT DISTINCT this.\"entityId\", (SELECT array_agg(\"refEntityId\" ORDER BY \"refEntityId\" ASC) FROM \"refEntityId#07f902bf\" WHERE this.\"entityId\" = \"refEntityId#07f902bf\".\"xrefAttr\") AS \"oneToManyAttr\" FROM \"entityId#fc2928f6\" AS this LEFT JOIN \"refEntityId#07f902bf\" AS \"oneToManyAttr_filter1\" ON (this.\"entityId\" = \"oneToManyAttr_filter1\".\"xrefAttr\") WHERE \"oneToManyAttr_filter1\".\"refEntityId\" = ? ORDER BY \"entityId\" ASC LIMIT 1000";
 
-		when(postgreSqlEntityFactory.createRowMapper(entityType, null)).thenReturn(rowMapper);
+		when(postgreSqlEntityFactory.createRowMapper(entityType, null, null)).thenReturn(rowMapper);
 		Entity entity0 = mock(Entity.class);
 		when(jdbcTemplate.query(sql, new Object[] { queryValue }, rowMapper)).thenReturn(singletonList(entity0));
 		assertEquals(postgreSqlRepo.findAll(query).collect(toList()), singletonList(entity0));
 	}
 
+	@Test
+	public void testFindOneById()
+	{
+		Attribute idAttr = mock(Attribute.class);
+		when(idAttr.getName()).thenReturn("attr");
+		when(idAttr.getDataType()).thenReturn(INT);
+		when(entityType.getIdAttribute()).thenReturn(idAttr);
+		when(entityType.getAttribute("attr")).thenReturn(idAttr);
+		when(entityType.getAtomicAttributes()).thenReturn(singletonList(idAttr));
+		when(entityType.getId()).thenReturn("entity");
+		when(postgreSqlEntityFactory.createRowMapper(entityType, null, null)).thenReturn(rowMapper);
+
+		Entity entity = mock(Entity.class);
+		String sql = "SELECT this.\"attr\" FROM \"entity#6844280e\" AS this WHERE this.\"attr\" = ? ORDER BY \"attr\" ASC LIMIT 1";
+		when(jdbcTemplate.query(sql, new Object[] { 1 }, rowMapper)).thenReturn(singletonList(entity));
+		doReturn(emptyList()).when(jdbcTemplate).query(sql, new Object[] { 2 }, rowMapper);
+
+		assertEquals(postgreSqlRepo.findOneById(1), entity);
+		assertNull(postgreSqlRepo.findOneById(2));
+	}
+
 	@Test
 	public void testUpdateEntitiesExist()
 	{
@@ -217,6 +251,43 @@ public class PostgreSqlRepositoryTest
 		postgreSqlRepo.update(Stream.of(entity0, entity1));
 	}
 
+	@Test
+	public void testAddStreamBatching()
+	{
+		Attribute idAttr = mock(Attribute.class);
+		when(idAttr.getName()).thenReturn("attr");
+		when(idAttr.getDataType()).thenReturn(STRING);
+		when(entityType.getIdAttribute()).thenReturn(idAttr);
+		when(entityType.getAtomicAttributes()).thenReturn(singletonList(idAttr));
+		when(entityType.getId()).thenReturn("entity");
+
+		assertEquals(postgreSqlRepo.add(Stream.of(mock(Entity.class))), Integer.valueOf(1));
+		verify(jdbcTemplate).batchUpdate(eq("INSERT INTO \"entity#6844280e\" (\"attr\") VALUES (?)"),
+				any(BatchPreparedStatementSetter.class));
+		verifyNoMoreInteractions(jdbcTemplate);
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void testAddStreamCopying()
+	{
+		Attribute idAttr = mock(Attribute.class);
+		when(idAttr.getName()).thenReturn("attr");
+		when(idAttr.getDataType()).thenReturn(STRING);
+		when(entityType.getIdAttribute()).thenReturn(idAttr);
+		when(entityType.getAtomicAttributes()).thenReturn(singletonList(idAttr));
+		when(entityType.getId()).thenReturn("entity");
+
+		Entity entity = mock(Entity.class);
+		when(entity.getString("attr")).thenReturn("id0");
+
+		int nrEntities = PostgreSqlRepository.COPY_THRESHOLD + 1;
+		assertEquals(postgreSqlRepo.add(Stream.generate(() -> entity).limit(nrEntities)),
+				Integer.valueOf(nrEntities));
+		verify(jdbcTemplate, times(2)).execute(any(ConnectionCallback.class));
+		verifyNoMoreInteractions(jdbcTemplate);
+	}
+
 	@SuppressWarnings("ConstantConditions")
 	@Test(expectedExceptions = NullPointerException.class, expectedExceptionsMessageRegExp = "PostgreSqlRepository.add\\(\\) failed: entity was null")
 	public void testAddEntityNull()
@@ -291,4 +362,28 @@ public class PostgreSqlRepositoryTest
 				ArrayListMultimap.create());
 		mrefIdRowCallbackHandler.processRow(mock(ResultSet.class));
 	}
-}
\ No newline at end of file
+
+	@Test
+	public void testJunctionTablesRowCallbackHandler() throws SQLException
+	{
+		List<Multimap<Object, Object>> mrefIDsList = newArrayList(ArrayListMultimap.create(),
+				ArrayListMultimap.create());
+		RowCallbackHandler rowCallbackHandler = postgreSqlRepo.getJunctionTablesRowCallbackHandler(INT,
+				newArrayList(STRING, LONG), mrefIDsList);
+
+		ResultSet stringRow = mock(ResultSet.class);
+		doReturn(0).when(stringRow).getInt(1);
+		doReturn(1).when(stringRow).getInt(2);
+		doReturn("refValue").when(stringRow).getString(4);
+		rowCallbackHandler.processRow(stringRow);
+
+		ResultSet longRow = mock(ResultSet.class);
+		doReturn(1).when(longRow).getInt(1);
+		doReturn(1).when(longRow).getInt(2);
+		doReturn(2L).when(longRow).getLong(4);
+		rowCallbackHandler.processRow(longRow);
+
+		assertEquals(mrefIDsList.get(0).asMap(), ImmutableMap.of(1, ImmutableList.of("refValue")));
+		assertEquals(mrefIDsList.get(1).asMap(), ImmutableMap.of(1, ImmutableList.of(2L)));
+	}
+}
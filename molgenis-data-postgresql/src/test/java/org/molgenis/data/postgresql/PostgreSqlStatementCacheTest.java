@@ -0,0 +1,136 @@
+package org.molgenis.data.postgresql;
+
+import org.mockito.Mock;
+import org.molgenis.data.Fetch;
+import org.molgenis.data.meta.model.Attribute;
+import org.molgenis.data.meta.model.EntityType;
+import org.molgenis.data.transaction.TransactionManager;
+import org.molgenis.test.AbstractMockitoTest;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.function.Supplier;
+
+import static org.mockito.Mockito.*;
+import static org.molgenis.data.postgresql.PostgreSqlStatementCache.StatementType.*;
+import static org.molgenis.data.transaction.TransactionManager.TRANSACTION_ID_RESOURCE_NAME;
+import static org.testng.Assert.assertEquals;
+
+public class PostgreSqlStatementCacheTest extends AbstractMockitoTest
+{
+	@Mock
+	private TransactionManager transactionManager;
+	@Mock
+	private EntityType entityType;
+	@Mock
+	private Supplier<String> statementSupplier;
+	private PostgreSqlStatementCache statementCache;
+
+	@BeforeMethod
+	public void setUpBeforeMethod()
+	{
+		statementCache = new PostgreSqlStatementCache(transactionManager);
+	}
+
+	@AfterMethod
+	public void unbindTransactionId()
+	{
+		if (TransactionSynchronizationManager.hasResource(TRANSACTION_ID_RESOURCE_NAME))
+		{
+			TransactionSynchronizationManager.unbindResource(TRANSACTION_ID_RESOURCE_NAME);
+		}
+	}
+
+	@Test
+	public void testPostgreSqlStatementCache()
+	{
+		verify(transactionManager).addTransactionListener(statementCache);
+	}
+
+	@Test
+	public void testGetStatement()
+	{
+		when(entityType.getId()).thenReturn("entity");
+		when(statementSupplier.get()).thenReturn("SQL");
+		assertEquals(statementCache.getStatement(entityType, INSERT, statementSupplier), "SQL");
+		assertEquals(statementCache.getStatement(entityType, INSERT, statementSupplier), "SQL");
+		verify(statementSupplier, times(1)).get();
+	}
+
+	@Test
+	public void testGetStatementOtherType()
+	{
+		when(entityType.getId()).thenReturn("entity");
+		when(statementSupplier.get()).thenReturn("SQL");
+		statementCache.getStatement(entityType, INSERT, statementSupplier);
+		statementCache.getStatement(entityType, UPDATE, statementSupplier);
+		verify(statementSupplier, times(2)).get();
+	}
+
+	@Test
+	public void testGetStatementAttribute()
+	{
+		when(entityType.getId()).thenReturn("entity");
+		when(statementSupplier.get()).thenReturn("SQL");
+		Attribute attr = when(mock(Attribute.class).getName()).thenReturn("attr").getMock();
+		Attribute otherAttr = when(mock(Attribute.class).getName()).thenReturn("otherAttr").getMock();
+		statementCache.getStatement(entityType, attr, INSERT_JUNCTION, statementSupplier);
+		statementCache.getStatement(entityType, attr, INSERT_JUNCTION, statementSupplier);
+		statementCache.getStatement(entityType, otherAttr, INSERT_JUNCTION, statementSupplier);
+		verify(statementSupplier, times(2)).get();
+	}
+
+	@Test
+	public void testGetSelectByIdStatement()
+	{
+		when(entityType.getId()).thenReturn("entity");
+		when(statementSupplier.get()).thenReturn("SQL");
+		statementCache.getSelectByIdStatement(entityType, null, statementSupplier);
+		statementCache.getSelectByIdStatement(entityType, new Fetch().field("id"), statementSupplier);
+		statementCache.getSelectByIdStatement(entityType, new Fetch().field("id"), statementSupplier);
+		verify(statementSupplier, times(2)).get();
+	}
+
+	@Test
+	public void testGetSelectByIdStatementFetchChangedAfterCaching()
+	{
+		when(entityType.getId()).thenReturn("entity");
+		when(statementSupplier.get()).thenReturn("SQL");
+		Fetch fetch = new Fetch().field("id");
+		statementCache.getSelectByIdStatement(entityType, fetch, statementSupplier);
+		fetch.field("label");
+		statementCache.getSelectByIdStatement(entityType, fetch, statementSupplier);
+		statementCache.getSelectByIdStatement(entityType, new Fetch().field("id"), statementSupplier);
+		verify(statementSupplier, times(2)).get();
+	}
+
+	@Test
+	public void testEvictAll()
+	{
+		when(entityType.getId()).thenReturn("entity");
+		when(statementSupplier.get()).thenReturn("SQL");
+		statementCache.getStatement(entityType, INSERT, statementSupplier);
+		statementCache.evictAll();
+		statementCache.getStatement(entityType, INSERT, statementSupplier);
+		verify(statementSupplier, times(2)).get();
+	}
+
+	@Test
+	public void testEvictAllInTransaction()
+	{
+		when(entityType.getId()).thenReturn("entity");
+		when(statementSupplier.get()).thenReturn("SQL");
+		TransactionSynchronizationManager.bindResource(TRANSACTION_ID_RESOURCE_NAME, "transaction");
+		statementCache.evictAll();
+		statementCache.getStatement(entityType, INSERT, statementSupplier);
+		statementCache.getStatement(entityType, INSERT, statementSupplier);
+		verify(statementSupplier, times(2)).get();
+
+		statementCache.afterCommitTransaction("transaction");
+		statementCache.getStatement(entityType, INSERT, statementSupplier);
+		statementCache.getStatement(entityType, INSERT, statementSupplier);
+		verify(statementSupplier, times(3)).get();
+	}
+}
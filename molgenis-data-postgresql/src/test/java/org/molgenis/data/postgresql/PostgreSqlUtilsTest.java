@@ -421,6 +421,15 @@ public class PostgreSqlUtilsTest
 		PostgreSqlUtils.getPostgreSqlQueryValue(value, attr);
 	}
 
+	@Test
+	public void appendCopyRow()
+	{
+		StringBuilder copyRows = new StringBuilder();
+		PostgreSqlUtils.appendCopyRow(copyRows, asList("a\tb\\c\nd", null, true, 3, LocalDate.of(2017, Month.MAY, 3)));
+		PostgreSqlUtils.appendCopyRow(copyRows, asList("e", 1.5, false, null, null));
+		assertEquals(copyRows.toString(), "a\\tb\\\\c\\nd\t\\N\tt\t3\t2017-05-03\ne\t1.5\tf\t\\N\t\\N\n");
+	}
+
 	private static Attribute createAttr(String attrName, AttributeType attrType)
 	{
 		Attribute attr = mock(Attribute.class);
@@ -10,6 +10,7 @@ import org.molgenis.data.*;
 import org.molgenis.data.meta.AttributeType;
 import org.molgenis.data.meta.model.Attribute;
 import org.molgenis.data.meta.model.EntityType;
+import org.molgenis.data.rest.service.ETagService;
 import org.molgenis.data.rest.service.RestService;
 import org.molgenis.data.rest.util.Href;
 import org.molgenis.data.security.auth.User;
@@ -97,11 +98,12 @@ public class RestController
 	private final UserAccountService userAccountService;
 	private final MolgenisRSQL molgenisRSQL;
 	private final RestService restService;
+	private final ETagService eTagService;
 
 	public RestController(AuthenticationSettings authenticationSettings, DataService dataService,
 			TokenService tokenService, AuthenticationManager authenticationManager,
 			UserPermissionEvaluator permissionService, UserAccountService userAccountService, MolgenisRSQL molgenisRSQL,
-			RestService restService)
+			RestService restService, ETagService eTagService)
 	{
 		this.authenticationSettings = requireNonNull(authenticationSettings);
 		this.dataService = requireNonNull(dataService);
@@ -111,6 +113,7 @@ public class RestController
 		this.permissionService = requireNonNull(permissionService);
 		this.molgenisRSQL = requireNonNull(molgenisRSQL);
 		this.restService = requireNonNull(restService);
+		this.eTagService = requireNonNull(eTagService);
 	}
 
 	/**
@@ -135,13 +138,19 @@ public class RestController
 	 * <p>
 	 * Example url: /api/v1/person/meta
 	 *
-	 * @return EntityType
+	 * @return EntityType or null if the metadata was not modified since the client requested it
 	 */
 	@GetMapping(value = "/{entityTypeId}/meta", produces = APPLICATION_JSON_VALUE)
 	public EntityTypeResponse retrieveEntityType(@PathVariable("entityTypeId") String entityTypeId,
 			@RequestParam(value = "attributes", required = false) String[] attributes,
-			@RequestParam(value = "expand", required = false) String[] attributeExpands)
+			@RequestParam(value = "expand", required = false) String[] attributeExpands,
+			HttpServletRequest httpRequest, HttpServletResponse httpResponse)
 	{
+		if (eTagService.checkMetadataNotModified(entityTypeId, httpRequest, httpResponse))
+		{
+			return null;
+		}
+
 		Set<String> attributeSet = toAttributeSet(attributes);
 		Map<String, Set<String>> attributeExpandSet = toExpandMap(attributeExpands);
 
@@ -178,14 +187,20 @@ public class RestController
 	/**
 	 * Example url: /api/v1/person/meta/emailaddresses
 	 *
-	 * @return EntityType
+	 * @return EntityType or null if the metadata was not modified since the client requested it
 	 */
 	@GetMapping(value = "/{entityTypeId}/meta/{attributeName}", produces = APPLICATION_JSON_VALUE)
 	public AttributeResponse retrieveEntityAttributeMeta(@PathVariable("entityTypeId") String entityTypeId,
 			@PathVariable("attributeName") String attributeName,
 			@RequestParam(value = "attributes", required = false) String[] attributes,
-			@RequestParam(value = "expand", required = false) String[] attributeExpands)
+			@RequestParam(value = "expand", required = false) String[] attributeExpands,
+			HttpServletRequest httpRequest, HttpServletResponse httpResponse)
 	{
+		if (eTagService.checkMetadataNotModified(entityTypeId, httpRequest, httpResponse))
+		{
+			return null;
+		}
+
 		Set<String> attributeSet = toAttributeSet(attributes);
 		Map<String, Set<String>> attributeExpandSet = toExpandMap(attributeExpands);
 
@@ -213,13 +228,21 @@ public class RestController
 	 * Examples:
 	 * <p>
 	 * /api/v1/person/99 Retrieves a person with id 99
+	 * <p>
+	 * Returns null if the entity was not modified since the client requested it
 	 */
 	@GetMapping(value = "/{entityTypeId}/{id:.+}", produces = APPLICATION_JSON_VALUE)
 	public Map<String, Object> retrieveEntity(@PathVariable("entityTypeId") String entityTypeId,
 			@PathVariable("id") String untypedId,
 			@RequestParam(value = "attributes", required = false) String[] attributes,
-			@RequestParam(value = "expand", required = false) String[] attributeExpands)
+			@RequestParam(value = "expand", required = false) String[] attributeExpands,
+			HttpServletRequest httpRequest, HttpServletResponse httpResponse)
 	{
+		if (eTagService.checkNotModified(entityTypeId, httpRequest, httpResponse))
+		{
+			return null;
+		}
+
 		Set<String> attributesSet = toAttributeSet(attributes);
 		Map<String, Set<String>> attributeExpandSet = toExpandMap(attributeExpands);
 
@@ -304,14 +327,20 @@ public class RestController
 	/**
 	 * Do a query
 	 * <p>
-	 * Returns json
+	 * Returns json or null if the entities were not modified since the client requested them
 	 */
 	@GetMapping(value = "/{entityTypeId}", produces = APPLICATION_JSON_VALUE)
 	public EntityCollectionResponse retrieveEntityCollection(@PathVariable("entityTypeId") String entityTypeId,
 			@Valid EntityCollectionRequest request,
 			@RequestParam(value = "attributes", required = false) String[] attributes,
-			@RequestParam(value = "expand", required = false) String[] attributeExpands)
+			@RequestParam(value = "expand", required = false) String[] attributeExpands,
+			HttpServletRequest httpRequest, HttpServletResponse httpResponse)
 	{
+		if (eTagService.checkNotModified(entityTypeId, httpRequest, httpResponse))
+		{
+			return null;
+		}
+
 		Set<String> attributesSet = toAttributeSet(attributes);
 		Map<String, Set<String>> attributeExpandSet = toExpandMap(attributeExpands);
 
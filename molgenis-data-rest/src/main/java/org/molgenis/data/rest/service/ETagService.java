@@ -0,0 +1,224 @@
+package org.molgenis.data.rest.service;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import org.molgenis.data.DataService;
+import org.molgenis.data.meta.model.Attribute;
+import org.molgenis.data.meta.model.EntityType;
+import org.molgenis.data.transaction.EntityTypeGenerations;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import javax.annotation.Nullable;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Objects.requireNonNull;
+import static org.molgenis.security.core.runas.RunAsSystemAspect.runAsSystem;
+import static org.molgenis.security.core.utils.SecurityUtils.getUsername;
+import static org.springframework.http.HttpHeaders.CACHE_CONTROL;
+
+/**
+ * Handles HTTP conditional requests for responses derived from an entity type. The entity tag of a response changes
+ * when the metadata or data of the entity type or of an entity type that it references changes, when the permissions
+ * change or when the response is requested by another user or in another language, so that a request with a matching
+ * If-None-Match header can be answered with 304 Not Modified without accessing the repositories.
+ * <p>
+ * Conditional requests are not handled when the {@link EntityTypeGenerations entity type generations} are disabled,
+ * because changes committed on other nodes would not change the entity tags. Requests for unknown entity types are not
+ * handled either.
+ */
+@Service
+public class ETagService
+{
+	/**
+	 * allows private caching of responses, but requires clients to revalidate them on every use
+	 */
+	private static final String CACHE_CONTROL_REVALIDATE = "private, no-cache";
+	private static final int MAX_REFERENCED_ENTITY_TYPE_IDS = 1000;
+
+	private final DataService dataService;
+	private final EntityTypeGenerations entityTypeGenerations;
+	private final Cache<String, Set<String>> referencedEntityTypeIdsCache;
+	/**
+	 * metadata generation of the ids in the referenced entity type ids cache
+	 */
+	private final AtomicLong referencedEntityTypeIdsGeneration;
+
+	public ETagService(DataService dataService, EntityTypeGenerations entityTypeGenerations)
+	{
+		this.dataService = requireNonNull(dataService);
+		this.entityTypeGenerations = requireNonNull(entityTypeGenerations);
+		this.referencedEntityTypeIdsCache = CacheBuilder.newBuilder()
+																.maximumSize(MAX_REFERENCED_ENTITY_TYPE_IDS)
+																.build();
+		this.referencedEntityTypeIdsGeneration = new AtomicLong();
+	}
+
+	/**
+	 * Checks whether a response derived from the metadata and data of the given entity type was modified since the
+	 * client requested it. Sets the ETag header of the response and, if the response was not modified, the 304 Not
+	 * Modified status.
+	 *
+	 * @return <tt>true</tt> if the response was not modified and the request needs no further processing, always
+	 * <tt>false</tt> if the entity type generations are disabled or the entity type does not exist
+	 */
+	public boolean checkNotModified(String entityTypeId, HttpServletRequest request, HttpServletResponse response)
+	{
+		return checkNotModified(entityTypeId, true, request, response);
+	}
+
+	/**
+	 * Checks whether a response derived from the metadata of the given entity type was modified since the client
+	 * requested it, see {@link #checkNotModified(String, HttpServletRequest, HttpServletResponse)}.
+	 */
+	public boolean checkMetadataNotModified(String entityTypeId, HttpServletRequest request,
+			HttpServletResponse response)
+	{
+		return checkNotModified(entityTypeId, false, request, response);
+	}
+
+	private boolean checkNotModified(String entityTypeId, boolean includeData, HttpServletRequest request,
+			HttpServletResponse response)
+	{
+		if (!entityTypeGenerations.isEnabled())
+		{
+			return false;
+		}
+		String eTag = createETag(entityTypeId, includeData);
+		if (eTag == null)
+		{
+			// unknown entity type, leave it to the request handler to respond with an error
+			return false;
+		}
+		response.setHeader(CACHE_CONTROL, CACHE_CONTROL_REVALIDATE);
+		return new ServletWebRequest(request, response).checkNotModified(eTag);
+	}
+
+	/**
+	 * @return entity tag or <tt>null</tt> if the entity type does not exist
+	 */
+	@Nullable
+	String createETag(String entityTypeId, boolean includeData)
+	{
+		Set<String> referencedEntityTypeIds = getReferencedEntityTypeIds(entityTypeId);
+		if (referencedEntityTypeIds == null)
+		{
+			return null;
+		}
+
+		Hasher hasher = Hashing.murmur3_128().newHasher();
+		hasher.putString(entityTypeGenerations.getNodeId(), UTF_8);
+		putAuthentication(hasher);
+		hasher.putString(LocaleContextHolder.getLocale().toLanguageTag(), UTF_8);
+		hasher.putLong(entityTypeGenerations.getPermissionGeneration());
+		for (String referencedEntityTypeId : referencedEntityTypeIds)
+		{
+			hasher.putString(referencedEntityTypeId, UTF_8);
+			hasher.putLong(entityTypeGenerations.getMetadataGeneration(referencedEntityTypeId));
+			if (includeData)
+			{
+				hasher.putLong(entityTypeGenerations.getDataGeneration(referencedEntityTypeId));
+			}
+		}
+		return "W/\"" + hasher.hash() + '"';
+	}
+
+	private static void putAuthentication(Hasher hasher)
+	{
+		Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+		if (authentication != null)
+		{
+			hasher.putString(getUsername(authentication), UTF_8);
+			authentication.getAuthorities()
+						  .stream()
+						  .map(GrantedAuthority::getAuthority)
+						  .sorted()
+						  .forEach(authority -> hasher.putString(authority, UTF_8));
+		}
+	}
+
+	/**
+	 * Returns the ids of the given entity type and of all entity types that it references, directly or indirectly.
+	 * The ids are cached until the metadata of any entity type changes.
+	 *
+	 * @return entity type ids or <tt>null</tt> if the entity type does not exist
+	 */
+	@Nullable
+	private Set<String> getReferencedEntityTypeIds(String entityTypeId)
+	{
+		long metadataGeneration = entityTypeGenerations.getMetadataGeneration();
+		if (referencedEntityTypeIdsGeneration.getAndSet(metadataGeneration) != metadataGeneration)
+		{
+			referencedEntityTypeIdsCache.invalidateAll();
+		}
+
+		Set<String> entityTypeIds = referencedEntityTypeIdsCache.getIfPresent(entityTypeId);
+		if (entityTypeIds == null)
+		{
+			// the ids are shared between users, so collect them regardless of the permissions of the current user
+			entityTypeIds = runAsSystem(() -> collectReferencedEntityTypeIds(entityTypeId));
+			if (entityTypeIds == null)
+			{
+				return null;
+			}
+			referencedEntityTypeIdsCache.put(entityTypeId, entityTypeIds);
+			if (entityTypeGenerations.getMetadataGeneration() != metadataGeneration)
+			{
+				// the metadata changed while collecting the ids
+				referencedEntityTypeIdsCache.invalidate(entityTypeId);
+			}
+		}
+		return entityTypeIds;
+	}
+
+	@Nullable
+	private Set<String> collectReferencedEntityTypeIds(String entityTypeId)
+	{
+		Set<String> entityTypeIds = new LinkedHashSet<>();
+		Deque<String> unvisitedEntityTypeIds = new ArrayDeque<>();
+		unvisitedEntityTypeIds.add(entityTypeId);
+		while (!unvisitedEntityTypeIds.isEmpty())
+		{
+			String unvisitedEntityTypeId = unvisitedEntityTypeIds.remove();
+			if (!entityTypeIds.add(unvisitedEntityTypeId))
+			{
+				continue;
+			}
+
+			EntityType entityType = dataService.getEntityType(unvisitedEntityTypeId);
+			if (entityType == null)
+			{
+				if (unvisitedEntityTypeId.equals(entityTypeId))
+				{
+					return null;
+				}
+				continue;
+			}
+			EntityType extendedEntityType = entityType.getExtends();
+			if (extendedEntityType != null)
+			{
+				unvisitedEntityTypeIds.add(extendedEntityType.getId());
+			}
+			for (Attribute attribute : entityType.getAtomicAttributes())
+			{
+				EntityType refEntityType = attribute.getRefEntity();
+				if (refEntityType != null)
+				{
+					unvisitedEntityTypeIds.add(refEntityType.getId());
+				}
+			}
+		}
+		return ImmutableSet.copyOf(entityTypeIds);
+	}
+}
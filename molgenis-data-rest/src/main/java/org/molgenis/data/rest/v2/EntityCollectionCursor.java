@@ -0,0 +1,121 @@
+package org.molgenis.data.rest.v2;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.reflect.TypeToken;
+import org.molgenis.data.MolgenisDataException;
+import org.molgenis.data.meta.model.Attribute;
+import org.molgenis.data.meta.model.EntityType;
+import org.molgenis.util.UnexpectedEnumException;
+
+import java.lang.reflect.Type;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Opaque continuation token for keyset pagination of entity collections. Encodes the sort key attribute names and
+ * values of the last entity of a page.
+ *
+ * @see org.molgenis.data.support.KeysetPaginationUtils
+ */
+class EntityCollectionCursor
+{
+	private static final Gson GSON = new Gson();
+	private static final Type CURSOR_TYPE = new TypeToken<LinkedHashMap<String, String>>()
+	{
+	}.getType();
+
+	private EntityCollectionCursor()
+	{
+	}
+
+	/**
+	 * @param attributeNames sort key attribute names
+	 * @param values         sort key values
+	 * @return continuation token
+	 */
+	static String encode(List<String> attributeNames, List<Object> values)
+	{
+		Map<String, String> cursor = new LinkedHashMap<>();
+		for (int i = 0; i < attributeNames.size(); ++i)
+		{
+			cursor.put(attributeNames.get(i), values.get(i).toString());
+		}
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(GSON.toJson(cursor).getBytes(UTF_8));
+	}
+
+	/**
+	 * @param token          continuation token
+	 * @param entityType     entity type
+	 * @param attributeNames expected sort key attribute names
+	 * @return sort key values
+	 * @throws MolgenisDataException if the token is invalid or does not match the sort key
+	 */
+	static List<Object> decode(String token, EntityType entityType, List<String> attributeNames)
+	{
+		Map<String, String> cursor;
+		try
+		{
+			cursor = GSON.fromJson(new String(Base64.getUrlDecoder().decode(token), UTF_8), CURSOR_TYPE);
+		}
+		catch (IllegalArgumentException | JsonParseException e)
+		{
+			throw new MolgenisDataException(format("Invalid cursor [%s]", token));
+		}
+		if (cursor == null || !new ArrayList<>(cursor.keySet()).equals(attributeNames))
+		{
+			throw new MolgenisDataException(format("Cursor [%s] does not match the query sort", token));
+		}
+
+		List<Object> values = new ArrayList<>(attributeNames.size());
+		for (String attributeName : attributeNames)
+		{
+			String value = cursor.get(attributeName);
+			if (value == null)
+			{
+				throw new MolgenisDataException(format("Invalid cursor [%s]", token));
+			}
+			try
+			{
+				values.add(toValue(value, entityType.getAttribute(attributeName)));
+			}
+			catch (IllegalArgumentException | DateTimeParseException e)
+			{
+				throw new MolgenisDataException(format("Invalid cursor [%s]", token));
+			}
+		}
+		return values;
+	}
+
+	private static Object toValue(String value, Attribute attr)
+	{
+		switch (attr.getDataType())
+		{
+			case DATE:
+				return LocalDate.parse(value);
+			case DATE_TIME:
+				return Instant.parse(value);
+			case DECIMAL:
+				return Double.valueOf(value);
+			case INT:
+				return Integer.valueOf(value);
+			case LONG:
+				return Long.valueOf(value);
+			case EMAIL:
+			case HYPERLINK:
+			case STRING:
+				return value;
+			default:
+				throw new UnexpectedEnumException(attr.getDataType());
+		}
+	}
+}
@@ -15,6 +15,10 @@ class EntityCollectionRequestV2
 	private AggregateQueryRsql aggs;
 	private Sort sort;
 	private AttributeFilter attrs;
+	/**
+	 * Continuation token for keyset pagination, empty to request the first page
+	 */
+	private String cursor;
 
 	@Min(0)
 	private int start = 0;
@@ -72,6 +76,16 @@ class EntityCollectionRequestV2
 		this.attrs = attrs;
 	}
 
+	public String getCursor()
+	{
+		return cursor;
+	}
+
+	public void setCursor(String cursor)
+	{
+		this.cursor = cursor;
+	}
+
 	public AggregateQueryRsql getAggs()
 	{
 		return aggs;
@@ -86,7 +100,7 @@ class EntityCollectionRequestV2
 	public String toString()
 	{
 		String builder = "EntityCollectionRequestV2 [q=" + q + ", aggs=" + aggs + ", sort=" + sort + ", attrs=" + attrs
-				+ ", start=" + start + ", num=" + num + "]";
+				+ ", cursor=" + cursor + ", start=" + start + ", num=" + num + "]";
 		return builder;
 	}
 }
\ No newline at end of file
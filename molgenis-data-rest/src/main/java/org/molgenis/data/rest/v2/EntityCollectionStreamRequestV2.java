@@ -0,0 +1,50 @@
+package org.molgenis.data.rest.v2;
+
+import org.molgenis.data.Sort;
+import org.molgenis.web.rsql.QueryRsql;
+
+/**
+ * Request to stream all entities of an entity collection that match a query.
+ */
+class EntityCollectionStreamRequestV2
+{
+	private QueryRsql q;
+	private Sort sort;
+	private AttributeFilter attrs;
+
+	public QueryRsql getQ()
+	{
+		return q;
+	}
+
+	public void setQ(QueryRsql q)
+	{
+		this.q = q;
+	}
+
+	public Sort getSort()
+	{
+		return sort;
+	}
+
+	public void setSort(Sort sort)
+	{
+		this.sort = sort;
+	}
+
+	public AttributeFilter getAttrs()
+	{
+		return attrs;
+	}
+
+	public void setAttrs(AttributeFilter attrs)
+	{
+		this.attrs = attrs;
+	}
+
+	@Override
+	public String toString()
+	{
+		return "EntityCollectionStreamRequestV2 [q=" + q + ", sort=" + sort + ", attrs=" + attrs + "]";
+	}
+}
@@ -1,20 +1,31 @@
 package org.molgenis.data.rest.v2;
 
+import com.google.common.util.concurrent.Striped;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.reflect.TypeToken;
 import org.molgenis.data.*;
 import org.molgenis.data.aggregation.AggregateQuery;
 import org.molgenis.data.aggregation.AggregateResult;
+import org.molgenis.data.csv.CsvWriter;
 import org.molgenis.data.i18n.LocalizationService;
 import org.molgenis.data.meta.AttributeType;
 import org.molgenis.data.meta.model.Attribute;
 import org.molgenis.data.meta.model.EntityType;
 import org.molgenis.data.rest.EntityPager;
+import org.molgenis.data.rest.service.ETagService;
 import org.molgenis.data.rest.service.RestService;
 import org.molgenis.data.rest.util.Href;
 import org.molgenis.data.security.EntityTypeIdentity;
 import org.molgenis.data.security.EntityTypePermission;
 import org.molgenis.data.security.exception.EntityTypePermissionDeniedException;
 import org.molgenis.data.security.permission.PermissionSystemService;
+import org.molgenis.data.support.AbstractWritable.EntityWriteMode;
 import org.molgenis.data.support.EntityTypeUtils;
+import org.molgenis.data.support.KeysetPaginationUtils;
 import org.molgenis.data.support.QueryImpl;
 import org.molgenis.data.support.RepositoryCopier;
 import org.molgenis.data.validation.meta.NameValidator;
@@ -30,7 +41,9 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.i18n.LocaleContextHolder;
 import org.springframework.core.convert.ConversionFailedException;
 import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.util.UriComponentsBuilder;
@@ -38,24 +51,38 @@ import org.springframework.web.util.UriComponentsBuilder;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.StringWriter;
+import java.io.Writer;
+import java.lang.reflect.Type;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.locks.Lock;
 import java.util.stream.Stream;
 
 import static com.google.common.collect.Lists.transform;
+import static com.google.common.collect.Streams.stream;
 import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.time.ZonedDateTime.now;
 import static java.time.format.FormatStyle.MEDIUM;
+import static java.util.Collections.emptyList;
 import static java.util.Objects.requireNonNull;
 import static java.util.stream.Collectors.toList;
 import static java.util.stream.Collectors.toSet;
 import static org.molgenis.data.meta.model.AttributeMetadata.ATTRIBUTE_META_DATA;
 import static org.molgenis.data.rest.v2.AttributeFilterToFetchConverter.createDefaultAttributeFetch;
 import static org.molgenis.data.rest.v2.RestControllerV2.BASE_URI;
+import static org.molgenis.data.support.KeysetPaginationUtils.getKeysetAttributeNames;
+import static org.molgenis.data.support.KeysetPaginationUtils.getKeysetValues;
+import static org.molgenis.data.support.KeysetPaginationUtils.isKeysetPageable;
 import static org.molgenis.data.util.EntityUtils.getTypedValue;
 import static org.springframework.http.HttpStatus.*;
 import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
@@ -69,6 +96,15 @@ public class RestControllerV2
 
 	static final int MAX_ENTITIES = 1000;
 
+	static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+	static final String TEXT_CSV_VALUE = "text/csv";
+
+	private static final Gson GSON = new GsonBuilder().disableHtmlEscaping().create();
+	private static final Type ENTITY_MAP_TYPE = new TypeToken<Map<String, Object>>()
+	{
+	}.getType();
+	private static final int ENTITY_TYPE_LOCK_STRIPES = 64;
+
 	public static final String BASE_URI = "/api/v2";
 	public static final String TIME_PARAM_NAME = "_t";
 
@@ -78,6 +114,12 @@ public class RestControllerV2
 	private final PermissionSystemService permissionSystemService;
 	private final RepositoryCopier repoCopier;
 	private final LocalizationService localizationService;
+	private final PlatformTransactionManager transactionManager;
+	private final ETagService eTagService;
+	/**
+	 * Serializes updates of entities of the same entity type, updates of different entity types run concurrently
+	 */
+	private final Striped<Lock> entityTypeLocks;
 
 	static MolgenisRepositoryCapabilitiesException createNoWriteCapabilitiesOnEntityException(String entityTypeId)
 	{
@@ -108,7 +150,7 @@ public class RestControllerV2
 
 	public RestControllerV2(DataService dataService, UserPermissionEvaluator permissionService, RestService restService,
 			LocalizationService localizationService, PermissionSystemService permissionSystemService,
-			RepositoryCopier repoCopier)
+			RepositoryCopier repoCopier, PlatformTransactionManager transactionManager, ETagService eTagService)
 	{
 		this.dataService = requireNonNull(dataService);
 		this.permissionService = requireNonNull(permissionService);
@@ -116,6 +158,9 @@ public class RestControllerV2
 		this.localizationService = requireNonNull(localizationService);
 		this.permissionSystemService = requireNonNull(permissionSystemService);
 		this.repoCopier = requireNonNull(repoCopier);
+		this.transactionManager = requireNonNull(transactionManager);
+		this.eTagService = requireNonNull(eTagService);
+		this.entityTypeLocks = Striped.lazyWeakLock(ENTITY_TYPE_LOCK_STRIPES);
 	}
 
 	@Autowired
@@ -137,14 +182,20 @@ public class RestControllerV2
 	}
 
 	/**
-	 * Retrieve an entity instance by id, optionally specify which attributes to include in the response.
+	 * Retrieve an entity instance by id, optionally specify which attributes to include in the response. Returns null
+	 * if the entity was not modified since the client requested it.
 	 */
 	@GetMapping("/{entityTypeId}/{id:.+}")
 	public Map<String, Object> retrieveEntity(@PathVariable("entityTypeId") String entityTypeId,
 			@PathVariable("id") String untypedId,
 			@RequestParam(value = "attrs", required = false) AttributeFilter attributeFilter,
-			@RequestParam(value = "includeCategories", defaultValue = "false") boolean includeCategories)
+			@RequestParam(value = "includeCategories", defaultValue = "false") boolean includeCategories,
+			HttpServletRequest httpRequest, HttpServletResponse httpResponse)
 	{
+		if (eTagService.checkNotModified(entityTypeId, httpRequest, httpResponse))
+		{
+			return null;
+		}
 		return getEntityResponse(entityTypeId, untypedId, attributeFilter, includeCategories);
 	}
 
@@ -216,13 +267,19 @@ public class RestControllerV2
 	}
 
 	/**
-	 * Retrieve an entity collection, optionally specify which attributes to include in the response.
+	 * Retrieve an entity collection, optionally specify which attributes to include in the response. Returns null if
+	 * the entities were not modified since the client requested them.
 	 */
 	@GetMapping("/{entityTypeId}")
 	public EntityCollectionResponseV2 retrieveEntityCollection(@PathVariable("entityTypeId") String entityTypeId,
 			@Valid EntityCollectionRequestV2 request, HttpServletRequest httpRequest,
-			@RequestParam(value = "includeCategories", defaultValue = "false") boolean includeCategories)
+			@RequestParam(value = "includeCategories", defaultValue = "false") boolean includeCategories,
+			HttpServletResponse httpResponse)
 	{
+		if (eTagService.checkNotModified(entityTypeId, httpRequest, httpResponse))
+		{
+			return null;
+		}
 		return createEntityCollectionResponse(entityTypeId, request, httpRequest, includeCategories);
 	}
 
@@ -235,12 +292,53 @@ public class RestControllerV2
 	}
 
 	/**
-	 * Retrieve attribute meta data
+	 * Stream all entities of an entity collection that match the query as newline delimited JSON, optionally specify
+	 * which attributes to include in the response. Entities are written to the response while they are read from the
+	 * repository, so the number of entities is not limited.
+	 */
+	@GetMapping(value = "/{entityTypeId}", produces = APPLICATION_NDJSON_VALUE)
+	public void streamEntityCollectionNdjson(@PathVariable("entityTypeId") String entityTypeId,
+			EntityCollectionStreamRequestV2 request, HttpServletResponse response) throws IOException
+	{
+		EntityType entityType = getEntityTypeForStream(entityTypeId);
+		Fetch fetch = createStreamFetch(entityType, request);
+		try (Stream<Entity> entities = dataService.findAll(entityTypeId, createStreamQuery(entityType, request, fetch)))
+		{
+			response.setContentType(APPLICATION_NDJSON_VALUE + ";charset=UTF-8");
+			writeEntitiesNdjson(fetch, entities, response.getOutputStream());
+		}
+	}
+
+	/**
+	 * Stream all entities of an entity collection that match the query as CSV, optionally specify which attributes to
+	 * include in the response. Entities are written to the response while they are read from the repository, so the
+	 * number of entities is not limited.
+	 */
+	@GetMapping(value = "/{entityTypeId}", produces = TEXT_CSV_VALUE)
+	public void streamEntityCollectionCsv(@PathVariable("entityTypeId") String entityTypeId,
+			EntityCollectionStreamRequestV2 request, HttpServletResponse response) throws IOException
+	{
+		EntityType entityType = getEntityTypeForStream(entityTypeId);
+		Fetch fetch = createStreamFetch(entityType, request);
+		try (Stream<Entity> entities = dataService.findAll(entityTypeId, createStreamQuery(entityType, request, fetch)))
+		{
+			response.setContentType(TEXT_CSV_VALUE + ";charset=UTF-8");
+			writeEntitiesCsv(entityType, fetch, entities, response.getOutputStream());
+		}
+	}
+
+	/**
+	 * Retrieve attribute meta data, returns null if the meta data was not modified since the client requested it
 	 */
 	@GetMapping(value = "/{entityTypeId}/meta/{attributeName}", produces = APPLICATION_JSON_VALUE)
 	public AttributeResponseV2 retrieveEntityAttributeMeta(@PathVariable("entityTypeId") String entityTypeId,
-			@PathVariable("attributeName") String attributeName)
+			@PathVariable("attributeName") String attributeName, HttpServletRequest httpRequest,
+			HttpServletResponse httpResponse)
 	{
+		if (eTagService.checkMetadataNotModified(entityTypeId, httpRequest, httpResponse))
+		{
+			return null;
+		}
 		return createAttributeResponse(entityTypeId, attributeName);
 	}
 
@@ -373,7 +471,7 @@ public class RestControllerV2
 	 * @param response     HttpServletResponse
 	 */
 	@PutMapping("/{entityTypeId}")
-	public synchronized void updateEntities(@PathVariable("entityTypeId") String entityTypeId,
+	public void updateEntities(@PathVariable("entityTypeId") String entityTypeId,
 			@RequestBody @Valid EntityCollectionBatchRequestV2 request, HttpServletResponse response) throws Exception
 	{
 		final EntityType meta = dataService.getEntityType(entityTypeId);
@@ -382,6 +480,8 @@ public class RestControllerV2
 			throw new UnknownEntityTypeException(entityTypeId);
 		}
 
+		Lock lock = entityTypeLocks.get(entityTypeId);
+		lock.lock();
 		try
 		{
 			List<Entity> entities = request.getEntities()
@@ -400,6 +500,37 @@ public class RestControllerV2
 			response.setStatus(HttpServletResponse.SC_NO_CONTENT);
 			throw e;
 		}
+		finally
+		{
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Create entities from newline delimited JSON with one entity per line. The entities are added in chunks of
+	 * {@value #MAX_ENTITIES} entities with a transaction per chunk, so the number of entities is not limited.
+	 * <p>
+	 * Writes a result as newline delimited JSON for each line: the index of the line and either the href of the
+	 * created entity or the error that caused the chunk of the line to fail. A line that is not a JSON object, e.g. a
+	 * blank line, ends the request with an error for that line and its chunk is not written. The response status is
+	 * 400 Bad Request if no chunk was written before.
+	 */
+	@PostMapping(value = "/{entityTypeId}", consumes = APPLICATION_NDJSON_VALUE, produces = APPLICATION_NDJSON_VALUE)
+	public void createEntitiesStream(@PathVariable("entityTypeId") String entityTypeId, HttpServletRequest request,
+			HttpServletResponse response) throws IOException
+	{
+		writeEntitiesStream(entityTypeId, false, request, response);
+	}
+
+	/**
+	 * Update entities from newline delimited JSON with one entity per line, see
+	 * {@link #createEntitiesStream(String, HttpServletRequest, HttpServletResponse)}.
+	 */
+	@PutMapping(value = "/{entityTypeId}", consumes = APPLICATION_NDJSON_VALUE, produces = APPLICATION_NDJSON_VALUE)
+	public void updateEntitiesStream(@PathVariable("entityTypeId") String entityTypeId, HttpServletRequest request,
+			HttpServletResponse response) throws IOException
+	{
+		writeEntitiesStream(entityTypeId, true, request, response);
 	}
 
 	/**
@@ -410,7 +541,7 @@ public class RestControllerV2
 	 */
 	@PutMapping("/{entityTypeId}/{attributeName}")
 	@ResponseStatus(OK)
-	public synchronized void updateAttribute(@PathVariable("entityTypeId") String entityTypeId,
+	public void updateAttribute(@PathVariable("entityTypeId") String entityTypeId,
 			@PathVariable("attributeName") String attributeName,
 			@RequestBody @Valid EntityCollectionBatchRequestV2 request, HttpServletResponse response) throws Exception
 	{
@@ -420,6 +551,8 @@ public class RestControllerV2
 			throw new UnknownEntityTypeException(entityTypeId);
 		}
 
+		Lock lock = entityTypeLocks.get(entityTypeId);
+		lock.lock();
 		try
 		{
 			Attribute attr = meta.getAttribute(attributeName);
@@ -470,6 +603,10 @@ public class RestControllerV2
 			response.setStatus(HttpServletResponse.SC_NO_CONTENT);
 			throw e;
 		}
+		finally
+		{
+			lock.unlock();
+		}
 	}
 
 	/**
@@ -655,10 +792,12 @@ public class RestControllerV2
 		else
 		{
 			Long count = dataService.count(entityTypeId, new QueryImpl<>(q).setOffset(0).setPageSize(0));
+			boolean keysetPagination = request.getCursor() != null;
+			Query<Entity> findAllQuery = keysetPagination ? createSeekQuery(entityType, q, request.getCursor()) : q;
 			Iterable<Entity> it;
 			if (count > 0 && q.getPageSize() > 0)
 			{
-				it = () -> dataService.findAll(entityTypeId, q).iterator();
+				it = () -> dataService.findAll(entityTypeId, findAllQuery).iterator();
 			}
 			else
 			{
@@ -667,27 +806,43 @@ public class RestControllerV2
 			EntityPager pager = new EntityPager(request.getStart(), request.getNum(), count, it);
 
 			List<Map<String, Object>> entities = new ArrayList<>();
+			Entity lastEntity = null;
 			for (Entity entity : it)
 			{
 				Map<String, Object> responseData = new LinkedHashMap<>();
 				createEntityValuesResponse(entity, fetch, responseData);
 				entities.add(responseData);
+				lastEntity = entity;
 			}
 
 			UriComponentsBuilder builder = UriComponentsBuilder.fromUriString(getFullURL(httpRequest));
 
 			String prevHref = null;
-			if (pager.getPrevStart() != null)
+			String nextHref = null;
+			if (keysetPagination)
 			{
-				builder.replaceQueryParam("start", pager.getPrevStart());
-				prevHref = builder.build(false).toUriString();
+				// keyset pagination only walks forward
+				if (lastEntity != null && entities.size() == q.getPageSize())
+				{
+					String cursor = EntityCollectionCursor.encode(getKeysetAttributeNames(entityType, q.getSort()),
+							getKeysetValues(entityType, q.getSort(), lastEntity));
+					builder.replaceQueryParam("start").replaceQueryParam("cursor", cursor);
+					nextHref = builder.build(false).toUriString();
+				}
 			}
-
-			String nextHref = null;
-			if (pager.getNextStart() != null)
+			else
 			{
-				builder.replaceQueryParam("start", pager.getNextStart());
-				nextHref = builder.build(false).toUriString();
+				if (pager.getPrevStart() != null)
+				{
+					builder.replaceQueryParam("start", pager.getPrevStart());
+					prevHref = builder.build(false).toUriString();
+				}
+
+				if (pager.getNextStart() != null)
+				{
+					builder.replaceQueryParam("start", pager.getNextStart());
+					nextHref = builder.build(false).toUriString();
+				}
 			}
 
 			return new EntityCollectionResponseV2(pager, entities, fetch, BASE_URI + '/' + entityTypeId, entityType,
@@ -695,6 +850,257 @@ public class RestControllerV2
 		}
 	}
 
+	private void writeEntitiesStream(String entityTypeId, boolean update, HttpServletRequest request,
+			HttpServletResponse response) throws IOException
+	{
+		EntityType entityType = getEntityTypeForStream(entityTypeId);
+
+		response.setContentType(APPLICATION_NDJSON_VALUE + ";charset=UTF-8");
+		BufferedReader reader = new BufferedReader(new InputStreamReader(request.getInputStream(), UTF_8));
+		Writer writer = new BufferedWriter(new OutputStreamWriter(response.getOutputStream(), UTF_8));
+
+		List<Map<String, Object>> entityMaps = new ArrayList<>(MAX_ENTITIES);
+		int index = 0;
+		for (String line = reader.readLine(); line != null; line = reader.readLine())
+		{
+			Map<String, Object> entityMap = parseEntityMap(line);
+			if (entityMap == null)
+			{
+				// the status can only be changed as long as no results were written
+				if (index == 0)
+				{
+					response.setStatus(BAD_REQUEST.value());
+				}
+				int lineIndex = index + entityMaps.size();
+				writeResult(lineIndex, "error", format("Line %d is not a JSON object.", lineIndex + 1), writer);
+				writer.flush();
+				return;
+			}
+
+			entityMaps.add(entityMap);
+			if (entityMaps.size() == MAX_ENTITIES)
+			{
+				writeEntitiesChunk(entityType, update, entityMaps, index, writer);
+				index += entityMaps.size();
+				entityMaps.clear();
+			}
+		}
+		if (!entityMaps.isEmpty())
+		{
+			writeEntitiesChunk(entityType, update, entityMaps, index, writer);
+		}
+		writer.flush();
+	}
+
+	/**
+	 * Parses a line of newline delimited JSON, returns <code>null</code> if the line is not a JSON object
+	 */
+	private static Map<String, Object> parseEntityMap(String line)
+	{
+		JsonElement jsonElement;
+		try
+		{
+			jsonElement = new JsonParser().parse(line);
+		}
+		catch (JsonParseException e)
+		{
+			return null;
+		}
+		return jsonElement.isJsonObject() ? GSON.fromJson(jsonElement, ENTITY_MAP_TYPE) : null;
+	}
+
+	/**
+	 * Writes a chunk of entities in one transaction and writes the result of each line to the response
+	 */
+	private void writeEntitiesChunk(EntityType entityType, boolean update, List<Map<String, Object>> entityMaps,
+			int index, Writer writer) throws IOException
+	{
+		List<Entity> entities;
+		String error = null;
+		try
+		{
+			entities = writeEntitiesChunk(entityType, update, entityMaps);
+		}
+		catch (RuntimeException e)
+		{
+			LOG.info("Operation failed.", e);
+			entities = emptyList();
+			error = e.getLocalizedMessage();
+		}
+
+		for (int i = 0; i < entityMaps.size(); ++i)
+		{
+			if (error != null)
+			{
+				writeResult(index + i, "error", error, writer);
+			}
+			else
+			{
+				writeResult(index + i, "href",
+						Href.concatEntityHref(BASE_URI, entityType.getId(), entities.get(i).getIdValue()), writer);
+			}
+		}
+		writer.flush();
+	}
+
+	private static void writeResult(int index, String key, String value, Writer writer) throws IOException
+	{
+		Map<String, Object> result = new LinkedHashMap<>();
+		result.put("index", index);
+		result.put(key, value);
+		GSON.toJson(result, writer);
+		writer.write('\n');
+	}
+
+	private List<Entity> writeEntitiesChunk(EntityType entityType, boolean update,
+			Collection<Map<String, Object>> entityMaps)
+	{
+		if (entityMaps.isEmpty())
+		{
+			return emptyList();
+		}
+
+		String entityTypeId = entityType.getId();
+		TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+		if (update)
+		{
+			// hold the lock until the transaction completes
+			Lock lock = entityTypeLocks.get(entityTypeId);
+			lock.lock();
+			try
+			{
+				return transactionTemplate.execute(status ->
+				{
+					List<Entity> entities = toEntities(entityType, entityMaps);
+					dataService.update(entityTypeId, entities.stream());
+					entities.forEach(entity -> restService.updateMappedByEntities(entity,
+							dataService.findOneById(entityTypeId, entity.getIdValue())));
+					return entities;
+				});
+			}
+			finally
+			{
+				lock.unlock();
+			}
+		}
+		else
+		{
+			return transactionTemplate.execute(status ->
+			{
+				List<Entity> entities = toEntities(entityType, entityMaps);
+				if (ATTRIBUTE_META_DATA.equals(entityTypeId))
+				{
+					entities.forEach(attribute -> dataService.getMeta().addAttribute((Attribute) attribute));
+				}
+				else
+				{
+					dataService.add(entityTypeId, entities.stream());
+				}
+				entities.forEach(restService::updateMappedByEntities);
+				return entities;
+			});
+		}
+	}
+
+	private List<Entity> toEntities(EntityType entityType, Collection<Map<String, Object>> entityMaps)
+	{
+		return entityMaps.stream().map(entityMap -> restService.toEntity(entityType, entityMap)).collect(toList());
+	}
+
+	private EntityType getEntityTypeForStream(String entityTypeId)
+	{
+		EntityType entityType = dataService.getEntityType(entityTypeId);
+		if (entityType == null)
+		{
+			throw new UnknownEntityTypeException(entityTypeId);
+		}
+		return entityType;
+	}
+
+	private static Fetch createStreamFetch(EntityType entityType, EntityCollectionStreamRequestV2 request)
+	{
+		return AttributeFilterToFetchConverter.convert(request.getAttrs(), entityType,
+				LocaleContextHolder.getLocale().getLanguage());
+	}
+
+	/**
+	 * Creates a query without offset and page size that selects all matching entities
+	 */
+	private static Query<Entity> createStreamQuery(EntityType entityType, EntityCollectionStreamRequestV2 request,
+			Fetch fetch)
+	{
+		Query<Entity> q = request.getQ() != null ? request.getQ().createQuery(entityType) : new QueryImpl<>();
+		q.sort(request.getSort());
+		if (fetch != null)
+		{
+			q.fetch(fetch);
+		}
+		return q;
+	}
+
+	/**
+	 * Writes one JSON document per line for each entity, see http://ndjson.org/
+	 */
+	private void writeEntitiesNdjson(Fetch fetch, Stream<Entity> entities, OutputStream outputStream)
+			throws IOException
+	{
+		Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, UTF_8));
+		for (Iterator<Entity> it = entities.iterator(); it.hasNext(); )
+		{
+			Map<String, Object> responseData = new LinkedHashMap<>();
+			createEntityValuesResponse(it.next(), fetch, responseData);
+			GSON.toJson(responseData, writer);
+			writer.write('\n');
+		}
+		writer.flush();
+	}
+
+	/**
+	 * Writes a header with attribute names and a row for each entity, references are written as identifiers
+	 */
+	private static void writeEntitiesCsv(EntityType entityType, Fetch fetch, Stream<Entity> entities,
+			OutputStream outputStream) throws IOException
+	{
+		CsvWriter csvWriter = new CsvWriter(outputStream);
+		csvWriter.setEntityWriteMode(EntityWriteMode.ENTITY_IDS);
+		List<String> attributeNames = stream(entityType.getAtomicAttributes()).filter(
+				attr -> fetch == null || fetch.hasField(attr)).map(Attribute::getName).collect(toList());
+		csvWriter.writeAttributeNames(attributeNames);
+		entities.forEach(csvWriter::add);
+		csvWriter.flush();
+	}
+
+	/**
+	 * Creates a query that selects the page that follows the given cursor. An empty cursor selects the first page.
+	 *
+	 * @throws MolgenisDataException if the query does not support keyset pagination or the cursor is invalid
+	 */
+	private static Query<Entity> createSeekQuery(EntityType entityType, Query<Entity> q, String cursor)
+	{
+		// the sort key values of the last entity are required to create the next cursor
+		Fetch fetch = q.getFetch();
+		Query<Entity> keysetQuery = new QueryImpl<>(q).setOffset(0);
+		if (fetch != null)
+		{
+			Fetch keysetFetch = new Fetch();
+			fetch.forEach(entry -> keysetFetch.field(entry.getKey(), entry.getValue()));
+			getKeysetAttributeNames(entityType, q.getSort()).forEach(keysetFetch::field);
+			keysetQuery.fetch(keysetFetch);
+		}
+		if (!isKeysetPageable(entityType, keysetQuery))
+		{
+			throw new MolgenisDataException(
+					"Cursor pagination requires sorting on non-nillable attributes of type string, number or date");
+		}
+		if (cursor.isEmpty())
+		{
+			return keysetQuery;
+		}
+		List<Object> keysetValues = EntityCollectionCursor.decode(cursor, entityType,
+				getKeysetAttributeNames(entityType, q.getSort()));
+		return KeysetPaginationUtils.createSeekQuery(entityType, keysetQuery, keysetValues);
+	}
+
 	private String getFullURL(HttpServletRequest request)
 	{
 		StringBuffer requestURL = request.getRequestURL();
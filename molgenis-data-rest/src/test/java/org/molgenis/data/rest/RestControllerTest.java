@@ -14,6 +14,7 @@ import org.molgenis.data.meta.model.Attribute;
 import org.molgenis.data.meta.model.EntityType;
 import org.molgenis.data.populate.IdGenerator;
 import org.molgenis.data.rest.RestControllerTest.RestControllerConfig;
+import org.molgenis.data.rest.service.ETagService;
 import org.molgenis.data.rest.service.RestService;
 import org.molgenis.data.rest.service.ServletUriComponentsBuilderFactory;
 import org.molgenis.data.security.EntityTypeIdentity;
@@ -43,6 +44,8 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.context.support.ResourceBundleMessageSource;
 import org.springframework.http.MediaType;
 import org.springframework.http.converter.json.GsonHttpMessageConverter;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -60,6 +63,7 @@ import org.testng.annotations.BeforeClass;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
+import javax.servlet.http.HttpServletResponse;
 import java.util.HashSet;
 import java.util.stream.Stream;
 
@@ -68,6 +72,7 @@ import static java.util.Arrays.asList;
 import static java.util.Collections.emptyList;
 import static java.util.Collections.singletonList;
 import static java.util.Locale.ENGLISH;
+import static javax.servlet.http.HttpServletResponse.SC_NOT_MODIFIED;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
@@ -127,6 +132,9 @@ public class RestControllerTest extends AbstractTestNGSpringContextTests
 	@Autowired
 	private TokenService tokenService;
 
+	@Autowired
+	private ETagService eTagService;
+
 	private MockMvc mockMvc;
 
 	@Mock
@@ -153,7 +161,7 @@ public class RestControllerTest extends AbstractTestNGSpringContextTests
 	public void beforeMethod()
 	{
 		MockitoAnnotations.initMocks(this);
-		reset(permissionService, dataService, metaDataService, tokenService);
+		reset(permissionService, dataService, metaDataService, tokenService, eTagService);
 
 		when(dataService.getMeta()).thenReturn(metaDataService);
 
@@ -444,7 +452,8 @@ public class RestControllerTest extends AbstractTestNGSpringContextTests
 	@Test
 	public void retrieve() throws Exception
 	{
-		restController.retrieveEntity(ENTITY_NAME, ENTITY_UNTYPED_ID, new String[] {}, new String[] {});
+		restController.retrieveEntity(ENTITY_NAME, ENTITY_UNTYPED_ID, new String[] {}, new String[] {},
+				new MockHttpServletRequest(), new MockHttpServletResponse());
 
 		mockMvc.perform(get(HREF_ENTITY_ID))
 			   .andExpect(status().isOk())
@@ -454,6 +463,36 @@ public class RestControllerTest extends AbstractTestNGSpringContextTests
 
 	}
 
+	@Test
+	public void retrieveNotModified() throws Exception
+	{
+		when(eTagService.checkNotModified(eq(ENTITY_NAME), any(), any())).thenAnswer(invocation ->
+		{
+			invocation.<HttpServletResponse>getArgument(2).setStatus(SC_NOT_MODIFIED);
+			return true;
+		});
+
+		mockMvc.perform(get(HREF_ENTITY_ID).header("If-None-Match", "W/\"etag\""))
+			   .andExpect(status().isNotModified())
+			   .andExpect(content().string(""));
+		verify(dataService, never()).findOneById(any(), any());
+	}
+
+	@Test
+	public void retrieveEntityTypeNotModified() throws Exception
+	{
+		when(eTagService.checkMetadataNotModified(eq(ENTITY_NAME), any(), any())).thenAnswer(invocation ->
+		{
+			invocation.<HttpServletResponse>getArgument(2).setStatus(SC_NOT_MODIFIED);
+			return true;
+		});
+
+		mockMvc.perform(get(HREF_ENTITY_META).header("If-None-Match", "W/\"etag\""))
+			   .andExpect(status().isNotModified())
+			   .andExpect(content().string(""));
+		verify(dataService, never()).getEntityType(ENTITY_NAME);
+	}
+
 	@Test
 	public void retrieveSelectAttributes() throws Exception
 	{
@@ -858,13 +897,19 @@ public class RestControllerTest extends AbstractTestNGSpringContextTests
 			return mock(ServletUriComponentsBuilderFactory.class);
 		}
 
+		@Bean
+		public ETagService eTagService()
+		{
+			return mock(ETagService.class);
+		}
+
 		@Bean
 		public RestController restController()
 		{
 			return new RestController(authenticationSettings(), dataService(), tokenService(), authenticationManager(),
 					permissionService(), userAccountService(), new MolgenisRSQL(new RSQLParser()),
 					new RestService(dataService(), idGenerator(), fileStore(), fileMetaFactory(), entityManager(),
-							servletUriComponentsBuilderFactory()));
+							servletUriComponentsBuilderFactory()), eTagService());
 		}
 	}
 }
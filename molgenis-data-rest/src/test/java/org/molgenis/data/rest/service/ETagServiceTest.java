@@ -0,0 +1,203 @@
+package org.molgenis.data.rest.service;
+
+import org.mockito.Mock;
+import org.molgenis.data.DataService;
+import org.molgenis.data.meta.model.Attribute;
+import org.molgenis.data.meta.model.EntityType;
+import org.molgenis.data.transaction.EntityTypeGenerations;
+import org.molgenis.test.AbstractMockitoTest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static javax.servlet.http.HttpServletResponse.SC_NOT_MODIFIED;
+import static javax.servlet.http.HttpServletResponse.SC_OK;
+import static org.mockito.Mockito.*;
+import static org.springframework.http.HttpHeaders.*;
+import static org.testng.Assert.*;
+
+public class ETagServiceTest extends AbstractMockitoTest
+{
+	@Mock
+	private DataService dataService;
+	@Mock
+	private EntityTypeGenerations entityTypeGenerations;
+	private ETagService eTagService;
+
+	@BeforeMethod
+	public void setUpBeforeMethod()
+	{
+		eTagService = new ETagService(dataService, entityTypeGenerations);
+		SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("user", null));
+	}
+
+	@AfterMethod
+	public void clearSecurityContextAfterMethod()
+	{
+		SecurityContextHolder.clearContext();
+	}
+
+	private void setUpEntityTypes()
+	{
+		when(entityTypeGenerations.getNodeId()).thenReturn("node");
+
+		Attribute refAttribute = mock(Attribute.class);
+		EntityType refEntityType = mock(EntityType.class);
+		when(refEntityType.getId()).thenReturn("refEntityType");
+		when(refAttribute.getRefEntity()).thenReturn(refEntityType);
+		EntityType entityType = mock(EntityType.class);
+		when(entityType.getAtomicAttributes()).thenReturn(asList(mock(Attribute.class), refAttribute));
+		when(dataService.getEntityType("entityType")).thenReturn(entityType);
+		when(dataService.getEntityType("refEntityType")).thenReturn(refEntityType);
+		when(refEntityType.getAtomicAttributes()).thenReturn(singletonList(mock(Attribute.class)));
+	}
+
+	@Test(expectedExceptions = NullPointerException.class)
+	public void testETagService()
+	{
+		new ETagService(null, entityTypeGenerations);
+	}
+
+	@Test
+	public void testCreateETag()
+	{
+		setUpEntityTypes();
+		String eTag = eTagService.createETag("entityType", true);
+		assertTrue(eTag.startsWith("W/\""));
+		assertEquals(eTagService.createETag("entityType", true), eTag);
+		verify(dataService, times(1)).getEntityType("entityType");
+	}
+
+	@Test
+	public void testCreateETagReferencedDataChanged()
+	{
+		setUpEntityTypes();
+		String eTag = eTagService.createETag("entityType", true);
+		when(entityTypeGenerations.getDataGeneration(anyString())).thenAnswer(
+				invocation -> invocation.getArgument(0).equals("refEntityType") ? 1L : 0L);
+		assertNotEquals(eTagService.createETag("entityType", true), eTag);
+	}
+
+	@Test
+	public void testCreateETagMetadataIgnoresData()
+	{
+		setUpEntityTypes();
+		String eTag = eTagService.createETag("entityType", false);
+		assertEquals(eTagService.createETag("entityType", false), eTag);
+		verify(entityTypeGenerations, never()).getDataGeneration(anyString());
+	}
+
+	@Test
+	public void testCreateETagMetadataChanged()
+	{
+		setUpEntityTypes();
+		String eTag = eTagService.createETag("entityType", false);
+		when(entityTypeGenerations.getMetadataGeneration()).thenReturn(1L);
+		when(entityTypeGenerations.getMetadataGeneration(anyString())).thenReturn(1L);
+		assertNotEquals(eTagService.createETag("entityType", false), eTag);
+		verify(dataService, times(2)).getEntityType("entityType");
+	}
+
+	@Test
+	public void testCreateETagUnknownEntityType()
+	{
+		assertNull(eTagService.createETag("unknownEntityType", true));
+		assertNull(eTagService.createETag("unknownEntityType", true));
+		verify(dataService, times(2)).getEntityType("unknownEntityType");
+	}
+
+	@Test
+	public void testCreateETagEntityTypeCreated()
+	{
+		assertNull(eTagService.createETag("entityType", true));
+		setUpEntityTypes();
+		assertNotNull(eTagService.createETag("entityType", true));
+	}
+
+	@Test
+	public void testCreateETagPermissionsChanged()
+	{
+		setUpEntityTypes();
+		String eTag = eTagService.createETag("entityType", true);
+		when(entityTypeGenerations.getPermissionGeneration()).thenReturn(1L);
+		assertNotEquals(eTagService.createETag("entityType", true), eTag);
+	}
+
+	@Test
+	public void testCreateETagOtherUser()
+	{
+		setUpEntityTypes();
+		String eTag = eTagService.createETag("entityType", true);
+		SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("otherUser", null));
+		assertNotEquals(eTagService.createETag("entityType", true), eTag);
+	}
+
+	@Test
+	public void testCheckNotModified()
+	{
+		setUpEntityTypes();
+		when(entityTypeGenerations.isEnabled()).thenReturn(true);
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v2/entityType");
+		request.addHeader(IF_NONE_MATCH, eTagService.createETag("entityType", true));
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		assertTrue(eTagService.checkNotModified("entityType", request, response));
+		assertEquals(response.getStatus(), SC_NOT_MODIFIED);
+	}
+
+	@Test
+	public void testCheckNotModifiedModified()
+	{
+		setUpEntityTypes();
+		when(entityTypeGenerations.isEnabled()).thenReturn(true);
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v2/entityType");
+		request.addHeader(IF_NONE_MATCH, "W/\"outdated\"");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		assertFalse(eTagService.checkNotModified("entityType", request, response));
+		assertEquals(response.getStatus(), SC_OK);
+		assertEquals(response.getHeader(ETAG), eTagService.createETag("entityType", true));
+		assertEquals(response.getHeader(CACHE_CONTROL), "private, no-cache");
+	}
+
+	@Test
+	public void testCheckMetadataNotModified()
+	{
+		setUpEntityTypes();
+		when(entityTypeGenerations.isEnabled()).thenReturn(true);
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v2/entityType/meta/attr");
+		request.addHeader(IF_NONE_MATCH, eTagService.createETag("entityType", false));
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		assertTrue(eTagService.checkMetadataNotModified("entityType", request, response));
+		assertEquals(response.getStatus(), SC_NOT_MODIFIED);
+	}
+
+	@Test
+	public void testCheckNotModifiedUnknownEntityType()
+	{
+		when(entityTypeGenerations.isEnabled()).thenReturn(true);
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v2/unknownEntityType");
+		request.addHeader(IF_NONE_MATCH, "W/\"eTag\"");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		assertFalse(eTagService.checkNotModified("unknownEntityType", request, response));
+		assertEquals(response.getStatus(), SC_OK);
+		assertNull(response.getHeader(ETAG));
+		assertNull(response.getHeader(CACHE_CONTROL));
+	}
+
+	@Test
+	public void testCheckNotModifiedDisabled()
+	{
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v2/entityType");
+		request.addHeader(IF_NONE_MATCH, "W/\"eTag\"");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		assertFalse(eTagService.checkNotModified("entityType", request, response));
+		assertEquals(response.getStatus(), SC_OK);
+		assertNull(response.getHeader(ETAG));
+		verifyZeroInteractions(dataService);
+	}
+}
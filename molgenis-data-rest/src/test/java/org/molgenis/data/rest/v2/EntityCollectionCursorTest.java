@@ -0,0 +1,62 @@
+package org.molgenis.data.rest.v2;
+
+import org.mockito.Mock;
+import org.molgenis.data.MolgenisDataException;
+import org.molgenis.data.meta.model.Attribute;
+import org.molgenis.data.meta.model.EntityType;
+import org.molgenis.test.AbstractMockitoTest;
+import org.testng.annotations.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.when;
+import static org.molgenis.data.meta.AttributeType.DATE;
+import static org.molgenis.data.meta.AttributeType.INT;
+import static org.testng.Assert.assertEquals;
+
+public class EntityCollectionCursorTest extends AbstractMockitoTest
+{
+	@Mock
+	private EntityType entityType;
+
+	@Mock
+	private Attribute idAttr;
+
+	@Mock
+	private Attribute dateAttr;
+
+	@Test
+	public void testEncodeDecode()
+	{
+		when(entityType.getAttribute("date")).thenReturn(dateAttr);
+		doReturn(idAttr).when(entityType).getAttribute("id");
+		when(dateAttr.getDataType()).thenReturn(DATE);
+		when(idAttr.getDataType()).thenReturn(INT);
+
+		List<String> attributeNames = asList("date", "id");
+		List<Object> values = asList(LocalDate.of(2018, 1, 31), 3);
+		String token = EntityCollectionCursor.encode(attributeNames, values);
+		assertEquals(EntityCollectionCursor.decode(token, entityType, attributeNames), values);
+	}
+
+	@Test(expectedExceptions = MolgenisDataException.class, expectedExceptionsMessageRegExp = "Cursor \\[.*\\] does not match the query sort")
+	public void testDecodeOtherSort()
+	{
+		String token = EntityCollectionCursor.encode(singletonList("id"), singletonList(3));
+		EntityCollectionCursor.decode(token, entityType, asList("date", "id"));
+	}
+
+	@Test(expectedExceptions = MolgenisDataException.class, expectedExceptionsMessageRegExp = "Invalid cursor \\[.*\\]")
+	public void testDecodeInvalidValue()
+	{
+		when(entityType.getAttribute("id")).thenReturn(idAttr);
+		when(idAttr.getDataType()).thenReturn(INT);
+
+		String token = EntityCollectionCursor.encode(singletonList("id"), singletonList("three"));
+		EntityCollectionCursor.decode(token, entityType, singletonList("id"));
+	}
+}
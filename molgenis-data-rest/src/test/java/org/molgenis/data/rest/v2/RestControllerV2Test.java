@@ -12,6 +12,7 @@ import org.molgenis.data.meta.MetaDataService;
 import org.molgenis.data.meta.model.*;
 import org.molgenis.data.meta.model.Package;
 import org.molgenis.data.populate.IdGenerator;
+import org.molgenis.data.rest.service.ETagService;
 import org.molgenis.data.rest.service.RestService;
 import org.molgenis.data.rest.service.ServletUriComponentsBuilderFactory;
 import org.molgenis.data.rest.v2.RestControllerV2Test.RestControllerV2Config;
@@ -40,14 +41,18 @@ import org.springframework.context.support.ResourceBundleMessageSource;
 import org.springframework.format.support.FormattingConversionService;
 import org.springframework.format.support.FormattingConversionServiceFactoryBean;
 import org.springframework.http.converter.json.GsonHttpMessageConverter;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.web.WebAppConfiguration;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.web.servlet.LocaleResolver;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurerAdapter;
 import org.testng.annotations.*;
 
+import javax.servlet.http.HttpServletResponse;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.util.*;
@@ -56,6 +61,7 @@ import java.util.stream.Stream;
 
 import static java.util.Arrays.asList;
 import static java.util.stream.Collectors.toList;
+import static javax.servlet.http.HttpServletResponse.SC_NOT_MODIFIED;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
@@ -140,6 +146,9 @@ public class RestControllerV2Test extends AbstractMolgenisSpringTest
 	@Autowired
 	private LocaleResolver localeResolver;
 
+	@Autowired
+	private ETagService eTagService;
+
 	private MockMvc mockMvc;
 	private String attrBoolName;
 	private String attrStringName;
@@ -177,6 +186,7 @@ public class RestControllerV2Test extends AbstractMolgenisSpringTest
 	{
 		reset(dataService);
 		reset(repoCopier);
+		reset(eTagService);
 
 		EntityType refRefEntityType = entityTypeFactory.create(REF_REF_ENTITY_NAME)
 													   .setLabel(REF_REF_ENTITY_NAME)
@@ -445,10 +455,20 @@ public class RestControllerV2Test extends AbstractMolgenisSpringTest
 	@Test
 	public void retrieveAtrributeMetaData()
 	{
-		assertEquals(restControllerV2.retrieveEntityAttributeMeta(ENTITY_NAME, "id").getHref(),
-				"/api/v2/entity/meta/id");
-		assertEquals(restControllerV2.retrieveEntityAttributeMeta(ENTITY_NAME, "id").getName(), "id");
-		assertNull(restControllerV2.retrieveEntityAttributeMeta(ENTITY_NAME, "id").getDescription());
+		AttributeResponseV2 attributeResponse = restControllerV2.retrieveEntityAttributeMeta(ENTITY_NAME, "id",
+				new MockHttpServletRequest(), new MockHttpServletResponse());
+		assertEquals(attributeResponse.getHref(), "/api/v2/entity/meta/id");
+		assertEquals(attributeResponse.getName(), "id");
+		assertNull(attributeResponse.getDescription());
+	}
+
+	@Test
+	public void retrieveAtrributeMetaDataNotModified()
+	{
+		when(eTagService.checkMetadataNotModified(eq(ENTITY_NAME), any(), any())).thenReturn(true);
+		assertNull(restControllerV2.retrieveEntityAttributeMeta(ENTITY_NAME, "id", new MockHttpServletRequest(),
+				new MockHttpServletResponse()));
+		verify(dataService, never()).getEntityType(ENTITY_NAME);
 	}
 
 	@Test
@@ -470,6 +490,36 @@ public class RestControllerV2Test extends AbstractMolgenisSpringTest
 			   .andExpect(content().json(expectedContent));
 	}
 
+	@Test
+	public void retrieveResourceNotModified() throws Exception
+	{
+		when(eTagService.checkNotModified(eq(ENTITY_NAME), any(), any())).thenAnswer(invocation ->
+		{
+			invocation.<HttpServletResponse>getArgument(2).setStatus(SC_NOT_MODIFIED);
+			return true;
+		});
+
+		mockMvc.perform(get(HREF_ENTITY_ID).header("If-None-Match", "W/\"etag\""))
+			   .andExpect(status().isNotModified())
+			   .andExpect(content().string(""));
+		verify(dataService, never()).getEntityType(ENTITY_NAME);
+	}
+
+	@Test
+	public void retrieveResourceCollectionNotModified() throws Exception
+	{
+		when(eTagService.checkNotModified(eq(ENTITY_NAME), any(), any())).thenAnswer(invocation ->
+		{
+			invocation.<HttpServletResponse>getArgument(2).setStatus(SC_NOT_MODIFIED);
+			return true;
+		});
+
+		mockMvc.perform(get(HREF_ENTITY_COLLECTION).header("If-None-Match", "W/\"etag\""))
+			   .andExpect(status().isNotModified())
+			   .andExpect(content().string(""));
+		verify(dataService, never()).getEntityType(ENTITY_NAME);
+	}
+
 	@Test
 	public void retrieveResourceIncludingCategories() throws Exception
 	{
@@ -600,6 +650,70 @@ public class RestControllerV2Test extends AbstractMolgenisSpringTest
 			   .andExpect(jsonPath("$.total").value(2L));
 	}
 
+	@Test
+	public void retrieveEntityCollectionCursorFirstPage() throws Exception
+	{
+		Entity entity = dataService.findOneById(ENTITY_NAME, ENTITY_ID);
+		when(dataService.findAll(ENTITY_NAME, new QueryImpl<>().pageSize(1))).thenReturn(Stream.of(entity));
+		mockMvc.perform(get(HREF_ENTITY_COLLECTION).param("num", "1").param("cursor", ""))
+			   .andExpect(status().isOk())
+			   .andExpect(jsonPath("$.items", hasSize(1)))
+			   .andExpect(jsonPath("$.nextHref", is("http://localhost" + HREF_ENTITY_COLLECTION
+					   + "?cursor=eyJpZCI6IjAifQ")))
+			   .andExpect(jsonPath("$.prevHref").doesNotExist());
+	}
+
+	@Test
+	public void retrieveEntityCollectionCursor() throws Exception
+	{
+		Query<Entity> seekQuery = new QueryImpl<>().nest().nest().gt("id", "0").unnest().unnest().pageSize(1);
+		when(dataService.findAll(ENTITY_NAME, seekQuery)).thenReturn(Stream.empty());
+		mockMvc.perform(get(HREF_ENTITY_COLLECTION).param("num", "1").param("cursor", "eyJpZCI6IjAifQ"))
+			   .andExpect(status().isOk())
+			   .andExpect(jsonPath("$.items").isEmpty())
+			   .andExpect(jsonPath("$.nextHref").doesNotExist());
+		verify(dataService).findAll(ENTITY_NAME, seekQuery);
+	}
+
+	@Test
+	public void retrieveEntityCollectionCursorInvalid() throws Exception
+	{
+		mockMvc.perform(get(HREF_ENTITY_COLLECTION).param("cursor", "invalid"))
+			   .andExpect(status().isBadRequest());
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void streamEntityCollectionNdjson() throws Exception
+	{
+		Entity entity = dataService.findOneById(ENTITY_NAME, ENTITY_ID);
+		when(dataService.findAll(eq(ENTITY_NAME), any(Query.class))).thenReturn(Stream.of(entity, entity));
+		mockMvc.perform(get(HREF_ENTITY_COLLECTION).param("attrs", "id," + attrStringName)
+												 .accept(RestControllerV2.APPLICATION_NDJSON_VALUE))
+			   .andExpect(status().isOk())
+			   .andExpect(content().contentType("application/x-ndjson;charset=UTF-8"))
+			   .andExpect(content().string("{\"_href\":\"/api/v2/entity/0\",\"id\":\"0\",\"string\":\"str\"}\n"
+					   + "{\"_href\":\"/api/v2/entity/0\",\"id\":\"0\",\"string\":\"str\"}\n"));
+
+		ArgumentCaptor<Query<Entity>> queryCaptor = ArgumentCaptor.forClass(Query.class);
+		verify(dataService).findAll(eq(ENTITY_NAME), queryCaptor.capture());
+		assertEquals(queryCaptor.getValue().getPageSize(), 0);
+		assertEquals(queryCaptor.getValue().getOffset(), 0);
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void streamEntityCollectionCsv() throws Exception
+	{
+		Entity entity = dataService.findOneById(ENTITY_NAME, ENTITY_ID);
+		when(dataService.findAll(eq(ENTITY_NAME), any(Query.class))).thenReturn(Stream.of(entity));
+		mockMvc.perform(get(HREF_ENTITY_COLLECTION).param("attrs", "id," + attrStringName + ',' + attrXrefName)
+												 .accept(RestControllerV2.TEXT_CSV_VALUE))
+			   .andExpect(status().isOk())
+			   .andExpect(content().contentType("text/csv;charset=UTF-8"))
+			   .andExpect(content().string("\"id\",\"string\",\"xref\"\n\"0\",\"str\",\"ref0\"\n"));
+	}
+
 	@SuppressWarnings("unchecked")
 	@Test
 	public void testCreateEntities() throws Exception
@@ -822,6 +936,55 @@ public class RestControllerV2Test extends AbstractMolgenisSpringTest
 		verify(dataService, times(1)).update(eq(ENTITY_NAME), (Stream<Entity>) any(Stream.class));
 	}
 
+	@SuppressWarnings("unchecked")
+	@Test
+	public void testCreateEntitiesStream() throws Exception
+	{
+		mockMvc.perform(post(HREF_ENTITY_COLLECTION).content("{id:'p1'}\n{id:'p2'}\n")
+													.contentType(RestControllerV2.APPLICATION_NDJSON_VALUE)
+													.accept(RestControllerV2.APPLICATION_NDJSON_VALUE))
+			   .andExpect(status().isOk())
+			   .andExpect(content().string("{\"index\":0,\"href\":\"/api/v2/entity/p1\"}\n"
+					   + "{\"index\":1,\"href\":\"/api/v2/entity/p2\"}\n"));
+
+		verify(dataService, times(1)).add(eq(ENTITY_NAME), (Stream<Entity>) any(Stream.class));
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void testUpdateEntitiesStreamMolgenisDataException() throws Exception
+	{
+		Exception e = new MolgenisDataException("Update failed");
+		doThrow(e).when(dataService).update(eq(ENTITY_NAME), (Stream<Entity>) any(Stream.class));
+
+		mockMvc.perform(put(HREF_ENTITY_COLLECTION).content("{id:'p1'}\n{id:'p2'}\n")
+												   .contentType(RestControllerV2.APPLICATION_NDJSON_VALUE)
+												   .accept(RestControllerV2.APPLICATION_NDJSON_VALUE))
+			   .andExpect(status().isOk())
+			   .andExpect(content().string("{\"index\":0,\"error\":\"Update failed\"}\n"
+					   + "{\"index\":1,\"error\":\"Update failed\"}\n"));
+	}
+
+	@DataProvider(name = "testCreateEntitiesStreamNotAJsonObjectProvider")
+	public static Iterator<Object[]> testCreateEntitiesStreamNotAJsonObjectProvider()
+	{
+		return asList(new Object[] { "null" }, new Object[] { "" }, new Object[] { "[{id:'p2'}]" },
+				new Object[] { "{invalid" }).iterator();
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test(dataProvider = "testCreateEntitiesStreamNotAJsonObjectProvider")
+	public void testCreateEntitiesStreamNotAJsonObject(String line) throws Exception
+	{
+		mockMvc.perform(post(HREF_ENTITY_COLLECTION).content("{id:'p1'}\n" + line + "\n{id:'p3'}\n")
+													.contentType(RestControllerV2.APPLICATION_NDJSON_VALUE)
+													.accept(RestControllerV2.APPLICATION_NDJSON_VALUE))
+			   .andExpect(status().isBadRequest())
+			   .andExpect(content().string("{\"index\":1,\"error\":\"Line 2 is not a JSON object.\"}\n"));
+
+		verify(dataService, never()).add(eq(ENTITY_NAME), (Stream<Entity>) any(Stream.class));
+	}
+
 	@SuppressWarnings("unchecked")
 	@Test
 	public void testUpdateEntitiesMolgenisDataException() throws Exception
@@ -1115,6 +1278,12 @@ public class RestControllerV2Test extends AbstractMolgenisSpringTest
 			return mock(RepositoryCopier.class);
 		}
 
+		@Bean
+		public PlatformTransactionManager transactionManager()
+		{
+			return mock(PlatformTransactionManager.class);
+		}
+
 		@Bean
 		public IdGenerator idGenerator()
 		{
@@ -1157,13 +1326,19 @@ public class RestControllerV2Test extends AbstractMolgenisSpringTest
 			return mock(ServletUriComponentsBuilderFactory.class);
 		}
 
+		@Bean
+		public ETagService eTagService()
+		{
+			return mock(ETagService.class);
+		}
+
 		@Bean
 		public RestControllerV2 restController()
 		{
 			return new RestControllerV2(dataService(), permissionService(),
 					new RestService(dataService(), idGenerator(), fileStore(), fileMetaFactory(), entityManager(),
 							servletUriComponentsBuilderFactory()), localizationService(), permissionSystemService(),
-					repositoryCopier());
+					repositoryCopier(), transactionManager(), eTagService());
 		}
 	}
 }
@@ -0,0 +1,50 @@
+package org.molgenis.data.security;
+
+import org.molgenis.data.FetchPushDownPolicy;
+import org.molgenis.data.decorator.DynamicRepositoryDecoratorRegistry;
+import org.molgenis.data.meta.model.EntityType;
+import org.molgenis.security.acl.MutableAclClassService;
+import org.molgenis.security.core.UserPermissionEvaluator;
+import org.springframework.stereotype.Component;
+
+import static java.util.Objects.requireNonNull;
+import static org.molgenis.data.security.EntityTypePermission.READ_DATA;
+import static org.molgenis.data.support.EntityTypeUtils.isSystemEntity;
+
+/**
+ * Allows retrieving referenced entities without repository decorators if the current user is allowed to read all
+ * entities of the referenced entity type and none of the decorators of the referenced entity type changes the
+ * retrieved data:
+ * <ul>
+ * <li>system entity types have system repository decorators</li>
+ * <li>entity types with an ACL class are row level secured</li>
+ * <li>entity types can have dynamic decorators if dynamic decorator factories exist</li>
+ * </ul>
+ */
+@Component
+public class FetchPushDownPolicyImpl implements FetchPushDownPolicy
+{
+	private final UserPermissionEvaluator userPermissionEvaluator;
+	private final MutableAclClassService mutableAclClassService;
+	private final DynamicRepositoryDecoratorRegistry dynamicRepositoryDecoratorRegistry;
+
+	FetchPushDownPolicyImpl(UserPermissionEvaluator userPermissionEvaluator,
+			MutableAclClassService mutableAclClassService,
+			DynamicRepositoryDecoratorRegistry dynamicRepositoryDecoratorRegistry)
+	{
+		this.userPermissionEvaluator = requireNonNull(userPermissionEvaluator);
+		this.mutableAclClassService = requireNonNull(mutableAclClassService);
+		this.dynamicRepositoryDecoratorRegistry = requireNonNull(dynamicRepositoryDecoratorRegistry);
+	}
+
+	@Override
+	public boolean isPushDownAllowed(EntityType refEntityType)
+	{
+		if (isSystemEntity(refEntityType) || dynamicRepositoryDecoratorRegistry.getFactoryIds().findAny().isPresent())
+		{
+			return false;
+		}
+		return !mutableAclClassService.hasAclClass(EntityIdentityUtils.toType(refEntityType))
+				&& userPermissionEvaluator.hasPermission(new EntityTypeIdentity(refEntityType), READ_DATA);
+	}
+}
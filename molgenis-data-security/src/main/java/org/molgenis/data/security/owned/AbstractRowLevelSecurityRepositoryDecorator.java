@@ -1,5 +1,6 @@
 package org.molgenis.data.security.owned;
 
+import com.google.common.collect.Iterators;
 import org.molgenis.data.*;
 import org.molgenis.data.aggregation.AggregateQuery;
 import org.molgenis.data.aggregation.AggregateResult;
@@ -13,6 +14,8 @@ import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 import static java.util.Objects.requireNonNull;
+import static java.util.Spliterator.ORDERED;
+import static java.util.Spliterators.spliteratorUnknownSize;
 import static java.util.stream.Collectors.toList;
 import static java.util.stream.StreamSupport.stream;
 import static org.molgenis.data.security.owned.AbstractRowLevelSecurityRepositoryDecorator.Action.*;
@@ -24,6 +27,8 @@ import static org.molgenis.security.core.utils.SecurityUtils.currentUserIsSuOrSy
 public abstract class AbstractRowLevelSecurityRepositoryDecorator<E extends Entity>
 		extends AbstractRepositoryDecorator<E>
 {
+	private static final int BATCH_SIZE = 1000;
+
 	private final MutableAclService mutableAclService;
 
 	/**
@@ -45,28 +50,26 @@ public abstract class AbstractRowLevelSecurityRepositoryDecorator<E extends Enti
 	public Iterator<E> iterator()
 	{
 		Iterable<E> iterable = () -> delegate().iterator();
-		return stream(iterable.spliterator(), false).filter(entity -> isActionPermitted(entity, READ))
-													.iterator();
+		return filterPermitted(stream(iterable.spliterator(), false), READ).iterator();
 	}
 
 	@Override
 	public void forEachBatched(Fetch fetch, Consumer<List<E>> consumer, int batchSize)
 	{
-		delegate().forEachBatched(fetch, entities -> consumer.accept(
-				entities.stream().filter(entity -> isActionPermitted(entity, READ)).collect(toList())),
-				batchSize);
+		delegate().forEachBatched(fetch, entities -> consumer.accept(filterPermitted(entities, READ)), batchSize);
 	}
 
 	@Override
 	public long count()
 	{
-		return findAllPermitted(COUNT).count();
+		return count(new QueryImpl<>());
 	}
 
 	@Override
 	public long count(Query<E> q)
 	{
-		return findAllPermitted(q, COUNT).count();
+		Query<E> permittedQuery = createPermittedQuery(q, COUNT);
+		return permittedQuery != null ? delegate().count(permittedQuery) : findAllPermitted(q, COUNT).count();
 	}
 
 	@Override
@@ -107,15 +110,13 @@ public abstract class AbstractRowLevelSecurityRepositoryDecorator<E extends Enti
 	@Override
 	public Stream<E> findAll(Stream<Object> ids)
 	{
-		Stream<E> entities = delegate().findAll(ids);
-		entities = entities.filter(entity -> isActionPermitted(entity, READ));
-		return entities;
+		return filterPermitted(delegate().findAll(ids), READ);
 	}
 
 	@Override
 	public Stream<E> findAll(Stream<Object> ids, Fetch fetch)
 	{
-		return delegate().findAll(ids, fetch).filter(entity -> isActionPermitted(entity, READ));
+		return filterPermitted(delegate().findAll(ids, fetch), READ);
 	}
 
 	@Override
@@ -235,17 +236,17 @@ public abstract class AbstractRowLevelSecurityRepositoryDecorator<E extends Enti
 		}));
 	}
 
-	private Stream<E> findAllPermitted(Action action)
-	{
-		return findAllPermitted(new QueryImpl<>(), action);
-	}
-
 	private Stream<E> findAllPermitted(Query<E> query, Action action)
 	{
+		Query<E> permittedQuery = createPermittedQuery(query, action);
+		if (permittedQuery != null)
+		{
+			return delegate().findAll(permittedQuery);
+		}
+
 		Query<E> qWithoutLimitOffset = new QueryImpl<>(query);
 		qWithoutLimitOffset.offset(0).pageSize(Integer.MAX_VALUE);
-		Stream<E> permittedEntityStream = delegate().findAll(qWithoutLimitOffset)
-													.filter(entity -> isActionPermitted(entity, action));
+		Stream<E> permittedEntityStream = filterPermitted(delegate().findAll(qWithoutLimitOffset), action);
 		if (query.getOffset() > 0)
 		{
 			permittedEntityStream = permittedEntityStream.skip(query.getOffset());
@@ -257,6 +258,37 @@ public abstract class AbstractRowLevelSecurityRepositoryDecorator<E extends Enti
 		return permittedEntityStream;
 	}
 
+	/**
+	 * Filters the entities on which the action is permitted in batches, see {@link #filterPermitted(List, Action)}.
+	 */
+	private Stream<E> filterPermitted(Stream<E> entities, Action action)
+	{
+		Iterator<List<E>> batches = Iterators.partition(entities.iterator(), BATCH_SIZE);
+		return stream(spliteratorUnknownSize(batches, ORDERED), false).flatMap(
+				batch -> filterPermitted(batch, action).stream()).onClose(entities::close);
+	}
+
+	/**
+	 * Returns the entities on which the action is permitted, in the order of the given entities. Override this method
+	 * to check the permissions of a batch of entities at once.
+	 */
+	protected List<E> filterPermitted(List<E> entities, Action action)
+	{
+		return entities.stream().filter(entity -> isActionPermitted(entity, action)).collect(toList());
+	}
+
+	/**
+	 * Returns a query for the decorated repository that only matches the entities of the given query on which the
+	 * action is permitted, so that the decorated repository applies offset and limit to permitted entities only.
+	 *
+	 * @return permitted query or <code>null</code> if the permission of each entity has to be checked by this
+	 * decorator
+	 */
+	protected Query<E> createPermittedQuery(Query<E> query, Action action)
+	{
+		return null;
+	}
+
 	void deleteAcl(ObjectIdentity objectIdentity)
 	{
 		mutableAclService.deleteAcl(objectIdentity, true);
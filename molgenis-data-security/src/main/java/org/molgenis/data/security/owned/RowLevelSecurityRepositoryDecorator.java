@@ -1,37 +1,62 @@
 package org.molgenis.data.security.owned;
 
-import org.molgenis.data.Entity;
-import org.molgenis.data.Repository;
+import org.molgenis.data.*;
+import org.molgenis.data.QueryRule.Operator;
 import org.molgenis.data.security.EntityIdentity;
+import org.molgenis.data.security.EntityIdentityUtils;
 import org.molgenis.data.security.EntityPermission;
 import org.molgenis.data.security.exception.EntityPermissionDeniedException;
+import org.molgenis.data.support.QueryImpl;
 import org.molgenis.security.core.Permission;
+import org.molgenis.security.core.PermissionRegistry;
 import org.molgenis.security.core.PermissionSet;
 import org.molgenis.security.core.UserPermissionEvaluator;
 import org.molgenis.security.core.utils.SecurityUtils;
 import org.molgenis.util.UnexpectedEnumException;
+import org.springframework.security.acls.domain.GrantedAuthoritySid;
 import org.springframework.security.acls.domain.PrincipalSid;
+import org.springframework.security.acls.domain.SidRetrievalStrategyImpl;
 import org.springframework.security.acls.model.MutableAcl;
 import org.springframework.security.acls.model.MutableAclService;
+import org.springframework.security.acls.model.ObjectIdentity;
 import org.springframework.security.acls.model.Sid;
+import org.springframework.security.acls.model.SidRetrievalStrategy;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static com.google.common.collect.Lists.newArrayList;
 import static java.util.Objects.requireNonNull;
+import static java.util.stream.Collectors.toList;
+import static org.molgenis.security.core.utils.SecurityUtils.currentUserIsSuOrSystem;
 
 /**
  * RepositoryDecorator that works on EntityTypes that are row-level secured.
  * It is reponsible to check that the {@link EntityPermission}s on Entities in this repository are allowed.
+ * <p>
+ * If the decorated repository supports the {@link Operator#PERMITTED} query operator, queries are extended with a
+ * {@link PermissionFilter} for the security identities of the current user so that the decorated repository only
+ * retrieves and counts permitted entities.
  */
 public class RowLevelSecurityRepositoryDecorator extends AbstractRowLevelSecurityRepositoryDecorator<Entity>
 {
 	private final UserPermissionEvaluator userPermissionEvaluator;
 	private final MutableAclService mutableAclService;
+	private final PermissionRegistry permissionRegistry;
+	private final SidRetrievalStrategy sidRetrievalStrategy;
 
 	RowLevelSecurityRepositoryDecorator(Repository delegateRepository,
-			UserPermissionEvaluator userPermissionEvaluator, MutableAclService mutableAclService)
+			UserPermissionEvaluator userPermissionEvaluator, MutableAclService mutableAclService,
+			PermissionRegistry permissionRegistry)
 	{
 		super(delegateRepository, mutableAclService);
 		this.userPermissionEvaluator = requireNonNull(userPermissionEvaluator);
 		this.mutableAclService = requireNonNull(mutableAclService);
+		this.permissionRegistry = requireNonNull(permissionRegistry);
+		this.sidRetrievalStrategy = new SidRetrievalStrategyImpl();
 	}
 
 	@Override
@@ -62,6 +87,83 @@ public class RowLevelSecurityRepositoryDecorator extends AbstractRowLevelSecurit
 		return userPermissionEvaluator.hasPermission(entityIdentity, entityPermission);
 	}
 
+	@Override
+	protected List<Entity> filterPermitted(List<Entity> entities, Action action)
+	{
+		if (action == Action.CREATE)
+		{
+			return entities;
+		}
+		List<EntityIdentity> entityIdentities = entities.stream().map(this::toEntityIdentity).collect(toList());
+		Set<ObjectIdentity> permittedEntityIdentities = userPermissionEvaluator.getPermittedObjectIdentities(
+				entityIdentities, getPermission(action));
+		return entities.stream()
+					   .filter(entity -> permittedEntityIdentities.contains(toEntityIdentity(entity)))
+					   .collect(toList());
+	}
+
+	@Override
+	protected Query<Entity> createPermittedQuery(Query<Entity> query, Action action)
+	{
+		if (currentUserIsSuOrSystem())
+		{
+			return query;
+		}
+		if (!getQueryOperators().contains(Operator.PERMITTED))
+		{
+			return null;
+		}
+
+		QueryImpl<Entity> permittedQuery;
+		if (query.getRules().isEmpty())
+		{
+			permittedQuery = new QueryImpl<>();
+		}
+		else
+		{
+			permittedQuery = new QueryImpl<>(new QueryRule(Operator.NESTED, newArrayList(query.getRules())));
+			permittedQuery.and();
+		}
+		permittedQuery.addRule(new QueryRule(Operator.PERMITTED, createPermissionFilter(action)));
+		permittedQuery.setOffset(query.getOffset());
+		permittedQuery.setPageSize(query.getPageSize());
+		permittedQuery.sort(query.getSort());
+		permittedQuery.fetch(query.getFetch());
+		return permittedQuery;
+	}
+
+	/**
+	 * Creates a filter for the security identities that the {@link org.springframework.security.acls.AclPermissionEvaluator}
+	 * uses for the current user and the permission sets that grant the permission for the action.
+	 */
+	private PermissionFilter createPermissionFilter(Action action)
+	{
+		Set<String> principals = new LinkedHashSet<>();
+		Set<String> authorities = new LinkedHashSet<>();
+		Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+		if (authentication != null)
+		{
+			for (Sid sid : sidRetrievalStrategy.getSids(authentication))
+			{
+				if (sid instanceof PrincipalSid)
+				{
+					principals.add(((PrincipalSid) sid).getPrincipal());
+				}
+				else if (sid instanceof GrantedAuthoritySid)
+				{
+					authorities.add(((GrantedAuthoritySid) sid).getGrantedAuthority());
+				}
+			}
+		}
+
+		int mask = 0;
+		for (PermissionSet permissionSet : permissionRegistry.getPermissions(getPermission(action)))
+		{
+			mask |= permissionSet.getMask();
+		}
+		return PermissionFilter.create(EntityIdentityUtils.toType(getEntityType()), principals, authorities, mask);
+	}
+
 	/**
 	 * Finds out what permission to check for an operation that is being performed on this repository.
 	 *
@@ -0,0 +1,92 @@
+package org.molgenis.data.security;
+
+import org.mockito.Mock;
+import org.molgenis.data.decorator.DynamicRepositoryDecoratorRegistry;
+import org.molgenis.data.meta.model.EntityType;
+import org.molgenis.data.meta.model.Package;
+import org.molgenis.security.acl.MutableAclClassService;
+import org.molgenis.security.core.UserPermissionEvaluator;
+import org.molgenis.test.AbstractMockitoTest;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.stream.Stream;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.molgenis.data.security.EntityTypePermission.READ_DATA;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class FetchPushDownPolicyImplTest extends AbstractMockitoTest
+{
+	@Mock
+	private UserPermissionEvaluator userPermissionEvaluator;
+
+	@Mock
+	private MutableAclClassService mutableAclClassService;
+
+	@Mock
+	private DynamicRepositoryDecoratorRegistry dynamicRepositoryDecoratorRegistry;
+
+	@Mock
+	private EntityType refEntityType;
+
+	private FetchPushDownPolicyImpl fetchPushDownPolicy;
+
+	@BeforeMethod
+	public void setUpBeforeMethod()
+	{
+		fetchPushDownPolicy = new FetchPushDownPolicyImpl(userPermissionEvaluator, mutableAclClassService,
+				dynamicRepositoryDecoratorRegistry);
+	}
+
+	@Test(expectedExceptions = NullPointerException.class)
+	public void testFetchPushDownPolicyImpl()
+	{
+		new FetchPushDownPolicyImpl(null, null, null);
+	}
+
+	@Test
+	public void testIsPushDownAllowed()
+	{
+		when(refEntityType.getId()).thenReturn("refEntityType");
+		when(dynamicRepositoryDecoratorRegistry.getFactoryIds()).thenReturn(Stream.empty());
+		when(userPermissionEvaluator.hasPermission(new EntityTypeIdentity("refEntityType"), READ_DATA)).thenReturn(
+				true);
+		assertTrue(fetchPushDownPolicy.isPushDownAllowed(refEntityType));
+	}
+
+	@Test
+	public void testIsPushDownAllowedNoReadPermission()
+	{
+		when(refEntityType.getId()).thenReturn("refEntityType");
+		when(dynamicRepositoryDecoratorRegistry.getFactoryIds()).thenReturn(Stream.empty());
+		assertFalse(fetchPushDownPolicy.isPushDownAllowed(refEntityType));
+	}
+
+	@Test
+	public void testIsPushDownAllowedRowLevelSecured()
+	{
+		when(refEntityType.getId()).thenReturn("refEntityType");
+		when(dynamicRepositoryDecoratorRegistry.getFactoryIds()).thenReturn(Stream.empty());
+		when(mutableAclClassService.hasAclClass("entity-refEntityType")).thenReturn(true);
+		assertFalse(fetchPushDownPolicy.isPushDownAllowed(refEntityType));
+	}
+
+	@Test
+	public void testIsPushDownAllowedDynamicDecorators()
+	{
+		when(dynamicRepositoryDecoratorRegistry.getFactoryIds()).thenReturn(Stream.of("decorator"));
+		assertFalse(fetchPushDownPolicy.isPushDownAllowed(refEntityType));
+	}
+
+	@Test
+	public void testIsPushDownAllowedSystemEntityType()
+	{
+		Package systemPackage = mock(Package.class);
+		when(systemPackage.getId()).thenReturn("sys");
+		when(refEntityType.getPackage()).thenReturn(systemPackage);
+		assertFalse(fetchPushDownPolicy.isPushDownAllowed(refEntityType));
+	}
+}
@@ -4,7 +4,9 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.molgenis.data.Entity;
 import org.molgenis.data.Fetch;
+import org.molgenis.data.PermissionFilter;
 import org.molgenis.data.Query;
+import org.molgenis.data.QueryRule;
 import org.molgenis.data.Repository;
 import org.molgenis.data.aggregation.AggregateQuery;
 import org.molgenis.data.aggregation.AggregateResult;
@@ -13,6 +15,7 @@ import org.molgenis.data.security.EntityIdentity;
 import org.molgenis.data.security.EntityPermission;
 import org.molgenis.data.security.exception.EntityPermissionDeniedException;
 import org.molgenis.data.support.QueryImpl;
+import org.molgenis.security.core.PermissionRegistry;
 import org.molgenis.security.core.PermissionSet;
 import org.molgenis.security.core.UserPermissionEvaluator;
 import org.molgenis.test.AbstractMockitoTestNGSpringContextTests;
@@ -27,15 +30,19 @@ import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Sets.newHashSet;
 import static java.util.Collections.emptyList;
+import static java.util.Collections.singleton;
 import static java.util.Collections.singletonList;
 import static java.util.stream.Collectors.toList;
 import static org.mockito.Mockito.*;
+import static org.molgenis.data.QueryRule.Operator.*;
 import static org.molgenis.data.security.EntityPermission.READ;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertNull;
@@ -52,19 +59,21 @@ public class RowLevelSecurityRepositoryDecoratorTest extends AbstractMockitoTest
 	private UserPermissionEvaluator userPermissionEvaluator;
 	@Mock
 	private MutableAclService mutableAclService;
+	@Mock
+	private PermissionRegistry permissionRegistry;
 	private RowLevelSecurityRepositoryDecorator rowLevelSecurityRepositoryDecorator;
 
 	@BeforeMethod
 	public void setUpBeforeMethod()
 	{
 		rowLevelSecurityRepositoryDecorator = new RowLevelSecurityRepositoryDecorator(delegateRepository,
-				userPermissionEvaluator, mutableAclService);
+				userPermissionEvaluator, mutableAclService, permissionRegistry);
 	}
 
 	@Test(expectedExceptions = NullPointerException.class)
 	public void testRowLevelSecurityRepositoryDecorator()
 	{
-		new RowLevelSecurityRepositoryDecorator(null, null, null);
+		new RowLevelSecurityRepositoryDecorator(null, null, null, null);
 	}
 
 	@WithMockUser(username = USERNAME)
@@ -337,7 +346,8 @@ public class RowLevelSecurityRepositoryDecoratorTest extends AbstractMockitoTest
 		Entity entity = getEntityMock();
 		when(delegateRepository.findAll(new QueryImpl<>().setOffset(0).setPageSize(Integer.MAX_VALUE))).thenAnswer(
 				invocation -> Stream.of(entity));
-		when(userPermissionEvaluator.hasPermission(new EntityIdentity(entity), READ)).thenReturn(true);
+		when(userPermissionEvaluator.getPermittedObjectIdentities(singletonList(new EntityIdentity(entity)),
+				READ)).thenReturn(singleton(new EntityIdentity(entity)));
 		assertEquals(entity, rowLevelSecurityRepositoryDecorator.findOne(query));
 	}
 
@@ -360,7 +370,8 @@ public class RowLevelSecurityRepositoryDecoratorTest extends AbstractMockitoTest
 		Entity entity = getEntityMock();
 		when(delegateRepository.findAll(new QueryImpl<>().setOffset(0).setPageSize(Integer.MAX_VALUE))).thenAnswer(
 				invocation -> Stream.of(entity));
-		when(userPermissionEvaluator.hasPermission(new EntityIdentity(entity), READ)).thenReturn(true);
+		when(userPermissionEvaluator.getPermittedObjectIdentities(singletonList(new EntityIdentity(entity)),
+				READ)).thenReturn(singleton(new EntityIdentity(entity)));
 		assertEquals(rowLevelSecurityRepositoryDecorator.findAll(query).collect(toList()), singletonList(entity));
 	}
 
@@ -382,7 +393,8 @@ public class RowLevelSecurityRepositoryDecoratorTest extends AbstractMockitoTest
 		Object entityId = "entityId";
 		Entity entity = getEntityMock();
 		when(delegateRepository.findAll(any(Stream.class))).thenAnswer(invocation -> Stream.of(entity));
-		when(userPermissionEvaluator.hasPermission(new EntityIdentity(entity), READ)).thenReturn(true);
+		when(userPermissionEvaluator.getPermittedObjectIdentities(singletonList(new EntityIdentity(entity)),
+				READ)).thenReturn(singleton(new EntityIdentity(entity)));
 		assertEquals(rowLevelSecurityRepositoryDecorator.findAll(Stream.of(entityId)).collect(toList()), singletonList(entity));
 	}
 
@@ -396,6 +408,22 @@ public class RowLevelSecurityRepositoryDecoratorTest extends AbstractMockitoTest
 		assertEquals(rowLevelSecurityRepositoryDecorator.findAll(Stream.of(entityId)).collect(toList()), emptyList());
 	}
 
+	@SuppressWarnings("unchecked")
+	@Test
+	public void testFindAllStreamBatched()
+	{
+		Entity entity0 = getEntityMock();
+		Entity entity1 = getEntityMock();
+		when(entity1.getIdValue()).thenReturn("entityId1");
+		when(delegateRepository.findAll(any(Stream.class))).thenAnswer(invocation -> Stream.of(entity0, entity1));
+		when(userPermissionEvaluator.getPermittedObjectIdentities(
+				newArrayList(new EntityIdentity(entity0), new EntityIdentity(entity1)), READ)).thenReturn(
+				singleton(new EntityIdentity(entity1)));
+		assertEquals(rowLevelSecurityRepositoryDecorator.findAll(Stream.of("entityId", "entityId1")).collect(toList()),
+				singletonList(entity1));
+		verify(userPermissionEvaluator, never()).hasPermission(any(EntityIdentity.class), any(EntityPermission.class));
+	}
+
 	@SuppressWarnings("unchecked")
 	@Test
 	public void testFindAllStreamFetch()
@@ -404,7 +432,8 @@ public class RowLevelSecurityRepositoryDecoratorTest extends AbstractMockitoTest
 		Entity entity = getEntityMock();
 		Fetch fetch = mock(Fetch.class);
 		when(delegateRepository.findAll(any(Stream.class), eq(fetch))).thenAnswer(invocation -> Stream.of(entity));
-		when(userPermissionEvaluator.hasPermission(new EntityIdentity(entity), READ)).thenReturn(true);
+		when(userPermissionEvaluator.getPermittedObjectIdentities(singletonList(new EntityIdentity(entity)),
+				READ)).thenReturn(singleton(new EntityIdentity(entity)));
 		assertEquals(rowLevelSecurityRepositoryDecorator.findAll(Stream.of(entityId), fetch).collect(toList()),
 				singletonList(entity));
 	}
@@ -427,7 +456,8 @@ public class RowLevelSecurityRepositoryDecoratorTest extends AbstractMockitoTest
 		Entity entity = getEntityMock();
 		when(delegateRepository.findAll(new QueryImpl<>().setOffset(0).setPageSize(Integer.MAX_VALUE))).thenAnswer(
 				invocation -> Stream.of(entity));
-		when(userPermissionEvaluator.hasPermission(new EntityIdentity(entity), EntityPermission.READ)).thenReturn(true);
+		when(userPermissionEvaluator.getPermittedObjectIdentities(singletonList(new EntityIdentity(entity)),
+				READ)).thenReturn(singleton(new EntityIdentity(entity)));
 		assertEquals(rowLevelSecurityRepositoryDecorator.count(), 1L);
 	}
 
@@ -448,7 +478,8 @@ public class RowLevelSecurityRepositoryDecoratorTest extends AbstractMockitoTest
 		Entity entity = getEntityMock();
 		when(delegateRepository.findAll(new QueryImpl<>().setOffset(0).setPageSize(Integer.MAX_VALUE))).thenAnswer(
 				invocation -> Stream.of(entity));
-		when(userPermissionEvaluator.hasPermission(new EntityIdentity(entity), EntityPermission.READ)).thenReturn(true);
+		when(userPermissionEvaluator.getPermittedObjectIdentities(singletonList(new EntityIdentity(entity)),
+				READ)).thenReturn(singleton(new EntityIdentity(entity)));
 		assertEquals(rowLevelSecurityRepositoryDecorator.count(query), 1L);
 	}
 
@@ -463,12 +494,64 @@ public class RowLevelSecurityRepositoryDecoratorTest extends AbstractMockitoTest
 		assertEquals(rowLevelSecurityRepositoryDecorator.count(query), 0L);
 	}
 
+	@WithMockUser(username = USERNAME)
+	@Test
+	public void testCountQueryPermittedQuery()
+	{
+		EntityType entityType = when(mock(EntityType.class).getId()).thenReturn("entityTypeId").getMock();
+		when(delegateRepository.getEntityType()).thenReturn(entityType);
+		when(delegateRepository.getQueryOperators()).thenReturn(EnumSet.of(EQUALS, AND, NESTED, PERMITTED));
+		when(permissionRegistry.getPermissions(EntityPermission.READ)).thenReturn(
+				newHashSet(PermissionSet.READ, PermissionSet.WRITE));
+
+		Query<Entity> query = new QueryImpl<>().eq("attr", "value");
+		QueryImpl<Entity> permittedQuery = new QueryImpl<>(
+				new QueryRule(NESTED, singletonList(new QueryRule("attr", EQUALS, "value"))));
+		permittedQuery.and();
+		permittedQuery.addRule(new QueryRule(PERMITTED,
+				PermissionFilter.create("entity-entityTypeId", singleton(USERNAME), singleton("ROLE_USER"), 6)));
+		when(delegateRepository.count(permittedQuery)).thenReturn(3L);
+
+		assertEquals(rowLevelSecurityRepositoryDecorator.count(query), 3L);
+		verify(delegateRepository, never()).findAll(any(Query.class));
+	}
+
+	@WithMockUser(username = USERNAME)
+	@Test
+	public void testFindAllQueryPermittedQuery()
+	{
+		EntityType entityType = when(mock(EntityType.class).getId()).thenReturn("entityTypeId").getMock();
+		when(delegateRepository.getEntityType()).thenReturn(entityType);
+		when(delegateRepository.getQueryOperators()).thenReturn(EnumSet.of(EQUALS, AND, NESTED, PERMITTED));
+		when(permissionRegistry.getPermissions(EntityPermission.READ)).thenReturn(singleton(PermissionSet.READ));
+
+		Query<Entity> query = new QueryImpl<>().setOffset(10).setPageSize(5);
+		QueryImpl<Entity> permittedQuery = new QueryImpl<>(new QueryRule(PERMITTED,
+				PermissionFilter.create("entity-entityTypeId", singleton(USERNAME), singleton("ROLE_USER"), 2)));
+		permittedQuery.setOffset(10).setPageSize(5);
+		Entity entity = getEntityMock();
+		when(delegateRepository.findAll(permittedQuery)).thenReturn(Stream.of(entity));
+
+		assertEquals(rowLevelSecurityRepositoryDecorator.findAll(query).collect(toList()), singletonList(entity));
+		verifyZeroInteractions(userPermissionEvaluator);
+	}
+
+	@WithMockUser(username = USERNAME, roles = "SU")
+	@Test
+	public void testCountQuerySuperuser()
+	{
+		Query<Entity> query = new QueryImpl<>().eq("attr", "value");
+		when(delegateRepository.count(query)).thenReturn(3L);
+		assertEquals(rowLevelSecurityRepositoryDecorator.count(query), 3L);
+	}
+
 	@Test
 	public void testIterator()
 	{
 		Entity entity = getEntityMock();
 		when(delegateRepository.iterator()).thenReturn(singletonList(entity).iterator());
-		when(userPermissionEvaluator.hasPermission(new EntityIdentity(entity), READ)).thenReturn(true);
+		when(userPermissionEvaluator.getPermittedObjectIdentities(singletonList(new EntityIdentity(entity)),
+				READ)).thenReturn(singleton(new EntityIdentity(entity)));
 		assertEquals(newArrayList(rowLevelSecurityRepositoryDecorator.iterator()), singletonList(entity));
 	}
 
@@ -492,7 +575,8 @@ public class RowLevelSecurityRepositoryDecoratorTest extends AbstractMockitoTest
 			((Consumer<List<Entity>>) invocation.getArgument(1)).accept(singletonList(entity));
 			return null;
 		}).when(delegateRepository).forEachBatched(eq(fetch), any(), eq(1000));
-		when(userPermissionEvaluator.hasPermission(new EntityIdentity(entity), READ)).thenReturn(true);
+		when(userPermissionEvaluator.getPermittedObjectIdentities(singletonList(new EntityIdentity(entity)),
+				READ)).thenReturn(singleton(new EntityIdentity(entity)));
 		rowLevelSecurityRepositoryDecorator.forEachBatched(fetch, actualEntities::addAll, 1000);
 		assertEquals(actualEntities, singletonList(entity));
 	}
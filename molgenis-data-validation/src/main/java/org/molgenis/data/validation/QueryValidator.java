@@ -58,6 +58,7 @@ public class QueryValidator
 			case AND:
 			case NOT:
 			case OR:
+			case PERMITTED:
 				break;
 			case EQUALS:
 			case FUZZY_MATCH:
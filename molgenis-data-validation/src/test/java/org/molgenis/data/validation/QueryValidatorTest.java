@@ -6,8 +6,11 @@ import org.molgenis.data.Query;
 import org.molgenis.data.QueryRule;
 import org.molgenis.data.file.model.FileMeta;
 import org.molgenis.data.meta.AttributeType;
+import org.molgenis.data.meta.IndexHint;
 import org.molgenis.data.meta.model.Attribute;
 import org.molgenis.data.meta.model.EntityType;
+import org.molgenis.data.meta.model.Tag;
+import org.molgenis.data.semantic.Relation;
 import org.molgenis.data.support.QueryImpl;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.DataProvider;
@@ -21,6 +24,7 @@ import java.util.Iterator;
 import java.util.List;
 
 import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 import static org.molgenis.data.QueryRule.Operator.*;
@@ -205,4 +209,21 @@ public class QueryValidatorTest
 		queryValidator.validate(query, entityType);
 	}
 
+	/**
+	 * Index hints only apply to queries that are sent to the index, the repository that stores the entities can query
+	 * attributes that are not indexed.
+	 */
+	@Test
+	public void testValidateNotIndexedReference()
+	{
+		Tag tag = mock(Tag.class);
+		when(tag.getRelationIri()).thenReturn(Relation.hasIndexHint.getIRI());
+		when(tag.getObjectIri()).thenReturn(IndexHint.NOT_INDEXED.getIRI());
+		EntityType entityType = (EntityType) createEntityType(XREF);
+		Attribute attr = entityType.getAttribute("attr");
+		when(attr.getTags()).thenReturn(singletonList(tag));
+
+		queryValidator.validate(new QueryImpl<>().in("attr", asList("1", "2")), entityType);
+		// test passes if not exception occurred
+	}
 }
\ No newline at end of file
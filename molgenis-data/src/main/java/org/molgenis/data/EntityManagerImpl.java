@@ -6,7 +6,7 @@ import com.google.common.collect.SetMultimap;
 import org.molgenis.data.meta.model.Attribute;
 import org.molgenis.data.meta.model.EntityType;
 import org.molgenis.data.populate.EntityPopulator;
-import org.molgenis.data.support.DynamicEntity;
+import org.molgenis.data.support.ArrayEntity;
 import org.molgenis.data.support.EntityTypeUtils;
 import org.molgenis.data.support.EntityWithComputedAttributes;
 import org.molgenis.data.support.PartialEntity;
@@ -63,7 +63,7 @@ public class EntityManagerImpl implements EntityManager
 
 	private Entity create(EntityType entityType, Fetch fetch, CreationMode creationMode)
 	{
-		Entity entity = new DynamicEntity(entityType);
+		Entity entity = new ArrayEntity(entityType);
 		if (fetch != null)
 		{
 			// create partial entity that loads attribute values not contained in the fetch on demand.
@@ -156,6 +156,8 @@ public class EntityManagerImpl implements EntityManager
 	{
 		// entity name --> entity ids
 		SetMultimap<String, Object> lazyRefEntityIdsMap = HashMultimap.create(resolvableAttrs.size(), 16);
+		// entity name --> referenced entities that were retrieved together with the referring entities
+		Map<String, Map<Object, Entity>> resolvedRefEntitiesMap = new HashMap<>();
 		// entity name --> attributes referring to this entity
 		SetMultimap<String, Attribute> refEntityAttrsMap = HashMultimap.create(resolvableAttrs.size(), 2);
 
@@ -171,7 +173,7 @@ public class EntityManagerImpl implements EntityManager
 					Entity lazyRefEntity = entity.getEntity(attr.getName());
 					if (lazyRefEntity != null)
 					{
-						lazyRefEntityIdsMap.put(refEntityName, lazyRefEntity.getIdValue());
+						putRefEntity(lazyRefEntityIdsMap, resolvedRefEntitiesMap, refEntityName, lazyRefEntity);
 					}
 				}
 
@@ -183,7 +185,7 @@ public class EntityManagerImpl implements EntityManager
 					Iterable<Entity> lazyRefEntities = entity.getEntities(attr.getName());
 					for (Entity lazyRefEntity : lazyRefEntities)
 					{
-						lazyRefEntityIdsMap.put(refEntityName, lazyRefEntity.getIdValue());
+						putRefEntity(lazyRefEntityIdsMap, resolvedRefEntitiesMap, refEntityName, lazyRefEntity);
 					}
 				}
 			}
@@ -192,20 +194,35 @@ public class EntityManagerImpl implements EntityManager
 		}
 
 		// batch retrieve referred entities and replace entity references with actual entities
-		for (Entry<String, Collection<Object>> entry : lazyRefEntityIdsMap.asMap().entrySet())
+		for (Entry<String, Collection<Attribute>> entry : refEntityAttrsMap.asMap().entrySet())
 		{
 			String refEntityName = entry.getKey();
+			Set<Object> lazyRefEntityIds = lazyRefEntityIdsMap.get(refEntityName);
+			Map<Object, Entity> resolvedRefEntities = resolvedRefEntitiesMap.get(refEntityName);
+			if (lazyRefEntityIds.isEmpty() && resolvedRefEntities == null)
+			{
+				continue;
+			}
 
 			// create a fetch for the referenced entity which is a union of the fetches defined by attributes
 			// referencing this entity
-			Set<Attribute> attrs = refEntityAttrsMap.get(refEntityName);
+			Collection<Attribute> attrs = entry.getValue();
 			Fetch subFetch = createSubFetch(fetch, attrs);
 
-			// retrieve referenced entities
-			Stream<Entity> refEntities = dataService.findAll(refEntityName, entry.getValue().stream(), subFetch);
-
-			Map<Object, Entity> refEntitiesIdMap = refEntities.collect(
-					Collectors.toMap(Entity::getIdValue, Function.identity()));
+			Map<Object, Entity> refEntitiesIdMap = new HashMap<>();
+			if (resolvedRefEntities != null)
+			{
+				// only resolve the references of the referenced entities
+				EntityType refEntityType = attrs.iterator().next().getRefEntity();
+				resolveReferences(refEntityType, resolvedRefEntities.values().stream(), subFetch).forEach(
+						refEntity -> refEntitiesIdMap.put(refEntity.getIdValue(), refEntity));
+			}
+			if (!lazyRefEntityIds.isEmpty())
+			{
+				// retrieve referenced entities
+				Stream<Entity> refEntities = dataService.findAll(refEntityName, lazyRefEntityIds.stream(), subFetch);
+				refEntities.forEach(refEntity -> refEntitiesIdMap.put(refEntity.getIdValue(), refEntity));
+			}
 
 			for (Attribute attr : attrs)
 			{
@@ -245,6 +262,24 @@ public class EntityManagerImpl implements EntityManager
 		return entities;
 	}
 
+	/**
+	 * Referenced entities created by a repository that retrieves references together with the referring entities
+	 * (see {@link FetchPushDownPolicy}) don't have to be retrieved again, other references are retrieved by id.
+	 */
+	private static void putRefEntity(SetMultimap<String, Object> lazyRefEntityIdsMap,
+			Map<String, Map<Object, Entity>> resolvedRefEntitiesMap, String refEntityName, Entity refEntity)
+	{
+		if (refEntity instanceof PartialEntity)
+		{
+			resolvedRefEntitiesMap.computeIfAbsent(refEntityName, key -> new LinkedHashMap<>())
+								  .put(refEntity.getIdValue(), refEntity);
+		}
+		else
+		{
+			lazyRefEntityIdsMap.put(refEntityName, refEntity.getIdValue());
+		}
+	}
+
 	private static Fetch createSubFetch(Fetch fetch, Iterable<Attribute> attrs)
 	{
 		Fetch subFetch = null;
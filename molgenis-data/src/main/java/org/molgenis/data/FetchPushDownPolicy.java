@@ -0,0 +1,19 @@
+package org.molgenis.data;
+
+import org.molgenis.data.meta.model.EntityType;
+
+/**
+ * Determines whether a repository may retrieve referenced entities together with the referring entities instead of
+ * leaving it to {@link EntityManager#resolveReferences(EntityType, java.util.stream.Stream, Fetch)} to retrieve them
+ * through the {@link DataService}. Referenced entities retrieved this way bypass the repository decorators of the
+ * referenced entity type.
+ */
+public interface FetchPushDownPolicy
+{
+	/**
+	 * @param refEntityType referenced entity type
+	 * @return <code>true</code> if entities of the given type can be retrieved without the repository decorators of
+	 * the type for the current user
+	 */
+	boolean isPushDownAllowed(EntityType refEntityType);
+}
@@ -0,0 +1,40 @@
+package org.molgenis.data;
+
+import com.google.auto.value.AutoValue;
+import com.google.common.collect.ImmutableSet;
+
+import java.util.Set;
+
+/**
+ * Value of a {@link QueryRule.Operator#PERMITTED} query rule. Matches entities whose access control list contains a
+ * granting entry for one of the security identities with a mask that has at least one bit in common with the given
+ * mask.
+ */
+@AutoValue
+@SuppressWarnings("squid:S1610") // Abstract classes without fields should be converted to interfaces
+public abstract class PermissionFilter
+{
+	/**
+	 * @return ACL class of the entities
+	 */
+	public abstract String getAclClass();
+
+	/**
+	 * @return names of the principal security identities
+	 */
+	public abstract Set<String> getPrincipals();
+
+	/**
+	 * @return names of the granted authority security identities
+	 */
+	public abstract Set<String> getAuthorities();
+
+	public abstract int getMask();
+
+	public static PermissionFilter create(String aclClass, Set<String> principals, Set<String> authorities,
+			int mask)
+	{
+		return new AutoValue_PermissionFilter(aclClass, ImmutableSet.copyOf(principals),
+				ImmutableSet.copyOf(authorities), mask);
+	}
+}
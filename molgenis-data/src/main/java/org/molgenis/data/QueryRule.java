@@ -159,7 +159,12 @@ public class QueryRule
 		/**
 		 * Fuzzy match operator
 		 */
-		FUZZY_MATCH_NGRAM("FUZZY_MATCH_NGRAM");
+		FUZZY_MATCH_NGRAM("FUZZY_MATCH_NGRAM"),
+
+		/**
+		 * entity is permitted by the {@link PermissionFilter} 'value'. The parameter 'field' is ommitted.
+		 */
+		PERMITTED("PERMITTED");
 
 		private String label;
 
@@ -218,6 +223,15 @@ public class QueryRule
 			this.operator = operator;
 			setValue(value);
 		}
+		else if (operator == Operator.PERMITTED)
+		{
+			if (!(value instanceof PermissionFilter))
+			{
+				throw new IllegalArgumentException("QueryRule(PERMITTED, value): value should be PermissionFilter");
+			}
+			this.operator = operator;
+			this.value = value;
+		}
 		else if (Operator.NESTED.equals(operator))
 		{
 			boolean okay = true;
@@ -0,0 +1,80 @@
+package org.molgenis.data.meta;
+
+/**
+ * Describes how the values of an attribute are indexed by the search index. Index hints are assigned to attributes
+ * with a tag that has relation {@link org.molgenis.data.semantic.Relation#hasIndexHint} and the IRI of the hint as
+ * object IRI.
+ *
+ * @see org.molgenis.data.support.AttributeUtils#getIndexHint(org.molgenis.data.meta.model.Attribute)
+ */
+public enum IndexHint
+{
+	/**
+	 * Values are indexed for full text search, filtering, sorting and aggregation (default)
+	 */
+	INDEXED("http://molgenis.org#indexed"),
+	/**
+	 * Values are indexed as is for filtering, sorting and aggregation, but not for full text search
+	 */
+	KEYWORD("http://molgenis.org#keywordIndexed"),
+	/**
+	 * Values are only stored in column-oriented doc values for sorting and aggregation, queries are not possible
+	 */
+	DOC_VALUES("http://molgenis.org#docValuesIndexed"),
+	/**
+	 * Values are indexed like {@link #INDEXED} and stored in the index as well
+	 */
+	STORED("http://molgenis.org#storedIndexed"),
+	/**
+	 * Values are not indexed at all
+	 */
+	NOT_INDEXED("http://molgenis.org#notIndexed");
+
+	private final String iri;
+
+	IndexHint(String iri)
+	{
+		this.iri = iri;
+	}
+
+	public String getIRI()
+	{
+		return iri;
+	}
+
+	/**
+	 * Returns whether indexed values can be queried with operators that filter on values, such as equals and range.
+	 */
+	public boolean isFilterable()
+	{
+		return this != DOC_VALUES && this != NOT_INDEXED;
+	}
+
+	/**
+	 * Returns whether indexed values can be queried with full text operators, such as search and like.
+	 */
+	public boolean isFullTextSearchable()
+	{
+		return this == INDEXED || this == STORED;
+	}
+
+	/**
+	 * Returns whether indexed values are stored in doc values, which are required to sort and aggregate by values.
+	 */
+	public boolean hasDocValues()
+	{
+		return this != NOT_INDEXED;
+	}
+
+	public static IndexHint forIRI(String iri)
+	{
+		for (IndexHint indexHint : values())
+		{
+			if (indexHint.getIRI().equals(iri))
+			{
+				return indexHint;
+			}
+		}
+		return null;
+	}
+}
@@ -12,7 +12,8 @@ public enum Relation
 		"http://molgenis.org/uml/isRealizationOf"), isGeneralizationOf(
 		"http://molgenis.org/uml/isGeneralizationOf"), hasSourceId(
 		"http://molgenis.org/uml/hasSourceId"), hasSourceName(
-		"http://molgenis.org/uml/hasSourceName"), isAssociatedWith("http://molgenis.org#isAssociatedWith");
+		"http://molgenis.org/uml/hasSourceName"), isAssociatedWith("http://molgenis.org#isAssociatedWith"), hasIndexHint(
+		"http://molgenis.org#hasIndexHint");
 
 	private String iri;
 
@@ -0,0 +1,240 @@
+package org.molgenis.data.support;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ImmutableMap;
+import org.molgenis.data.Entity;
+import org.molgenis.data.meta.model.Attribute;
+import org.molgenis.data.meta.model.EntityType;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Map;
+
+import static com.google.common.collect.Maps.newHashMap;
+import static java.lang.String.format;
+import static java.util.Collections.emptyList;
+import static java.util.Objects.requireNonNull;
+import static java.util.stream.StreamSupport.stream;
+
+/**
+ * Class for entities not defined in pre-existing Java classes that stores values in an array instead of a map. The
+ * array index of an attribute is determined by its position in the atomic attributes of the entity type. The mapping
+ * from attribute name to index is created once per entity type instance, so that creating an entity only allocates
+ * the array.
+ * <p>
+ * Values are validated in the same way as {@link DynamicEntity} values.
+ *
+ * @see DynamicEntity
+ */
+public class ArrayEntity implements Entity
+{
+	/**
+	 * Maps entity type instances to attribute name-index mappings
+	 */
+	private static final LoadingCache<EntityType, Map<String, Integer>> ATTRIBUTE_INDICES;
+
+	static
+	{
+		ATTRIBUTE_INDICES = CacheBuilder.newBuilder()
+										.weakKeys()
+										.build(CacheLoader.from(ArrayEntity::createAttributeIndices));
+	}
+
+	/**
+	 * Entity meta data
+	 */
+	private final EntityType entityType;
+
+	/**
+	 * Maps attribute names to value indices
+	 */
+	private final Map<String, Integer> attributeIndices;
+
+	/**
+	 * Values in atomic attribute order. Value class types are determined by attribute data type.
+	 */
+	private final Object[] values;
+
+	/**
+	 * Maps names of attributes added to the entity meta data after the attribute indices were created to values, lazily
+	 * created.
+	 */
+	private Map<String, Object> otherValues;
+
+	/**
+	 * Constructs an entity with the given entity meta data.
+	 *
+	 * @param entityType entity meta
+	 */
+	public ArrayEntity(EntityType entityType)
+	{
+		this.entityType = requireNonNull(entityType);
+		this.attributeIndices = ATTRIBUTE_INDICES.getUnchecked(entityType);
+		this.values = new Object[attributeIndices.size()];
+	}
+
+	public EntityType getEntityType()
+	{
+		return entityType;
+	}
+
+	@Override
+	public Iterable<String> getAttributeNames()
+	{
+		return stream(entityType.getAtomicAttributes().spliterator(), false).map(Attribute::getName)::iterator;
+	}
+
+	@Override
+	public Object getIdValue()
+	{
+		// abstract entities might not have an id attribute
+		Attribute idAttr = entityType.getIdAttribute();
+		return idAttr != null ? get(idAttr.getName()) : null;
+	}
+
+	@Override
+	public void setIdValue(Object id)
+	{
+		Attribute idAttr = entityType.getIdAttribute();
+		if (idAttr == null)
+		{
+			throw new IllegalArgumentException(format("Entity [%s] doesn't have an id attribute", entityType.getId()));
+		}
+		set(idAttr.getName(), id);
+	}
+
+	@Override
+	public Object getLabelValue()
+	{
+		// abstract entities might not have an label attribute
+		Attribute labelAttr = entityType.getLabelAttribute();
+		return labelAttr != null ? get(labelAttr.getName()) : null;
+	}
+
+	@Override
+	public Object get(String attrName)
+	{
+		Integer index = attributeIndices.get(attrName);
+		if (index != null)
+		{
+			return values[index];
+		}
+		return otherValues != null ? otherValues.get(attrName) : null;
+	}
+
+	@Override
+	public String getString(String attrName)
+	{
+		return (String) get(attrName);
+	}
+
+	@Override
+	public Integer getInt(String attrName)
+	{
+		return (Integer) get(attrName);
+	}
+
+	@Override
+	public Long getLong(String attrName)
+	{
+		return (Long) get(attrName);
+	}
+
+	@Override
+	public Boolean getBoolean(String attrName)
+	{
+		return (Boolean) get(attrName);
+	}
+
+	@Override
+	public Double getDouble(String attrName)
+	{
+		return (Double) get(attrName);
+	}
+
+	@Override
+	public Instant getInstant(String attrName)
+	{
+		return (Instant) get(attrName);
+	}
+
+	@Override
+	public LocalDate getLocalDate(String attrName)
+	{
+		return (LocalDate) get(attrName);
+	}
+
+	@Override
+	public Entity getEntity(String attrName)
+	{
+		return (Entity) get(attrName);
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public <E extends Entity> E getEntity(String attrName, Class<E> clazz)
+	{
+		return (E) get(attrName);
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public Iterable<Entity> getEntities(String attrName)
+	{
+		Object value = get(attrName);
+		return value != null ? (Iterable<Entity>) value : emptyList();
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public <E extends Entity> Iterable<E> getEntities(String attrName, Class<E> clazz)
+	{
+		Object value = get(attrName);
+		return value != null ? (Iterable<E>) value : emptyList();
+	}
+
+	@Override
+	public void set(String attrName, Object value)
+	{
+		DynamicEntity.validateValueType(entityType, attrName, value);
+
+		Integer index = attributeIndices.get(attrName);
+		if (index != null)
+		{
+			values[index] = value;
+		}
+		else
+		{
+			if (otherValues == null)
+			{
+				otherValues = newHashMap();
+			}
+			otherValues.put(attrName, value);
+		}
+	}
+
+	@Override
+	public void set(Entity values)
+	{
+		values.getAttributeNames().forEach(attrName -> set(attrName, values.get(attrName)));
+	}
+
+	@Override
+	public String toString()
+	{
+		return DynamicEntity.toString(entityType, this);
+	}
+
+	private static Map<String, Integer> createAttributeIndices(EntityType entityType)
+	{
+		ImmutableMap.Builder<String, Integer> attributeIndices = ImmutableMap.builder();
+		int index = 0;
+		for (Attribute attr : entityType.getAtomicAttributes())
+		{
+			attributeIndices.put(attr.getName(), index++);
+		}
+		return attributeIndices.build();
+	}
+}
@@ -4,8 +4,11 @@ import org.molgenis.data.Entity;
 import org.molgenis.data.EntityReferenceCreator;
 import org.molgenis.data.meta.AttributeType;
 import org.molgenis.data.meta.IllegalAttributeTypeException;
+import org.molgenis.data.meta.IndexHint;
 import org.molgenis.data.meta.model.Attribute;
 import org.molgenis.data.meta.model.EntityType;
+import org.molgenis.data.meta.model.Tag;
+import org.molgenis.data.semantic.Relation;
 import org.molgenis.util.ListEscapeUtils;
 import org.molgenis.util.UnexpectedEnumException;
 
@@ -22,6 +25,9 @@ import static java.lang.String.format;
 import static java.util.stream.Collectors.toList;
 import static java.util.stream.StreamSupport.stream;
 import static org.molgenis.data.meta.AttributeType.*;
+import static org.molgenis.data.support.EntityTypeUtils.isReferenceType;
+import static org.molgenis.data.support.EntityTypeUtils.isStringType;
+import static org.molgenis.data.support.EntityTypeUtils.isTextType;
 import static org.molgenis.data.util.EntityUtils.getTypedValue;
 import static org.molgenis.data.util.MolgenisDateFormat.*;
 import static org.springframework.util.StringUtils.capitalize;
@@ -56,6 +62,49 @@ public class AttributeUtils
 		return EnumSet.of(STRING, INT, LONG, EMAIL, HYPERLINK);
 	}
 
+	/**
+	 * Returns how the values of the attribute are indexed based on the index hint tag of the attribute. Id and label
+	 * attributes are always indexed because they are required to query and sort by references. Keyword and doc values
+	 * hints only apply to non-reference attributes, keyword hints only change the indexing of string attributes.
+	 *
+	 * @param attr attribute
+	 * @return index hint, {@link IndexHint#INDEXED} if the attribute has no index hint tag
+	 */
+	public static IndexHint getIndexHint(Attribute attr)
+	{
+		IndexHint indexHint = getIndexHintTag(attr);
+		if (indexHint == null)
+		{
+			return IndexHint.INDEXED;
+		}
+		if (indexHint == IndexHint.INDEXED || indexHint == IndexHint.STORED)
+		{
+			return indexHint;
+		}
+		if (attr.isIdAttribute() || attr.isLabelAttribute())
+		{
+			return IndexHint.INDEXED;
+		}
+		if (indexHint != IndexHint.NOT_INDEXED && (isReferenceType(attr) || (indexHint == IndexHint.KEYWORD
+				&& !isStringType(attr) && !isTextType(attr) && attr.getDataType() != ENUM)))
+		{
+			return IndexHint.INDEXED;
+		}
+		return indexHint;
+	}
+
+	private static IndexHint getIndexHintTag(Attribute attr)
+	{
+		for (Tag tag : attr.getTags())
+		{
+			if (Relation.hasIndexHint.getIRI().equals(tag.getRelationIri()))
+			{
+				return IndexHint.forIRI(tag.getObjectIri());
+			}
+		}
+		return null;
+	}
+
 	/**
 	 * Returns the attribute default value string as typed value corresponding to the attribute type.
 	 */
@@ -2,30 +2,62 @@ package org.molgenis.data.support;
 
 import org.molgenis.data.Entity;
 import org.molgenis.data.Query;
+import org.molgenis.data.meta.model.EntityType;
 import org.molgenis.data.util.BatchingIterable;
 
 import java.util.List;
 
+import static org.molgenis.data.support.KeysetPaginationUtils.createSeekQuery;
+import static org.molgenis.data.support.KeysetPaginationUtils.getKeysetValues;
+import static org.molgenis.data.support.KeysetPaginationUtils.isKeysetPageable;
+
 /**
  * BatchingIterable that batches a Query.
  * <p>
- * It changes the query's offset and pageSize of each batch.
+ * It changes the query's offset and pageSize of each batch. If created with an entity type and the query allows
+ * keyset pagination, batches after the first batch select the entities after the last entity of the previous batch
+ * instead of skipping entities with an offset.
+ *
+ * @see KeysetPaginationUtils
  */
 public abstract class BatchingQueryResult<E extends Entity> extends BatchingIterable<E>
 {
 	private final Query<E> query;
+	private final EntityType entityType;
+
+	/**
+	 * Last entity of the previous batch and the offset of the batch that follows it
+	 */
+	private E lastEntity;
+	private int nextOffset;
 
 	public BatchingQueryResult(int batchSize, Query<E> query)
+	{
+		this(batchSize, query, null);
+	}
+
+	/**
+	 * @param batchSize  batch size
+	 * @param query      query
+	 * @param entityType entity type of the query, used for keyset pagination, may be <tt>null</tt>
+	 */
+	public BatchingQueryResult(int batchSize, Query<E> query, EntityType entityType)
 	{
 		super(batchSize, query.getOffset(), query.getPageSize());
 		this.query = query;
+		this.entityType = entityType != null && isKeysetPageable(entityType, query) ? entityType : null;
 	}
 
 	@Override
 	protected List<E> getBatch(int offset, int batchSize)
 	{
 		Query<E> batchQuery;
-		if (offset != query.getOffset() || batchSize != query.getPageSize())
+		if (entityType != null && lastEntity != null && offset != query.getOffset() && offset == nextOffset)
+		{
+			batchQuery = createSeekQuery(entityType, query, getKeysetValues(entityType, query.getSort(), lastEntity));
+			batchQuery.pageSize(batchSize);
+		}
+		else if (offset != query.getOffset() || batchSize != query.getPageSize())
 		{
 			batchQuery = new QueryImpl<>(query).setOffset(offset).setPageSize(batchSize);
 		}
@@ -33,7 +65,14 @@ public abstract class BatchingQueryResult<E extends Entity> extends BatchingIter
 		{
 			batchQuery = query;
 		}
-		return getBatch(batchQuery);
+
+		List<E> batch = getBatch(batchQuery);
+		if (entityType != null)
+		{
+			lastEntity = !batch.isEmpty() ? batch.get(batch.size() - 1) : null;
+			nextOffset = offset + batch.size();
+		}
+		return batch;
 	}
 
 	protected abstract List<E> getBatch(Query<E> q);
@@ -195,6 +195,18 @@ public class DynamicEntity implements Entity
 	 * @param value    value (must be of the type defined by the attribute data type.)
 	 */
 	protected void validateValueType(String attrName, Object value)
+	{
+		validateValueType(entityType, attrName, value);
+	}
+
+	/**
+	 * Validate is value is of the type defined by the attribute data type.
+	 *
+	 * @param entityType entity meta
+	 * @param attrName   attribute name
+	 * @param value      value (must be of the type defined by the attribute data type.)
+	 */
+	static void validateValueType(EntityType entityType, String attrName, Object value)
 	{
 		if (value == null)
 		{
@@ -309,6 +321,18 @@ public class DynamicEntity implements Entity
 
 	@Override
 	public String toString()
+	{
+		return toString(entityType, this);
+	}
+
+	/**
+	 * Returns a string representation of an entity that contains the ids of referenced entities.
+	 *
+	 * @param entityType entity meta
+	 * @param entity     entity
+	 * @return string representation
+	 */
+	static String toString(EntityType entityType, Entity entity)
 	{
 		StringBuilder strBuilder = new StringBuilder(entityType.getId()).append('{');
 		strBuilder.append(stream(entityType.getAtomicAttributes().spliterator(), false).map(attr ->
@@ -316,20 +340,19 @@ public class DynamicEntity implements Entity
 			StringBuilder attrStrBuilder = new StringBuilder(attr.getName()).append('=');
 			if (EntityTypeUtils.isSingleReferenceType(attr))
 			{
-				Entity refEntity = getEntity(attr.getName());
+				Entity refEntity = entity.getEntity(attr.getName());
 				attrStrBuilder.append(refEntity != null ? refEntity.getIdValue() : null);
 			}
 			else if (EntityTypeUtils.isMultipleReferenceType(attr))
 			{
 				attrStrBuilder.append('[')
-							  .append(stream(getEntities(attr.getName()).spliterator(), false).map(Entity::getIdValue)
-																							  .map(Object::toString)
-																							  .collect(joining(",")))
+							  .append(stream(entity.getEntities(attr.getName()).spliterator(), false).map(
+									  Entity::getIdValue).map(Object::toString).collect(joining(",")))
 							  .append(']');
 			}
 			else
 			{
-				attrStrBuilder.append(get(attr.getName()));
+				attrStrBuilder.append(entity.get(attr.getName()));
 			}
 			return attrStrBuilder.toString();
 		}).collect(Collectors.joining("&")));
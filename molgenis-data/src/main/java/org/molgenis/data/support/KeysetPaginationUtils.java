@@ -0,0 +1,166 @@
+package org.molgenis.data.support;
+
+import org.molgenis.data.Entity;
+import org.molgenis.data.Fetch;
+import org.molgenis.data.Query;
+import org.molgenis.data.QueryRule;
+import org.molgenis.data.Sort;
+import org.molgenis.data.meta.AttributeType;
+import org.molgenis.data.meta.model.Attribute;
+import org.molgenis.data.meta.model.EntityType;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import static java.util.stream.Collectors.toList;
+import static org.molgenis.data.QueryRule.Operator.*;
+import static org.molgenis.data.meta.AttributeType.*;
+
+/**
+ * Keyset (seek) pagination: instead of skipping <tt>offset</tt> rows, the next page of a query is selected with a
+ * predicate on the sort key of the last row of the previous page. The sort key consists of the sort attributes up to
+ * and including the first unique attribute, or of the sort attributes followed by the id attribute.
+ * <p>
+ * Keyset pagination is only possible if all sort key attributes are non-nillable attributes of a comparable type.
+ */
+public class KeysetPaginationUtils
+{
+	private static final Set<AttributeType> KEYSET_ATTRIBUTE_TYPES = EnumSet.of(DATE, DATE_TIME, DECIMAL, EMAIL,
+			HYPERLINK, INT, LONG, STRING);
+
+	private KeysetPaginationUtils()
+	{
+	}
+
+	/**
+	 * Returns whether the query can be paged using keyset pagination.
+	 *
+	 * @param entityType entity type
+	 * @param query      query
+	 * @return <tt>true</tt> if the query can be paged using keyset pagination
+	 */
+	public static boolean isKeysetPageable(EntityType entityType, Query<? extends Entity> query)
+	{
+		Fetch fetch = query.getFetch();
+		for (Sort.Order order : getKeysetOrders(entityType, query.getSort()))
+		{
+			Attribute attr = entityType.getAttribute(order.getAttr());
+			if (attr == null || attr.isNillable() || attr.hasExpression() || !KEYSET_ATTRIBUTE_TYPES.contains(
+					attr.getDataType()) || (fetch != null && !fetch.hasField(attr.getName())))
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the sort key of the query: the sort orders up to and including the first unique attribute, or all sort
+	 * orders followed by the id attribute in ascending order.
+	 *
+	 * @param entityType entity type
+	 * @param sort       query sort, may be <tt>null</tt>
+	 * @return sort that defines a total order on the entities
+	 */
+	public static Sort getKeysetSort(EntityType entityType, Sort sort)
+	{
+		return new Sort(getKeysetOrders(entityType, sort));
+	}
+
+	/**
+	 * @return names of the attributes of the sort key
+	 */
+	public static List<String> getKeysetAttributeNames(EntityType entityType, Sort sort)
+	{
+		return getKeysetOrders(entityType, sort).stream().map(Sort.Order::getAttr).collect(toList());
+	}
+
+	/**
+	 * Returns the sort key values of an entity.
+	 *
+	 * @param entityType entity type
+	 * @param sort       query sort, may be <tt>null</tt>
+	 * @param entity     entity, usually the last entity of a page
+	 * @return values in the order of {@link #getKeysetSort(EntityType, Sort)}
+	 */
+	public static List<Object> getKeysetValues(EntityType entityType, Sort sort, Entity entity)
+	{
+		return getKeysetOrders(entityType, sort).stream().map(order -> entity.get(order.getAttr())).collect(toList());
+	}
+
+	/**
+	 * Creates a query that selects the entities of the query that come after the given sort key values. The offset of
+	 * the created query is zero.
+	 *
+	 * @param entityType   entity type
+	 * @param query        query for which {@link #isKeysetPageable(EntityType, Query)} holds
+	 * @param keysetValues sort key values of the last entity of the previous page
+	 * @param <E>          entity type
+	 * @return seek query
+	 */
+	public static <E extends Entity> Query<E> createSeekQuery(EntityType entityType, Query<E> query,
+			List<Object> keysetValues)
+	{
+		List<Sort.Order> orders = getKeysetOrders(entityType, query.getSort());
+		if (orders.size() != keysetValues.size())
+		{
+			throw new IllegalArgumentException(
+					String.format("Expected [%d] keyset values instead of [%d]", orders.size(), keysetValues.size()));
+		}
+
+		// (k1 > v1) OR (k1 = v1 AND k2 > v2) OR (k1 = v1 AND k2 = v2 AND k3 > v3) ...
+		List<QueryRule> seekRules = new ArrayList<>();
+		for (int i = 0; i < orders.size(); ++i)
+		{
+			if (i > 0)
+			{
+				seekRules.add(new QueryRule(OR));
+			}
+			List<QueryRule> conjunction = new ArrayList<>();
+			for (int j = 0; j < i; ++j)
+			{
+				conjunction.add(new QueryRule(orders.get(j).getAttr(), EQUALS, keysetValues.get(j)));
+				conjunction.add(new QueryRule(AND));
+			}
+			Sort.Order order = orders.get(i);
+			QueryRule.Operator operator = order.getDirection() == Sort.Direction.DESC ? LESS : GREATER;
+			conjunction.add(new QueryRule(order.getAttr(), operator, keysetValues.get(i)));
+			seekRules.add(new QueryRule(conjunction));
+		}
+
+		List<QueryRule> rules = new ArrayList<>();
+		if (!query.getRules().isEmpty())
+		{
+			rules.add(new QueryRule(query.getRules()));
+			rules.add(new QueryRule(AND));
+		}
+		rules.add(new QueryRule(seekRules));
+
+		QueryImpl<E> seekQuery = new QueryImpl<>(rules);
+		seekQuery.setPageSize(query.getPageSize());
+		seekQuery.setSort(query.getSort());
+		seekQuery.setFetch(query.getFetch());
+		return seekQuery;
+	}
+
+	private static List<Sort.Order> getKeysetOrders(EntityType entityType, Sort sort)
+	{
+		List<Sort.Order> orders = new ArrayList<>();
+		if (sort != null)
+		{
+			for (Sort.Order order : sort)
+			{
+				orders.add(order);
+				Attribute attr = entityType.getAttribute(order.getAttr());
+				if (attr != null && (attr.isUnique() || attr.isIdAttribute()))
+				{
+					return orders;
+				}
+			}
+		}
+		orders.add(new Sort.Order(entityType.getIdAttribute().getName()));
+		return orders;
+	}
+}
@@ -0,0 +1,138 @@
+package org.molgenis.data.transaction;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.AtomicLongMap;
+import org.molgenis.data.EntityKey;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.Objects.requireNonNull;
+import static org.molgenis.data.meta.model.AttributeMetadata.ATTRIBUTE_META_DATA;
+import static org.molgenis.data.meta.model.EntityTypeMetadata.ENTITY_TYPE_META_DATA;
+import static org.molgenis.data.meta.model.PackageMetadata.PACKAGE;
+import static org.molgenis.data.meta.model.TagMetadata.TAG;
+
+/**
+ * Keeps track of the generation of the metadata and of the data of each entity type and of the generation of the
+ * permissions. Generations are incremented when a transaction that changed them commits, so that responses derived
+ * from them can be validated without accessing the repositories, e.g. with HTTP entity tags.
+ * <p>
+ * Generations only reflect the transactions committed on this node, see {@link #getNodeId()}. They are disabled when
+ * other nodes commit transactions to the same database, see {@link #disable()}.
+ */
+@Component
+public class EntityTypeGenerations extends DefaultMolgenisTransactionListener
+{
+	/**
+	 * metadata entity types of which changes can affect the metadata of any entity type
+	 */
+	private static final Set<String> SHARED_METADATA_ENTITY_TYPE_IDS = ImmutableSet.of(ATTRIBUTE_META_DATA, PACKAGE,
+			TAG);
+
+	private final TransactionInformation transactionInformation;
+	private final String nodeId;
+	private final AtomicLongMap<String> dataGenerations = AtomicLongMap.create();
+	private final AtomicLongMap<String> metadataGenerations = AtomicLongMap.create();
+	private final AtomicLong sharedMetadataGeneration = new AtomicLong();
+	private final AtomicLong permissionGeneration = new AtomicLong();
+	private volatile boolean enabled = true;
+
+	public EntityTypeGenerations(TransactionManager transactionManager, TransactionInformation transactionInformation)
+	{
+		this.transactionInformation = requireNonNull(transactionInformation);
+		this.nodeId = UUID.randomUUID().toString();
+		requireNonNull(transactionManager).addTransactionListener(this);
+	}
+
+	@Override
+	public void afterCommitTransaction(String transactionId)
+	{
+		Set<String> dirtyRepositories = transactionInformation.getDirtyRepositories();
+		if (dirtyRepositories.isEmpty())
+		{
+			return;
+		}
+		dirtyRepositories.forEach(dataGenerations::incrementAndGet);
+
+		if (dirtyRepositories.stream().anyMatch(SHARED_METADATA_ENTITY_TYPE_IDS::contains)
+				|| transactionInformation.getEntirelyDirtyRepositories().contains(ENTITY_TYPE_META_DATA))
+		{
+			sharedMetadataGeneration.incrementAndGet();
+		}
+		else if (dirtyRepositories.contains(ENTITY_TYPE_META_DATA))
+		{
+			transactionInformation.getDirtyEntities()
+								  .stream()
+								  .filter(entityKey -> entityKey.getEntityTypeId().equals(ENTITY_TYPE_META_DATA))
+								  .map(EntityKey::getId)
+								  .forEach(entityTypeId -> metadataGenerations.incrementAndGet(entityTypeId.toString()));
+		}
+	}
+
+	/**
+	 * Returns an identifier of this node that differs between nodes and between restarts of the same node, so that
+	 * values derived from generations are never mistaken for values derived on another node.
+	 */
+	public String getNodeId()
+	{
+		return nodeId;
+	}
+
+	/**
+	 * Returns whether generations can be used to validate responses. Generations are disabled if other nodes share the
+	 * database, because changes committed on other nodes don't increment the generations of this node.
+	 */
+	public boolean isEnabled()
+	{
+		return enabled;
+	}
+
+	/**
+	 * Disables the generations, e.g. when changes are distributed to other nodes that share the database.
+	 */
+	public void disable()
+	{
+		enabled = false;
+	}
+
+	/**
+	 * Returns the generation of the data of an entity type.
+	 */
+	public long getDataGeneration(String entityTypeId)
+	{
+		return dataGenerations.get(entityTypeId);
+	}
+
+	/**
+	 * Returns the generation of the metadata of an entity type.
+	 */
+	public long getMetadataGeneration(String entityTypeId)
+	{
+		return sharedMetadataGeneration.get() + metadataGenerations.get(entityTypeId);
+	}
+
+	/**
+	 * Returns the generation of the metadata of all entity types, which is incremented whenever the metadata of any
+	 * entity type changes.
+	 */
+	public long getMetadataGeneration()
+	{
+		return sharedMetadataGeneration.get() + metadataGenerations.sum();
+	}
+
+	public long getPermissionGeneration()
+	{
+		return permissionGeneration.get();
+	}
+
+	/**
+	 * Increments the generation of the permissions, e.g. after access control lists changed.
+	 */
+	public void incrementPermissionGeneration()
+	{
+		permissionGeneration.incrementAndGet();
+	}
+}
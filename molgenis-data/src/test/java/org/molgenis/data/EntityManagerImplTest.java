@@ -4,6 +4,7 @@ import org.molgenis.data.meta.model.Attribute;
 import org.molgenis.data.meta.model.EntityType;
 import org.molgenis.data.populate.EntityPopulator;
 import org.molgenis.data.support.DynamicEntity;
+import org.molgenis.data.support.PartialEntity;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
@@ -14,6 +15,7 @@ import java.util.stream.Stream;
 import static java.util.Collections.singletonList;
 import static org.mockito.Mockito.*;
 import static org.molgenis.data.meta.AttributeType.STRING;
+import static org.molgenis.data.meta.AttributeType.XREF;
 import static org.testng.Assert.assertEquals;
 
 public class EntityManagerImplTest
@@ -88,4 +90,40 @@ public class EntityManagerImplTest
 		Stream<Entity> entities = entityManagerImpl.resolveReferences(entityType, Stream.of(entity0, entity1), fetch);
 		assertEquals(entities.collect(Collectors.toList()), Arrays.asList(entity0, entity1));
 	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void resolveReferencesRetrievedReferences()
+	{
+		EntityType refRefEntityType = when(mock(EntityType.class).getId()).thenReturn("refRefEntity").getMock();
+		Attribute refXrefAttr = when(mock(Attribute.class).getName()).thenReturn("refXref").getMock();
+		when(refXrefAttr.getDataType()).thenReturn(XREF);
+		when(refXrefAttr.getRefEntity()).thenReturn(refRefEntityType);
+		EntityType refEntityType = when(mock(EntityType.class).getId()).thenReturn("refEntity").getMock();
+		when(refEntityType.getAtomicAttributes()).thenReturn(singletonList(refXrefAttr));
+		Attribute xrefAttr = when(mock(Attribute.class).getName()).thenReturn("xref").getMock();
+		when(xrefAttr.getDataType()).thenReturn(XREF);
+		when(xrefAttr.getRefEntity()).thenReturn(refEntityType);
+		EntityType entityType = when(mock(EntityType.class).getId()).thenReturn("entity").getMock();
+		when(entityType.getAtomicAttributes()).thenReturn(singletonList(xrefAttr));
+
+		Fetch refRefFetch = new Fetch().field("refRefId");
+		Fetch refFetch = new Fetch().field("refXref", refRefFetch);
+		Fetch fetch = new Fetch().field("xref", refFetch);
+
+		Entity lazyRefRefEntity = when(mock(Entity.class).getIdValue()).thenReturn("refRef0").getMock();
+		Entity refEntity = when(mock(Entity.class).getIdValue()).thenReturn("ref0").getMock();
+		when(refEntity.getEntity("refXref")).thenReturn(lazyRefRefEntity);
+		Entity partialRefEntity = new PartialEntity(refEntity, refFetch, entityManagerImpl);
+		Entity entity = when(mock(Entity.class).getEntity("xref")).thenReturn(partialRefEntity).getMock();
+
+		Entity refRefEntity = when(mock(Entity.class).getIdValue()).thenReturn("refRef0").getMock();
+		when(dataService.findAll(eq("refRefEntity"), any(Stream.class), eq(refRefFetch))).thenReturn(
+				Stream.of(refRefEntity));
+
+		assertEquals(entityManagerImpl.resolveReferences(entityType, entity, fetch), entity);
+		verify(entity).set("xref", partialRefEntity);
+		verify(refEntity).set("refXref", refRefEntity);
+		verify(dataService, never()).findAll(eq("refEntity"), any(Stream.class), any(Fetch.class));
+	}
 }
@@ -0,0 +1,86 @@
+package org.molgenis.data.support;
+
+import org.molgenis.data.MolgenisDataException;
+import org.molgenis.data.UnknownAttributeException;
+import org.molgenis.data.meta.model.Attribute;
+import org.molgenis.data.meta.model.EntityType;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.molgenis.data.meta.AttributeType.INT;
+import static org.molgenis.data.meta.AttributeType.STRING;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+public class ArrayEntityTest
+{
+	private EntityType entityType;
+	private Attribute idAttr;
+	private Attribute labelAttr;
+
+	@BeforeMethod
+	public void setUpBeforeMethod()
+	{
+		idAttr = when(mock(Attribute.class).getName()).thenReturn("id").getMock();
+		when(idAttr.getDataType()).thenReturn(INT);
+		labelAttr = when(mock(Attribute.class).getName()).thenReturn("label").getMock();
+		when(labelAttr.getDataType()).thenReturn(STRING);
+
+		entityType = when(mock(EntityType.class).getId()).thenReturn("entity").getMock();
+		when(entityType.getAtomicAttributes()).thenReturn(newArrayList(idAttr, labelAttr));
+		when(entityType.getAttribute("id")).thenReturn(idAttr);
+		when(entityType.getAttribute("label")).thenReturn(labelAttr);
+		when(entityType.getIdAttribute()).thenReturn(idAttr);
+		when(entityType.getLabelAttribute()).thenReturn(labelAttr);
+	}
+
+	@Test
+	public void testSetGet()
+	{
+		ArrayEntity entity = new ArrayEntity(entityType);
+		entity.set("id", 3);
+		entity.set("label", "label3");
+		assertEquals(entity.getIdValue(), 3);
+		assertEquals(entity.getLabelValue(), "label3");
+		assertEquals(entity.getInt("id"), Integer.valueOf(3));
+		assertEquals(entity.getString("label"), "label3");
+		assertEquals(newArrayList(entity.getAttributeNames()), newArrayList("id", "label"));
+		assertEquals(entity.toString(), "entity{id=3&label=label3}");
+	}
+
+	@Test
+	public void testGetNotSet()
+	{
+		assertNull(new ArrayEntity(entityType).get("label"));
+	}
+
+	@Test
+	public void testSetAttributeAddedAfterCreation()
+	{
+		new ArrayEntity(entityType);
+
+		Attribute otherAttr = when(mock(Attribute.class).getName()).thenReturn("other").getMock();
+		when(otherAttr.getDataType()).thenReturn(STRING);
+		when(entityType.getAtomicAttributes()).thenReturn(newArrayList(idAttr, labelAttr, otherAttr));
+		when(entityType.getAttribute("other")).thenReturn(otherAttr);
+
+		ArrayEntity entity = new ArrayEntity(entityType);
+		entity.set("other", "value");
+		assertEquals(entity.get("other"), "value");
+	}
+
+	@Test(expectedExceptions = MolgenisDataException.class)
+	public void testSetInvalidValue()
+	{
+		new ArrayEntity(entityType).set("id", "three");
+	}
+
+	@Test(expectedExceptions = UnknownAttributeException.class)
+	public void testSetUnknownAttribute()
+	{
+		new ArrayEntity(entityType).set("unknown", "value");
+	}
+}
@@ -1,7 +1,9 @@
 package org.molgenis.data.support;
 
 import org.molgenis.data.meta.AttributeType;
+import org.molgenis.data.meta.IndexHint;
 import org.molgenis.data.meta.model.Attribute;
+import org.molgenis.data.meta.model.Tag;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
@@ -10,9 +12,13 @@ import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 import static org.molgenis.data.meta.AttributeType.*;
+import static org.molgenis.data.meta.IndexHint.*;
+import static org.molgenis.data.semantic.Relation.hasIndexHint;
 import static org.testng.Assert.assertEquals;
 
 public class AttributeUtilsTest
@@ -52,5 +58,44 @@ public class AttributeUtilsTest
 		assertEquals(AttributeUtils.getI18nAttributeName(attrName, languageCode), i18nAttrName);
 	}
 
+	@DataProvider(name = "getIndexHintProvider")
+	public static Iterator<Object[]> getIndexHintProvider()
+	{
+		List<Object[]> dataList = new ArrayList<>();
+		dataList.add(new Object[] { TEXT, NOT_INDEXED, false, NOT_INDEXED });
+		dataList.add(new Object[] { TEXT, KEYWORD, false, KEYWORD });
+		dataList.add(new Object[] { ENUM, KEYWORD, false, KEYWORD });
+		dataList.add(new Object[] { INT, KEYWORD, false, INDEXED });
+		dataList.add(new Object[] { INT, DOC_VALUES, false, DOC_VALUES });
+		dataList.add(new Object[] { DATE, STORED, false, STORED });
+		dataList.add(new Object[] { XREF, NOT_INDEXED, false, NOT_INDEXED });
+		dataList.add(new Object[] { XREF, DOC_VALUES, false, INDEXED });
+		dataList.add(new Object[] { STRING, NOT_INDEXED, true, INDEXED });
+		dataList.add(new Object[] { STRING, STORED, true, STORED });
+		return dataList.iterator();
+	}
+
+	@Test(dataProvider = "getIndexHintProvider")
+	public void testGetIndexHint(AttributeType attrType, IndexHint tagIndexHint, boolean idAttr,
+			IndexHint expectedIndexHint)
+	{
+		Tag tag = mock(Tag.class);
+		when(tag.getRelationIri()).thenReturn(hasIndexHint.getIRI());
+		when(tag.getObjectIri()).thenReturn(tagIndexHint.getIRI());
+		Attribute attr = mock(Attribute.class);
+		when(attr.getDataType()).thenReturn(attrType);
+		when(attr.isIdAttribute()).thenReturn(idAttr);
+		when(attr.getTags()).thenReturn(singletonList(tag));
+		assertEquals(AttributeUtils.getIndexHint(attr), expectedIndexHint);
+	}
+
+	@Test
+	public void testGetIndexHintNoTags()
+	{
+		Attribute attr = mock(Attribute.class);
+		when(attr.getTags()).thenReturn(emptyList());
+		assertEquals(AttributeUtils.getIndexHint(attr), INDEXED);
+	}
+
 	// AttributeUtils.getDefaultTypedValue tested through DefaultValuePopulator
 }
\ No newline at end of file
@@ -4,13 +4,17 @@ import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import org.molgenis.data.Entity;
 import org.molgenis.data.Query;
+import org.molgenis.data.meta.model.Attribute;
 import org.molgenis.data.meta.model.EntityType;
 import org.testng.annotations.Test;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.molgenis.data.meta.AttributeType.INT;
 import static org.testng.Assert.assertEquals;
 
 public class BatchingQueryResultTest
@@ -23,6 +27,42 @@ public class BatchingQueryResultTest
 		assertEquals(Iterables.size(bqr), 4);
 	}
 
+	@Test
+	public void getBatchKeyset()
+	{
+		Attribute idAttr = mock(Attribute.class);
+		when(idAttr.getName()).thenReturn("id");
+		when(idAttr.getDataType()).thenReturn(INT);
+		EntityType entityType = mock(EntityType.class);
+		when(entityType.getIdAttribute()).thenReturn(idAttr);
+		when(entityType.getAttribute("id")).thenReturn(idAttr);
+
+		List<Query<Entity>> batchQueries = new ArrayList<>();
+		BatchingQueryResult<Entity> bqr = new BatchingQueryResult<Entity>(2, new QueryImpl<>(), entityType)
+		{
+			@Override
+			protected List<Entity> getBatch(Query<Entity> q)
+			{
+				batchQueries.add(q);
+				if (batchQueries.size() == 3) return Lists.newArrayList();
+				int id = batchQueries.size() * 2;
+				return Arrays.asList(createEntity(id - 1), createEntity(id));
+			}
+		};
+		assertEquals(Iterables.size(bqr), 4);
+
+		assertEquals(batchQueries.get(0), new QueryImpl<>().pageSize(2));
+		assertEquals(batchQueries.get(1), new QueryImpl<>().nest().nest().gt("id", 2).unnest().unnest().pageSize(2));
+		assertEquals(batchQueries.get(2), new QueryImpl<>().nest().nest().gt("id", 4).unnest().unnest().pageSize(2));
+	}
+
+	private static Entity createEntity(int id)
+	{
+		Entity entity = mock(Entity.class);
+		when(entity.get("id")).thenReturn(id);
+		return entity;
+	}
+
 	private static class DummyBatchingQueryResult extends BatchingQueryResult<Entity>
 	{
 		private final int batchSize;
@@ -0,0 +1,154 @@
+package org.molgenis.data.support;
+
+import org.mockito.Mock;
+import org.mockito.quality.Strictness;
+import org.molgenis.data.Entity;
+import org.molgenis.data.Fetch;
+import org.molgenis.data.Query;
+import org.molgenis.data.Sort;
+import org.molgenis.data.meta.model.Attribute;
+import org.molgenis.data.meta.model.EntityType;
+import org.molgenis.test.AbstractMockitoTest;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.molgenis.data.Sort.Direction.DESC;
+import static org.molgenis.data.meta.AttributeType.*;
+import static org.testng.Assert.*;
+
+public class KeysetPaginationUtilsTest extends AbstractMockitoTest
+{
+	@Mock
+	private EntityType entityType;
+
+	@Mock
+	private Attribute idAttr;
+
+	@Mock
+	private Attribute nameAttr;
+
+	public KeysetPaginationUtilsTest()
+	{
+		super(Strictness.WARN);
+	}
+
+	@BeforeMethod
+	public void setUpBeforeMethod()
+	{
+		when(idAttr.getName()).thenReturn("id");
+		when(idAttr.getDataType()).thenReturn(INT);
+		when(idAttr.isIdAttribute()).thenReturn(true);
+		when(idAttr.isUnique()).thenReturn(true);
+		when(nameAttr.getName()).thenReturn("name");
+		when(nameAttr.getDataType()).thenReturn(STRING);
+		when(entityType.getIdAttribute()).thenReturn(idAttr);
+		when(entityType.getAttribute("id")).thenReturn(idAttr);
+		when(entityType.getAttribute("name")).thenReturn(nameAttr);
+	}
+
+	@Test
+	public void testGetKeysetSortNoSort()
+	{
+		assertEquals(KeysetPaginationUtils.getKeysetSort(entityType, null), new Sort("id"));
+	}
+
+	@Test
+	public void testGetKeysetSortNonUnique()
+	{
+		assertEquals(KeysetPaginationUtils.getKeysetSort(entityType, new Sort("name", DESC)),
+				new Sort("name", DESC).on("id"));
+	}
+
+	@Test
+	public void testGetKeysetSortUnique()
+	{
+		when(nameAttr.isUnique()).thenReturn(true);
+		assertEquals(KeysetPaginationUtils.getKeysetSort(entityType, new Sort("name").on("id", DESC)),
+				new Sort("name"));
+	}
+
+	@Test
+	public void testIsKeysetPageable()
+	{
+		assertTrue(KeysetPaginationUtils.isKeysetPageable(entityType, new QueryImpl<>().sort(new Sort("name"))));
+	}
+
+	@Test
+	public void testIsKeysetPageableNillable()
+	{
+		when(nameAttr.isNillable()).thenReturn(true);
+		assertFalse(KeysetPaginationUtils.isKeysetPageable(entityType, new QueryImpl<>().sort(new Sort("name"))));
+	}
+
+	@Test
+	public void testIsKeysetPageableFetchWithoutSortAttribute()
+	{
+		Query<Entity> query = new QueryImpl<>().sort(new Sort("name")).fetch(new Fetch().field("id"));
+		assertFalse(KeysetPaginationUtils.isKeysetPageable(entityType, query));
+	}
+
+	@Test
+	public void testIsKeysetPageableReference()
+	{
+		when(nameAttr.getDataType()).thenReturn(XREF);
+		assertFalse(KeysetPaginationUtils.isKeysetPageable(entityType, new QueryImpl<>().sort(new Sort("name"))));
+	}
+
+	@Test
+	public void testGetKeysetValues()
+	{
+		Entity entity = mock(Entity.class);
+		when(entity.get("name")).thenReturn("john");
+		when(entity.get("id")).thenReturn(3);
+		assertEquals(KeysetPaginationUtils.getKeysetValues(entityType, new Sort("name"), entity), asList("john", 3));
+	}
+
+	@Test
+	public void testCreateSeekQueryNoSort()
+	{
+		Query<Entity> query = new QueryImpl<>().pageSize(10).offset(20);
+		Query<Entity> seekQuery = KeysetPaginationUtils.createSeekQuery(entityType, query, singletonList(3));
+
+		Query<Entity> expectedQuery = new QueryImpl<>().nest().nest().gt("id", 3).unnest().unnest().pageSize(10);
+		assertEquals(seekQuery, expectedQuery);
+	}
+
+	@Test
+	public void testCreateSeekQuery()
+	{
+		Sort sort = new Sort("name", DESC);
+		Query<Entity> query = new QueryImpl<>().eq("id", 1).or().eq("id", 2).sort(sort);
+		Query<Entity> seekQuery = KeysetPaginationUtils.createSeekQuery(entityType, query, asList("john", 3));
+
+		Query<Entity> expectedQuery = new QueryImpl<>().nest()
+													   .eq("id", 1)
+													   .or()
+													   .eq("id", 2)
+													   .unnest()
+													   .and()
+													   .nest()
+													   .nest()
+													   .lt("name", "john")
+													   .unnest()
+													   .or()
+													   .nest()
+													   .eq("name", "john")
+													   .and()
+													   .gt("id", 3)
+													   .unnest()
+													   .unnest()
+													   .sort(sort);
+		assertEquals(seekQuery, expectedQuery);
+	}
+
+	@Test(expectedExceptions = IllegalArgumentException.class, expectedExceptionsMessageRegExp = "Expected \\[2\\] keyset values instead of \\[1\\]")
+	public void testCreateSeekQueryInvalidValues()
+	{
+		KeysetPaginationUtils.createSeekQuery(entityType, new QueryImpl<>().sort(new Sort("name")),
+				singletonList("john"));
+	}
+}
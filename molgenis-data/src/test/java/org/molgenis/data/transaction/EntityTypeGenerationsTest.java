@@ -0,0 +1,123 @@
+package org.molgenis.data.transaction;
+
+import com.google.common.collect.ImmutableSet;
+import org.mockito.Mock;
+import org.molgenis.data.EntityKey;
+import org.molgenis.test.AbstractMockitoTest;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import static java.util.Collections.emptySet;
+import static java.util.Collections.singleton;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.molgenis.data.meta.model.AttributeMetadata.ATTRIBUTE_META_DATA;
+import static org.molgenis.data.meta.model.EntityTypeMetadata.ENTITY_TYPE_META_DATA;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertTrue;
+
+public class EntityTypeGenerationsTest extends AbstractMockitoTest
+{
+	@Mock
+	private TransactionManager transactionManager;
+	@Mock
+	private TransactionInformation transactionInformation;
+	private EntityTypeGenerations entityTypeGenerations;
+
+	@BeforeMethod
+	public void setUpBeforeMethod()
+	{
+		entityTypeGenerations = new EntityTypeGenerations(transactionManager, transactionInformation);
+	}
+
+	@Test(expectedExceptions = NullPointerException.class)
+	public void testEntityTypeGenerations()
+	{
+		new EntityTypeGenerations(transactionManager, null);
+	}
+
+	@Test
+	public void testEntityTypeGenerationsAddsTransactionListener()
+	{
+		verify(transactionManager).addTransactionListener(entityTypeGenerations);
+	}
+
+	@Test
+	public void testGetNodeId()
+	{
+		assertNotEquals(entityTypeGenerations.getNodeId(),
+				new EntityTypeGenerations(transactionManager, transactionInformation).getNodeId());
+	}
+
+	@Test
+	public void testAfterCommitTransactionData()
+	{
+		when(transactionInformation.getDirtyRepositories()).thenReturn(singleton("entityType0"));
+		when(transactionInformation.getEntirelyDirtyRepositories()).thenReturn(emptySet());
+		entityTypeGenerations.afterCommitTransaction("transactionId");
+
+		assertEquals(entityTypeGenerations.getDataGeneration("entityType0"), 1L);
+		assertEquals(entityTypeGenerations.getDataGeneration("entityType1"), 0L);
+		assertEquals(entityTypeGenerations.getMetadataGeneration("entityType0"), 0L);
+		assertEquals(entityTypeGenerations.getMetadataGeneration(), 0L);
+	}
+
+	@Test
+	public void testAfterCommitTransactionEntityType()
+	{
+		when(transactionInformation.getDirtyRepositories()).thenReturn(singleton(ENTITY_TYPE_META_DATA));
+		when(transactionInformation.getEntirelyDirtyRepositories()).thenReturn(emptySet());
+		when(transactionInformation.getDirtyEntities()).thenReturn(
+				singleton(EntityKey.create(ENTITY_TYPE_META_DATA, "entityType0")));
+		entityTypeGenerations.afterCommitTransaction("transactionId");
+
+		assertEquals(entityTypeGenerations.getMetadataGeneration("entityType0"), 1L);
+		assertEquals(entityTypeGenerations.getMetadataGeneration("entityType1"), 0L);
+		assertEquals(entityTypeGenerations.getMetadataGeneration(), 1L);
+		assertEquals(entityTypeGenerations.getDataGeneration(ENTITY_TYPE_META_DATA), 1L);
+	}
+
+	@Test
+	public void testAfterCommitTransactionAttribute()
+	{
+		when(transactionInformation.getDirtyRepositories()).thenReturn(
+				ImmutableSet.of(ATTRIBUTE_META_DATA, ENTITY_TYPE_META_DATA));
+		entityTypeGenerations.afterCommitTransaction("transactionId");
+
+		assertEquals(entityTypeGenerations.getMetadataGeneration("entityType0"), 1L);
+		assertEquals(entityTypeGenerations.getMetadataGeneration("entityType1"), 1L);
+		assertEquals(entityTypeGenerations.getMetadataGeneration(), 1L);
+	}
+
+	@Test
+	public void testAfterCommitTransactionNothingDirty()
+	{
+		when(transactionInformation.getDirtyRepositories()).thenReturn(emptySet());
+		entityTypeGenerations.afterCommitTransaction("transactionId");
+
+		assertEquals(entityTypeGenerations.getDataGeneration("entityType0"), 0L);
+		assertEquals(entityTypeGenerations.getMetadataGeneration(), 0L);
+	}
+
+	@Test
+	public void testIncrementPermissionGeneration()
+	{
+		entityTypeGenerations.incrementPermissionGeneration();
+		assertEquals(entityTypeGenerations.getPermissionGeneration(), 1L);
+	}
+
+	@Test
+	public void testIsEnabled()
+	{
+		assertTrue(entityTypeGenerations.isEnabled());
+	}
+
+	@Test
+	public void testDisable()
+	{
+		entityTypeGenerations.disable();
+		assertFalse(entityTypeGenerations.isEnabled());
+	}
+}
@@ -22,6 +22,7 @@ import org.springframework.stereotype.Service;
 import java.lang.reflect.Type;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 
 import static java.util.Objects.requireNonNull;
@@ -116,16 +117,16 @@ public class JobExecutor
 
 	/**
 	 * Saves execution in the current thread, then creates a Job and submits that for asynchronous execution to a
-	 * specific ExecutorService.
+	 * specific Executor.
 	 *
-	 * @param jobExecution    the {@link JobExecution} to save and submit.
-	 * @param executorService the ExecutorService to run the submitted job on
+	 * @param jobExecution the {@link JobExecution} to save and submit.
+	 * @param executor     the Executor to run the submitted job on
 	 */
 	@RunAsSystem
-	public CompletableFuture<Void> submit(JobExecution jobExecution, ExecutorService executorService)
+	public CompletableFuture<Void> submit(JobExecution jobExecution, Executor executor)
 	{
 		Job molgenisJob = saveExecutionAndCreateJob(jobExecution);
-		return CompletableFuture.runAsync(() -> runJob(jobExecution, molgenisJob), executorService);
+		return CompletableFuture.runAsync(() -> runJob(jobExecution, molgenisJob), executor);
 	}
 
 	private Job saveExecutionAndCreateJob(JobExecution jobExecution)
@@ -4,7 +4,6 @@ import org.molgenis.data.DataService;
 import org.molgenis.data.Entity;
 import org.molgenis.data.EntityTestHarness;
 import org.molgenis.data.Query;
-import org.molgenis.data.elasticsearch.ElasticsearchService;
 import org.molgenis.data.index.SearchService;
 import org.molgenis.data.index.job.IndexJobScheduler;
 import org.molgenis.data.meta.AttributeType;
@@ -47,7 +46,7 @@ public class IndexMetadataCUDOperationsPlatformIT
 	 * Test delete only for dynamic entity metadata
 	 * static entity metadata cannot be deleted
 	 */
-	public static void testIndexDeleteMetaData(ElasticsearchService searchService, DataService dataService,
+	public static void testIndexDeleteMetaData(SearchService searchService, DataService dataService,
 			EntityType entityTypeDynamic, MetaDataService metaDataService, IndexJobScheduler indexService)
 	{
 
@@ -76,7 +75,7 @@ public class IndexMetadataCUDOperationsPlatformIT
 	/**
 	 * Test metadata Updating an attribute
 	 */
-	public static void testIndexUpdateMetaDataUpdateAttribute(ElasticsearchService searchService,
+	public static void testIndexUpdateMetaDataUpdateAttribute(SearchService searchService,
 			EntityType entityTypeDynamic, MetaDataService metaDataService, IndexJobScheduler indexService)
 	{
 		// 1. Verify that sys_test_TypeTestDynamic exists in mapping
@@ -118,7 +117,7 @@ public class IndexMetadataCUDOperationsPlatformIT
 	 * Test metadata removing an attribute
 	 */
 	public static void testIndexUpdateMetaDataRemoveAttribute(EntityType emd, String attributeName,
-			ElasticsearchService searchService, MetaDataService metaDataService, IndexJobScheduler indexService)
+			SearchService searchService, MetaDataService metaDataService, IndexJobScheduler indexService)
 	{
 		// 1. Verify that sys_test_TypeTestDynamic exists in mapping
 		Query<Entity> q = new QueryImpl<>();
@@ -148,7 +147,7 @@ public class IndexMetadataCUDOperationsPlatformIT
 	}
 
 	public static void testIndexUpdateMetaDataRemoveCompoundAttribute(EntityType entityType,
-			AttributeFactory attributeFactory, ElasticsearchService searchService, MetaDataService metaDataService,
+			AttributeFactory attributeFactory, SearchService searchService, MetaDataService metaDataService,
 			IndexJobScheduler indexService)
 	{
 		// 1. Create new compound to test delete
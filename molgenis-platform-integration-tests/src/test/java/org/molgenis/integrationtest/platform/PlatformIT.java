@@ -3,23 +3,25 @@ package org.molgenis.integrationtest.platform;
 import org.molgenis.data.*;
 import org.molgenis.data.aggregation.AggregateQuery;
 import org.molgenis.data.aggregation.AggregateResult;
-import org.molgenis.data.elasticsearch.ElasticsearchService;
 import org.molgenis.data.i18n.model.L10nString;
 import org.molgenis.data.i18n.model.L10nStringFactory;
 import org.molgenis.data.i18n.model.L10nStringMetaData;
 import org.molgenis.data.i18n.model.LanguageFactory;
 import org.molgenis.data.index.IndexActionRegisterServiceImpl;
+import org.molgenis.data.index.SearchService;
 import org.molgenis.data.index.job.IndexJobScheduler;
 import org.molgenis.data.index.meta.IndexAction;
 import org.molgenis.data.index.meta.IndexActionMetaData;
 import org.molgenis.data.listeners.EntityListener;
 import org.molgenis.data.listeners.EntityListenersService;
 import org.molgenis.data.meta.AttributeType;
+import org.molgenis.data.meta.IndexHint;
 import org.molgenis.data.meta.MetaDataService;
 import org.molgenis.data.meta.MetaDataServiceImpl;
 import org.molgenis.data.meta.model.*;
 import org.molgenis.data.meta.model.Package;
 import org.molgenis.data.security.EntityTypeIdentity;
+import org.molgenis.data.semantic.Relation;
 import org.molgenis.data.support.AggregateQueryImpl;
 import org.molgenis.data.support.QueryImpl;
 import org.molgenis.i18n.LanguageService;
@@ -54,6 +56,7 @@ import static org.molgenis.data.i18n.model.LanguageMetadata.LANGUAGE;
 import static org.molgenis.data.meta.model.AttributeMetadata.ATTRIBUTE_META_DATA;
 import static org.molgenis.data.meta.model.EntityTypeMetadata.ENTITY_TYPE_META_DATA;
 import static org.molgenis.data.meta.model.PackageMetadata.PACKAGE;
+import static org.molgenis.data.meta.model.TagMetadata.TAG;
 import static org.molgenis.security.core.SidUtils.createUserSid;
 import static org.molgenis.security.core.runas.RunAsSystemAspect.runAsSystem;
 import static org.molgenis.security.core.utils.SecurityUtils.getCurrentUsername;
@@ -83,7 +86,7 @@ public class PlatformIT extends AbstractTestNGSpringContextTests
 	@Autowired
 	private DataService dataService;
 	@Autowired
-	private ElasticsearchService searchService;
+	private SearchService searchService;
 	@Autowired
 	private MetaDataServiceImpl metaDataService;
 	@Autowired
@@ -100,6 +103,8 @@ public class PlatformIT extends AbstractTestNGSpringContextTests
 	private PackageFactory packageFactory;
 	@Autowired
 	private PermissionService testPermissionService;
+	@Autowired
+	private TagFactory tagFactory;
 
 	/**
 	 * Wait till the whole index is stable. Index job is done a-synchronized.
@@ -482,6 +487,49 @@ public class PlatformIT extends AbstractTestNGSpringContextTests
 		assertEquals(searchService.count(entityTypeDynamic, new QueryImpl<>().search("qwerty")), 5);
 	}
 
+	@WithMockUser(username = USERNAME)
+	@Test(singleThreaded = true)
+	public void testUpdateRefEntityReferencedByNotIndexedXref()
+	{
+		populateUserPermissions();
+
+		runAsSystem(() ->
+		{
+			Tag tag = tagFactory.create("PlatformITNotIndexed")
+								.setLabel("not indexed")
+								.setRelationIri(Relation.hasIndexHint.getIRI())
+								.setRelationLabel(Relation.hasIndexHint.getLabel())
+								.setObjectIri(IndexHint.NOT_INDEXED.getIRI());
+			dataService.add(TAG, tag);
+
+			EntityType refEntityType = testHarness.createDynamicRefEntityType("PlatformITNotIndexedRefEntityType");
+			EntityType entityType = testHarness.createDynamicTestEntityType(refEntityType,
+					"PlatformITNotIndexedEntityType");
+			entityType.getAttribute(ATTR_XREF).addTag(tag);
+			metaDataService.addEntityType(refEntityType);
+			metaDataService.addEntityType(entityType);
+			try
+			{
+				List<Entity> entities = createAndAdd(entityType, refEntityType, 30);
+
+				// committing the update finds the entities that reference the updated entity through the xref
+				Entity refEntity4 = dataService.findOneById(refEntityType.getId(), "4");
+				refEntity4.set(ATTR_REF_STRING, "qwerty");
+				dataService.update(refEntityType.getId(), refEntity4);
+				waitForIndexToBeStable(entityType, indexService, LOG);
+
+				assertPresent(entityType, entities);
+				assertEquals(dataService.count(entityType.getId(), new QueryImpl<>().eq(ATTR_XREF, "4")), 5);
+				assertEquals(searchService.count(entityType, new QueryImpl<>().search("qwerty")), 0);
+			}
+			finally
+			{
+				metaDataService.deleteEntityType(asList(refEntityType, entityType));
+				dataService.delete(TAG, tag);
+			}
+		});
+	}
+
 	@WithMockUser(username = USERNAME)
 	@Test(singleThreaded = true, enabled = false) //FIXME: sys_md_attributes spam
 	public void testUpdateSingleRefEntityIndexesLargeAmountOfReferencingEntities()
@@ -8,12 +8,14 @@ import org.molgenis.data.convert.StringToDateTimeConverter;
 import org.molgenis.data.elasticsearch.client.ElasticsearchConfig;
 import org.molgenis.data.file.FileRepositoryCollectionFactory;
 import org.molgenis.data.importer.DataPersisterImpl;
+import org.molgenis.data.lucene.LuceneConfig;
 import org.molgenis.data.platform.RepositoryCollectionDecoratorFactoryImpl;
 import org.molgenis.data.platform.config.PlatformConfig;
 import org.molgenis.data.populate.IdGeneratorImpl;
 import org.molgenis.data.postgresql.DatabaseConfig;
 import org.molgenis.data.postgresql.PostgreSqlConfiguration;
 import org.molgenis.data.postgresql.identifier.EntityTypeRegistryPopulator;
+import org.molgenis.data.security.FetchPushDownPolicyImpl;
 import org.molgenis.data.security.SystemEntityTypeRegistryImpl;
 import org.molgenis.data.security.permission.DataPermissionConfig;
 import org.molgenis.data.validation.ExpressionValidator;
@@ -81,8 +83,8 @@ import static org.molgenis.security.core.runas.SystemSecurityToken.ROLE_SYSTEM;
 		"org.molgenis.data.importer.emx", "org.molgenis.data.excel", "org.molgenis.util", "org.molgenis.settings",
 		"org.molgenis.data.util", "org.molgenis.data.decorator", "org.molgenis.data.event" })
 @Import({ SecurityCoreITConfig.class, PlatformBootstrapper.class, TestAppSettings.class, TestHarnessConfig.class,
-		EntityBaseTestConfig.class, DatabaseConfig.class, ElasticsearchConfig.class, PostgreSqlConfiguration.class,
-		RunAsSystemAspect.class, IdGeneratorImpl.class, ExpressionValidator.class, PlatformConfig.class,
+		EntityBaseTestConfig.class, DatabaseConfig.class, ElasticsearchConfig.class, LuceneConfig.class,
+		PostgreSqlConfiguration.class, RunAsSystemAspect.class, IdGeneratorImpl.class, ExpressionValidator.class, PlatformConfig.class,
 		OntologyTestConfig.class, JobConfig.class, org.molgenis.data.RepositoryCollectionRegistry.class,
 		RepositoryCollectionDecoratorFactoryImpl.class, DataSourceAclTablesPopulator.class,
 		org.molgenis.data.RepositoryCollectionBootstrapper.class, org.molgenis.data.EntityFactoryRegistrar.class,
@@ -95,7 +97,7 @@ import static org.molgenis.security.core.runas.SystemSecurityToken.ROLE_SYSTEM;
 		UserPermissionEvaluatorImpl.class, MolgenisRoleHierarchy.class, SystemRepositoryDecoratorFactoryRegistrar.class,
 		SemanticSearchConfig.class, OntologyConfig.class, JobExecutionConfig.class, JobFactoryRegistrar.class,
 		SystemEntityTypeRegistryImpl.class, ScriptTestConfig.class, AclConfig.class, MutableAclClassServiceImpl.class,
-		PermissionRegistry.class, DataPermissionConfig.class })
+		PermissionRegistry.class, DataPermissionConfig.class, FetchPushDownPolicyImpl.class })
 public class PlatformITConfig implements ApplicationListener<ContextRefreshedEvent>
 {
 	@Autowired
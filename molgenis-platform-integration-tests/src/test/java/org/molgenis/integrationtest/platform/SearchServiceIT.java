@@ -2,15 +2,18 @@ package org.molgenis.integrationtest.platform;
 
 import org.apache.lucene.search.Explanation;
 import org.molgenis.data.*;
-import org.molgenis.data.elasticsearch.ElasticsearchService;
+import org.molgenis.data.index.IndexService;
+import org.molgenis.data.index.SearchService;
 import org.molgenis.data.index.exception.UnknownIndexException;
 import org.molgenis.data.meta.model.EntityType;
 import org.molgenis.data.support.QueryImpl;
 import org.molgenis.semanticsearch.explain.bean.ExplainedQueryString;
 import org.molgenis.semanticsearch.explain.service.ElasticSearchExplainService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.testng.AbstractTestNGSpringContextTests;
+import org.testng.SkipException;
 import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.DataProvider;
@@ -28,6 +31,7 @@ import static java.util.Collections.*;
 import static java.util.stream.Collectors.toList;
 import static org.molgenis.data.EntityTestHarness.*;
 import static org.molgenis.data.QueryRule.Operator.*;
+import static org.molgenis.data.index.ConditionalOnSearchBackend.ELASTICSEARCH;
 import static org.molgenis.data.util.MolgenisDateFormat.parseInstant;
 import static org.molgenis.data.util.MolgenisDateFormat.parseLocalDate;
 import static org.testng.Assert.*;
@@ -41,19 +45,23 @@ public class SearchServiceIT extends AbstractTestNGSpringContextTests
 	@Autowired
 	private EntityTestHarness testHarness;
 	@Autowired
-	private ElasticsearchService searchService;
+	private SearchService searchService;
+	@Autowired
+	private IndexService indexService;
 	@Autowired
 	private ElasticSearchExplainService explainService;
+	@Value("${search.backend:elasticsearch}")
+	private String searchBackend;
 
 	@BeforeMethod
 	public void setUp()
 	{
-		searchService.refreshIndex();
+		indexService.refreshIndex();
 		refEntityTypeDynamic = testHarness.createDynamicRefEntityType("SearchServiceITRefEntityType");
 		entityTypeDynamic = testHarness.createDynamicTestEntityType(refEntityTypeDynamic, "SearchServiceITEntityType");
 
-		searchService.createIndex(refEntityTypeDynamic);
-		searchService.createIndex(entityTypeDynamic);
+		indexService.createIndex(refEntityTypeDynamic);
+		indexService.createIndex(entityTypeDynamic);
 	}
 
 	@AfterMethod
@@ -61,19 +69,19 @@ public class SearchServiceIT extends AbstractTestNGSpringContextTests
 	{
 		try
 		{
-			searchService.deleteIndex(entityTypeDynamic);
+			indexService.deleteIndex(entityTypeDynamic);
 		}
 		catch (UnknownIndexException e)
 		{ // silently ignore
 		}
 		try
 		{
-			searchService.deleteIndex(refEntityTypeDynamic);
+			indexService.deleteIndex(refEntityTypeDynamic);
 		}
 		catch (UnknownIndexException e)
 		{ // silently ignore
 		}
-		searchService.refreshIndex();
+		indexService.refreshIndex();
 	}
 
 	@Test
@@ -96,8 +104,8 @@ public class SearchServiceIT extends AbstractTestNGSpringContextTests
 		}
 		ontologyTerms.get(5).set(ATTR_CATEGORICAL, ontology2);
 
-		searchService.index(entityTypeDynamic, ontologyTerms.stream());
-		searchService.refreshIndex();
+		indexService.index(entityTypeDynamic, ontologyTerms.stream());
+		indexService.refreshIndex();
 
 		Query<Entity> query = new QueryImpl<>(new QueryRule(ATTR_XREF, FUZZY_MATCH, "\"0[0].1[1]\"")).and()
 																									 .eq(ATTR_CATEGORICAL,
@@ -110,6 +118,10 @@ public class SearchServiceIT extends AbstractTestNGSpringContextTests
 	@Test
 	public void testSemanticSearch()
 	{
+		if (!searchBackend.equals(ELASTICSEARCH))
+		{
+			throw new SkipException("Semantic search explanations require the Elasticsearch search backend");
+		}
 		List<Entity> attributes = createDynamic(6).collect(toList());
 		attributes.get(0).set(ATTR_STRING, "High chance of pulmonary disease");
 		attributes.get(1).set(ATTR_STRING, "And now for something completely different...");
@@ -126,8 +138,8 @@ public class SearchServiceIT extends AbstractTestNGSpringContextTests
 		}
 		attributes.get(5).set(ATTR_CATEGORICAL, ontology2);
 
-		searchService.index(entityTypeDynamic, attributes.stream());
-		searchService.refreshIndex();
+		indexService.index(entityTypeDynamic, attributes.stream());
+		indexService.refreshIndex();
 
 		List<String> queryTerms = asList("hypertension", "disorder vascular hypertensive", "increased pressure blood",
 				"high pressure blood", "ocular^0.5 hypertension^0.5",
@@ -209,8 +221,8 @@ public class SearchServiceIT extends AbstractTestNGSpringContextTests
 	{
 		Entity entity = createAndIndexEntities(1).get(0);
 
-		searchService.delete(entityTypeDynamic, entity);
-		searchService.refreshIndex();
+		indexService.delete(entityTypeDynamic, entity);
+		indexService.refreshIndex();
 		assertEquals(searchService.count(entityTypeDynamic), 0);
 	}
 
@@ -219,8 +231,8 @@ public class SearchServiceIT extends AbstractTestNGSpringContextTests
 	{
 		Entity entity = createAndIndexEntities(1).get(0);
 
-		searchService.deleteById(entityTypeDynamic, entity.getIdValue());
-		searchService.refreshIndex();
+		indexService.deleteById(entityTypeDynamic, entity.getIdValue());
+		indexService.refreshIndex();
 		assertEquals(searchService.count(entityTypeDynamic), 0);
 	}
 
@@ -229,8 +241,8 @@ public class SearchServiceIT extends AbstractTestNGSpringContextTests
 	{
 		List<Entity> entities = createAndIndexEntities(2);
 
-		searchService.delete(entityTypeDynamic, entities.stream());
-		searchService.refreshIndex();
+		indexService.delete(entityTypeDynamic, entities.stream());
+		indexService.refreshIndex();
 		assertEquals(searchService.count(entityTypeDynamic), 0);
 	}
 
@@ -239,8 +251,8 @@ public class SearchServiceIT extends AbstractTestNGSpringContextTests
 	{
 		createAndIndexEntities(5);
 
-		searchService.deleteIndex(entityTypeDynamic);
-		searchService.refreshIndex();
+		indexService.deleteIndex(entityTypeDynamic);
+		indexService.refreshIndex();
 		assertEquals(searchService.count(entityTypeDynamic), 0);
 	}
 
@@ -531,8 +543,8 @@ public class SearchServiceIT extends AbstractTestNGSpringContextTests
 		entities.get(1).set(ATTR_STRING, "cars in omaha");
 		entities.get(2).set(ATTR_STRING, "multiple carcinomas");
 		entities.get(3).set(ATTR_STRING, "and now for something completely different");
-		searchService.index(entityTypeDynamic, entities.stream());
-		searchService.refreshIndex();
+		indexService.index(entityTypeDynamic, entities.stream());
+		indexService.refreshIndex();
 
 		Query<Entity> query = new QueryImpl<>().search(ATTR_STRING, "carcinoma");
 		List<Object> foundIds = searchService.search(entityTypeDynamic, query).collect(toList());
@@ -548,8 +560,8 @@ public class SearchServiceIT extends AbstractTestNGSpringContextTests
 		entities.get(1).set(ATTR_STRING, "cars in omaha");
 		entities.get(2).set(ATTR_STRING, "multiple carcinomas");
 		entities.get(3).set(ATTR_STRING, "and now for something completely different");
-		searchService.index(entityTypeDynamic, entities.stream());
-		searchService.refreshIndex();
+		indexService.index(entityTypeDynamic, entities.stream());
+		indexService.refreshIndex();
 
 		Query<Entity> query = new QueryImpl<>().search(ATTR_STRING, "car carcinoma");
 		List<Object> foundIds = searchService.search(entityTypeDynamic, query).collect(toList());
@@ -593,15 +605,15 @@ public class SearchServiceIT extends AbstractTestNGSpringContextTests
 	private List<Entity> createAndIndexEntities(int count)
 	{
 		List<Entity> entities = createDynamic(count).collect(toList());
-		searchService.index(entityTypeDynamic, entities.stream());
-		searchService.refreshIndex();
+		indexService.index(entityTypeDynamic, entities.stream());
+		indexService.refreshIndex();
 		return entities;
 	}
 
 	private Stream<Entity> createDynamic(int count)
 	{
 		List<Entity> refEntities = testHarness.createTestRefEntities(refEntityTypeDynamic, 6);
-		searchService.index(refEntityTypeDynamic, refEntities.stream());
+		indexService.index(refEntityTypeDynamic, refEntities.stream());
 		return testHarness.createTestEntities(entityTypeDynamic, count, refEntities);
 	}
 }
@@ -31,4 +31,15 @@ public interface UserPermissionEvaluator
 	boolean hasPermission(ObjectIdentity objectIdentity, List<Permission> permissions);
 
 	Set<Permission> getPermissions(ObjectIdentity objectIdentity, Permission[] permissions);
+
+	/**
+	 * Returns the domain objects on which the currently authenticated user has a given {@link Permission}. The access
+	 * control lists of the domain objects are looked up in bulk.
+	 *
+	 * @param objectIdentities domain object identities
+	 * @param permission the {@link Permission} to check.
+	 * @return the domain object identities for which the permission is granted
+	 */
+	Set<ObjectIdentity> getPermittedObjectIdentities(List<? extends ObjectIdentity> objectIdentities,
+			Permission permission);
 }
@@ -1,25 +1,44 @@
 package org.molgenis.security.acl;
 
 import org.molgenis.data.transaction.DefaultMolgenisTransactionListener;
-import org.springframework.security.acls.model.AclCache;
+import org.molgenis.data.transaction.EntityTypeGenerations;
+import org.molgenis.security.permission.PermissionMemo;
 
 import static java.util.Objects.requireNonNull;
 
+/**
+ * Evicts the access control lists that were changed in a transaction from the ACL cache when the transaction
+ * completes. Access control lists that did not change stay cached. Committed changes increment the permission
+ * generation.
+ */
 public class AclCacheTransactionListener extends DefaultMolgenisTransactionListener
 {
-	private final AclCache aclCache;
+	private final TransactionalJdbcMutableAclService aclService;
 	private final MutableAclClassService aclClassService;
+	private final EntityTypeGenerations entityTypeGenerations;
 
-	public AclCacheTransactionListener(AclCache aclCache, MutableAclClassService aclClassService)
+	public AclCacheTransactionListener(TransactionalJdbcMutableAclService aclService,
+			MutableAclClassService aclClassService, EntityTypeGenerations entityTypeGenerations)
 	{
-		this.aclCache = requireNonNull(aclCache);
+		this.aclService = requireNonNull(aclService);
 		this.aclClassService = requireNonNull(aclClassService);
+		this.entityTypeGenerations = requireNonNull(entityTypeGenerations);
+	}
+
+	@Override
+	public void afterCommitTransaction(String transactionId)
+	{
+		if (aclService.evictChangedAcls(transactionId))
+		{
+			entityTypeGenerations.incrementPermissionGeneration();
+		}
 	}
 
 	@Override
 	public void rollbackTransaction(String transactionId)
 	{
-		aclCache.clearCache();
+		aclService.evictChangedAcls(transactionId);
 		aclClassService.clearCache();
+		PermissionMemo.clear();
 	}
 }
@@ -1,28 +1,44 @@
 package org.molgenis.security.acl;
 
+import org.molgenis.security.permission.PermissionMemo;
 import org.springframework.security.acls.jdbc.JdbcMutableAclService;
 import org.springframework.security.acls.jdbc.LookupStrategy;
 import org.springframework.security.acls.model.*;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import javax.sql.DataSource;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.util.Objects.requireNonNull;
+import static org.molgenis.data.transaction.TransactionManager.TRANSACTION_ID_RESOURCE_NAME;
 
 /**
  * {@link Transactional} {@link JdbcMutableAclService}.
+ * <p>
+ * Keeps track of the object identities of which the access control lists were changed in a transaction, so that only
+ * these are evicted from the {@link AclCache} when the transaction completes, see {@link #evictChangedAcls(String)}.
  */
 public class TransactionalJdbcMutableAclService extends JdbcMutableAclService
 {
+	private final AclCache aclCache;
+	private final Map<String, Set<ObjectIdentity>> changedObjectIdentities;
+
 	public TransactionalJdbcMutableAclService(DataSource dataSource, LookupStrategy lookupStrategy, AclCache aclCache)
 	{
 		super(dataSource, lookupStrategy, aclCache);
+		this.aclCache = requireNonNull(aclCache);
+		this.changedObjectIdentities = new ConcurrentHashMap<>();
 	}
 
 	@Transactional
 	@Override
 	public MutableAcl createAcl(ObjectIdentity objectIdentity)
 	{
+		registerChangedAcl(objectIdentity);
 		return super.createAcl(objectIdentity);
 	}
 
@@ -30,6 +46,7 @@ public class TransactionalJdbcMutableAclService extends JdbcMutableAclService
 	@Override
 	public void deleteAcl(ObjectIdentity objectIdentity, boolean deleteChildren)
 	{
+		registerChangedAcl(objectIdentity);
 		super.deleteAcl(objectIdentity, deleteChildren);
 	}
 
@@ -37,9 +54,39 @@ public class TransactionalJdbcMutableAclService extends JdbcMutableAclService
 	@Override
 	public MutableAcl updateAcl(MutableAcl acl)
 	{
+		registerChangedAcl(acl.getObjectIdentity());
 		return super.updateAcl(acl);
 	}
 
+	/**
+	 * Evicts the access control lists that were changed in the given transaction from the cache. Readers might have
+	 * cached the access control lists as they were before the transaction committed or rolled back.
+	 *
+	 * @return <tt>true</tt> if access control lists were changed in the given transaction, <tt>false</tt> otherwise
+	 */
+	public boolean evictChangedAcls(String transactionId)
+	{
+		Set<ObjectIdentity> objectIdentities = changedObjectIdentities.remove(transactionId);
+		if (objectIdentities == null)
+		{
+			return false;
+		}
+		objectIdentities.forEach(aclCache::evictFromCache);
+		return true;
+	}
+
+	private void registerChangedAcl(ObjectIdentity objectIdentity)
+	{
+		PermissionMemo.clear();
+
+		String transactionId = (String) TransactionSynchronizationManager.getResource(TRANSACTION_ID_RESOURCE_NAME);
+		if (transactionId != null)
+		{
+			changedObjectIdentities.computeIfAbsent(transactionId, id -> ConcurrentHashMap.newKeySet())
+								   .add(objectIdentity);
+		}
+	}
+
 	@Transactional(readOnly = true)
 	@Override
 	public List<ObjectIdentity> findChildren(ObjectIdentity parentIdentity)
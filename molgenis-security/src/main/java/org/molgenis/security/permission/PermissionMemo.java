@@ -0,0 +1,102 @@
+package org.molgenis.security.permission;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.auto.value.AutoValue;
+import org.molgenis.security.core.Permission;
+import org.springframework.security.acls.model.ObjectIdentity;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+import static org.springframework.web.context.request.RequestAttributes.SCOPE_REQUEST;
+
+/**
+ * Memoizes the permission evaluations of the current request, so that the access control list of a domain object is
+ * evaluated at most once per request for each user and permission. Evaluations outside of a request are not
+ * memoized. The number of memoized evaluations per request is bounded, so that requests that evaluate the permissions
+ * of many domain objects don't exhaust the memory.
+ */
+public class PermissionMemo
+{
+	private static final String ATTRIBUTE_NAME = PermissionMemo.class.getName();
+	private static final int MAX_SIZE = 10000;
+
+	private PermissionMemo()
+	{
+	}
+
+	static boolean computeIfAbsent(String username, ObjectIdentity objectIdentity, Permission permission,
+			BooleanSupplier permissionEvaluation)
+	{
+		Map<PermissionKey, Boolean> memo = getMemo();
+		if (memo == null)
+		{
+			return permissionEvaluation.getAsBoolean();
+		}
+
+		// evaluate outside of the map to avoid holding a lock while looking up access control lists
+		PermissionKey permissionKey = PermissionKey.create(username, objectIdentity, permission);
+		Boolean permitted = memo.get(permissionKey);
+		if (permitted == null)
+		{
+			permitted = permissionEvaluation.getAsBoolean();
+			memo.put(permissionKey, permitted);
+		}
+		return permitted;
+	}
+
+	static Boolean get(String username, ObjectIdentity objectIdentity, Permission permission)
+	{
+		Map<PermissionKey, Boolean> memo = getMemo();
+		return memo != null ? memo.get(PermissionKey.create(username, objectIdentity, permission)) : null;
+	}
+
+	/**
+	 * Forgets the permission evaluations of the current request, e.g. after an access control list changed.
+	 */
+	public static void clear()
+	{
+		RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+		if (requestAttributes != null)
+		{
+			requestAttributes.removeAttribute(ATTRIBUTE_NAME, SCOPE_REQUEST);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Map<PermissionKey, Boolean> getMemo()
+	{
+		RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+		if (requestAttributes == null)
+		{
+			return null;
+		}
+
+		Map<PermissionKey, Boolean> memo = (Map<PermissionKey, Boolean>) requestAttributes.getAttribute(
+				ATTRIBUTE_NAME, SCOPE_REQUEST);
+		if (memo == null)
+		{
+			memo = Caffeine.newBuilder().maximumSize(MAX_SIZE).<PermissionKey, Boolean>build().asMap();
+			requestAttributes.setAttribute(ATTRIBUTE_NAME, memo, SCOPE_REQUEST);
+		}
+		return memo;
+	}
+
+	@AutoValue
+	@SuppressWarnings("squid:S1610") // Abstract classes without fields should be converted to interfaces
+	abstract static class PermissionKey
+	{
+		abstract String getUsername();
+
+		abstract ObjectIdentity getObjectIdentity();
+
+		abstract Permission getPermission();
+
+		static PermissionKey create(String username, ObjectIdentity objectIdentity, Permission permission)
+		{
+			return new AutoValue_PermissionMemo_PermissionKey(username, objectIdentity, permission);
+		}
+	}
+}
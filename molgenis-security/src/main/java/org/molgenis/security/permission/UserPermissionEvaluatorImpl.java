@@ -7,28 +7,37 @@ import org.molgenis.security.core.UserPermissionEvaluator;
 import org.molgenis.security.core.utils.SecurityUtils;
 import org.springframework.security.access.PermissionEvaluator;
 import org.springframework.security.acls.domain.CumulativePermission;
-import org.springframework.security.acls.model.ObjectIdentity;
+import org.springframework.security.acls.domain.SidRetrievalStrategyImpl;
+import org.springframework.security.acls.jdbc.LookupStrategy;
+import org.springframework.security.acls.model.*;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 
-import java.util.Arrays;
-import java.util.List;
-import java.util.Set;
+import java.util.*;
 import java.util.stream.Collectors;
 
+import static java.util.Collections.singletonList;
 import static java.util.Objects.requireNonNull;
 
+/**
+ * {@link UserPermissionEvaluator} that memoizes permission evaluations per request, see {@link PermissionMemo}.
+ */
 @Component
 public class UserPermissionEvaluatorImpl implements UserPermissionEvaluator
 {
 	private final PermissionEvaluator permissionEvaluator;
 	private final PermissionRegistry permissionRegistry;
+	private final LookupStrategy lookupStrategy;
+	private final SidRetrievalStrategy sidRetrievalStrategy;
 
-	UserPermissionEvaluatorImpl(PermissionEvaluator permissionEvaluator, PermissionRegistry permissionRegistry)
+	UserPermissionEvaluatorImpl(PermissionEvaluator permissionEvaluator, PermissionRegistry permissionRegistry,
+			LookupStrategy lookupStrategy)
 	{
 		this.permissionEvaluator = requireNonNull(permissionEvaluator);
 		this.permissionRegistry = requireNonNull(permissionRegistry);
+		this.lookupStrategy = requireNonNull(lookupStrategy);
+		this.sidRetrievalStrategy = new SidRetrievalStrategyImpl();
 	}
 
 	@Override
@@ -41,8 +50,9 @@ public class UserPermissionEvaluatorImpl implements UserPermissionEvaluator
 		else
 		{
 			Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-			return authentication != null && permissionEvaluator.hasPermission(authentication,
-					objectIdentity.getIdentifier(), objectIdentity.getType(), getCumulativePermissionToCheck(action));
+			return authentication != null && PermissionMemo.computeIfAbsent(authentication.getName(), objectIdentity,
+					action, () -> permissionEvaluator.hasPermission(authentication, objectIdentity.getIdentifier(),
+							objectIdentity.getType(), getCumulativePermissionToCheck(action)));
 		}
 	}
 
@@ -60,6 +70,76 @@ public class UserPermissionEvaluatorImpl implements UserPermissionEvaluator
 					 .collect(Collectors.toSet());
 	}
 
+	@Override
+	public Set<ObjectIdentity> getPermittedObjectIdentities(List<? extends ObjectIdentity> objectIdentities,
+			Permission permission)
+	{
+		if (SecurityUtils.currentUserIsSuOrSystem())
+		{
+			return new LinkedHashSet<>(objectIdentities);
+		}
+
+		Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+		if (authentication == null)
+		{
+			return Collections.emptySet();
+		}
+		String username = authentication.getName();
+
+		Set<ObjectIdentity> permittedObjectIdentities = new LinkedHashSet<>();
+		List<ObjectIdentity> lookupObjectIdentities = new ArrayList<>();
+		for (ObjectIdentity objectIdentity : objectIdentities)
+		{
+			Boolean permitted = PermissionMemo.get(username, objectIdentity, permission);
+			if (permitted == null)
+			{
+				lookupObjectIdentities.add(objectIdentity);
+			}
+			else if (permitted)
+			{
+				permittedObjectIdentities.add(objectIdentity);
+			}
+		}
+
+		if (!lookupObjectIdentities.isEmpty())
+		{
+			List<Sid> sids = sidRetrievalStrategy.getSids(authentication);
+			List<org.springframework.security.acls.model.Permission> permissionsToCheck = singletonList(
+					getCumulativePermissionToCheck(permission));
+
+			// the lookup strategy reads the access control lists that are not cached in batches. the results are not
+			// memoized: streamed entities are looked up once and would only evict the memoized entity type permissions
+			Map<ObjectIdentity, Acl> acls = lookupStrategy.readAclsById(lookupObjectIdentities, sids);
+			for (ObjectIdentity objectIdentity : lookupObjectIdentities)
+			{
+				if (isGranted(acls.get(objectIdentity), permissionsToCheck, sids))
+				{
+					permittedObjectIdentities.add(objectIdentity);
+				}
+			}
+		}
+
+		return objectIdentities.stream().filter(permittedObjectIdentities::contains).collect(
+				Collectors.toCollection(LinkedHashSet::new));
+	}
+
+	private static boolean isGranted(Acl acl, List<org.springframework.security.acls.model.Permission> permissions,
+			List<Sid> sids)
+	{
+		if (acl == null)
+		{
+			return false;
+		}
+		try
+		{
+			return acl.isGranted(permissions, sids, false);
+		}
+		catch (NotFoundException e)
+		{
+			return false;
+		}
+	}
+
 	private CumulativePermission getCumulativePermissionToCheck(Permission permission)
 	{
 		CumulativePermission result = new CumulativePermission();
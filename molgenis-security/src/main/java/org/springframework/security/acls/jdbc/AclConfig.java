@@ -2,6 +2,7 @@ package org.springframework.security.acls.jdbc;
 
 import com.github.benmanes.caffeine.cache.Caffeine;
 import org.molgenis.data.config.DataSourceConfig;
+import org.molgenis.data.transaction.EntityTypeGenerations;
 import org.molgenis.data.transaction.TransactionManager;
 import org.molgenis.security.NoOpAuditLogger;
 import org.molgenis.security.acl.*;
@@ -20,7 +21,6 @@ import org.springframework.security.acls.domain.AclAuthorizationStrategyImpl;
 import org.springframework.security.acls.domain.AuditLogger;
 import org.springframework.security.acls.domain.SpringCacheBasedAclCache;
 import org.springframework.security.acls.model.AclCache;
-import org.springframework.security.acls.model.MutableAclService;
 import org.springframework.security.acls.model.PermissionGrantingStrategy;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -38,13 +38,16 @@ public class AclConfig
 {
 	private final DataSource dataSource;
 	private final TransactionManager transactionManager;
+	private final EntityTypeGenerations entityTypeGenerations;
 	@Autowired
 	JdbcTemplate jdbcTemplate;
 
-	public AclConfig(DataSource dataSource, TransactionManager transactionManager)
+	public AclConfig(DataSource dataSource, TransactionManager transactionManager,
+			EntityTypeGenerations entityTypeGenerations)
 	{
 		this.dataSource = requireNonNull(dataSource);
 		this.transactionManager = requireNonNull(transactionManager);
+		this.entityTypeGenerations = requireNonNull(entityTypeGenerations);
 	}
 
 	@Bean
@@ -78,8 +81,8 @@ public class AclConfig
 	@Bean
 	public AclCacheTransactionListener aclCacheTransactionListener()
 	{
-		AclCacheTransactionListener aclCacheTransactionListener = new AclCacheTransactionListener(aclCache(),
-				mutableAclClassService());
+		AclCacheTransactionListener aclCacheTransactionListener = new AclCacheTransactionListener(aclService(),
+				mutableAclClassService(), entityTypeGenerations);
 		transactionManager.addTransactionListener(aclCacheTransactionListener);
 		return aclCacheTransactionListener;
 	}
@@ -109,10 +112,10 @@ public class AclConfig
 	}
 
 	@Bean
-	public MutableAclService aclService()
+	public TransactionalJdbcMutableAclService aclService()
 	{
-		JdbcMutableAclService aclService = new TransactionalJdbcMutableAclService(dataSource, lookupStrategy(),
-				aclCache());
+		TransactionalJdbcMutableAclService aclService = new TransactionalJdbcMutableAclService(dataSource,
+				lookupStrategy(), aclCache());
 		aclService.setAclClassIdSupported(true);
 		aclService.setAclClassIdUtils(aclClassIdUtils());
 		aclService.setClassIdentityQuery("select currval(pg_get_serial_sequence('acl_class', 'id'))");
@@ -1,38 +1,60 @@
 package org.molgenis.security.acl;
 
 import org.mockito.Mock;
+import org.molgenis.data.transaction.EntityTypeGenerations;
 import org.molgenis.test.AbstractMockitoTest;
-import org.springframework.security.acls.model.AclCache;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
 
 public class AclCacheTransactionListenerTest extends AbstractMockitoTest
 {
 	@Mock
-	private AclCache aclCache;
+	private TransactionalJdbcMutableAclService aclService;
 	@Mock
 	private MutableAclClassService mutableAclClassService;
+	@Mock
+	private EntityTypeGenerations entityTypeGenerations;
 	private AclCacheTransactionListener aclCacheTransactionListener;
 
 	@BeforeMethod
 	public void setUpBeforeMethod()
 	{
-		aclCacheTransactionListener = new AclCacheTransactionListener(aclCache, mutableAclClassService);
+		aclCacheTransactionListener = new AclCacheTransactionListener(aclService, mutableAclClassService,
+				entityTypeGenerations);
 	}
 
 	@Test(expectedExceptions = NullPointerException.class)
 	public void testAclCacheTransactionListener()
 	{
-		new AclCacheTransactionListener(null, mutableAclClassService);
+		new AclCacheTransactionListener(null, mutableAclClassService, entityTypeGenerations);
+	}
+
+	@Test
+	public void testAfterCommitTransaction()
+	{
+		when(aclService.evictChangedAcls("transactionId")).thenReturn(true);
+		aclCacheTransactionListener.afterCommitTransaction("transactionId");
+		verify(entityTypeGenerations).incrementPermissionGeneration();
+		verifyZeroInteractions(mutableAclClassService);
+	}
+
+	@Test
+	public void testAfterCommitTransactionAclsUnchanged()
+	{
+		aclCacheTransactionListener.afterCommitTransaction("transactionId");
+		verify(aclService).evictChangedAcls("transactionId");
+		verifyZeroInteractions(entityTypeGenerations);
 	}
 
 	@Test
 	public void testRollbackTransaction()
 	{
 		aclCacheTransactionListener.rollbackTransaction("transactionId");
-		verify(aclCache).clearCache();
+		verify(aclService).evictChangedAcls("transactionId");
 		verify(mutableAclClassService).clearCache();
 	}
-}
\ No newline at end of file
+}
@@ -1,5 +1,6 @@
 package org.molgenis.security.permission;
 
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import org.mockito.Mock;
 import org.molgenis.data.plugin.model.PluginIdentity;
@@ -8,21 +9,32 @@ import org.molgenis.data.security.EntityTypeIdentity;
 import org.molgenis.data.security.EntityTypePermission;
 import org.molgenis.security.core.PermissionRegistry;
 import org.molgenis.test.AbstractMockitoTestNGSpringContextTests;
+import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.security.access.PermissionEvaluator;
 import org.springframework.security.acls.domain.CumulativePermission;
+import org.springframework.security.acls.jdbc.LookupStrategy;
+import org.springframework.security.acls.model.Acl;
+import org.springframework.security.acls.model.NotFoundException;
+import org.springframework.security.acls.model.ObjectIdentity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.security.test.context.support.WithSecurityContextTestExecutionListener;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.TestExecutionListeners;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
-import static org.mockito.Mockito.when;
+import static java.util.Arrays.asList;
+import static java.util.Collections.singleton;
+import static java.util.Collections.singletonList;
+import static org.mockito.Mockito.*;
 import static org.molgenis.data.plugin.model.PluginPermission.VIEW_PLUGIN;
 import static org.molgenis.data.security.EntityTypePermission.READ_DATA;
 import static org.molgenis.security.core.PermissionSet.*;
+import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertTrue;
 
@@ -34,13 +46,16 @@ public class UserPermissionEvaluatorImplTest extends AbstractMockitoTestNGSpring
 	private PermissionEvaluator permissionEvaluator;
 	@Mock
 	private PermissionRegistry permissionRegistry;
+	@Mock
+	private LookupStrategy lookupStrategy;
 
 	private UserPermissionEvaluatorImpl userPermissionEvaluator;
 
 	@BeforeMethod
 	public void setUpBeforeMethod()
 	{
-		userPermissionEvaluator = new UserPermissionEvaluatorImpl(permissionEvaluator, permissionRegistry);
+		userPermissionEvaluator = new UserPermissionEvaluatorImpl(permissionEvaluator, permissionRegistry,
+				lookupStrategy);
 	}
 
 	@WithMockUser(username = "USER")
@@ -179,6 +194,84 @@ public class UserPermissionEvaluatorImplTest extends AbstractMockitoTestNGSpring
 		assertTrue(userPermissionEvaluator.hasPermission(new PluginIdentity("plugin1"), VIEW_PLUGIN));
 	}
 
+	@WithMockUser(username = "USER")
+	@Test
+	public void getPermittedObjectIdentities()
+	{
+		ObjectIdentity objectIdentity0 = new EntityTypeIdentity("entityType0");
+		ObjectIdentity objectIdentity1 = new EntityTypeIdentity("entityType1");
+		ObjectIdentity objectIdentity2 = new EntityTypeIdentity("entityType2");
+		when(permissionRegistry.getPermissions(READ_DATA)).thenReturn(ImmutableSet.of(READ));
+		Acl acl0 = mock(Acl.class);
+		when(acl0.isGranted(eq(singletonList(new CumulativePermission().set(READ))), any(), eq(false))).thenReturn(
+				true);
+		Acl acl1 = mock(Acl.class);
+		when(acl1.isGranted(any(), any(), eq(false))).thenThrow(new NotFoundException("no ace"));
+		when(lookupStrategy.readAclsById(eq(asList(objectIdentity0, objectIdentity1, objectIdentity2)),
+				any())).thenReturn(ImmutableMap.of(objectIdentity0, acl0, objectIdentity1, acl1));
+		assertEquals(userPermissionEvaluator.getPermittedObjectIdentities(
+				asList(objectIdentity0, objectIdentity1, objectIdentity2), READ_DATA), singleton(objectIdentity0));
+	}
+
+	@WithMockUser(username = "USER", authorities = { "ROLE_SU" })
+	@Test
+	public void getPermittedObjectIdentitiesSuperuser()
+	{
+		ObjectIdentity objectIdentity0 = new EntityTypeIdentity("entityType0");
+		ObjectIdentity objectIdentity1 = new EntityTypeIdentity("entityType1");
+		assertEquals(userPermissionEvaluator.getPermittedObjectIdentities(asList(objectIdentity0, objectIdentity1),
+				READ_DATA), ImmutableSet.of(objectIdentity0, objectIdentity1));
+		verifyZeroInteractions(lookupStrategy);
+	}
+
+	@WithMockUser(username = "USER")
+	@Test
+	public void getPermittedObjectIdentitiesNotMemoized()
+	{
+		RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+		try
+		{
+			ObjectIdentity objectIdentity = new EntityTypeIdentity("entityType0");
+			when(permissionRegistry.getPermissions(READ_DATA)).thenReturn(ImmutableSet.of(READ));
+			Acl acl = mock(Acl.class);
+			when(acl.isGranted(eq(singletonList(new CumulativePermission().set(READ))), any(), eq(false))).thenReturn(
+					true);
+			when(lookupStrategy.readAclsById(eq(singletonList(objectIdentity)), any())).thenReturn(
+					ImmutableMap.of(objectIdentity, acl));
+			assertEquals(userPermissionEvaluator.getPermittedObjectIdentities(singletonList(objectIdentity), READ_DATA),
+					singleton(objectIdentity));
+			assertEquals(userPermissionEvaluator.getPermittedObjectIdentities(singletonList(objectIdentity), READ_DATA),
+					singleton(objectIdentity));
+			verify(lookupStrategy, times(2)).readAclsById(eq(singletonList(objectIdentity)), any());
+		}
+		finally
+		{
+			RequestContextHolder.resetRequestAttributes();
+		}
+	}
+
+	@WithMockUser(username = "USER")
+	@Test
+	public void hasPermissionMemoizedPerRequest()
+	{
+		RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+		try
+		{
+			Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+			when(permissionRegistry.getPermissions(READ_DATA)).thenReturn(ImmutableSet.of(READ));
+			when(permissionEvaluator.hasPermission(authentication, "entityType0", "entityType",
+					new CumulativePermission().set(READ))).thenReturn(true);
+			assertTrue(userPermissionEvaluator.hasPermission(new EntityTypeIdentity("entityType0"), READ_DATA));
+			assertTrue(userPermissionEvaluator.hasPermission(new EntityTypeIdentity("entityType0"), READ_DATA));
+			verify(permissionEvaluator, times(1)).hasPermission(authentication, "entityType0", "entityType",
+					new CumulativePermission().set(READ));
+		}
+		finally
+		{
+			RequestContextHolder.resetRequestAttributes();
+		}
+	}
+
 	static class Config
 	{
 	}
@@ -48,7 +48,10 @@ public class SemanticSearchConfig
 	@Autowired
 	TagFactory tagFactory;
 
-	@Autowired
+	/**
+	 * <code>null</code> if Elasticsearch is not the selected search backend
+	 */
+	@Autowired(required = false)
 	ElasticsearchService elasticsearchService;
 
 	@Bean
@@ -9,12 +9,14 @@ import org.molgenis.semanticsearch.explain.bean.ExplainedQueryString;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.Nullable;
 import java.util.Comparator;
 import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 
+import static java.util.Collections.emptySet;
 import static java.util.Objects.requireNonNull;
 
 public class ElasticSearchExplainServiceImpl implements ElasticSearchExplainService
@@ -24,15 +26,23 @@ public class ElasticSearchExplainServiceImpl implements ElasticSearchExplainServ
 	private final ElasticsearchService elasticsearchService;
 	private final ExplainServiceHelper explainServiceHelper;
 
-	public ElasticSearchExplainServiceImpl(ElasticsearchService elasticsearchService,
+	/**
+	 * @param elasticsearchService Elasticsearch service or <code>null</code> if Elasticsearch is not the selected
+	 *                             search backend, in which case queries are not explained
+	 */
+	public ElasticSearchExplainServiceImpl(@Nullable ElasticsearchService elasticsearchService,
 			ExplainServiceHelper explainServiceHelper)
 	{
-		this.elasticsearchService = requireNonNull(elasticsearchService);
+		this.elasticsearchService = elasticsearchService;
 		this.explainServiceHelper = requireNonNull(explainServiceHelper);
 	}
 
 	public Explanation explain(Query<Entity> q, EntityType entityType, Object entityId)
 	{
+		if (elasticsearchService == null)
+		{
+			return null;
+		}
 		Explanation explanation = elasticsearchService.explain(entityType, entityId, q);
 		if (explanation != null)
 		{
@@ -47,8 +57,12 @@ public class ElasticSearchExplainServiceImpl implements ElasticSearchExplainServ
 	}
 
 	public Set<ExplainedQueryString> findQueriesFromExplanation(Map<String, String> originalQueryInMap,
-			Explanation explanation)
+			@Nullable Explanation explanation)
 	{
+		if (explanation == null)
+		{
+			return emptySet();
+		}
 		Set<ExplainedQueryString> matchedQueryStrings = new LinkedHashSet<>();
 		Set<String> matchedQueryTerms = explainServiceHelper.findMatchedWords(explanation);
 		for (String matchedQueryTerm : matchedQueryTerms)
@@ -1,7 +1,9 @@
 package org.molgenis.semanticsearch.explain.service;
 
 import org.apache.lucene.search.Explanation;
+import org.molgenis.data.Query;
 import org.molgenis.data.elasticsearch.ElasticsearchService;
+import org.molgenis.data.meta.model.EntityType;
 import org.molgenis.semanticsearch.explain.bean.ExplainedQueryString;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
@@ -13,6 +15,7 @@ import java.util.Set;
 
 import static org.mockito.Mockito.mock;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
 import static org.testng.Assert.assertTrue;
 
 public class ElasticSearchExplainServiceImplTest
@@ -137,4 +140,13 @@ public class ElasticSearchExplainServiceImplTest
 		assertEquals((int) second.getScore(), 100);
 
 	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void testExplainWithoutElasticsearch()
+	{
+		ElasticSearchExplainService explainService = new ElasticSearchExplainServiceImpl(null, explainServiceHelper);
+		assertNull(explainService.explain(mock(Query.class), mock(EntityType.class), "id"));
+		assertTrue(explainService.findQueriesFromExplanation(new HashMap<>(), null).isEmpty());
+	}
 }